@@ -0,0 +1,171 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.benchmark;
+
+import rapaio.experiment.io.json.JsonUtil;
+import rapaio.experiment.io.json.tree.JsonValue;
+import rapaio.printer.DefaultPrintable;
+import rapaio.printer.format.TextTable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the results of a benchmark run against a stored baseline. Both files
+ * are JMH results in json format. Results are matched by benchmark name and parameters.
+ * <p>
+ * A result is a regression when it is worse than the baseline by more than the relative
+ * threshold and the difference is larger than the sum of the score errors. For throughput
+ * benchmarks higher scores are better, for all other modes lower scores are better.
+ */
+public class BaselineComparison implements DefaultPrintable {
+
+    public static BaselineComparison of(File baseline, File current, double threshold) throws IOException {
+        return new BaselineComparison(load(baseline), load(current), threshold);
+    }
+
+    private final List<Row> rows = new ArrayList<>();
+    private final double threshold;
+
+    private BaselineComparison(Map<String, Result> baseline, Map<String, Result> current, double threshold) {
+        this.threshold = threshold;
+        for (Map.Entry<String, Result> e : current.entrySet()) {
+            Result base = baseline.get(e.getKey());
+            if (base != null) {
+                rows.add(new Row(e.getKey(), base, e.getValue(), threshold));
+            }
+        }
+    }
+
+    /**
+     * @return relative change of each matched benchmark, positive values meaning worse results
+     */
+    public Map<String, Double> changes() {
+        Map<String, Double> changes = new LinkedHashMap<>();
+        rows.forEach(row -> changes.put(row.key, row.change));
+        return changes;
+    }
+
+    /**
+     * @return keys of benchmarks which regressed against the baseline
+     */
+    public List<String> regressions() {
+        return rows.stream().filter(row -> row.regression).map(row -> row.key).collect(Collectors.toList());
+    }
+
+    @Override
+    public String summary() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Benchmark comparison against baseline, threshold: ")
+                .append(Math.round(threshold * 100)).append("%\n\n");
+        TextTable tt = TextTable.empty(rows.size() + 1, 6, 1, 0);
+        tt.textLeft(0, 0, "benchmark");
+        tt.textRight(0, 1, "baseline");
+        tt.textRight(0, 2, "current");
+        tt.textLeft(0, 3, "unit");
+        tt.textRight(0, 4, "change");
+        tt.textLeft(0, 5, "");
+        for (int i = 0; i < rows.size(); i++) {
+            Row row = rows.get(i);
+            tt.textLeft(i + 1, 0, row.key);
+            tt.floatFlex(i + 1, 1, row.baseline.score);
+            tt.floatFlex(i + 1, 2, row.current.score);
+            tt.textLeft(i + 1, 3, row.current.unit);
+            tt.textRight(i + 1, 4, String.format("%+.1f%%", row.change * 100));
+            tt.textLeft(i + 1, 5, row.regression ? "REGRESSION" : "");
+        }
+        sb.append(tt.getDefaultText());
+        sb.append("\nregressions: ").append(regressions().size()).append(" of ").append(rows.size()).append("\n");
+        return sb.toString();
+    }
+
+    static Map<String, Result> load(File file) throws IOException {
+        String text = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        Map<String, Result> results = new LinkedHashMap<>();
+        for (JsonValue js : JsonUtil.parseText(text).valueList()) {
+            List<String> params = new ArrayList<>();
+            JsonValue jsParams = js.get("params");
+            for (String name : jsParams.keyList()) {
+                params.add(name + "=" + jsParams.asString(name).orElse(""));
+            }
+            Collections.sort(params);
+            String key = js.asString("benchmark").orElse("");
+            if (!params.isEmpty()) {
+                key += "{" + String.join(",", params) + "}";
+            }
+            JsonValue metric = js.get("primaryMetric");
+            results.put(key, new Result(
+                    js.asString("mode").orElse(""),
+                    metric.asDouble("score").orElse(Double.NaN),
+                    metric.asDouble("scoreError").orElse(Double.NaN),
+                    metric.asString("scoreUnit").orElse("")));
+        }
+        return results;
+    }
+
+    static final class Result {
+        final String mode;
+        final double score;
+        final double error;
+        final String unit;
+
+        Result(String mode, double score, double error, String unit) {
+            this.mode = mode;
+            this.score = score;
+            this.error = Double.isNaN(error) ? 0 : error;
+            this.unit = unit;
+        }
+    }
+
+    private static final class Row {
+        final String key;
+        final Result baseline;
+        final Result current;
+        final double change;
+        final boolean regression;
+
+        Row(String key, Result baseline, Result current, double threshold) {
+            this.key = key;
+            this.baseline = baseline;
+            this.current = current;
+            double diff = "thrpt".equals(current.mode)
+                    ? baseline.score - current.score
+                    : current.score - baseline.score;
+            this.change = diff / baseline.score;
+            this.regression = change > threshold && Math.abs(diff) > baseline.error + current.error;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.io.IOException;
+
+import static rapaio.sys.WS.println;
+
+/**
+ * Runs the benchmarks and compares the results with a stored baseline.
+ * <p>
+ * Arguments:
+ * <ul>
+ * <li>-include regex: benchmarks to run, by default all</li>
+ * <li>-p name=v1,v2: overrides parameter values, for example -p rows=1000 for a quick run</li>
+ * <li>-result file: json file where results are written, by default benchmark-result.json</li>
+ * <li>-baseline file: json results of a previous run used for comparison</li>
+ * <li>-threshold value: relative change which is reported as regression, by default 0.1</li>
+ * </ul>
+ * The process exits with status 1 if any regression against the baseline is found.
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        String include = ".*";
+        String result = "benchmark-result.json";
+        String baseline = null;
+        double threshold = 0.1;
+        ChainedOptionsBuilder options = new OptionsBuilder();
+
+        for (int i = 0; i < args.length; i += 2) {
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value for argument " + args[i]);
+            }
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "-include":
+                    include = value;
+                    break;
+                case "-p":
+                    int pos = value.indexOf('=');
+                    if (pos <= 0) {
+                        throw new IllegalArgumentException("Parameter should be given as name=v1,v2: " + value);
+                    }
+                    options = options.param(value.substring(0, pos), value.substring(pos + 1).split(","));
+                    break;
+                case "-result":
+                    result = value;
+                    break;
+                case "-baseline":
+                    baseline = value;
+                    break;
+                case "-threshold":
+                    threshold = Double.parseDouble(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+
+        new Runner(options
+                .include(include)
+                .resultFormat(ResultFormatType.JSON)
+                .result(result)
+                .build()).run();
+
+        if (baseline != null) {
+            BaselineComparison comparison = BaselineComparison.of(new File(baseline), new File(result), threshold);
+            println(comparison.summary());
+            if (!comparison.regressions().isEmpty()) {
+                System.exit(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import rapaio.data.Frame;
+import rapaio.ml.classifier.CPrediction;
+import rapaio.ml.classifier.Classifier;
+import rapaio.ml.classifier.svm.BinarySMO;
+import rapaio.ml.classifier.svm.kernel.Kernel;
+import rapaio.ml.classifier.svm.kernel.PolyKernel;
+import rapaio.ml.classifier.svm.kernel.RBFKernel;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fitting and prediction of binary support vector machines with linear and rbf kernels.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+public class BinarySMOBenchmark {
+
+    @Param({"500", "2000"})
+    private int rows;
+
+    @Param({"linear", "rbf"})
+    private String kernel;
+
+    private Frame df;
+    private BinarySMO smo;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        df = SyntheticData.classification(rows, 10, 0, 2, 42);
+        Kernel k = "rbf".equals(kernel) ? new RBFKernel(1.0) : new PolyKernel(1);
+        smo = new BinarySMO().withKernel(k).withC(1.0);
+        smo.fit(df, SyntheticData.TARGET);
+    }
+
+    @Benchmark
+    public Classifier fit() {
+        return smo.newInstance().fit(df, SyntheticData.TARGET);
+    }
+
+    @Benchmark
+    public CPrediction predict() {
+        return smo.predict(df, true, true);
+    }
+}
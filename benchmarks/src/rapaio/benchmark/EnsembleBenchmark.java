@@ -0,0 +1,134 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import rapaio.data.Frame;
+import rapaio.ml.classifier.CPrediction;
+import rapaio.ml.classifier.Classifier;
+import rapaio.ml.classifier.boost.GBTClassifier;
+import rapaio.ml.classifier.ensemble.CForest;
+import rapaio.ml.regression.RPrediction;
+import rapaio.ml.regression.Regression;
+import rapaio.ml.regression.boost.GBTRegression;
+import rapaio.ml.regression.ensemble.RForest;
+import rapaio.ml.regression.tree.RTree;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fitting and prediction of tree ensembles: random forests and gradient boosting
+ * for classification and regression.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+public class EnsembleBenchmark {
+
+    private static final int RUNS = 20;
+
+    @Param({"1000", "10000"})
+    private int rows;
+
+    private Frame cdf;
+    private Frame rdf;
+    private CForest cforest;
+    private GBTClassifier gbtc;
+    private RForest rforest;
+    private GBTRegression gbtr;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        cdf = SyntheticData.classification(rows, 10, 5, 3, 42);
+        rdf = SyntheticData.regression(rows, 10, 5, 42);
+
+        cforest = CForest.newRF().withRuns(RUNS).withRunPoolSize(-1);
+        cforest.fit(cdf, SyntheticData.TARGET);
+        gbtc = GBTClassifier.newGBT().withRuns(RUNS);
+        gbtc.fit(cdf, SyntheticData.TARGET);
+        rforest = RForest.newRF().withRegression(RTree.newCART().withMaxDepth(10));
+        rforest.withRuns(RUNS);
+        rforest.fit(rdf, SyntheticData.TARGET);
+        gbtr = new GBTRegression().withRuns(RUNS);
+        gbtr.fit(rdf, SyntheticData.TARGET);
+    }
+
+    @Benchmark
+    public Classifier cForestFit() {
+        return cforest.newInstance().fit(cdf, SyntheticData.TARGET);
+    }
+
+    @Benchmark
+    public CPrediction cForestPredict() {
+        return cforest.predict(cdf, true, true);
+    }
+
+    @Benchmark
+    public Classifier gbtClassifierFit() {
+        return gbtc.newInstance().fit(cdf, SyntheticData.TARGET);
+    }
+
+    @Benchmark
+    public CPrediction gbtClassifierPredict() {
+        return gbtc.predict(cdf, true, true);
+    }
+
+    @Benchmark
+    public Regression rForestFit() {
+        return rforest.newInstance().withRuns(RUNS).fit(rdf, SyntheticData.TARGET);
+    }
+
+    @Benchmark
+    public RPrediction rForestPredict() {
+        return rforest.predict(rdf, false);
+    }
+
+    @Benchmark
+    public Regression gbtRegressionFit() {
+        return gbtr.newInstance().fit(rdf, SyntheticData.TARGET);
+    }
+
+    @Benchmark
+    public RPrediction gbtRegressionPredict() {
+        return gbtr.predict(rdf, false);
+    }
+}
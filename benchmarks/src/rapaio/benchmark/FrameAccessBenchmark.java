@@ -0,0 +1,147 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import rapaio.data.Frame;
+import rapaio.data.Mapping;
+import rapaio.data.Var;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sums all numeric values of a frame through the different access patterns
+ * offered by {@link Frame} and {@link Var}, on solid and on mapped frames.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class FrameAccessBenchmark {
+
+    private static final int COLS = 10;
+
+    @Param({"100000", "1000000"})
+    private int rows;
+
+    @Param({"solid", "mapped"})
+    private String layout;
+
+    private Frame df;
+    private String[] names;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Frame solid = SyntheticData.regression(rows, COLS, 0, 42);
+        if ("mapped".equals(layout)) {
+            int[] mapping = new int[rows];
+            Random random = new Random(42);
+            for (int i = 0; i < rows; i++) {
+                mapping[i] = random.nextInt(rows);
+            }
+            df = solid.mapRows(Mapping.wrap(mapping));
+        } else {
+            df = solid;
+        }
+        names = new String[COLS];
+        for (int j = 0; j < COLS; j++) {
+            names[j] = "x" + j;
+        }
+    }
+
+    @Benchmark
+    public double frameByIndex() {
+        double sum = 0;
+        for (int j = 0; j < COLS; j++) {
+            for (int i = 0; i < df.rowCount(); i++) {
+                sum += df.getDouble(i, j);
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double frameByName() {
+        double sum = 0;
+        for (String name : names) {
+            for (int i = 0; i < df.rowCount(); i++) {
+                sum += df.getDouble(i, name);
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double frameRowMajor() {
+        double sum = 0;
+        for (int i = 0; i < df.rowCount(); i++) {
+            for (int j = 0; j < COLS; j++) {
+                sum += df.getDouble(i, j);
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double varGetDouble() {
+        double sum = 0;
+        for (int j = 0; j < COLS; j++) {
+            Var var = df.rvar(j);
+            for (int i = 0; i < var.rowCount(); i++) {
+                sum += var.getDouble(i);
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double varDoubleArray() {
+        double sum = 0;
+        for (int j = 0; j < COLS; j++) {
+            double[] values = df.rvar(j).doubleArray();
+            for (double value : values) {
+                sum += value;
+            }
+        }
+        return sum;
+    }
+}
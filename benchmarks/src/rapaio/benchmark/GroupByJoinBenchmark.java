@@ -0,0 +1,91 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import rapaio.data.Frame;
+import rapaio.data.VRange;
+import rapaio.experiment.data.groupby.GroupBy;
+import rapaio.experiment.data.join.Join;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group by aggregations and left joins on frames keyed by a nominal variable.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class GroupByJoinBenchmark {
+
+    @Param({"10000", "100000"})
+    private int rows;
+
+    @Param({"10", "1000"})
+    private int keys;
+
+    private Frame df;
+    private Frame lookup;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        df = SyntheticData.keyed(rows, keys, 42);
+        lookup = SyntheticData.lookup(keys, 43);
+    }
+
+    @Benchmark
+    public GroupBy groupByIndex() {
+        return GroupBy.from(df, "key");
+    }
+
+    @Benchmark
+    public Frame groupByAggregate() {
+        return GroupBy.from(df, "key")
+                .aggregate(VRange.of("value", "weight"), GroupBy.count(), GroupBy.mean(), GroupBy.std())
+                .toFrame();
+    }
+
+    @Benchmark
+    public Frame leftJoin() {
+        return Join.leftJoin(df, lookup, VRange.of("key"));
+    }
+}
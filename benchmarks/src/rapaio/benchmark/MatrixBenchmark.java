@@ -0,0 +1,121 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import rapaio.math.linear.RM;
+import rapaio.math.linear.dense.CholeskyDecomposition;
+import rapaio.math.linear.dense.EigenDecomposition;
+import rapaio.math.linear.dense.LUDecomposition;
+import rapaio.math.linear.dense.MatrixMultiplication;
+import rapaio.math.linear.dense.QRDecomposition;
+import rapaio.math.linear.dense.SVDecomposition;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dense matrix multiplication and decompositions on square matrices.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class MatrixBenchmark {
+
+    @Param({"64", "256", "512"})
+    private int n;
+
+    private RM a;
+    private RM b;
+    private RM spd;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        a = SyntheticData.matrix(n, n, 42);
+        b = SyntheticData.matrix(n, n, 43);
+        spd = SyntheticData.spdMatrix(n, 44);
+    }
+
+    @Benchmark
+    public RM multiplyIkj() {
+        return MatrixMultiplication.ikjAlgorithm(a, b);
+    }
+
+    @Benchmark
+    public RM multiplyIkjParallel() {
+        return MatrixMultiplication.ikjParallel(a, b);
+    }
+
+    @Benchmark
+    public RM multiplyTiled() {
+        return MatrixMultiplication.tiledAlgorithm(a, b);
+    }
+
+    @Benchmark
+    public RM multiplyDot() {
+        return a.dot(b);
+    }
+
+    @Benchmark
+    public QRDecomposition qr() {
+        return QRDecomposition.from(a);
+    }
+
+    @Benchmark
+    public LUDecomposition lu() {
+        return LUDecomposition.from(a);
+    }
+
+    @Benchmark
+    public CholeskyDecomposition cholesky() {
+        return CholeskyDecomposition.from(spd);
+    }
+
+    @Benchmark
+    public SVDecomposition svd() {
+        return SVDecomposition.from(a);
+    }
+
+    @Benchmark
+    public EigenDecomposition eigenSymmetric() {
+        return EigenDecomposition.from(spd);
+    }
+}
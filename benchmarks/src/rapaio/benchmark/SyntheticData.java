@@ -0,0 +1,187 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.benchmark;
+
+import rapaio.data.Frame;
+import rapaio.data.SolidFrame;
+import rapaio.data.Var;
+import rapaio.data.VarDouble;
+import rapaio.data.VarNominal;
+import rapaio.math.linear.RM;
+import rapaio.math.linear.dense.SolidRM;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic synthetic data generators used by benchmarks. Each generator
+ * receives a seed, so that the same data is produced for baseline and current runs.
+ */
+public final class SyntheticData {
+
+    public static final String TARGET = "y";
+
+    private static final String[] LEVELS = {"a", "b", "c", "d", "e"};
+
+    private SyntheticData() {
+    }
+
+    /**
+     * Builds a classification frame with numeric inputs x0, x1, .., nominal inputs n0, n1, ..
+     * and a nominal target {@link #TARGET} with labels c0, c1, .. obtained from a noisy
+     * linear score over inputs.
+     */
+    public static Frame classification(int rows, int numCols, int nomCols, int classes, long seed) {
+        Random random = new Random(seed);
+        List<Var> vars = inputs(random, rows, numCols, nomCols);
+        String[] labels = new String[classes];
+        for (int i = 0; i < classes; i++) {
+            labels[i] = "c" + i;
+        }
+        double[] score = score(random, vars, rows);
+        VarNominal target = VarNominal.empty(rows, labels).withName(TARGET);
+        for (int i = 0; i < rows; i++) {
+            double p = (Math.tanh(score[i] / 2) + 1) / 2;
+            target.setLabel(i, labels[Math.min(classes - 1, (int) Math.floor(p * classes))]);
+        }
+        vars.add(target);
+        return SolidFrame.byVars(vars);
+    }
+
+    /**
+     * Builds a regression frame with numeric inputs x0, x1, .., nominal inputs n0, n1, ..
+     * and a numeric target {@link #TARGET} obtained from a noisy non linear score over inputs.
+     */
+    public static Frame regression(int rows, int numCols, int nomCols, long seed) {
+        Random random = new Random(seed);
+        List<Var> vars = inputs(random, rows, numCols, nomCols);
+        double[] score = score(random, vars, rows);
+        if (numCols > 0) {
+            for (int i = 0; i < rows; i++) {
+                score[i] += 2 * Math.sin(vars.get(0).getDouble(i));
+            }
+        }
+        vars.add(VarDouble.wrap(score).withName(TARGET));
+        return SolidFrame.byVars(vars);
+    }
+
+    /**
+     * Builds a frame with a nominal variable key with the given number of distinct
+     * values named k0, k1, .. and two numeric variables value and weight.
+     */
+    public static Frame keyed(int rows, int keys, long seed) {
+        Random random = new Random(seed);
+        String[] dict = new String[keys];
+        for (int i = 0; i < keys; i++) {
+            dict[i] = "k" + i;
+        }
+        VarNominal key = VarNominal.empty(rows, dict).withName("key");
+        VarDouble value = VarDouble.empty(rows).withName("value");
+        VarDouble weight = VarDouble.empty(rows).withName("weight");
+        for (int i = 0; i < rows; i++) {
+            key.setLabel(i, dict[random.nextInt(keys)]);
+            value.setDouble(i, random.nextGaussian());
+            weight.setDouble(i, random.nextDouble());
+        }
+        return SolidFrame.byVars(key, value, weight);
+    }
+
+    /**
+     * Builds a lookup frame with one row for each key built by {@link #keyed(int, int, long)}
+     * and a numeric variable attr.
+     */
+    public static Frame lookup(int keys, long seed) {
+        Random random = new Random(seed);
+        VarNominal key = VarNominal.empty().withName("key");
+        VarDouble attr = VarDouble.empty(keys).withName("attr");
+        for (int i = 0; i < keys; i++) {
+            key.addLabel("k" + i);
+            attr.setDouble(i, random.nextDouble());
+        }
+        return SolidFrame.byVars(key, attr);
+    }
+
+    /**
+     * Builds a matrix with values from a standard normal distribution.
+     */
+    public static RM matrix(int rows, int cols, long seed) {
+        Random random = new Random(seed);
+        return SolidRM.fill(rows, cols, (r, c) -> random.nextGaussian());
+    }
+
+    /**
+     * Builds a symmetric positive definite matrix of order n.
+     */
+    public static RM spdMatrix(int n, long seed) {
+        RM a = matrix(n, n, seed);
+        RM spd = a.t().dot(a);
+        for (int i = 0; i < n; i++) {
+            spd.increment(i, i, n);
+        }
+        return spd;
+    }
+
+    private static List<Var> inputs(Random random, int rows, int numCols, int nomCols) {
+        List<Var> vars = new ArrayList<>();
+        for (int j = 0; j < numCols; j++) {
+            VarDouble x = VarDouble.empty(rows).withName("x" + j);
+            for (int i = 0; i < rows; i++) {
+                x.setDouble(i, random.nextGaussian());
+            }
+            vars.add(x);
+        }
+        for (int j = 0; j < nomCols; j++) {
+            VarNominal n = VarNominal.empty(rows, LEVELS).withName("n" + j);
+            for (int i = 0; i < rows; i++) {
+                n.setLabel(i, LEVELS[random.nextInt(LEVELS.length)]);
+            }
+            vars.add(n);
+        }
+        return vars;
+    }
+
+    private static double[] score(Random random, List<Var> inputs, int rows) {
+        double[] weights = new double[inputs.size()];
+        for (int j = 0; j < weights.length; j++) {
+            weights[j] = random.nextGaussian();
+        }
+        double[] score = new double[rows];
+        for (int i = 0; i < rows; i++) {
+            score[i] = random.nextGaussian() * 0.5;
+        }
+        for (int j = 0; j < inputs.size(); j++) {
+            Var var = inputs.get(j);
+            for (int i = 0; i < rows; i++) {
+                double value = var.type().isNumeric() ? var.getDouble(i) : var.getInt(i) - 3;
+                score[i] += weights[j] * value;
+            }
+        }
+        return score;
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import rapaio.data.Frame;
+import rapaio.ml.classifier.CPrediction;
+import rapaio.ml.classifier.tree.CTree;
+import rapaio.ml.regression.RPrediction;
+import rapaio.ml.regression.tree.RTree;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fitting and prediction of single decision trees for classification and regression.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class TreeBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int rows;
+
+    private Frame cdf;
+    private Frame rdf;
+    private CTree ctree;
+    private RTree rtree;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        cdf = SyntheticData.classification(rows, 10, 5, 3, 42);
+        rdf = SyntheticData.regression(rows, 10, 5, 42);
+        ctree = CTree.newCART().withMaxDepth(12).withMinCount(5);
+        ctree.fit(cdf, SyntheticData.TARGET);
+        rtree = RTree.newCART().withMaxDepth(12).withMinCount(5);
+        rtree.fit(rdf, SyntheticData.TARGET);
+    }
+
+    @Benchmark
+    public CTree cTreeFit() {
+        CTree tree = ctree.newInstance();
+        tree.fit(cdf, SyntheticData.TARGET);
+        return tree;
+    }
+
+    @Benchmark
+    public CPrediction cTreePredict() {
+        return ctree.predict(cdf, true, true);
+    }
+
+    @Benchmark
+    public RTree rTreeFit() {
+        RTree tree = rtree.newInstance();
+        tree.fit(rdf, SyntheticData.TARGET);
+        return tree;
+    }
+
+    @Benchmark
+    public RPrediction rTreePredict() {
+        return rtree.predict(rdf, false);
+    }
+}
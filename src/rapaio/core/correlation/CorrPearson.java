@@ -42,6 +42,9 @@ import static rapaio.sys.WS.*;
  * /**
  * Pearson product-moment correlation coefficient.
  * <p>
+ * Missing values are handled using pairwise complete observations. For many variables
+ * the matrix is computed with the blocked parallel engine from {@link CovarianceMatrix}.
+ * <p>
  * See
  * http://en.wikipedia.org/wiki/Pearson_product-moment_correlation_coefficient
  * <p>
@@ -51,6 +54,12 @@ public class CorrPearson implements Correlation, DefaultPrintable {
 
     private static final long serialVersionUID = -7342261109217205843L;
 
+    /**
+     * Number of variables from which the correlation matrix is computed with the
+     * blocked parallel engine instead of pair by pair.
+     */
+    static final int BLOCKED_THRESHOLD = 8;
+
     public static CorrPearson of(Frame df) {
         return new CorrPearson(df);
     }
@@ -74,6 +83,15 @@ public class CorrPearson implements Correlation, DefaultPrintable {
             throw new IllegalArgumentException("Correlation can be computed only between two variables.");
         }
         d = DistanceMatrix.empty(names);
+        if (vars.length >= BLOCKED_THRESHOLD) {
+            DistanceMatrix blocked = CovarianceMatrix.of(vars).correlation();
+            for (int i = 0; i < vars.length; i++) {
+                for (int j = i; j < vars.length; j++) {
+                    d.set(i, j, blocked.get(i, j));
+                }
+            }
+            return;
+        }
         for (int i = 0; i < vars.length; i++) {
             d.set(i,i, 1);
             for (int j = i + 1; j < vars.length; j++) {
@@ -27,8 +27,8 @@
 
 package rapaio.core.correlation;
 
+import it.unimi.dsi.fastutil.ints.IntArrays;
 import rapaio.data.*;
-import rapaio.data.filter.var.*;
 import rapaio.ml.clustering.*;
 import rapaio.printer.*;
 import rapaio.printer.format.*;
@@ -88,38 +88,40 @@ public class CorrSpearman implements Correlation, DefaultPrintable {
     }
 
     private DistanceMatrix compute(Var[] vars) {
-        String[] names = new String[vars.length];
-        for (int i = 0; i < names.length; i++) {
-            names[i] = vars[i].name();
-        }
-
-        Var[] sorted = new Var[vars.length];
         Var[] ranks = new Var[vars.length];
-        for (int i = 0; i < sorted.length; i++) {
-            VarInt index = VarInt.seq(vars[i].rowCount());
-            sorted[i] = new VRefSort(RowComparators.doubleComparator(vars[i], true)).fapply(index);
-            ranks[i] = VarDouble.fill(vars[i].rowCount());
+        IntStream.range(0, vars.length).parallel().forEach(i -> ranks[i] = ranks(vars[i]));
+
+        // compute Pearson on ranks
+        return CorrPearson.of(ranks).matrix();
+    }
+
+    /**
+     * Computes ranks of the values, tied values receive the average of their ranks.
+     */
+    private Var ranks(Var var) {
+        int n = var.rowCount();
+        double[] values = new double[n];
+        int[] index = new int[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = var.getDouble(i);
+            index[i] = i;
         }
+        IntArrays.quickSort(index, (a, b) -> Double.compare(values[a], values[b]));
 
-        // compute ranks
-        for (int i = 0; i < sorted.length; i++) {
-            int start = 0;
-            while (start < sorted[i].rowCount()) {
-                int end = start;
-                while (end < sorted[i].rowCount() - 1 &&
-                        vars[i].getDouble(sorted[i].getInt(end)) == vars[i].getDouble(sorted[i].getInt(end + 1))) {
-                    end++;
-                }
-                double value = 1 + (start + end) / 2.;
-                for (int j = start; j <= end; j++) {
-                    ranks[i].setDouble(sorted[i].getInt(j), value);
-                }
-                start = end + 1;
+        double[] ranks = new double[n];
+        int start = 0;
+        while (start < n) {
+            int end = start;
+            while (end < n - 1 && values[index[end]] == values[index[end + 1]]) {
+                end++;
+            }
+            double value = 1 + (start + end) / 2.;
+            for (int j = start; j <= end; j++) {
+                ranks[index[j]] = value;
             }
+            start = end + 1;
         }
-
-        // compute Pearson on ranks
-        return CorrPearson.of(ranks).matrix();
+        return VarDouble.wrap(ranks).withName(var.name());
     }
 
     @Override
@@ -27,7 +27,7 @@
 
 package rapaio.core.distributions;
 
-import rapaio.core.RandomSource;
+import java.util.Random;
 
 /**
  * Bernoulli distribution
@@ -125,7 +125,7 @@ public class Bernoulli implements Distribution {
     }
 
     @Override
-    public double sampleNext() {
-        return RandomSource.nextDouble() <= prob ? 1 : 0;
+    public double sampleWith(Random random) {
+        return random.nextDouble() <= prob ? 1 : 0;
     }
 }
@@ -49,6 +49,11 @@ public class Binomial implements Distribution {
     private final double p;
     private final int n;
 
+    // lazily computed tables with pdf and cdf values, used for batch evaluation
+    private static final int TABLE_LIMIT = 1 << 20;
+    private transient volatile double[] pdfTable;
+    private transient volatile double[] cdfTable;
+
     private Binomial(double p, int n) {
         this.p = p;
         this.n = n;
@@ -72,14 +77,70 @@ public class Binomial implements Distribution {
         return 0.0;
     }
 
+    @Override
+    public void pdf(double[] x, double[] out) {
+        if (n > TABLE_LIMIT) {
+            Distribution.super.pdf(x, out);
+            return;
+        }
+        Distribution.checkBatchLength(x, out);
+        double[] table = pdfTable();
+        for (int i = 0; i < x.length; i++) {
+            double v = x[i];
+            out[i] = (v >= 0 && v <= n && v == Math.rint(v)) ? table[(int) v] : pdf(v);
+        }
+    }
+
+    private double[] pdfTable() {
+        double[] table = pdfTable;
+        if (table == null) {
+            table = new double[n + 1];
+            for (int i = 0; i <= n; i++) {
+                table[i] = Math.exp(logBinomial(i, n, p));
+            }
+            pdfTable = table;
+        }
+        return table;
+    }
+
     @Override
     public double cdf(double x) {
         if (x >= n)
             return 1.0;
         x = MTools.floor(x);
+        double[] table = cdfTable;
+        if (table != null && x >= 0) {
+            return table[(int) x];
+        }
         return betaIncReg(1 - p, n - x, x + 1);
     }
 
+    @Override
+    public void cdf(double[] x, double[] out) {
+        if (n <= TABLE_LIMIT) {
+            cdfTable();
+        }
+        Distribution.super.cdf(x, out);
+    }
+
+    @Override
+    public void quantile(double[] p, double[] out) {
+        if (n <= TABLE_LIMIT) {
+            cdfTable();
+        }
+        Distribution.super.quantile(p, out);
+    }
+
+    private void cdfTable() {
+        if (cdfTable == null) {
+            double[] table = new double[Math.max(n, 0)];
+            for (int i = 0; i < table.length; i++) {
+                table[i] = betaIncReg(1 - p, n - i, i + 1);
+            }
+            cdfTable = table;
+        }
+    }
+
     @Override
     public double quantile(double p) {
         double pr = this.p;
@@ -123,28 +184,28 @@ public class Binomial implements Distribution {
 
         if (y > n) /* way off */ y = n;
 
-        z = Binomial.of(pr, n).cdf(y);
+        z = cdf(y);
 
         /* fuzz to ensure left continuity: */
         p *= 1 - 64 * DBL_EPSILON;
 
         double[] zp = new double[]{z};
-        if (n < 1e5) return do_search(y, zp, p, n, pr, 1);
+        if (n < 1e5) return do_search(y, zp, p, 1);
         /* Otherwise be a bit cleverer in the search */
         double incr = floor(n * 0.001), oldincr;
         do {
             oldincr = incr;
-            y = do_search(y, zp, p, n, pr, incr);
+            y = do_search(y, zp, p, incr);
             incr = Math.max(1, floor(incr / 100));
         } while (oldincr > 1 && incr > n * 1e-20);
         return y;
     }
 
-    private static double do_search(double y, double[] z, double p, int n, double pr, double incr) {
+    private double do_search(double y, double[] z, double p, double incr) {
         if (z[0] >= p) {
             /* search to the left */
             while (true) {
-                double newz = Binomial.of(pr, n).cdf(y - incr);
+                double newz = cdf(y - incr);
                 if (y == 0 || newz < p)
                     return y;
                 y = Math.max(0, y - incr);
@@ -153,7 +214,7 @@ public class Binomial implements Distribution {
         } else {        /* search to the right */
             while (true) {
                 y = Math.min(y + incr, n);
-                if (y == n || (z[0] = Binomial.of(pr, n).cdf(y)) >= p)
+                if (y == n || (z[0] = cdf(y)) >= p)
                     return y;
             }
         }
@@ -27,10 +27,11 @@
 
 package rapaio.core.distributions;
 
-import rapaio.core.*;
 import rapaio.math.*;
 import rapaio.printer.format.*;
 
+import java.util.Random;
+
 import static rapaio.math.MTools.*;
 
 /**
@@ -152,7 +153,7 @@ public class ChiSquare implements Distribution {
     }
 
     @Override
-    public double sampleNext() {
+    public double sampleWith(Random random) {
         /* *********************************************************************
          * * Chi Distribution - Ratio of Uniforms with shift * *
          * ***************************************************************** *
@@ -169,8 +170,8 @@ public class ChiSquare implements Distribution {
 
         if (df == 1.0) {
             for (; ; ) {
-                u = RandomSource.nextDouble();
-                v = RandomSource.nextDouble() * 0.857763884960707;
+                u = random.nextDouble();
+                v = random.nextDouble() * 0.857763884960707;
                 z = v / u;
                 if (z < 0)
                     continue;
@@ -187,8 +188,8 @@ public class ChiSquare implements Distribution {
             }
         } else {
             for (; ; ) {
-                u = RandomSource.nextDouble();
-                v = RandomSource.nextDouble() * vd + vm;
+                u = random.nextDouble();
+                v = random.nextDouble() * vd + vm;
                 z = v / u;
                 if (z < -b)
                     continue;
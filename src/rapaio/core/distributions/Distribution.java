@@ -28,9 +28,12 @@
 package rapaio.core.distributions;
 
 import rapaio.core.RandomSource;
+import rapaio.data.Var;
 import rapaio.data.VarDouble;
 
 import java.io.Serializable;
+import java.util.Random;
+import java.util.stream.IntStream;
 
 /**
  * Interface which models all types of uni-variate statistical distributions.
@@ -76,6 +79,88 @@ public interface Distribution extends Serializable {
      */
     double quantile(double p);
 
+    /**
+     * Computes probability density/mass function for all values from the input array.
+     * Implementations specialize this method to avoid the per call overhead.
+     *
+     * @param x   values for which it calculates
+     * @param out output array, with length at least the length of the input
+     */
+    default void pdf(double[] x, double[] out) {
+        checkBatchLength(x, out);
+        for (int i = 0; i < x.length; i++) {
+            out[i] = pdf(x[i]);
+        }
+    }
+
+    /**
+     * Computes cumulative density function for all values from the input array.
+     *
+     * @param x   values for which it calculates
+     * @param out output array, with length at least the length of the input
+     */
+    default void cdf(double[] x, double[] out) {
+        checkBatchLength(x, out);
+        for (int i = 0; i < x.length; i++) {
+            out[i] = cdf(x[i]);
+        }
+    }
+
+    /**
+     * Computes quantiles for all probabilities from the input array.
+     *
+     * @param p   probabilities for which it calculates
+     * @param out output array, with length at least the length of the input
+     */
+    default void quantile(double[] p, double[] out) {
+        checkBatchLength(p, out);
+        for (int i = 0; i < p.length; i++) {
+            out[i] = quantile(p[i]);
+        }
+    }
+
+    /**
+     * Computes probability density/mass function for all values of a variable.
+     * Missing values produces missing values.
+     *
+     * @param x variable with values
+     * @return new variable with pdf values
+     */
+    default VarDouble pdf(Var x) {
+        double[] values = batchValues(x);
+        double[] out = new double[values.length];
+        pdf(values, out);
+        return VarDouble.wrap(out).withName(x.name());
+    }
+
+    /**
+     * Computes cumulative density function for all values of a variable.
+     * Missing values produces missing values.
+     *
+     * @param x variable with values
+     * @return new variable with cdf values
+     */
+    default VarDouble cdf(Var x) {
+        double[] values = batchValues(x);
+        double[] out = new double[values.length];
+        cdf(values, out);
+        return VarDouble.wrap(out).withName(x.name());
+    }
+
+    /**
+     * Computes quantiles for all probabilities from a variable.
+     * Missing values produces missing values.
+     *
+     * @param p variable with probabilities
+     * @return new variable with quantile values
+     */
+    default VarDouble quantile(Var p) {
+        double[] values = batchValues(p);
+        double[] out = new double[values.length];
+        quantile(values, out);
+        return VarDouble.wrap(out).withName(p.name());
+    }
+
     /**
      * Minimum value for which this pdf is defined
      *
@@ -96,7 +181,19 @@ public interface Distribution extends Serializable {
      * @return new random value
      */
     default double sampleNext() {
-        return quantile(RandomSource.nextDouble());
+        return sampleWith(RandomSource.getRandom());
+    }
+
+    /**
+     * Generates a random value from this distribution using the given random
+     * number generator. Implementations must not use the global random source
+     * in this method, since it is used to sample from independent streams.
+     *
+     * @param random random number generator
+     * @return new random value
+     */
+    default double sampleWith(Random random) {
+        return quantile(random.nextDouble());
     }
 
     /**
@@ -109,6 +206,34 @@ public interface Distribution extends Serializable {
         return VarDouble.from(n, i -> sampleNext());
     }
 
+    /**
+     * Generate in parallel a sample for this distribution with the given size.
+     * <p>
+     * The sample is split into fixed size blocks and each block is generated from its own
+     * random number generator, seeded from the global random source. The result depends
+     * only on the state of the global random source, not on the number of threads.
+     *
+     * @param n number of elements in sample
+     * @return sample values
+     */
+    default VarDouble sampleParallel(final int n) {
+        final int block = 16_384;
+        int blocks = (n + block - 1) / block;
+        long[] seeds = new long[blocks];
+        for (int i = 0; i < blocks; i++) {
+            seeds[i] = RandomSource.getRandom().nextLong();
+        }
+        double[] values = new double[n];
+        IntStream.range(0, blocks).parallel().forEach(b -> {
+            Random random = new Random(seeds[b]);
+            int end = Math.min(n, (b + 1) * block);
+            for (int i = b * block; i < end; i++) {
+                values[i] = sampleWith(random);
+            }
+        });
+        return VarDouble.wrap(values);
+    }
+
     /**
      * Computes expected value
      *
@@ -158,4 +283,19 @@ public interface Distribution extends Serializable {
      * @return entropy of the distribution
      */
     double entropy();
+
+    static void checkBatchLength(double[] in, double[] out) {
+        if (out.length < in.length) {
+            throw new IllegalArgumentException("Output array has length " + out.length
+                    + " which is smaller than input length " + in.length + ".");
+        }
+    }
+
+    static double[] batchValues(Var x) {
+        double[] values = new double[x.rowCount()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = x.getDouble(i);
+        }
+        return values;
+    }
 }
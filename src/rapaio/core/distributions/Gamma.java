@@ -27,10 +27,11 @@
 
 package rapaio.core.distributions;
 
-import rapaio.core.*;
 import rapaio.math.*;
 import rapaio.printer.format.*;
 
+import java.util.Random;
+
 import static rapaio.printer.format.Format.*;
 
 /**
@@ -90,6 +91,7 @@ public class Gamma implements Distribution {
     private static final long serialVersionUID = -7748384822665249829L;
     private final double alpha;
     private final double beta;
+    private final double lnGammaAlpha;
 
     /**
      * Constructs a Gamma distribution. Example: alpha=1.0, beta=1.0.
@@ -102,6 +104,7 @@ public class Gamma implements Distribution {
                     ") and beta (" + Format.floatFlex(beta) + ") parameters should be strictly positive.");
         this.alpha = alpha;
         this.beta = beta;
+        this.lnGammaAlpha = MTools.lnGamma(alpha);
     }
 
     @Override
@@ -130,7 +133,21 @@ public class Gamma implements Distribution {
         }
         if (alpha == 1.0)
             return Math.exp(-x / beta) / beta;
-        return Math.exp((alpha - 1.0) * Math.log(x / beta) - x / beta - MTools.lnGamma(alpha)) / beta;
+        return Math.exp((alpha - 1.0) * Math.log(x / beta) - x / beta - lnGammaAlpha) / beta;
+    }
+
+    @Override
+    public void pdf(double[] x, double[] out) {
+        Distribution.checkBatchLength(x, out);
+        double a1 = alpha - 1.0;
+        for (int i = 0; i < x.length; i++) {
+            double xb = x[i] / beta;
+            if (x[i] > 0 && alpha != 1.0) {
+                out[i] = Math.exp(a1 * Math.log(xb) - xb - lnGammaAlpha) / beta;
+            } else {
+                out[i] = pdf(x[i]);
+            }
+        }
     }
 
     /**
@@ -191,7 +208,7 @@ public class Gamma implements Distribution {
     }
 
     @Override
-    public double sampleNext() {
+    public double sampleWith(Random random) {
         /***********************************************************************
          * * Gamma Distribution - Acceptance Rejection combined with *
          * Acceptance Complement * *
@@ -248,14 +265,14 @@ public class Gamma implements Distribution {
         if (a < 1.0) { // CASE A: Acceptance rejection algorithm gs
             b = 1.0 + 0.36788794412 * a; // Step 1
             for (; ; ) {
-                p = b * RandomSource.nextDouble();
+                p = b * random.nextDouble();
                 if (p <= 1.0) { // Step 2. Case gds <= 1
                     gds = Math.exp(Math.log(p) / a);
-                    if (Math.log(RandomSource.nextDouble()) <= -gds)
+                    if (Math.log(random.nextDouble()) <= -gds)
                         return (gds / beta1);
                 } else { // Step 3. Case gds > 1
                     gds = -Math.log((b - p) / a);
-                    if (Math.log(RandomSource.nextDouble()) <= ((a - 1.0) * Math.log(gds)))
+                    if (Math.log(random.nextDouble()) <= ((a - 1.0) * Math.log(gds)))
                         return (gds / beta1);
                 }
             }
@@ -268,8 +285,8 @@ public class Gamma implements Distribution {
             }
             // Step 2. Normal deviate
             do {
-                v1 = 2.0 * RandomSource.nextDouble() - 1.0;
-                v2 = 2.0 * RandomSource.nextDouble() - 1.0;
+                v1 = 2.0 * random.nextDouble() - 1.0;
+                v2 = 2.0 * random.nextDouble() - 1.0;
                 v12 = v1 * v1 + v2 * v2;
             } while (v12 > 1.0);
             t = v1 * Math.sqrt(-2.0 * Math.log(v12) / v12);
@@ -278,7 +295,7 @@ public class Gamma implements Distribution {
             if (t >= 0.0)
                 return (gds / beta1); // Immediate acceptance
 
-            u = RandomSource.nextDouble(); // Step 3. Uniform random number
+            u = random.nextDouble(); // Step 3. Uniform random number
             if (d * u <= t * t * t)
                 return (gds / beta1); // Squeeze acceptance
 
@@ -319,8 +336,8 @@ public class Gamma implements Distribution {
 
             for (; ; ) { // Step 8. Double exponential deviate t
                 do {
-                    e = -Math.log(RandomSource.nextDouble());
-                    u = RandomSource.nextDouble();
+                    e = -Math.log(random.nextDouble());
+                    u = random.nextDouble();
                     u = u + u - 1.0;
                     sign_u = (u > 0) ? 1.0 : -1.0;
                     t = b + (e * si) * sign_u;
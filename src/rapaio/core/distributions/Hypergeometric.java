@@ -27,8 +27,6 @@
 
 package rapaio.core.distributions;
 
-import java.util.Arrays;
-
 /**
  * Hypergeometric distribution
  * <p>
@@ -55,7 +53,9 @@ public class Hypergeometric implements Distribution {
     private final int n; // the number of black balls from the urn
     private final int k; // the number of balls drawn from the urn
 
-    private final double[] pdfCache;
+    // lazily computed tables with pdf and cdf values for all values in [0, k]
+    private transient volatile double[] pdfTable;
+    private transient volatile double[] cdfTable;
 
     /**
      * Instantiates a hypergeometric distribution
@@ -80,12 +80,8 @@ public class Hypergeometric implements Distribution {
         this.m = m;
         this.n = n;
         this.k = k;
-
-        pdfCache = new double[k + 1];
-        Arrays.fill(pdfCache, Double.NaN);
     }
 
-
     @Override
     public String name() {
         return "Hypergeometric(m=" + m + ",n=" + n + ",k=" + k + ")";
@@ -96,13 +92,6 @@ public class Hypergeometric implements Distribution {
         return true;
     }
 
-    /**
-     * This algorithm is not found on any literature, it is simply a development
-     * of combined multiplication of combinations.
-     *
-     * @param x value for which it calculates the probability density function
-     * @return computed value
-     */
     @Override
     public double pdf(double x) {
         if (Double.isInfinite(x)) {
@@ -112,12 +101,43 @@ public class Hypergeometric implements Distribution {
         int xx = (int) Math.rint(x);
         if (Math.abs(xx - x) > 1e-30)
             return 0.0;
-        if ((xx > m) || (xx > k) || (xx < k - n))
+        if ((xx < 0) || (xx > m) || (xx > k) || (xx < k - n))
             return 0.0;
-        if (!Double.isNaN(pdfCache[xx])) {
-            return pdfCache[xx];
+        return pdfTable()[xx];
+    }
+
+    /**
+     * Probabilities for all values in [0, k], computed once. The probability of the mode
+     * is computed directly and the others with the ratio of consecutive probabilities
+     * p(x+1) / p(x) = (m - x)(k - x) / ((x + 1)(n - k + x + 1)).
+     */
+    private double[] pdfTable() {
+        double[] table = pdfTable;
+        if (table == null) {
+            table = new double[k + 1];
+            int low = Math.max(0, k - n);
+            int high = Math.min(m, k);
+            int mode = Math.min(high, Math.max(low, (int) mode()));
+            table[mode] = modePdf(mode);
+            for (int x = mode; x < high; x++) {
+                table[x + 1] = table[x] * ((double) (m - x) * (k - x)) / ((double) (x + 1) * (n - k + x + 1));
+            }
+            for (int x = mode; x > low; x--) {
+                table[x - 1] = table[x] * ((double) x * (n - k + x)) / ((double) (m - x + 1) * (k - x + 1));
+            }
+            pdfTable = table;
         }
+        return table;
+    }
 
+    /**
+     * This algorithm is not found on any literature, it is simply a development
+     * of combined multiplication of combinations.
+     *
+     * @param xx value from support for which it calculates the probability density function
+     * @return computed value
+     */
+    private double modePdf(int xx) {
         int[] up = new int[m + n + 1];
         int[] down = new int[m + n + 1];
         for (int i = 1; i <= m + n; i++) {
@@ -203,7 +223,6 @@ public class Hypergeometric implements Distribution {
                 }
             }
         }
-        pdfCache[xx] = prod;
         return prod;
     }
 
@@ -218,24 +237,46 @@ public class Hypergeometric implements Distribution {
             return 1.0;
         if (x > n)
             return 1.0;
-
-        double cdf = 0;
-        for (int i = 0; i <= x; i++) {
-            cdf += pdf(i);
+        if (!(x >= 0)) {
+            return 0.0;
         }
-        return cdf;
+        return cdfTable()[(int) Math.floor(x)];
     }
 
     @Override
     public double quantile(double p) {
-        double cdf = 0;
-        for (int i = 0; i <= m; ++i) {
-            cdf += pdf(i);
-            if (cdf > p) {
-                return i;
+        double[] cdf = cdfTable();
+        // first value with cumulative probability greater than p
+        int low = 0;
+        int high = Math.min(m, k) + 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cdf[mid] > p) {
+                high = mid;
+            } else {
+                low = mid + 1;
             }
         }
-        return m;
+        return low <= Math.min(m, k) ? low : m;
+    }
+
+    /**
+     * Cumulative probabilities for all values in [0, k], computed once
+     * by summing the table of probabilities.
+     */
+    private double[] cdfTable() {
+        double[] table = cdfTable;
+        if (table == null) {
+            double[] pdf = pdfTable();
+            table = new double[k + 1];
+            double cdf = 0;
+            for (int i = 0; i <= k; i++) {
+                cdf += pdf[i];
+                table[i] = cdf;
+            }
+            cdfTable = table;
+        }
+        return table;
     }
 
     @Override
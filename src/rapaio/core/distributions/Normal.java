@@ -43,14 +43,38 @@ public class Normal implements Distribution {
     }
 
     private static final long serialVersionUID = 3618971055326379083L;
+
+    // coefficients for the rational approximations of the quantile function
+    private static final double[] QA = {
+            -3.969683028665376e+01, 2.209460984245205e+02,
+            -2.759285104469687e+02, 1.383577518672690e+02,
+            -3.066479806614716e+01, 2.506628277459239e+00
+    };
+    private static final double[] QB = {
+            -5.447609879822406e+01, 1.615858368580409e+02,
+            -1.556989798598866e+02, 6.680131188771972e+01, -1.328068155288572e+01
+    };
+    private static final double[] QC = {
+            -7.784894002430293e-03, -3.223964580411365e-01,
+            -2.400758277161838e+00, -2.549732539343734e+00,
+            4.374664141464968e+00, 2.938163982698783e+00
+    };
+    private static final double[] QD = {
+            7.784695709041462e-03, 3.224671290700398e-01,
+            2.445134137142996e+00, 3.754408661907416e+00
+    };
     private final double mu;
     private final double sd;
     private final double var;
+    private final double pdfFactor;
+    private final double pdfExpFactor;
 
     private Normal(double mu, double sd) {
         this.mu = mu;
         this.sd = sd;
         this.var = sd * sd;
+        this.pdfFactor = 1 / Math.sqrt(2 * Math.PI * var);
+        this.pdfExpFactor = 2 * var;
     }
 
     @Override
@@ -65,7 +89,16 @@ public class Normal implements Distribution {
 
     @Override
     public double pdf(double x) {
-        return 1 / Math.sqrt(2 * Math.PI * var) * Math.exp(-Math.pow(x - mu, 2) / (2 * var));
+        return pdfFactor * Math.exp(-Math.pow(x - mu, 2) / pdfExpFactor);
+    }
+
+    @Override
+    public void pdf(double[] x, double[] out) {
+        Distribution.checkBatchLength(x, out);
+        for (int i = 0; i < x.length; i++) {
+            double z = x[i] - mu;
+            out[i] = pdfFactor * Math.exp(-(z * z) / pdfExpFactor);
+        }
     }
 
     @Override
@@ -84,6 +117,14 @@ public class Normal implements Distribution {
         return 0;
     }
 
+    @Override
+    public void cdf(double[] x, double[] out) {
+        Distribution.checkBatchLength(x, out);
+        for (int i = 0; i < x.length; i++) {
+            out[i] = cdf(x[i], mu, sd);
+        }
+    }
+
     @Override
     public double quantile(double p) {
         if (p < 0 || p > 1) {
@@ -96,27 +137,10 @@ public class Normal implements Distribution {
             return Double.POSITIVE_INFINITY;
         }
         //http://home.online.no/~pjacklam/notes/invnorm/
-        double a[] = {
-                -3.969683028665376e+01, 2.209460984245205e+02,
-                -2.759285104469687e+02, 1.383577518672690e+02,
-                -3.066479806614716e+01, 2.506628277459239e+00
-        };
-
-        double b[] = {
-                -5.447609879822406e+01, 1.615858368580409e+02,
-                -1.556989798598866e+02, 6.680131188771972e+01, -1.328068155288572e+01
-        };
-
-        double c[] = {
-                -7.784894002430293e-03, -3.223964580411365e-01,
-                -2.400758277161838e+00, -2.549732539343734e+00,
-                4.374664141464968e+00, 2.938163982698783e+00
-        };
-
-        double d[] = {
-                7.784695709041462e-03, 3.224671290700398e-01,
-                2.445134137142996e+00, 3.754408661907416e+00
-        };
+        double[] a = QA;
+        double[] b = QB;
+        double[] c = QC;
+        double[] d = QD;
 
         double p_low = 0.02425;
         double p_high = 1 - p_low;
@@ -45,11 +45,19 @@ public class Poisson implements Distribution {
     private static final long serialVersionUID = 2013039227493064895L;
     private final double lambda;
 
+    // lazily computed tables with pdf and cdf values, used for batch evaluation
+    private static final int TABLE_LIMIT = 1 << 20;
+    private final int tableSize;
+    private transient volatile double[] pdfTable;
+    private transient volatile double[] cdfTable;
+
     private Poisson(double lambda) {
         if (lambda <= 0) {
             throw new IllegalArgumentException("lambda parameter value must be a real positive value");
         }
         this.lambda = lambda;
+        double size = Math.ceil(lambda + 10 * Math.sqrt(lambda) + 10);
+        this.tableSize = size <= TABLE_LIMIT ? (int) size : 0;
     }
 
     @Override
@@ -72,13 +80,60 @@ public class Poisson implements Distribution {
         return MTools.pdfPois(x, lambda);
     }
 
+    @Override
+    public void pdf(double[] x, double[] out) {
+        if (tableSize == 0) {
+            Distribution.super.pdf(x, out);
+            return;
+        }
+        Distribution.checkBatchLength(x, out);
+        double[] table = pdfTable;
+        if (table == null) {
+            table = new double[tableSize];
+            for (int i = 0; i < tableSize; i++) {
+                table[i] = MTools.pdfPois(i, lambda);
+            }
+            pdfTable = table;
+        }
+        for (int i = 0; i < x.length; i++) {
+            double v = x[i];
+            out[i] = (v >= 0 && v < tableSize && v == Math.rint(v)) ? table[(int) v] : pdf(v);
+        }
+    }
+
     @Override
     public double cdf(double x) {
         if (x < 0)
             return 0.0;
+        double[] table = cdfTable;
+        if (table != null && x < table.length) {
+            return table[(int) Math.floor(x)];
+        }
         return MTools.incompleteGammaComplement(Math.floor(x + 1), lambda);
     }
 
+    @Override
+    public void cdf(double[] x, double[] out) {
+        cdfTable();
+        Distribution.super.cdf(x, out);
+    }
+
+    @Override
+    public void quantile(double[] p, double[] out) {
+        cdfTable();
+        Distribution.super.quantile(p, out);
+    }
+
+    private void cdfTable() {
+        if (cdfTable == null && tableSize > 0) {
+            double[] table = new double[tableSize];
+            for (int i = 0; i < tableSize; i++) {
+                table[i] = MTools.incompleteGammaComplement(i + 1, lambda);
+            }
+            cdfTable = table;
+        }
+    }
+
     @Override
     public double quantile(double p) {
         if (p == 1)
@@ -53,6 +53,7 @@ public class StudentT implements Distribution {
     private final double df;
     private final double mu;
     private final double sigma;
+    private final double pdfLogFactor;
 
     private StudentT(double df, double mu, double sigma) {
         if(df < 1) {
@@ -61,6 +62,7 @@ public class StudentT implements Distribution {
         this.df = df;
         this.mu = mu;
         this.sigma = sigma;
+        this.pdfLogFactor = lnGamma((df + 1) / 2) - lnGamma(df / 2) - Math.log(df * Math.PI) / 2 - Math.log(sigma);
     }
 
     @Override
@@ -77,8 +79,17 @@ public class StudentT implements Distribution {
 
     @Override
     public double pdf(double t) {
-        return Math.exp(lnGamma((df + 1) / 2) - lnGamma(df / 2) - Math.log(df * Math.PI) / 2 - Math.log(sigma)
-                - (df + 1) / 2 * Math.log(1 + Math.pow((t - mu) / sigma, 2) / df));
+        return Math.exp(pdfLogFactor - (df + 1) / 2 * Math.log(1 + Math.pow((t - mu) / sigma, 2) / df));
+    }
+
+    @Override
+    public void pdf(double[] t, double[] out) {
+        Distribution.checkBatchLength(t, out);
+        double power = (df + 1) / 2;
+        for (int i = 0; i < t.length; i++) {
+            double z = (t[i] - mu) / sigma;
+            out[i] = Math.exp(pdfLogFactor - power * Math.log(1 + z * z / df));
+        }
     }
 
     @Override
@@ -33,6 +33,7 @@ import rapaio.data.filter.var.VSort;
 
 import java.io.Serializable;
 import java.util.Arrays;
+import java.util.stream.IntStream;
 
 /**
  * Kernel density estimator.
@@ -114,6 +115,83 @@ public class KDE implements Serializable {
         return sum / (values.length * bandwidth);
     }
 
+    /**
+     * Computes exact kernel density estimations for all values from the input array,
+     * in parallel. For large numbers of points use {@link #grid(double, double, int)}.
+     *
+     * @param x   points where the density is evaluated
+     * @param out output array, with length at least the length of the input
+     */
+    public void pdf(double[] x, double[] out) {
+        if (out.length < x.length) {
+            throw new IllegalArgumentException("Output array has length " + out.length
+                    + " which is smaller than input length " + x.length + ".");
+        }
+        IntStream.range(0, x.length).parallel().forEach(i -> out[i] = pdf(x[i]));
+    }
+
+    /**
+     * Computes binned kernel density estimation on a regular grid.
+     *
+     * @param min  first point of the grid
+     * @param max  last point of the grid
+     * @param size number of grid points
+     * @return density estimation on grid
+     */
+    public KDEGrid grid(double min, double max, int size) {
+        return KDEGrid.of(this, min, max, size);
+    }
+
+    /**
+     * Computes binned kernel density estimation on a regular grid which
+     * covers all the points where the estimated density is positive.
+     *
+     * @param size number of grid points
+     * @return density estimation on grid
+     */
+    public KDEGrid grid(int size) {
+        return KDEGrid.of(this, supportMin(), supportMax(), size);
+    }
+
+    /**
+     * Smallest point where the estimated density is positive, which is the
+     * smallest sample value shifted left by the kernel radius scaled with bandwidth.
+     *
+     * @return lower bound of the density support
+     */
+    public double supportMin() {
+        checkNotEmpty();
+        return kernel.minValue(values[0], bandwidth);
+    }
+
+    /**
+     * Largest point where the estimated density is positive, which is the
+     * largest sample value shifted right by the kernel radius scaled with bandwidth.
+     *
+     * @return upper bound of the density support
+     */
+    public double supportMax() {
+        checkNotEmpty();
+        return kernel.maxValue(values[values.length - 1], bandwidth);
+    }
+
+    private void checkNotEmpty() {
+        if (values.length == 0) {
+            throw new IllegalArgumentException("Density support is not defined for an empty sample.");
+        }
+    }
+
+    /**
+     * @return number of non missing sample values
+     */
+    public int sampleCount() {
+        return values.length;
+    }
+
+    double[] sortedValues() {
+        return values;
+    }
+
     public KFunc kernel() {
         return kernel;
     }
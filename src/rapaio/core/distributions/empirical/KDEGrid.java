@@ -0,0 +1,209 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.core.distributions.empirical;
+
+import rapaio.math.fourier.FFT;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Kernel density estimation evaluated on a regular grid.
+ * <p>
+ * The sample values are linearly binned on the grid and the bin counts are
+ * convolved with the discretized kernel function using fast Fourier transform.
+ * This makes the cost proportional with the sample size plus the grid size,
+ * instead of their product. Density values between grid points are obtained
+ * by linear interpolation.
+ */
+public class KDEGrid implements Serializable {
+
+    /**
+     * Builds the density estimation on a regular grid.
+     *
+     * @param kde  kernel density estimator
+     * @param min  first point of the grid
+     * @param max  last point of the grid
+     * @param size number of grid points
+     * @return density estimation on grid
+     */
+    public static KDEGrid of(KDE kde, double min, double max, int size) {
+        return new KDEGrid(kde, min, max, size);
+    }
+
+    private static final long serialVersionUID = -1936487003914823612L;
+
+    private final double min;
+    private final double max;
+    private final double step;
+    private final double[] density;
+
+    private KDEGrid(KDE kde, double min, double max, int size) {
+        if (size < 2) {
+            throw new IllegalArgumentException("Grid size must be at least 2.");
+        }
+        if (!(max > min) || Double.isInfinite(max - min)) {
+            throw new IllegalArgumentException("Grid range must be finite and not empty.");
+        }
+        this.min = min;
+        this.max = max;
+        this.step = (max - min) / (size - 1);
+        this.density = compute(kde, size);
+    }
+
+    private double[] compute(KDE kde, int size) {
+        double[] values = kde.sortedValues();
+        KFunc kernel = kde.kernel();
+        double bandwidth = kde.bandwidth();
+
+        // number of grid steps covered by the kernel on each side
+        double width = Math.max(kernel.maxValue(0, bandwidth), -kernel.minValue(0, bandwidth));
+        int support = (int) Math.min(Integer.MAX_VALUE / 8, Math.ceil(width / step));
+
+        // linear binning on the grid extended with the kernel support
+        int extended = size + 2 * support;
+        double origin = min - support * step;
+        double[] counts = new double[extended];
+        int from = Arrays.binarySearch(values, origin);
+        if (from < 0) from = -from - 1;
+        for (int i = from; i < values.length; i++) {
+            double pos = (values[i] - origin) / step;
+            if (pos > extended - 1) {
+                break;
+            }
+            int j = (int) pos;
+            double w = pos - j;
+            counts[j] += 1 - w;
+            if (j + 1 < extended) {
+                counts[j + 1] += w;
+            }
+        }
+
+        // discretized kernel, centered at position support
+        double[] weights = new double[2 * support + 1];
+        for (int l = -support; l <= support; l++) {
+            weights[l + support] = kernel.pdf(l * step, 0, bandwidth);
+        }
+
+        double[] conv = convolve(counts, weights);
+        double[] out = new double[size];
+        double norm = values.length * bandwidth;
+        for (int j = 0; j < size; j++) {
+            out[j] = Math.max(0, conv[j + 2 * support]) / norm;
+        }
+        return out;
+    }
+
+    private static double[] convolve(double[] a, double[] b) {
+        int n = FFT.nextPowerOfTwo(a.length + b.length - 1);
+        double[] pa = Arrays.copyOf(a, n);
+        double[] pb = Arrays.copyOf(b, n);
+        int bins = n / 2 + 1;
+        double[] are = new double[bins];
+        double[] aim = new double[bins];
+        double[] bre = new double[bins];
+        double[] bim = new double[bins];
+        FFT.rfft(pa, are, aim);
+        FFT.rfft(pb, bre, bim);
+        for (int k = 0; k < bins; k++) {
+            double re = are[k] * bre[k] - aim[k] * bim[k];
+            double im = are[k] * bim[k] + aim[k] * bre[k];
+            are[k] = re;
+            aim[k] = im;
+        }
+        return FFT.irfft(are, aim, n);
+    }
+
+    /**
+     * @return number of grid points
+     */
+    public int size() {
+        return density.length;
+    }
+
+    /**
+     * @return first grid point
+     */
+    public double min() {
+        return min;
+    }
+
+    /**
+     * @return last grid point
+     */
+    public double max() {
+        return max;
+    }
+
+    /**
+     * @param i index of the grid point
+     * @return coordinate of the grid point
+     */
+    public double x(int i) {
+        return (i == density.length - 1) ? max : min + i * step;
+    }
+
+    /**
+     * @param i index of the grid point
+     * @return estimated density at the grid point
+     */
+    public double density(int i) {
+        return density[i];
+    }
+
+    /**
+     * Estimated density for an arbitrary point, linearly interpolated between
+     * grid points. Outside the grid range the density is 0.
+     *
+     * @param x point where the density is evaluated
+     * @return estimated density
+     */
+    public double pdf(double x) {
+        if (Double.isNaN(x)) {
+            return Double.NaN;
+        }
+        if (x < min || x > max) {
+            return 0;
+        }
+        double pos = (x - min) / step;
+        int j = Math.min((int) pos, density.length - 2);
+        double w = pos - j;
+        return density[j] * (1 - w) + density[j + 1] * w;
+    }
+
+    /**
+     * @return maximum estimated density over all grid points
+     */
+    public double maxDensity() {
+        double m = 0;
+        for (double d : density) {
+            m = Math.max(m, d);
+        }
+        return m;
+    }
+}
@@ -0,0 +1,250 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.core.stat;
+
+import rapaio.data.*;
+import rapaio.ml.clustering.*;
+import rapaio.printer.*;
+import rapaio.printer.format.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Sample covariance and Pearson correlation matrices for many variables.
+ * <p>
+ * Each variable is copied and centered only once into a primitive column. The
+ * matrix of cross products is computed in parallel over square tiles of variable
+ * pairs, and each tile walks the rows in chunks which fit in cache.
+ * <p>
+ * Missing values are handled with pairwise complete observations, which means that
+ * for each pair of variables only the rows where both values are present are used.
+ * The required sums are obtained from the same pass, using 0/1 masks for the
+ * variables which contain missing values. Pairs of variables without missing values
+ * need a single dot product.
+ */
+public class CovarianceMatrix implements DefaultPrintable {
+
+    private static final int TILE = 32;
+    private static final int CHUNK = 4096;
+
+    public static CovarianceMatrix of(Frame df) {
+        return new CovarianceMatrix(df.varStream().toArray(Var[]::new));
+    }
+
+    public static CovarianceMatrix of(Var... vars) {
+        return new CovarianceMatrix(vars);
+    }
+
+    private final String[] names;
+    private final DistanceMatrix covariance;
+    private final DistanceMatrix correlation;
+
+    private CovarianceMatrix(Var[] vars) {
+        names = Arrays.stream(vars).map(Var::name).toArray(String[]::new);
+        covariance = DistanceMatrix.empty(names);
+        correlation = DistanceMatrix.empty(names);
+
+        int p = vars.length;
+        int n = Integer.MAX_VALUE;
+        for (Var var : vars) {
+            n = Math.min(n, var.rowCount());
+        }
+        final int rows = (p == 0) ? 0 : n;
+
+        double[][] x = new double[p][];
+        double[][] mask = new double[p][];
+        double[] sum = new double[p];
+        double[] ss = new double[p];
+        int[] count = new int[p];
+        IntStream.range(0, p).parallel().forEach(i -> {
+            double[] col = new double[rows];
+            double[] m = null;
+            double total = 0;
+            int complete = 0;
+            for (int r = 0; r < rows; r++) {
+                if (vars[i].isMissing(r)) {
+                    if (m == null) {
+                        m = new double[rows];
+                        Arrays.fill(m, 0, r, 1.0);
+                    }
+                    continue;
+                }
+                if (m != null) {
+                    m[r] = 1.0;
+                }
+                col[r] = vars[i].getDouble(r);
+                total += col[r];
+                complete++;
+            }
+            double mean = complete == 0 ? 0 : total / complete;
+            double s = 0;
+            double s2 = 0;
+            for (int r = 0; r < rows; r++) {
+                if (m == null || m[r] != 0) {
+                    col[r] -= mean;
+                    s += col[r];
+                    s2 += col[r] * col[r];
+                }
+            }
+            x[i] = col;
+            mask[i] = m;
+            sum[i] = s;
+            ss[i] = s2;
+            count[i] = complete;
+        });
+
+        List<int[]> tiles = new ArrayList<>();
+        for (int ti = 0; ti < p; ti += TILE) {
+            for (int tj = ti; tj < p; tj += TILE) {
+                tiles.add(new int[]{ti, tj});
+            }
+        }
+        tiles.parallelStream().forEach(tile -> computeTile(tile[0], tile[1], rows, x, mask, sum, ss, count));
+    }
+
+    private void computeTile(int ti, int tj, int rows, double[][] x, double[][] mask,
+                             double[] sum, double[] ss, int[] count) {
+        int p = x.length;
+        int ei = Math.min(p, ti + TILE);
+        int ej = Math.min(p, tj + TILE);
+
+        // cross products and, for pairs with missing values, masked sums
+        double[][] sxy = new double[TILE][TILE];
+        double[][] nxy = new double[TILE][TILE];
+        double[][] sxm = new double[TILE][TILE];
+        double[][] sym = new double[TILE][TILE];
+        double[][] sxxm = new double[TILE][TILE];
+        double[][] syym = new double[TILE][TILE];
+
+        for (int start = 0; start < rows; start += CHUNK) {
+            int end = Math.min(rows, start + CHUNK);
+            for (int i = ti; i < ei; i++) {
+                double[] xi = x[i];
+                double[] mi = mask[i];
+                for (int j = Math.max(tj, i); j < ej; j++) {
+                    double[] xj = x[j];
+                    double[] mj = mask[j];
+                    int a = i - ti;
+                    int b = j - tj;
+                    if (mi == null && mj == null) {
+                        double s = 0;
+                        for (int r = start; r < end; r++) {
+                            s += xi[r] * xj[r];
+                        }
+                        sxy[a][b] += s;
+                        continue;
+                    }
+                    double s = 0, nn = 0, s1 = 0, s2 = 0, s11 = 0, s22 = 0;
+                    for (int r = start; r < end; r++) {
+                        double u = xi[r];
+                        double v = xj[r];
+                        double mu = (mi == null) ? 1.0 : mi[r];
+                        double mv = (mj == null) ? 1.0 : mj[r];
+                        s += u * v;
+                        nn += mu * mv;
+                        s1 += u * mv;
+                        s2 += v * mu;
+                        s11 += u * u * mv;
+                        s22 += v * v * mu;
+                    }
+                    sxy[a][b] += s;
+                    nxy[a][b] += nn;
+                    sxm[a][b] += s1;
+                    sym[a][b] += s2;
+                    sxxm[a][b] += s11;
+                    syym[a][b] += s22;
+                }
+            }
+        }
+
+        for (int i = ti; i < ei; i++) {
+            for (int j = Math.max(tj, i); j < ej; j++) {
+                int a = i - ti;
+                int b = j - tj;
+                double n, cov, vi, vj;
+                if (mask[i] == null && mask[j] == null) {
+                    n = rows;
+                    cov = sxy[a][b] - sum[i] * sum[j] / n;
+                    vi = ss[i] - sum[i] * sum[i] / n;
+                    vj = ss[j] - sum[j] * sum[j] / n;
+                } else {
+                    n = nxy[a][b];
+                    cov = sxy[a][b] - sxm[a][b] * sym[a][b] / n;
+                    vi = sxxm[a][b] - sxm[a][b] * sxm[a][b] / n;
+                    vj = syym[a][b] - sym[a][b] * sym[a][b] / n;
+                }
+                if (i == j) {
+                    covariance.set(i, i, count[i] < 2 ? Double.NaN : vi / (n - 1));
+                    correlation.set(i, i, 1);
+                    continue;
+                }
+                if (n < 2) {
+                    covariance.set(i, j, Double.NaN);
+                    correlation.set(i, j, Double.NaN);
+                    continue;
+                }
+                covariance.set(i, j, cov / (n - 1));
+                double sdp = Math.sqrt(vi * vj);
+                correlation.set(i, j, sdp == 0 ? Double.NaN : cov / sdp);
+            }
+        }
+    }
+
+    /**
+     * @return matrix with sample covariances computed on pairwise complete observations
+     */
+    public DistanceMatrix covariance() {
+        return covariance;
+    }
+
+    /**
+     * @return matrix with Pearson correlations computed on pairwise complete observations
+     */
+    public DistanceMatrix correlation() {
+        return correlation;
+    }
+
+    @Override
+    public String summary() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("> covariance matrix[%s]\n", Arrays.deepToString(names)));
+        TextTable tt = TextTable.empty(names.length + 1, names.length + 1, 1, 1);
+        for (int i = 0; i < names.length; i++) {
+            tt.textRight(0, i + 1, (i + 1) + ".");
+            tt.textLeft(i + 1, 0, (i + 1) + "." + names[i]);
+            for (int j = 0; j < names.length; j++) {
+                tt.floatFlex(i + 1, j + 1, covariance.get(i, j));
+            }
+        }
+        sb.append(tt.getDefaultText());
+        return sb.toString();
+    }
+}
@@ -42,11 +42,16 @@ import static rapaio.printer.format.Format.*;
 public final class Mean implements DefaultPrintable {
 
     public static Mean of(Var var) {
+        double[] view = var.doubleView();
+        if (view != null) {
+            // storage of double values, where missing values are NaN
+            return new Mean(var.name(), view, 0, var.rowCount());
+        }
         return new Mean(var);
     }
 
     public static Mean of(double[] values, int start, int end) {
-        return new Mean(values, start, end);
+        return new Mean("?", values, start, end);
     }
 
     private final String varName;
@@ -79,8 +84,8 @@ public final class Mean implements DefaultPrintable {
         this.value = mean + mean2 / completeCount;
     }
 
-    private Mean(double[] values, int start, int end) {
-        this.varName = "?";
+    private Mean(String varName, double[] values, int start, int end) {
+        this.varName = varName;
         double sum = 0.0;
         for (int i = start; i < end; i++) {
             if (Double.isNaN(values[i])) {
@@ -0,0 +1,352 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.core.stat;
+
+import rapaio.data.Var;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Mergeable sketch for approximate quantiles over large or streaming data.
+ * <p>
+ * The implementation follows the KLL sketch: values are stored in a hierarchy of
+ * compactors, where an item from level h stands for 2^h original values. When a
+ * compactor is full its values are sorted and every second value, starting with
+ * a random offset, is promoted to the next level. Capacities decrease geometrically
+ * for lower levels, thus memory is bounded by about 3k values, regardless of the
+ * number of values seen.
+ * <p>
+ * The rank error is about 1.7/k with high probability, parameter k defaults to 200,
+ * which gives ranks with an error of about 1%. Sketches built over separate chunks
+ * of data or in separate threads can be merged with {@link #merge(QuantileSketch)}.
+ * Minimum and maximum values are exact. Missing values are ignored.
+ * <p>
+ * See: Karnin, Lang, Liberty, Optimal Quantile Approximation in Streams, 2016.
+ */
+public class QuantileSketch implements Serializable {
+
+    private static final long serialVersionUID = -2389745563521390183L;
+
+    private static final int DEFAULT_K = 200;
+    private static final int MIN_CAPACITY = 8;
+    private static final double CAPACITY_DECAY = 2.0 / 3.0;
+
+    public static QuantileSketch empty() {
+        return new QuantileSketch(DEFAULT_K);
+    }
+
+    /**
+     * @param k accuracy parameter, larger values gives better accuracy and use more memory
+     * @return new empty sketch
+     */
+    public static QuantileSketch empty(int k) {
+        if (k < MIN_CAPACITY) {
+            throw new IllegalArgumentException("Sketch accuracy parameter k must be at least " + MIN_CAPACITY + ".");
+        }
+        return new QuantileSketch(k);
+    }
+
+    public static QuantileSketch of(Var var) {
+        return empty().update(var);
+    }
+
+    public static QuantileSketch of(Var var, int k) {
+        return empty(k).update(var);
+    }
+
+    private final int k;
+    private double[][] levels = new double[1][MIN_CAPACITY];
+    private int[] sizes = new int[1];
+    private int levelCount = 1;
+    private long n;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    private long seed = 0x9E3779B97F4A7C15L;
+
+    // sorted view used for queries, rebuilt lazily after updates
+    private transient double[] sortedValues;
+    private transient long[] sortedWeights;
+
+    private QuantileSketch(int k) {
+        this.k = k;
+    }
+
+    /**
+     * Adds a value to the sketch, missing values are ignored.
+     *
+     * @param x value to be added
+     * @return same sketch instance
+     */
+    public QuantileSketch update(double x) {
+        if (Double.isNaN(x)) {
+            return this;
+        }
+        n++;
+        min = Math.min(min, x);
+        max = Math.max(max, x);
+        append(0, x);
+        if (sizes[0] >= capacity(0)) {
+            compress();
+        }
+        sortedValues = null;
+        return this;
+    }
+
+    /**
+     * Adds all non missing values from a variable to the sketch.
+     *
+     * @param var given variable
+     * @return same sketch instance
+     */
+    public QuantileSketch update(Var var) {
+        for (int i = 0; i < var.rowCount(); i++) {
+            if (!var.isMissing(i)) {
+                update(var.getDouble(i));
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Merges into this sketch the content of another sketch. The other sketch is not modified.
+     *
+     * @param other sketch to be merged
+     * @return same sketch instance
+     */
+    public QuantileSketch merge(QuantileSketch other) {
+        if (other.n == 0) {
+            return this;
+        }
+        // copy the items of other first, since other can be this sketch
+        int otherLevelCount = other.levelCount;
+        double[][] otherItems = new double[otherLevelCount][];
+        for (int h = 0; h < otherLevelCount; h++) {
+            otherItems[h] = Arrays.copyOf(other.levels[h], other.sizes[h]);
+        }
+        while (levelCount < otherLevelCount) {
+            addLevel();
+        }
+        for (int h = 0; h < otherLevelCount; h++) {
+            for (double x : otherItems[h]) {
+                append(h, x);
+            }
+        }
+        n += other.n;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        compress();
+        sortedValues = null;
+        return this;
+    }
+
+    private int capacity(int level) {
+        int depth = levelCount - level - 1;
+        return Math.max(MIN_CAPACITY, (int) Math.ceil(k * Math.pow(CAPACITY_DECAY, depth)));
+    }
+
+    private void append(int level, double x) {
+        if (sizes[level] == levels[level].length) {
+            levels[level] = Arrays.copyOf(levels[level], levels[level].length * 2);
+        }
+        levels[level][sizes[level]++] = x;
+    }
+
+    private void addLevel() {
+        levels = Arrays.copyOf(levels, levelCount + 1);
+        sizes = Arrays.copyOf(sizes, levelCount + 1);
+        levels[levelCount] = new double[MIN_CAPACITY];
+        levelCount++;
+    }
+
+    private void compress() {
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int h = 0; h < levelCount; h++) {
+                if (sizes[h] >= capacity(h)) {
+                    if (h + 1 == levelCount) {
+                        addLevel();
+                    }
+                    compact(h);
+                    changed = true;
+                    break;
+                }
+            }
+        }
+    }
+
+    private void compact(int level) {
+        double[] buff = levels[level];
+        int size = sizes[level];
+        Arrays.sort(buff, 0, size);
+        // with odd size the smallest value stays on this level
+        int start = size % 2;
+        int offset = nextBit();
+        for (int i = start + offset; i < size; i += 2) {
+            append(level + 1, buff[i]);
+        }
+        sizes[level] = start;
+    }
+
+    private int nextBit() {
+        // xorshift generator, cheap and local to the sketch
+        seed ^= seed << 13;
+        seed ^= seed >>> 7;
+        seed ^= seed << 17;
+        return (int) (seed >>> 63);
+    }
+
+    private void buildSorted() {
+        if (sortedValues != null) {
+            return;
+        }
+        int total = 0;
+        for (int h = 0; h < levelCount; h++) {
+            total += sizes[h];
+        }
+        double[] values = new double[0];
+        long[] weights = new long[0];
+        for (int h = 0; h < levelCount; h++) {
+            if (sizes[h] == 0) {
+                continue;
+            }
+            double[] level = Arrays.copyOf(levels[h], sizes[h]);
+            Arrays.sort(level);
+            long weight = 1L << h;
+
+            // merge current sorted level into the accumulated sorted arrays
+            double[] mergedValues = new double[values.length + level.length];
+            long[] mergedWeights = new long[values.length + level.length];
+            int i = 0;
+            int j = 0;
+            int pos = 0;
+            while (i < values.length || j < level.length) {
+                if (j == level.length || (i < values.length && values[i] <= level[j])) {
+                    mergedValues[pos] = values[i];
+                    mergedWeights[pos++] = weights[i++];
+                } else {
+                    mergedValues[pos] = level[j++];
+                    mergedWeights[pos++] = weight;
+                }
+            }
+            values = mergedValues;
+            weights = mergedWeights;
+        }
+        assert values.length == total;
+        sortedValues = values;
+        sortedWeights = weights;
+    }
+
+    /**
+     * @return number of non missing values seen by the sketch
+     */
+    public long n() {
+        return n;
+    }
+
+    /**
+     * @return number of values retained in the sketch
+     */
+    public int retainedCount() {
+        int total = 0;
+        for (int h = 0; h < levelCount; h++) {
+            total += sizes[h];
+        }
+        return total;
+    }
+
+    public double min() {
+        return n == 0 ? Double.NaN : min;
+    }
+
+    public double max() {
+        return n == 0 ? Double.NaN : max;
+    }
+
+    /**
+     * Estimates the normalized rank of a value, which is the fraction of values
+     * less than or equal with the given value.
+     *
+     * @param x given value
+     * @return estimated normalized rank
+     */
+    public double rank(double x) {
+        if (n == 0) {
+            return Double.NaN;
+        }
+        buildSorted();
+        long weight = 0;
+        for (int i = 0; i < sortedValues.length && sortedValues[i] <= x; i++) {
+            weight += sortedWeights[i];
+        }
+        return weight / (double) n;
+    }
+
+    /**
+     * Estimates the quantile for the given percentile.
+     *
+     * @param p percentile in [0,1]
+     * @return estimated quantile
+     */
+    public double quantile(double p) {
+        if (n == 0) {
+            return Double.NaN;
+        }
+        if (p <= 0) {
+            return min;
+        }
+        if (p >= 1) {
+            return max;
+        }
+        buildSorted();
+        double target = p * n;
+        long weight = 0;
+        for (int i = 0; i < sortedValues.length; i++) {
+            weight += sortedWeights[i];
+            if (weight >= target) {
+                return sortedValues[i];
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Estimates quantiles for the given percentiles.
+     *
+     * @param percentiles percentiles in [0,1]
+     * @return estimated quantiles
+     */
+    public double[] quantiles(double... percentiles) {
+        double[] values = new double[percentiles.length];
+        for (int i = 0; i < percentiles.length; i++) {
+            values[i] = quantile(percentiles[i]);
+        }
+        return values;
+    }
+}
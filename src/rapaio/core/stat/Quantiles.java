@@ -44,6 +44,9 @@ import static rapaio.printer.format.Format.*;
  * <p>
  * Default type is R-7, but is can be changed.
  * <p>
+ * For data which is too large to be sorted in memory or which arrives in chunks,
+ * approximate quantiles can be estimated with a {@link QuantileSketch},
+ * see {@link #approx(Var, double...)} and {@link #of(QuantileSketch, double...)}.
  * <p>
  * For further reference see:
  * http://en.wikipedia.org/wiki/Quantile
@@ -60,11 +63,27 @@ public class Quantiles implements DefaultPrintable {
         return new Quantiles(var, type, percentiles);
     }
 
+    /**
+     * Estimates approximate quantiles using a {@link QuantileSketch} with default accuracy,
+     * without sorting the values in memory.
+     */
+    public static Quantiles approx(Var var, double... percentiles) {
+        return new Quantiles(var.name(), QuantileSketch.of(var), var.rowCount(), percentiles);
+    }
+
+    /**
+     * Estimates approximate quantiles from a sketch, which can be built over multiple
+     * chunks of data or merged from multiple sketches.
+     */
+    public static Quantiles of(QuantileSketch sketch, double... percentiles) {
+        return new Quantiles("?", sketch, sketch.n(), percentiles);
+    }
+
     private final String varName;
     private final double[] percentiles;
     private final double[] quantiles;
-    private int completeCount;
-    private int missingCount;
+    private long completeCount;
+    private long missingCount;
     private final Type type;
 
     private Quantiles(Var var, Type type, double... percentiles) {
@@ -74,15 +93,31 @@ public class Quantiles implements DefaultPrintable {
         this.quantiles = compute(var);
     }
 
+    private Quantiles(String varName, QuantileSketch sketch, long rowCount, double... percentiles) {
+        this.varName = varName;
+        this.percentiles = percentiles;
+        this.type = null;
+        this.completeCount = sketch.n();
+        this.missingCount = rowCount - sketch.n();
+        this.quantiles = sketch.n() == 0 ? fill(percentiles.length) : sketch.quantiles(percentiles);
+    }
+
+    private static double[] fill(int len) {
+        double[] values = new double[len];
+        Arrays.fill(values, Double.NaN);
+        return values;
+    }
+
     private double[] compute(final Var var) {
 
         double[] x = new double[var.rowCount()];
-        completeCount = 0;
+        int completeCount = 0;
         for (int i = 0; i < x.length; i++) {
             if(var.isMissing(i))
                 continue;
             x[completeCount++] = var.getDouble(i);
         }
+        this.completeCount = completeCount;
         missingCount = var.rowCount() - completeCount;
 
         if (completeCount == 0) {
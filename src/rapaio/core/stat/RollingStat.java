@@ -0,0 +1,390 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.core.stat;
+
+import rapaio.math.MTools;
+
+import java.util.Arrays;
+
+/**
+ * Statistics over a sliding window of values. Contrary to {@link OnlineStat}, values
+ * also leave the window, thus statistics always describe the latest values.
+ * <p>
+ * A window can hold a fixed number of rows, see {@link #ofWindow(int)}, or all values
+ * with time stamps from a given time span, see {@link #ofSpan(double)}. Missing values,
+ * given as {@link Double#NaN}, occupy rows in the window but are not used in statistics.
+ * <p>
+ * Each update has the following costs:
+ * <ul>
+ * <li>count, sum, mean and variance are maintained with Welford updates in O(1),
+ * with a periodic exact recomputation to avoid drift of rounding errors</li>
+ * <li>minimum and maximum are maintained with monotone deques in amortized O(1)</li>
+ * <li>quantiles, when enabled with {@link #withQuantiles(boolean)}, are maintained in a
+ * sorted buffer with binary search, which costs O(log w) comparisons and a block move</li>
+ * </ul>
+ */
+public class RollingStat {
+
+    /**
+     * Builds rolling statistics over the last given number of rows.
+     *
+     * @param rows window size in rows
+     * @return new rolling statistics instance
+     */
+    public static RollingStat ofWindow(int rows) {
+        if (rows < 1) {
+            throw new IllegalArgumentException("Window size must be positive.");
+        }
+        return new RollingStat(rows, Double.NaN);
+    }
+
+    /**
+     * Builds rolling statistics over values with time stamps in the interval (t - span, t],
+     * where t is the time stamp of the latest value.
+     *
+     * @param span time span of the window
+     * @return new rolling statistics instance
+     */
+    public static RollingStat ofSpan(double span) {
+        if (!(span > 0)) {
+            throw new IllegalArgumentException("Time span must be positive.");
+        }
+        return new RollingStat(Integer.MAX_VALUE, span);
+    }
+
+    private final int window;
+    private final double span;
+    private boolean quantiles = false;
+
+    // ring buffer with window values and time stamps, capacity is a power of 2
+    private double[] values = new double[16];
+    private double[] times = new double[16];
+    private int head;
+    private int size;
+    private long headSeq;
+    private long seq;
+
+    private final SeqDeque minDeque = new SeqDeque();
+    private final SeqDeque maxDeque = new SeqDeque();
+
+    private double[] sorted = new double[16];
+
+    private int n;
+    private double mean;
+    private double m2;
+    private int removals;
+
+    private RollingStat(int window, double span) {
+        this.window = window;
+        this.span = span;
+    }
+
+    /**
+     * Enables or disables the maintenance of the sorted buffer required for quantiles.
+     * It can be changed only while the window is empty.
+     *
+     * @param quantiles true if quantiles are needed
+     * @return this instance
+     */
+    public RollingStat withQuantiles(boolean quantiles) {
+        if (size > 0) {
+            throw new IllegalStateException("Quantiles can be enabled only on an empty window.");
+        }
+        this.quantiles = quantiles;
+        return this;
+    }
+
+    public void clean() {
+        head = 0;
+        size = 0;
+        headSeq = seq;
+        minDeque.clear();
+        maxDeque.clear();
+        n = 0;
+        mean = 0;
+        m2 = 0;
+        removals = 0;
+    }
+
+    /**
+     * Adds a value to the window, the time stamp is the row number.
+     *
+     * @param x added value
+     */
+    public void update(double x) {
+        update(seq, x);
+    }
+
+    /**
+     * Adds a value with a time stamp to the window. Time stamps must be non decreasing.
+     *
+     * @param time time stamp
+     * @param x    added value
+     */
+    public void update(double time, double x) {
+        if (size > 0 && time < times[index(headSeq + size - 1)]) {
+            throw new IllegalArgumentException("Time stamps must be non decreasing.");
+        }
+        if (size == values.length) {
+            grow();
+        }
+        int pos = index(headSeq + size);
+        values[pos] = x;
+        times[pos] = time;
+        size++;
+        long current = seq++;
+
+        if (!Double.isNaN(x)) {
+            add(x);
+            while (!minDeque.isEmpty() && value(minDeque.last()) >= x) {
+                minDeque.removeLast();
+            }
+            minDeque.addLast(current);
+            while (!maxDeque.isEmpty() && value(maxDeque.last()) <= x) {
+                maxDeque.removeLast();
+            }
+            maxDeque.addLast(current);
+        }
+
+        while (size > window || (size > 0 && times[head] <= time - span)) {
+            evict();
+        }
+    }
+
+    private int index(long s) {
+        return (head + (int) (s - headSeq)) & (values.length - 1);
+    }
+
+    private double value(long s) {
+        return values[index(s)];
+    }
+
+    private void grow() {
+        double[] newValues = new double[values.length * 2];
+        double[] newTimes = new double[values.length * 2];
+        for (int i = 0; i < size; i++) {
+            newValues[i] = values[(head + i) & (values.length - 1)];
+            newTimes[i] = times[(head + i) & (values.length - 1)];
+        }
+        values = newValues;
+        times = newTimes;
+        head = 0;
+    }
+
+    private void evict() {
+        double x = values[head];
+        if (!Double.isNaN(x)) {
+            remove(x);
+            if (!minDeque.isEmpty() && minDeque.first() == headSeq) {
+                minDeque.removeFirst();
+            }
+            if (!maxDeque.isEmpty() && maxDeque.first() == headSeq) {
+                maxDeque.removeFirst();
+            }
+        }
+        head = (head + 1) & (values.length - 1);
+        headSeq++;
+        size--;
+    }
+
+    private void add(double x) {
+        n++;
+        double delta = x - mean;
+        mean += delta / n;
+        m2 += delta * (x - mean);
+        if (quantiles) {
+            if (n > sorted.length) {
+                sorted = Arrays.copyOf(sorted, sorted.length * 2);
+            }
+            int pos = Arrays.binarySearch(sorted, 0, n - 1, x);
+            if (pos < 0) {
+                pos = -pos - 1;
+            }
+            System.arraycopy(sorted, pos, sorted, pos + 1, n - 1 - pos);
+            sorted[pos] = x;
+        }
+    }
+
+    private void remove(double x) {
+        if (quantiles) {
+            int pos = Arrays.binarySearch(sorted, 0, n, x);
+            System.arraycopy(sorted, pos + 1, sorted, pos, n - 1 - pos);
+        }
+        n--;
+        if (n == 0) {
+            mean = 0;
+            m2 = 0;
+            return;
+        }
+        double delta = x - mean;
+        mean -= delta / n;
+        m2 -= delta * (x - mean);
+        if (++removals >= Math.max(64, size)) {
+            recompute();
+        }
+    }
+
+    private void recompute() {
+        removals = 0;
+        double sum = 0;
+        for (int i = 1; i < size; i++) {
+            double x = values[(head + i) & (values.length - 1)];
+            if (!Double.isNaN(x)) {
+                sum += x;
+            }
+        }
+        // head is evicted right after this call, so it is excluded
+        double mu = sum / n;
+        double sum2 = 0;
+        for (int i = 1; i < size; i++) {
+            double x = values[(head + i) & (values.length - 1)];
+            if (!Double.isNaN(x)) {
+                sum2 += (x - mu) * (x - mu);
+            }
+        }
+        mean = mu;
+        m2 = Math.max(0, sum2);
+    }
+
+    /**
+     * @return number of rows in the window, including missing values
+     */
+    public int rows() {
+        return size;
+    }
+
+    /**
+     * @return number of non missing values in the window
+     */
+    public int n() {
+        return n;
+    }
+
+    public double sum() {
+        return n == 0 ? Double.NaN : mean * n;
+    }
+
+    public double mean() {
+        return n == 0 ? Double.NaN : mean;
+    }
+
+    public double variance() {
+        return n == 0 ? Double.NaN : Math.max(0, m2) / n;
+    }
+
+    public double sd() {
+        return MTools.sqrt(variance());
+    }
+
+    public double sampleVariance() {
+        return n < 2 ? Double.NaN : Math.max(0, m2) / (n - 1.0);
+    }
+
+    public double sampleSd() {
+        return MTools.sqrt(sampleVariance());
+    }
+
+    public double min() {
+        return minDeque.isEmpty() ? Double.NaN : value(minDeque.first());
+    }
+
+    public double max() {
+        return maxDeque.isEmpty() ? Double.NaN : value(maxDeque.first());
+    }
+
+    /**
+     * Computes a quantile of the values from the window, using the same
+     * estimator as the default type of {@link Quantiles}.
+     *
+     * @param p percentile in [0,1]
+     * @return estimated quantile
+     */
+    public double quantile(double p) {
+        if (!quantiles) {
+            throw new IllegalStateException("Quantiles are not enabled.");
+        }
+        if (n == 0) {
+            return Double.NaN;
+        }
+        if (n == 1) {
+            return sorted[0];
+        }
+        double h = (n - 1.0) * p + 1;
+        int hfloor = (int) Math.min(StrictMath.floor(h), n - 1);
+        return sorted[hfloor - 1] + (h - hfloor) * (sorted[hfloor] - sorted[hfloor - 1]);
+    }
+
+    /**
+     * Growable double ended queue of sequence numbers.
+     */
+    private static final class SeqDeque {
+
+        private long[] data = new long[16];
+        private int head;
+        private int size;
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void clear() {
+            head = 0;
+            size = 0;
+        }
+
+        long first() {
+            return data[head];
+        }
+
+        long last() {
+            return data[(head + size - 1) & (data.length - 1)];
+        }
+
+        void addLast(long value) {
+            if (size == data.length) {
+                long[] copy = new long[data.length * 2];
+                for (int i = 0; i < size; i++) {
+                    copy[i] = data[(head + i) & (data.length - 1)];
+                }
+                data = copy;
+                head = 0;
+            }
+            data[(head + size) & (data.length - 1)] = value;
+            size++;
+        }
+
+        void removeFirst() {
+            head = (head + 1) & (data.length - 1);
+            size--;
+        }
+
+        void removeLast() {
+            size--;
+        }
+    }
+}
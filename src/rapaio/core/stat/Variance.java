@@ -59,6 +59,12 @@ public class Variance implements DefaultPrintable {
     }
 
     private void compute(final Var var) {
+        double[] view = var.doubleView();
+        if (view != null) {
+            // storage of double values, where missing values are NaN
+            compute(view, var.rowCount(), Mean.of(view, 0, var.rowCount()).value());
+            return;
+        }
         double mean = Mean.of(var).value();
         for (int i = 0; i < var.rowCount(); i++) {
             if (var.isMissing(i)) {
@@ -84,6 +90,31 @@ public class Variance implements DefaultPrintable {
         biasedValue = (sum2 - Math.pow(sum3, 2) / (1.0 * completeCount)) / (1.0 * completeCount);
     }
 
+    private void compute(final double[] values, final int len, final double mean) {
+        for (int i = 0; i < len; i++) {
+            if (Double.isNaN(values[i])) {
+                missingCount++;
+            } else {
+                completeCount++;
+            }
+        }
+        if (completeCount == 0) {
+            value = Double.NaN;
+            biasedValue = Double.NaN;
+        }
+        double sum2 = 0;
+        double sum3 = 0;
+        for (int i = 0; i < len; i++) {
+            if (Double.isNaN(values[i])) {
+                continue;
+            }
+            sum2 += Math.pow(values[i] - mean, 2);
+            sum3 += values[i] - mean;
+        }
+        value = (sum2 - Math.pow(sum3, 2) / (1.0 * completeCount)) / (completeCount - 1.0);
+        biasedValue = (sum2 - Math.pow(sum3, 2) / (1.0 * completeCount)) / (1.0 * completeCount);
+    }
+
     public double value() {
         return value;
     }
@@ -43,6 +43,19 @@ public abstract class AbstractVar implements Var {
         return name;
     }
 
+    /**
+     * Validates a range of rows used by bulk copy operations.
+     *
+     * @param start    first row of the range
+     * @param end      row after the last row of the range
+     * @param rowCount number of rows of the variable
+     */
+    protected static void checkRange(int start, int end, int rowCount) {
+        if (start < 0 || start > end || end > rowCount) {
+            throw new IndexOutOfBoundsException("Invalid row range [" + start + "," + end + ") for row count " + rowCount);
+        }
+    }
+
     public Var withName(String name) {
         this.name = name;
         return this;
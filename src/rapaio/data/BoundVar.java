@@ -149,6 +149,42 @@ public class BoundVar extends AbstractVar {
         throw unavailableException();
     }
 
+    @Override
+    public void copyDoubles(int start, int end, double[] dst, int offset) {
+        checkRange(start, end, rowCount);
+        if (start == end) {
+            return;
+        }
+        int pos = findIndex(start);
+        int row = start;
+        while (row < end) {
+            int segmentStart = pos > 0 ? counts.get(pos - 1) : 0;
+            int segmentEnd = Math.min(end, counts.get(pos));
+            vars.get(pos).copyDoubles(row - segmentStart, segmentEnd - segmentStart, dst, offset);
+            offset += segmentEnd - row;
+            row = segmentEnd;
+            pos++;
+        }
+    }
+
+    @Override
+    public void copyInts(int start, int end, int[] dst, int offset) {
+        checkRange(start, end, rowCount);
+        if (start == end) {
+            return;
+        }
+        int pos = findIndex(start);
+        int row = start;
+        while (row < end) {
+            int segmentStart = pos > 0 ? counts.get(pos - 1) : 0;
+            int segmentEnd = Math.min(end, counts.get(pos));
+            vars.get(pos).copyInts(row - segmentStart, segmentEnd - segmentStart, dst, offset);
+            offset += segmentEnd - row;
+            row = segmentEnd;
+            pos++;
+        }
+    }
+
     @Override
     public void removeRow(int row) {
         throw unavailableException();
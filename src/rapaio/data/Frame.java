@@ -112,6 +112,84 @@ public interface Frame extends Serializable, DefaultPrintable {
      */
     Var rvar(String name);
 
+    /**
+     * Copies double values of a column for rows from {@code start} inclusive
+     * to {@code end} exclusive into the given array.
+     *
+     * @param col    column position
+     * @param start  first row to copy
+     * @param end    row after the last row to copy
+     * @param dst    destination array
+     * @param offset position of the first copied value in destination array
+     * @see Var#copyDoubles(int, int, double[], int)
+     */
+    default void copyDoubles(int col, int start, int end, double[] dst, int offset) {
+        rvar(col).copyDoubles(start, end, dst, offset);
+    }
+
+    /**
+     * Copies int values of a column for rows from {@code start} inclusive
+     * to {@code end} exclusive into the given array.
+     *
+     * @param col    column position
+     * @param start  first row to copy
+     * @param end    row after the last row to copy
+     * @param dst    destination array
+     * @param offset position of the first copied value in destination array
+     * @see Var#copyInts(int, int, int[], int)
+     */
+    default void copyInts(int col, int start, int end, int[] dst, int offset) {
+        rvar(col).copyInts(start, end, dst, offset);
+    }
+
+    /**
+     * Read access to the double values of a column through an array, which could be
+     * the storage of the column or a copy. The returned array must not be modified.
+     *
+     * @param col column position
+     * @return array with double values at positions corresponding to rows
+     * @see Var#doubleArray()
+     */
+    default double[] doubleArray(int col) {
+        return rvar(col).doubleArray();
+    }
+
+    /**
+     * Read access to the double values of a column through an array, which could be
+     * the storage of the column or a copy. The returned array must not be modified.
+     *
+     * @param name column name
+     * @return array with double values at positions corresponding to rows
+     * @see Var#doubleArray()
+     */
+    default double[] doubleArray(String name) {
+        return doubleArray(varIndex(name));
+    }
+
+    /**
+     * Read access to the int values of a column through an array, which could be
+     * the storage of the column or a copy. The returned array must not be modified.
+     *
+     * @param col column position
+     * @return array with int values at positions corresponding to rows
+     * @see Var#intArray()
+     */
+    default int[] intArray(int col) {
+        return rvar(col).intArray();
+    }
+
+    /**
+     * Read access to the int values of a column through an array, which could be
+     * the storage of the column or a copy. The returned array must not be modified.
+     *
+     * @param name column name
+     * @return array with int values at positions corresponding to rows
+     * @see Var#intArray()
+     */
+    default int[] intArray(String name) {
+        return intArray(varIndex(name));
+    }
+
     /**
      * Returns the type of the given var
      *
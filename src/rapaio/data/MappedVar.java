@@ -27,6 +27,7 @@
 
 package rapaio.data;
 
+import it.unimi.dsi.fastutil.ints.IntList;
 import rapaio.printer.*;
 
 import java.util.List;
@@ -68,6 +69,7 @@ public class MappedVar extends AbstractVar {
     }
 
     private static final long serialVersionUID = -2293127457462742840L;
+    private static final int COPY_CHUNK = 1024;
     private final Var source;
     private final Mapping mapping;
 
@@ -191,6 +193,48 @@ public class MappedVar extends AbstractVar {
         throw nowAllowedException();
     }
 
+    @Override
+    public void copyDoubles(int start, int end, double[] dst, int offset) {
+        checkRange(start, end, rowCount());
+        IntList rows = mapping.toList();
+        int[] buffer = new int[Math.min(COPY_CHUNK, end - start)];
+        double[] view = source.doubleView();
+        for (int from = start; from < end; from += buffer.length) {
+            int len = Math.min(buffer.length, end - from);
+            rows.getElements(from, buffer, 0, len);
+            if (view != null) {
+                for (int i = 0; i < len; i++) {
+                    dst[offset++] = view[buffer[i]];
+                }
+            } else {
+                for (int i = 0; i < len; i++) {
+                    dst[offset++] = source.getDouble(buffer[i]);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void copyInts(int start, int end, int[] dst, int offset) {
+        checkRange(start, end, rowCount());
+        IntList rows = mapping.toList();
+        int[] buffer = new int[Math.min(COPY_CHUNK, end - start)];
+        int[] view = source.intView();
+        for (int from = start; from < end; from += buffer.length) {
+            int len = Math.min(buffer.length, end - from);
+            rows.getElements(from, buffer, 0, len);
+            if (view != null) {
+                for (int i = 0; i < len; i++) {
+                    dst[offset++] = view[buffer[i]];
+                }
+            } else {
+                for (int i = 0; i < len; i++) {
+                    dst[offset++] = source.getInt(buffer[i]);
+                }
+            }
+        }
+    }
+
     @Override
     public void removeRow(int row) {
         mapping.remove(row);
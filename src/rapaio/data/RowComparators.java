@@ -54,6 +54,11 @@ public final class RowComparators implements Serializable {
     public static IntComparator labelComparator(final Var var, final boolean asc) {
         final int sign = asc ? 1 : -1;
 
+        if (var instanceof VarText) {
+            // compares stored bytes without decoding labels
+            final VarText text = (VarText) var;
+            return (row1, row2) -> sign * text.compareLabels(row1, row2);
+        }
         return (row1, row2) -> {
             if (var.isMissing(row1) && var.isMissing(row2)) {
                 return 0;
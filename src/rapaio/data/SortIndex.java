@@ -0,0 +1,379 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.data;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Row order of a frame or variable sorted by one or more keys.
+ * <p>
+ * The values of each key variable are read only once and encoded as primitive
+ * long keys which preserve the order of the row comparators from {@link RowComparators}:
+ * missing values are placed first for ascending order and labels of nominal
+ * and text variables are ranked by their lexicographical order. Rows are
+ * sorted with a stable parallel radix sort, thus rows with equal keys keep
+ * their original order.
+ * <p>
+ * The index does not depend on the sorted frame after it is built, so it can be
+ * reused to map the frame or any variable with the same rows, as long as the
+ * key values are not changed.
+ */
+public final class SortIndex implements Serializable {
+
+    /**
+     * Builds a sort index for a single variable.
+     *
+     * @param var variable to sort
+     * @param asc true for ascending order, false for descending
+     * @return sort index
+     */
+    public static SortIndex of(Var var, boolean asc) {
+        return new SortIndex(var.rowCount(), new Var[]{var}, new boolean[]{asc});
+    }
+
+    /**
+     * Builds a sort index for a frame, sorted ascending by the given variables.
+     *
+     * @param df       frame to sort
+     * @param varNames key variable names, the first key is the most significant
+     * @return sort index
+     */
+    public static SortIndex of(Frame df, String... varNames) {
+        boolean[] asc = new boolean[varNames.length];
+        Arrays.fill(asc, true);
+        return of(df, varNames, asc);
+    }
+
+    /**
+     * Builds a sort index for a frame, sorted by the given variables with given directions.
+     *
+     * @param df       frame to sort
+     * @param varNames key variable names, the first key is the most significant
+     * @param asc      sort direction for each key, true for ascending
+     * @return sort index
+     */
+    public static SortIndex of(Frame df, String[] varNames, boolean[] asc) {
+        if (varNames.length == 0) {
+            throw new IllegalArgumentException("At least one sort key is required.");
+        }
+        if (varNames.length != asc.length) {
+            throw new IllegalArgumentException("Number of sort directions is not equal with number of keys.");
+        }
+        Var[] vars = new Var[varNames.length];
+        for (int i = 0; i < vars.length; i++) {
+            vars[i] = df.rvar(varNames[i]);
+        }
+        return new SortIndex(df.rowCount(), vars, asc);
+    }
+
+    private static final long serialVersionUID = 3196624404584380417L;
+    private static final int CHUNK_SIZE = 1 << 16;
+    private static final int RADIX = 256;
+
+    private final int[] rows;
+
+    private SortIndex(int rowCount, Var[] vars, boolean[] asc) {
+        int[] order = new int[rowCount];
+        Arrays.setAll(order, i -> i);
+        if (rowCount > 1) {
+            long[] keys = new long[rowCount];
+            long[] keyBuffer = new long[rowCount];
+            int[] orderBuffer = new int[rowCount];
+            // least significant key first, the radix sort is stable
+            for (int k = vars.length - 1; k >= 0; k--) {
+                long[] values = keys(vars[k], asc[k]);
+                int[] current = order;
+                IntStream.range(0, chunks(rowCount)).parallel().forEach(chunk -> {
+                    int end = Math.min(rowCount, (chunk + 1) * CHUNK_SIZE);
+                    for (int i = chunk * CHUNK_SIZE; i < end; i++) {
+                        keys[i] = values[current[i]];
+                    }
+                });
+                if (radixSort(keys, order, keyBuffer, orderBuffer)) {
+                    // sorted rows ended in buffer, keys are gathered again for the next key
+                    System.arraycopy(orderBuffer, 0, order, 0, rowCount);
+                }
+            }
+        }
+        this.rows = order;
+    }
+
+    /**
+     * @return number of sorted rows
+     */
+    public int size() {
+        return rows.length;
+    }
+
+    /**
+     * @param pos position in sorted order
+     * @return row placed at the given position in sorted order
+     */
+    public int row(int pos) {
+        return rows[pos];
+    }
+
+    /**
+     * @return a copy of the sorted rows
+     */
+    public int[] rows() {
+        return Arrays.copyOf(rows, rows.length);
+    }
+
+    /**
+     * @return mapping with sorted rows
+     */
+    public Mapping mapping() {
+        return Mapping.wrap(IntArrayList.wrap(rows()));
+    }
+
+    /**
+     * Maps the rows of a frame in sorted order.
+     *
+     * @param df frame with the same rows as the sorted one
+     * @return mapped frame with rows in sorted order
+     */
+    public Frame apply(Frame df) {
+        checkRows(df.rowCount());
+        return MappedFrame.byRow(df, mapping());
+    }
+
+    /**
+     * Maps the rows of a variable in sorted order.
+     *
+     * @param var variable with the same rows as the sorted one
+     * @return mapped variable with rows in sorted order
+     */
+    public Var apply(Var var) {
+        checkRows(var.rowCount());
+        return var.mapRows(mapping());
+    }
+
+    private void checkRows(int rowCount) {
+        if (rowCount != rows.length) {
+            throw new IllegalArgumentException("Row count " + rowCount + " does not match sort index size " + rows.length + ".");
+        }
+    }
+
+    private static int chunks(int n) {
+        return (n + CHUNK_SIZE - 1) / CHUNK_SIZE;
+    }
+
+    /**
+     * Encodes the values of a variable into signed long keys with the same order as the row comparators.
+     */
+    static long[] keys(Var var, boolean asc) {
+        int n = var.rowCount();
+        long[] keys = new long[n];
+        switch (var.type()) {
+            case DOUBLE: {
+                double[] values = var.doubleArray();
+                IntStream.range(0, chunks(n)).parallel().forEach(chunk -> {
+                    int end = Math.min(n, (chunk + 1) * CHUNK_SIZE);
+                    for (int i = chunk * CHUNK_SIZE; i < end; i++) {
+                        keys[i] = doubleKey(values[i]);
+                    }
+                });
+                break;
+            }
+            case INT:
+            case BINARY: {
+                int[] values = var.intArray();
+                for (int i = 0; i < n; i++) {
+                    keys[i] = values[i];
+                }
+                break;
+            }
+            case LONG:
+                // missing value is the smallest long value
+                for (int i = 0; i < n; i++) {
+                    keys[i] = var.getLong(i);
+                }
+                break;
+            case NOMINAL: {
+                List<String> levels = var.levels();
+                Integer[] sorted = new Integer[levels.size() - 1];
+                for (int i = 0; i < sorted.length; i++) {
+                    sorted[i] = i + 1;
+                }
+                Arrays.sort(sorted, Comparator.comparing(levels::get));
+                long[] rank = new long[levels.size()];
+                for (int i = 0; i < sorted.length; i++) {
+                    rank[sorted[i]] = i + 1;
+                }
+                int[] values = var.intArray();
+                for (int i = 0; i < n; i++) {
+                    keys[i] = rank[values[i]];
+                }
+                break;
+            }
+            default: {
+                // text values are ranked through their distinct values
+                Object2IntOpenHashMap<String> index = new Object2IntOpenHashMap<>();
+                index.defaultReturnValue(-1);
+                List<String> distinct = new ArrayList<>();
+                int[] ids = new int[n];
+                for (int i = 0; i < n; i++) {
+                    if (var.isMissing(i)) {
+                        ids[i] = -1;
+                        continue;
+                    }
+                    String label = var.getLabel(i);
+                    int id = index.getInt(label);
+                    if (id == -1) {
+                        id = distinct.size();
+                        distinct.add(label);
+                        index.put(label, id);
+                    }
+                    ids[i] = id;
+                }
+                Integer[] sorted = new Integer[distinct.size()];
+                for (int i = 0; i < sorted.length; i++) {
+                    sorted[i] = i;
+                }
+                Arrays.sort(sorted, Comparator.comparing(distinct::get));
+                long[] rank = new long[sorted.length];
+                for (int i = 0; i < sorted.length; i++) {
+                    rank[sorted[i]] = i + 1;
+                }
+                for (int i = 0; i < n; i++) {
+                    keys[i] = ids[i] == -1 ? 0 : rank[ids[i]];
+                }
+            }
+        }
+        if (!asc) {
+            for (int i = 0; i < n; i++) {
+                keys[i] = ~keys[i];
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Encodes a double value into a long key with the order of {@link RowComparators#doubleComparator(Var, boolean)}:
+     * missing values first, then negative values, positive zero, negative zero and positive values.
+     */
+    private static long doubleKey(double value) {
+        if (Double.isNaN(value)) {
+            return Long.MIN_VALUE;
+        }
+        long bits = Double.doubleToRawLongBits(value);
+        if (bits == Long.MIN_VALUE) {
+            // negative zero is placed between positive zero and the smallest positive value
+            return 1;
+        }
+        if (bits >= 0) {
+            return bits == 0 ? 0 : bits + 1;
+        }
+        // negative values have the magnitude bits reversed
+        return bits ^ Long.MAX_VALUE;
+    }
+
+    /**
+     * Stable parallel least significant digit radix sort of keys, with the row order as payload.
+     * Passes on bytes with the same value for all keys are skipped.
+     *
+     * @return true if the sorted values are placed in buffers, false if they are in the original arrays
+     */
+    private static boolean radixSort(long[] keys, int[] order, long[] keyBuffer, int[] orderBuffer) {
+        int n = keys.length;
+        int chunks = chunks(n);
+        long[] srcKeys = keys;
+        int[] srcOrder = order;
+        long[] dstKeys = keyBuffer;
+        int[] dstOrder = orderBuffer;
+        boolean swapped = false;
+
+        int[][] counts = new int[chunks][RADIX];
+        for (int shift = 0; shift < 64; shift += 8) {
+            final int s = shift;
+            final long[] fromKeys = srcKeys;
+            IntStream.range(0, chunks).parallel().forEach(chunk -> {
+                int[] count = counts[chunk];
+                Arrays.fill(count, 0);
+                int end = Math.min(n, (chunk + 1) * CHUNK_SIZE);
+                for (int i = chunk * CHUNK_SIZE; i < end; i++) {
+                    count[digit(fromKeys[i], s)]++;
+                }
+            });
+
+            // skip the pass if all keys have the same digit
+            int first = digit(srcKeys[0], shift);
+            int total = 0;
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                total += counts[chunk][first];
+            }
+            if (total == n) {
+                continue;
+            }
+
+            // counts become start positions for each chunk and digit
+            int pos = 0;
+            for (int d = 0; d < RADIX; d++) {
+                for (int chunk = 0; chunk < chunks; chunk++) {
+                    int count = counts[chunk][d];
+                    counts[chunk][d] = pos;
+                    pos += count;
+                }
+            }
+
+            final int[] fromOrder = srcOrder;
+            final long[] toKeys = dstKeys;
+            final int[] toOrder = dstOrder;
+            IntStream.range(0, chunks).parallel().forEach(chunk -> {
+                int[] next = counts[chunk];
+                int end = Math.min(n, (chunk + 1) * CHUNK_SIZE);
+                for (int i = chunk * CHUNK_SIZE; i < end; i++) {
+                    int p = next[digit(fromKeys[i], s)]++;
+                    toKeys[p] = fromKeys[i];
+                    toOrder[p] = fromOrder[i];
+                }
+            });
+
+            srcKeys = toKeys;
+            srcOrder = toOrder;
+            dstKeys = fromKeys;
+            dstOrder = fromOrder;
+            swapped = !swapped;
+        }
+        return swapped;
+    }
+
+    private static int digit(long key, int shift) {
+        // flipping the sign bit makes the unsigned byte order equal with the signed order
+        return (int) (((key ^ Long.MIN_VALUE) >>> shift) & 0xFF);
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.data;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Append only storage for strings kept as UTF-8 bytes in a single contiguous byte array.
+ * Each added string receives an integer id which is the position of its offset entry,
+ * the bytes of string {@code id} are found between {@code offsets[id]} and {@code offsets[id+1]}.
+ * <p>
+ * Compared with a collection of {@link String} objects the arena does not pay for object
+ * headers and for the char array of each value, and ASCII text takes a single byte per character.
+ * Strings are decoded on access.
+ */
+final class StringArena implements Serializable {
+
+    private static final long serialVersionUID = 2707035574414937002L;
+
+    private byte[] bytes;
+    private int[] offsets;
+    private int count;
+
+    StringArena() {
+        this(16, 128);
+    }
+
+    StringArena(int valueCapacity, int byteCapacity) {
+        bytes = new byte[Math.max(16, byteCapacity)];
+        offsets = new int[Math.max(2, valueCapacity + 1)];
+        count = 0;
+    }
+
+    /**
+     * @return number of strings stored in arena
+     */
+    int count() {
+        return count;
+    }
+
+    /**
+     * @return number of bytes used by stored strings
+     */
+    int byteCount() {
+        return offsets[count];
+    }
+
+    /**
+     * @param id string id
+     * @return number of UTF-8 bytes of the string
+     */
+    int byteLength(int id) {
+        return offsets[id + 1] - offsets[id];
+    }
+
+    /**
+     * Appends a string to the arena.
+     *
+     * @param value non null string value
+     * @return id of the stored string
+     */
+    int add(String value) {
+        int len = value.length();
+        int start = offsets[count];
+        ensureBytes(start + len);
+        int pos = start;
+        for (int i = 0; i < len; i++) {
+            char ch = value.charAt(i);
+            if (ch >= 0x80) {
+                // not ASCII, fallback to the standard encoder for the whole value
+                byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+                ensureBytes(start + encoded.length);
+                System.arraycopy(encoded, 0, bytes, start, encoded.length);
+                pos = start + encoded.length;
+                break;
+            }
+            bytes[pos++] = (byte) ch;
+        }
+        return append(pos);
+    }
+
+    /**
+     * Appends to this arena a copy of the bytes of a string from another arena,
+     * without decoding it.
+     *
+     * @param source source arena
+     * @param id     id of the string from source arena
+     * @return id of the stored string in this arena
+     */
+    int addFrom(StringArena source, int id) {
+        int len = source.byteLength(id);
+        int start = offsets[count];
+        ensureBytes(start + len);
+        System.arraycopy(source.bytes, source.offsets[id], bytes, start, len);
+        return append(start + len);
+    }
+
+    /**
+     * Decodes the string with the given id.
+     *
+     * @param id string id
+     * @return decoded string value
+     */
+    String get(int id) {
+        int start = offsets[id];
+        int end = offsets[id + 1];
+        for (int i = start; i < end; i++) {
+            if (bytes[i] < 0) {
+                return new String(bytes, start, end - start, StandardCharsets.UTF_8);
+            }
+        }
+        return new String(bytes, start, end - start, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Compares the stored string with a given value without decoding it.
+     *
+     * @param id    string id
+     * @param value non null string value
+     * @return true if the stored string is equal with the given value
+     */
+    boolean equalsTo(int id, String value) {
+        int start = offsets[id];
+        int len = offsets[id + 1] - start;
+        if (len != value.length()) {
+            // a non ASCII value has more bytes than chars
+            return len > value.length() && value.equals(get(id));
+        }
+        for (int i = 0; i < len; i++) {
+            char ch = value.charAt(i);
+            if (ch >= 0x80 || bytes[start + i] < 0) {
+                return value.equals(get(id));
+            }
+            if (bytes[start + i] != ch) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Compares two stored strings in the lexicographic order of {@link String#compareTo(String)},
+     * without decoding them when they differ on an ASCII char.
+     *
+     * @param id1 id of the first string
+     * @param id2 id of the second string
+     * @return a negative, zero or positive value if the first string is smaller, equal or greater
+     */
+    int compare(int id1, int id2) {
+        int start1 = offsets[id1];
+        int len1 = offsets[id1 + 1] - start1;
+        int start2 = offsets[id2];
+        int len2 = offsets[id2 + 1] - start2;
+        int len = Math.min(len1, len2);
+        for (int i = 0; i < len; i++) {
+            byte b1 = bytes[start1 + i];
+            byte b2 = bytes[start2 + i];
+            if (b1 != b2) {
+                if (b1 >= 0 || b2 >= 0) {
+                    // an ASCII char is smaller than any other char in both UTF-8 and UTF-16 order
+                    return (b1 & 0xff) - (b2 & 0xff);
+                }
+                // UTF-8 and UTF-16 orders differ for supplementary chars
+                return get(id1).compareTo(get(id2));
+            }
+        }
+        return len1 - len2;
+    }
+
+    /**
+     * Removes all strings from arena, keeping the allocated buffers.
+     */
+    void clear() {
+        count = 0;
+    }
+
+    private int append(int end) {
+        if (count + 2 > offsets.length) {
+            offsets = Arrays.copyOf(offsets, offsets.length + (offsets.length >> 1) + 1);
+        }
+        offsets[++count] = end;
+        return count - 1;
+    }
+
+    private void ensureBytes(int minCapacity) {
+        if (minCapacity <= bytes.length) {
+            return;
+        }
+        int newCapacity = bytes.length + (bytes.length >> 1);
+        if (newCapacity < minCapacity) {
+            newCapacity = minCapacity;
+        }
+        bytes = Arrays.copyOf(bytes, newCapacity);
+    }
+}
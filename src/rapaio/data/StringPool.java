@@ -0,0 +1,93 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.data;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Global string interning shared by all variables and frames.
+ * <p>
+ * When enabled, the labels which are stored as objects by variables, like the
+ * levels of nominal variables, are replaced by a canonical instance, so that
+ * columns and frames which use the same labels share a single {@link String}
+ * instance for each distinct label. Interning is disabled by default, since
+ * the pool keeps all seen labels reachable until {@link #clear()} is called.
+ */
+public final class StringPool {
+
+    private static final ConcurrentHashMap<String, String> pool = new ConcurrentHashMap<>();
+    private static volatile boolean enabled = false;
+
+    private StringPool() {
+    }
+
+    /**
+     * @return true if global interning is enabled
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enables or disables global interning. Labels already interned remain in pool.
+     *
+     * @param enabled true to enable interning
+     */
+    public static void setEnabled(boolean enabled) {
+        StringPool.enabled = enabled;
+    }
+
+    /**
+     * Returns the canonical instance of a string value if interning is enabled,
+     * otherwise returns the value itself.
+     *
+     * @param value string value, could be null
+     * @return canonical instance of the string value
+     */
+    public static String intern(String value) {
+        if (!enabled || value == null) {
+            return value;
+        }
+        String previous = pool.putIfAbsent(value, value);
+        return previous == null ? value : previous;
+    }
+
+    /**
+     * @return number of distinct interned strings
+     */
+    public static int size() {
+        return pool.size();
+    }
+
+    /**
+     * Removes all interned strings from pool.
+     */
+    public static void clear() {
+        pool.clear();
+    }
+}
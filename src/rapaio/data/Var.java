@@ -302,6 +302,102 @@ public interface Var extends Serializable, DefaultPrintable {
      */
     Var newInstance(int rows);
 
+    /**
+     * Copies double values of rows from {@code start} inclusive to {@code end} exclusive
+     * into the given array, starting with position {@code offset}. The copied values
+     * are the same as the values returned by {@link #getDouble(int)}.
+     *
+     * @param start  first row to copy
+     * @param end    row after the last row to copy
+     * @param dst    destination array
+     * @param offset position of the first copied value in destination array
+     */
+    default void copyDoubles(int start, int end, double[] dst, int offset) {
+        for (int i = start; i < end; i++) {
+            dst[offset++] = getDouble(i);
+        }
+    }
+
+    /**
+     * Copies int values of rows from {@code start} inclusive to {@code end} exclusive
+     * into the given array, starting with position {@code offset}. The copied values
+     * are the same as the values returned by {@link #getInt(int)}.
+     *
+     * @param start  first row to copy
+     * @param end    row after the last row to copy
+     * @param dst    destination array
+     * @param offset position of the first copied value in destination array
+     */
+    default void copyInts(int start, int end, int[] dst, int offset) {
+        for (int i = start; i < end; i++) {
+            dst[offset++] = getInt(i);
+        }
+    }
+
+    /**
+     * Returns the array which stores the values of the variable, if the storage is
+     * a double array which contains at position {@code i} the value {@link #getDouble(int)}
+     * for each row {@code i}. The returned array is not a copy, changes to it are changes
+     * of the variable. The length of the array can be greater than the number of rows
+     * and the array can be replaced when rows are added.
+     *
+     * @return backing double array or null if the storage does not allow a direct view
+     */
+    default double[] doubleView() {
+        return null;
+    }
+
+    /**
+     * Returns the array which stores the values of the variable, if the storage is
+     * an int array which contains at position {@code i} the value {@link #getInt(int)}
+     * for each row {@code i}. The returned array is not a copy, changes to it are changes
+     * of the variable. The length of the array can be greater than the number of rows
+     * and the array can be replaced when rows are added.
+     *
+     * @return backing int array or null if the storage does not allow a direct view
+     */
+    default int[] intView() {
+        return null;
+    }
+
+    /**
+     * Gives read access to double values of all rows through an array. When the
+     * variable allows it, this is the view given by {@link #doubleView()}, otherwise
+     * it is a copy made with {@link #copyDoubles(int, int, double[], int)}.
+     * The returned array must not be modified and its length can be greater than
+     * the number of rows.
+     *
+     * @return array with double values at positions corresponding to rows
+     */
+    default double[] doubleArray() {
+        double[] view = doubleView();
+        if (view != null) {
+            return view;
+        }
+        double[] copy = new double[rowCount()];
+        copyDoubles(0, copy.length, copy, 0);
+        return copy;
+    }
+
+    /**
+     * Gives read access to int values of all rows through an array. When the
+     * variable allows it, this is the view given by {@link #intView()}, otherwise
+     * it is a copy made with {@link #copyInts(int, int, int[], int)}.
+     * The returned array must not be modified and its length can be greater than
+     * the number of rows.
+     *
+     * @return array with int values at positions corresponding to rows
+     */
+    default int[] intArray() {
+        int[] view = intView();
+        if (view != null) {
+            return view;
+        }
+        int[] copy = new int[rowCount()];
+        copyInts(0, copy.length, copy, 0);
+        return copy;
+    }
+
     /**
      * @return a stream of variables spots
      */
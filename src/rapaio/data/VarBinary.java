@@ -392,6 +392,30 @@ public final class VarBinary extends AbstractVar {
         return (VarBinary) super.solidCopy();
     }
 
+    @Override
+    public void copyDoubles(int start, int end, double[] dst, int offset) {
+        checkRange(start, end, rows);
+        Arrays.fill(dst, offset, offset + end - start, 0.0);
+        for (int i = values.nextSetBit(start); i >= 0 && i < end; i = values.nextSetBit(i + 1)) {
+            dst[offset + i - start] = 1.0;
+        }
+        for (int i = missing.nextSetBit(start); i >= 0 && i < end; i = missing.nextSetBit(i + 1)) {
+            dst[offset + i - start] = Double.NaN;
+        }
+    }
+
+    @Override
+    public void copyInts(int start, int end, int[] dst, int offset) {
+        checkRange(start, end, rows);
+        Arrays.fill(dst, offset, offset + end - start, 0);
+        for (int i = values.nextSetBit(start); i >= 0 && i < end; i = values.nextSetBit(i + 1)) {
+            dst[offset + i - start] = 1;
+        }
+        for (int i = missing.nextSetBit(start); i >= 0 && i < end; i = missing.nextSetBit(i + 1)) {
+            dst[offset + i - start] = Integer.MIN_VALUE;
+        }
+    }
+
     private void writeObject(ObjectOutputStream out) throws IOException {
         out.writeInt(rowCount());
         byte[] buff = values.toByteArray();
@@ -518,6 +518,17 @@ public final class VarDouble extends AbstractVar {
         return copy;
     }
 
+    @Override
+    public void copyDoubles(int start, int end, double[] dst, int offset) {
+        checkRange(start, end, rows);
+        System.arraycopy(data, start, dst, offset, end - start);
+    }
+
+    @Override
+    public double[] doubleView() {
+        return data;
+    }
+
     public VarDoubleDataAccessor getDataAccessor() {
         return new VarDoubleDataAccessor() {
             @Override
@@ -384,6 +384,26 @@ public final class VarInt extends AbstractVar {
         return (VarInt) super.solidCopy();
     }
 
+    @Override
+    public void copyInts(int start, int end, int[] dst, int offset) {
+        checkRange(start, end, rows);
+        System.arraycopy(data, start, dst, offset, end - start);
+    }
+
+    @Override
+    public void copyDoubles(int start, int end, double[] dst, int offset) {
+        checkRange(start, end, rows);
+        for (int i = start; i < end; i++) {
+            int value = data[i];
+            dst[offset++] = (value == MISSING_VALUE) ? Double.NaN : value;
+        }
+    }
+
+    @Override
+    public int[] intView() {
+        return data;
+    }
+
     public VarIntDataAccessor getDataAccessor() {
         return new VarIntDataAccessor() {
             @Override
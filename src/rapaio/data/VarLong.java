@@ -505,6 +505,22 @@ public class VarLong extends AbstractVar {
         return (VarLong) super.solidCopy();
     }
 
+    @Override
+    public void copyDoubles(int start, int end, double[] dst, int offset) {
+        checkRange(start, end, rows);
+        for (int i = start; i < end; i++) {
+            dst[offset++] = data[i];
+        }
+    }
+
+    @Override
+    public void copyInts(int start, int end, int[] dst, int offset) {
+        checkRange(start, end, rows);
+        for (int i = start; i < end; i++) {
+            dst[offset++] = (int) data[i];
+        }
+    }
+
     @Override
     public String toString() {
         return "VarLong[name:" + name() + ", rowCount:" + rowCount() + "]";
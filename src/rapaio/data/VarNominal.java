@@ -101,8 +101,7 @@ public final class VarNominal extends AbstractVar {
         for (String next : dict) {
             if (used.contains(next)) continue;
             used.add(next);
-            nominal.dict.add(next);
-            nominal.reverse.put(next, nominal.reverse.size());
+            nominal.addLevel(next);
         }
         nominal.data = new int[rows];
         nominal.rows = rows;
@@ -140,8 +139,14 @@ public final class VarNominal extends AbstractVar {
     private int[] data;
     private Object2IntMap<String> reverse;
 
+    private static Object2IntMap<String> newReverse(int capacity) {
+        Object2IntOpenHashMap<String> map = new Object2IntOpenHashMap<>(capacity);
+        map.defaultReturnValue(-1);
+        return map;
+    }
+
     private VarNominal() {
-        this.reverse = new Object2IntOpenHashMap<>();
+        this.reverse = newReverse(Object2IntOpenHashMap.DEFAULT_INITIAL_SIZE);
         this.reverse.put("?", 0);
         this.dict = new ArrayList<>();
         this.dict.add("?");
@@ -267,23 +272,31 @@ public final class VarNominal extends AbstractVar {
             data[row] = missingIndex;
             return;
         }
-        if (!reverse.containsKey(value)) {
-            dict.add(value);
-            reverse.put(value, reverse.size());
-            data[row] = reverse.size() - 1;
-        } else {
-            data[row] = reverse.getInt(value);
-        }
+        int index = reverse.getInt(value);
+        data[row] = (index == -1) ? addLevel(value) : index;
     }
 
     @Override
     public void addLabel(String label) {
         grow(rows + 1);
-        if (!reverse.containsKey(label)) {
-            dict.add(label);
-            reverse.put(label, reverse.size());
-        }
-        data[rows++] = reverse.getInt(label);
+        int index = reverse.getInt(label);
+        data[rows++] = (index == -1) ? addLevel(label) : index;
+    }
+
+    /**
+     * Appends a new level to dictionary. The label is interned
+     * through {@link StringPool}, so columns which share labels
+     * can share the string instances.
+     *
+     * @param label new level label
+     * @return index of the new level
+     */
+    private int addLevel(String label) {
+        String interned = StringPool.intern(label);
+        int index = dict.size();
+        dict.add(interned);
+        reverse.put(interned, index);
+        return index;
     }
 
     @Override
@@ -306,7 +319,7 @@ public final class VarNominal extends AbstractVar {
         }
 
         this.dict = new ArrayList<>();
-        this.reverse = new Object2IntOpenHashMap<>(dict.length);
+        this.reverse = newReverse(dict.length);
         this.dict.add("?");
         this.reverse.put("?", 0);
 
@@ -314,8 +327,7 @@ public final class VarNominal extends AbstractVar {
         for (int i = 0; i < dict.length; i++) {
             String term = dict[i];
             if (!reverse.containsKey(term)) {
-                this.dict.add(term);
-                this.reverse.put(term, this.reverse.size());
+                addLevel(term);
             }
             if (i < oldDict.size())
                 pos[i] = this.reverse.getInt(term);
@@ -365,6 +377,25 @@ public final class VarNominal extends AbstractVar {
         return VarNominal.empty(rows, levels());
     }
 
+    @Override
+    public void copyInts(int start, int end, int[] dst, int offset) {
+        checkRange(start, end, rows);
+        System.arraycopy(data, start, dst, offset, end - start);
+    }
+
+    @Override
+    public void copyDoubles(int start, int end, double[] dst, int offset) {
+        checkRange(start, end, rows);
+        for (int i = start; i < end; i++) {
+            dst[offset++] = data[i];
+        }
+    }
+
+    @Override
+    public int[] intView() {
+        return data;
+    }
+
     @Override
     public VarNominal solidCopy() {
         return (VarNominal) super.solidCopy();
@@ -388,12 +419,11 @@ public final class VarNominal extends AbstractVar {
 
     private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
         rows = in.readInt();
-        dict = new ArrayList<>();
-        reverse = new Object2IntOpenHashMap<>();
         int len = in.readInt();
+        dict = new ArrayList<>(len);
+        reverse = newReverse(len);
         for (int i = 0; i < len; i++) {
-            dict.add(in.readUTF());
-            reverse.put(dict.get(i), i);
+            addLevel(in.readUTF());
         }
         data = new int[rows];
         for (int i = 0; i < rows; i++) {
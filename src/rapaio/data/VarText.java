@@ -27,13 +27,20 @@
 
 package rapaio.data;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
 
 /**
+ * Text variable type. Text values are stored as UTF-8 bytes in a contiguous
+ * {@link StringArena}, each row keeps only the id of its value in arena, or
+ * {@code -1} for missing values. Labels are decoded on access, while
+ * {@link #labelEquals(int, String)} and {@link #compareLabels(int, int)} work
+ * on the stored bytes and do not create strings.
+ * <p>
+ * Setting a value for an existing row appends the new value to arena; the space
+ * used by replaced values is reclaimed when it exceeds the space used by live values.
+ *
  * Created by <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a>
  */
 public class VarText extends AbstractVar {
@@ -48,38 +55,42 @@ public class VarText extends AbstractVar {
 
     public static VarText copy(String... values) {
         VarText text = new VarText(0);
-        text.values = Arrays.stream(values).collect(Collectors.toList());
+        for (String value : values) {
+            text.addLabel(value);
+        }
         return text;
     }
 
     public static VarText copy(List<String> values) {
         VarText text = new VarText(0);
-        text.values = new ArrayList<>(values);
-        return text;
-    }
-
-    public static VarText wrap(List<String> values) {
-        VarText text = new VarText(0);
-        text.values = values;
+        for (String value : values) {
+            text.addLabel(value);
+        }
         return text;
     }
 
     public static VarText from(int rows, Supplier<String> supplier) {
-        VarText text = new VarText(rows);
+        VarText text = new VarText(0);
         for (int i = 0; i < rows; i++) {
-            text.values.set(i, supplier.get());
+            text.addLabel(supplier.get());
         }
         return text;
     }
 
     private static final long serialVersionUID = -7130782019269889796L;
-    private List<String> values;
+    private static final int MISSING_ID = -1;
+    private static final int COMPACT_MIN_BYTES = 4096;
+
+    private StringArena arena;
+    private int[] ids;
+    private int rows;
+    private int liveBytes;
 
     private VarText(int rows) {
-        values = new ArrayList<>(rows);
-        for (int i = 0; i < rows; i++) {
-            values.add(null);
-        }
+        this.arena = new StringArena();
+        this.ids = new int[rows];
+        this.rows = rows;
+        Arrays.fill(ids, MISSING_ID);
     }
 
     @Override
@@ -94,24 +105,76 @@ public class VarText extends AbstractVar {
 
     @Override
     public int rowCount() {
-        return values.size();
+        return rows;
     }
 
     @Override
     public void addRows(int rowCount) {
-        for (int i = 0; i < rowCount; i++) {
-            values.add(null);
-        }
+        grow(rows + rowCount);
+        Arrays.fill(ids, rows, rows + rowCount, MISSING_ID);
+        rows += rowCount;
     }
 
     @Override
     public void removeRow(int row) {
-        values.remove(row);
+        if (row < 0 || row >= rows) {
+            throw new IndexOutOfBoundsException("row: " + row + ", rowCount: " + rows);
+        }
+        release(ids[row]);
+        System.arraycopy(ids, row + 1, ids, row, rows - row - 1);
+        rows--;
+        compactIfNeeded();
     }
 
     @Override
     public void clearRows() {
-        values.clear();
+        rows = 0;
+        liveBytes = 0;
+        arena.clear();
+    }
+
+    private void grow(int minCapacity) {
+        if (minCapacity <= ids.length) {
+            return;
+        }
+        int newCapacity = ids.length + (ids.length >> 1);
+        if (newCapacity < minCapacity) {
+            newCapacity = minCapacity;
+        }
+        ids = Arrays.copyOf(ids, newCapacity);
+    }
+
+    private int store(String value) {
+        if (value == null) {
+            return MISSING_ID;
+        }
+        int id = arena.add(value);
+        liveBytes += arena.byteLength(id);
+        return id;
+    }
+
+    private void release(int id) {
+        if (id != MISSING_ID) {
+            liveBytes -= arena.byteLength(id);
+        }
+    }
+
+    /**
+     * Rebuilds the arena with the values still referenced by rows, if the
+     * bytes of the replaced values are more than the bytes of live values.
+     */
+    private void compactIfNeeded() {
+        int total = arena.byteCount();
+        if (total < COMPACT_MIN_BYTES || total - liveBytes <= liveBytes) {
+            return;
+        }
+        StringArena compact = new StringArena(rows, liveBytes);
+        for (int i = 0; i < rows; i++) {
+            if (ids[i] != MISSING_ID) {
+                ids[i] = compact.addFrom(arena, ids[i]);
+            }
+        }
+        arena = compact;
     }
 
     private IllegalStateException notImplemented() {
@@ -150,17 +213,66 @@ public class VarText extends AbstractVar {
 
     @Override
     public String getLabel(int row) {
-        return values.get(row);
+        checkRow(row);
+        int id = ids[row];
+        return id == MISSING_ID ? null : arena.get(id);
+    }
+
+    /**
+     * Tests if the value from a given row is equal with a given value, without
+     * decoding the stored value.
+     *
+     * @param row   row number
+     * @param value value to compare with, null for missing value
+     * @return true if values are equal
+     */
+    public boolean labelEquals(int row, String value) {
+        checkRow(row);
+        int id = ids[row];
+        if (id == MISSING_ID || value == null) {
+            return id == MISSING_ID && value == null;
+        }
+        return arena.equalsTo(id, value);
+    }
+
+    /**
+     * Compares the values from two rows in the lexicographic order of strings,
+     * without decoding them when possible. A missing value is smaller than
+     * any non missing value.
+     *
+     * @param row1 first row
+     * @param row2 second row
+     * @return a negative, zero or positive value if the first value is smaller, equal or greater
+     */
+    public int compareLabels(int row1, int row2) {
+        checkRow(row1);
+        checkRow(row2);
+        int id1 = ids[row1];
+        int id2 = ids[row2];
+        if (id1 == MISSING_ID || id2 == MISSING_ID) {
+            return Boolean.compare(id1 != MISSING_ID, id2 != MISSING_ID);
+        }
+        return arena.compare(id1, id2);
     }
 
     @Override
     public void setLabel(int row, String value) {
-        values.set(row, value);
+        checkRow(row);
+        release(ids[row]);
+        ids[row] = store(value);
+        compactIfNeeded();
     }
 
     @Override
     public void addLabel(String value) {
-        values.add(value);
+        grow(rows + 1);
+        ids[rows++] = store(value);
+    }
+
+    private void checkRow(int row) {
+        if (row >= rows) {
+            throw new IndexOutOfBoundsException("row: " + row + ", rowCount: " + rows);
+        }
     }
 
     @Override
@@ -190,17 +302,18 @@ public class VarText extends AbstractVar {
 
     @Override
     public boolean isMissing(int row) {
-        return values.get(row) == null;
+        checkRow(row);
+        return ids[row] == MISSING_ID;
     }
 
     @Override
     public void setMissing(int row) {
-        values.set(row, null);
+        setLabel(row, null);
     }
 
     @Override
     public void addMissing() {
-        values.add(null);
+        addLabel(null);
     }
 
     @Override
@@ -211,12 +324,18 @@ public class VarText extends AbstractVar {
     @Override
     public VarText solidCopy() {
         VarText copy = new VarText(0).withName(name());
-        copy.values = new ArrayList<>(values);
+        copy.arena = new StringArena(rows, liveBytes);
+        copy.ids = new int[rows];
+        copy.rows = rows;
+        copy.liveBytes = liveBytes;
+        for (int i = 0; i < rows; i++) {
+            copy.ids[i] = ids[i] == MISSING_ID ? MISSING_ID : copy.arena.addFrom(arena, ids[i]);
+        }
         return copy;
     }
 
     @Override
     public String toString() {
-        return "VarText[rowCount:" + values.size() + "]";
+        return "VarText[rowCount:" + rows + "]";
     }
 }
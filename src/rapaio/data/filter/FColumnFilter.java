@@ -0,0 +1,94 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.data.filter;
+
+import rapaio.data.Frame;
+import rapaio.data.VType;
+
+/**
+ * Frame filter which transforms each selected column independently of the other columns,
+ * value by value, with values represented as doubles.
+ * <p>
+ * Besides the usual frame based usage, filters of this kind can be fused
+ * by {@link rapaio.data.filter.frame.FPipeline} into a single pass over each column,
+ * without materializing the intermediate frames. For that purpose the filter is
+ * fitted and applied on arrays of column values, where missing values are represented
+ * by {@code Double.NaN}. Array based methods can be called concurrently for
+ * different columns.
+ */
+public interface FColumnFilter extends FFilter {
+
+    /**
+     * Parses the variable range on the given frame and clears previously fitted artifacts,
+     * without learning anything from the data. After this call {@link #varNames()}
+     * returns the selected variable names.
+     *
+     * @param df data frame used to parse variable names
+     */
+    void fitNames(Frame df);
+
+    /**
+     * @return true if the filter learns artifacts from the values of each column
+     */
+    default boolean fitsValues() {
+        return false;
+    }
+
+    /**
+     * Learns artifacts for a column from its values, as they are produced by
+     * the previous filters from a pipeline.
+     *
+     * @param varName name of the column
+     * @param values  column values, one for each row
+     */
+    default void fitColumn(String varName, double[] values) {
+    }
+
+    /**
+     * @param type type of a selected column
+     * @return true if the filter leaves unchanged the columns of the given type
+     */
+    boolean ignores(VType type);
+
+    /**
+     * @param type type of a selected column
+     * @return true if the transformation of a column of given type can be computed on double values
+     */
+    boolean fuses(VType type);
+
+    /**
+     * Transforms in place the values of a column, from position {@code start}
+     * inclusive to position {@code end} exclusive.
+     *
+     * @param varName name of the column
+     * @param values  column values
+     * @param start   first position to transform
+     * @param end     position after the last position to transform
+     */
+    void applyColumn(String varName, double[] values, int start, int end);
+}
@@ -51,9 +51,13 @@ public abstract class AbstractFF implements FFilter {
 
     @Override
     public void fit(Frame df) {
-        varNames = vRange.parseVarNames(df).toArray(new String[0]);
+        parseVarNames(df);
         coreFit(df);
     }
 
+    protected void parseVarNames(Frame df) {
+        varNames = vRange.parseVarNames(df).toArray(new String[0]);
+    }
+
     protected abstract void coreFit(Frame df);
 }
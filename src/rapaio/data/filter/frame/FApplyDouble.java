@@ -29,6 +29,8 @@ package rapaio.data.filter.frame;
 
 import rapaio.data.Frame;
 import rapaio.data.VRange;
+import rapaio.data.VType;
+import rapaio.data.filter.FColumnFilter;
 import rapaio.data.filter.FFilter;
 
 import java.util.function.Function;
@@ -36,7 +38,7 @@ import java.util.function.Function;
 /**
  * Created by <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a> at 12/15/14.
  */
-public class FApplyDouble extends AbstractFF {
+public class FApplyDouble extends AbstractFF implements FColumnFilter {
 
     public static FApplyDouble on(Function<Double, Double> fun, VRange vRange) {
         return new FApplyDouble(fun, vRange);
@@ -69,4 +71,26 @@ public class FApplyDouble extends AbstractFF {
         }
         return df;
     }
+
+    @Override
+    public void fitNames(Frame df) {
+        parseVarNames(df);
+    }
+
+    @Override
+    public boolean ignores(VType type) {
+        return false;
+    }
+
+    @Override
+    public boolean fuses(VType type) {
+        return type == VType.DOUBLE;
+    }
+
+    @Override
+    public void applyColumn(String varName, double[] values, int start, int end) {
+        for (int i = start; i < end; i++) {
+            values[i] = f.apply(values[i]);
+        }
+    }
 }
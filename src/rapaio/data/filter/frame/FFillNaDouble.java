@@ -29,7 +29,9 @@ package rapaio.data.filter.frame;
 
 import rapaio.data.Frame;
 import rapaio.data.VRange;
+import rapaio.data.VType;
 import rapaio.data.Var;
+import rapaio.data.filter.FColumnFilter;
 
 import java.util.Arrays;
 import java.util.Set;
@@ -38,7 +40,7 @@ import java.util.stream.Collectors;
 /**
  * Created by <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a> on 1/22/16.
  */
-public class FFillNaDouble extends AbstractFF {
+public class FFillNaDouble extends AbstractFF implements FColumnFilter {
 
     public static FFillNaDouble on(double fill, VRange vRange) {
         return new FFillNaDouble(fill, vRange);
@@ -81,4 +83,28 @@ public class FFillNaDouble extends AbstractFF {
         }
         return df;
     }
+
+    @Override
+    public void fitNames(Frame df) {
+        parseVarNames(df);
+    }
+
+    @Override
+    public boolean ignores(VType type) {
+        return !type.isNumeric();
+    }
+
+    @Override
+    public boolean fuses(VType type) {
+        return type == VType.DOUBLE;
+    }
+
+    @Override
+    public void applyColumn(String varName, double[] values, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (Double.isNaN(values[i])) {
+                values[i] = fill;
+            }
+        }
+    }
 }
@@ -0,0 +1,342 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.data.filter.frame;
+
+import rapaio.data.Frame;
+import rapaio.data.SolidFrame;
+import rapaio.data.VType;
+import rapaio.data.Var;
+import rapaio.data.VarDouble;
+import rapaio.data.filter.FColumnFilter;
+import rapaio.data.filter.FFilter;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Lazy chain of frame filters.
+ * <p>
+ * The filters are recorded as a plan when the pipeline is fitted. Consecutive column filters
+ * ({@link FColumnFilter}) are fused in a single stage, which is executed with a single pass
+ * over each transformed column, in parallel over columns and row blocks, without building
+ * the intermediate frames. The transformed columns are materialized only once, at the end
+ * of the stage, as double variables. Other filters, or column filters which cannot work
+ * on double values for some selected columns, are executed as usual between fused stages.
+ * <p>
+ * Unlike some of the filters it contains, the pipeline does not alter the
+ * columns of the transformed frame. Fused stages produce new variables and the frame
+ * is copied once before the first filter which is executed as usual.
+ * Non numeric columns are read into a fused stage only by {@link FToDouble}, by parsing labels.
+ */
+public class FPipeline implements FFilter {
+
+    public static FPipeline of(FFilter... filters) {
+        return new FPipeline(Arrays.asList(filters));
+    }
+
+    public static FPipeline of(List<? extends FFilter> filters) {
+        return new FPipeline(filters);
+    }
+
+    private static final long serialVersionUID = -1716209430315390046L;
+    private static final int BLOCK_SIZE = 16_384;
+
+    private final List<FFilter> filters;
+    private List<Stage> stages = new ArrayList<>();
+
+    private FPipeline(List<? extends FFilter> filters) {
+        this.filters = new ArrayList<>(filters);
+    }
+
+    @Override
+    public FPipeline newInstance() {
+        return new FPipeline(filters.stream().map(FFilter::newInstance).collect(Collectors.toList()));
+    }
+
+    /**
+     * @return description of the fitted stages, one line for each stage
+     */
+    public List<String> plan() {
+        return stages.stream().map(Stage::toString).collect(Collectors.toList());
+    }
+
+    @Override
+    public String[] varNames() {
+        Set<String> names = new LinkedHashSet<>();
+        for (FFilter filter : filters) {
+            String[] filterNames = filter.varNames();
+            if (filterNames != null) {
+                names.addAll(Arrays.asList(filterNames));
+            }
+        }
+        return names.toArray(new String[0]);
+    }
+
+    @Override
+    public void fit(Frame df) {
+        run(df, false);
+    }
+
+    @Override
+    public Frame apply(Frame df) {
+        Frame result = df;
+        boolean copied = false;
+        for (Stage stage : stages) {
+            if (!copied && stage instanceof FilterStage) {
+                result = result.solidCopy();
+                copied = true;
+            }
+            result = stage.apply(result, null);
+        }
+        return result;
+    }
+
+    @Override
+    public Frame fapply(Frame df) {
+        return run(df, true);
+    }
+
+    /**
+     * Builds and fits the stages. Intermediate frames are built only when they are
+     * needed to fit a filter which is not fused, and the last stage is applied only if requested.
+     */
+    private Frame run(Frame df, boolean applyLast) {
+        stages = new ArrayList<>();
+        Frame current = df;
+        boolean copied = false;
+        FusedStage fused = null;
+        for (FFilter filter : filters) {
+            if (filter instanceof FColumnFilter && fused(fused, current, (FColumnFilter) filter)) {
+                if (fused == null) {
+                    fused = new FusedStage();
+                }
+                fused.add((FColumnFilter) filter, current);
+                continue;
+            }
+            if (fused != null) {
+                Map<String, double[]> values = fused.fit(current, true);
+                current = fused.apply(current, values);
+                stages.add(fused);
+                fused = null;
+            }
+            if (!copied) {
+                // eager filters may alter their input, which could still share columns with the given frame
+                current = current.solidCopy();
+                copied = true;
+            }
+            filter.fit(current);
+            current = filter.apply(current);
+            stages.add(new FilterStage(filter));
+        }
+        if (fused != null) {
+            Map<String, double[]> values = fused.fit(current, applyLast);
+            if (applyLast) {
+                current = fused.apply(current, values);
+            }
+            stages.add(fused);
+        }
+        return current;
+    }
+
+    /**
+     * Checks if a column filter can be fused in the current fused stage,
+     * which means all selected columns are ignored or can be transformed on double values.
+     */
+    private boolean fused(FusedStage stage, Frame df, FColumnFilter filter) {
+        filter.fitNames(df);
+        for (String name : filter.varNames()) {
+            VType type = (stage == null) ? df.type(name) : stage.type(name, df);
+            if (!filter.ignores(type) && !filter.fuses(type)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private interface Stage extends Serializable {
+        Frame apply(Frame df, Map<String, double[]> computed);
+    }
+
+    private static final class FilterStage implements Stage {
+
+        private static final long serialVersionUID = 2295722213612339580L;
+        private final FFilter filter;
+
+        FilterStage(FFilter filter) {
+            this.filter = filter;
+        }
+
+        @Override
+        public Frame apply(Frame df, Map<String, double[]> computed) {
+            return filter.apply(df);
+        }
+
+        @Override
+        public String toString() {
+            return filter.getClass().getSimpleName();
+        }
+    }
+
+    private static final class FusedStage implements Stage {
+
+        private static final long serialVersionUID = -5062283591373713728L;
+        private final List<FColumnFilter> filters = new ArrayList<>();
+        private final LinkedHashMap<String, List<FColumnFilter>> columns = new LinkedHashMap<>();
+
+        VType type(String name, Frame df) {
+            // a column transformed by a fused filter becomes a double column
+            return columns.containsKey(name) ? VType.DOUBLE : df.type(name);
+        }
+
+        void add(FColumnFilter filter, Frame df) {
+            filters.add(filter);
+            for (String name : filter.varNames()) {
+                if (!filter.ignores(type(name, df))) {
+                    columns.computeIfAbsent(name, key -> new ArrayList<>()).add(filter);
+                }
+            }
+        }
+
+        /**
+         * Fits the filters which learn from values, for each column in parallel.
+         * If requested, the values of columns which were fully transformed during fitting are returned.
+         */
+        Map<String, double[]> fit(Frame df, boolean keepValues) {
+            List<String> names = new ArrayList<>(columns.keySet());
+            double[][] computed = new double[names.size()][];
+            IntStream.range(0, names.size()).parallel().forEach(i -> {
+                String name = names.get(i);
+                List<FColumnFilter> steps = columns.get(name);
+                int last = -1;
+                for (int j = 0; j < steps.size(); j++) {
+                    if (steps.get(j).fitsValues()) {
+                        last = j;
+                    }
+                }
+                if (last == -1) {
+                    return;
+                }
+                Var var = df.rvar(name);
+                double[] values = new double[df.rowCount()];
+                read(var, values, 0, values.length);
+                int end = keepValues ? steps.size() : last;
+                for (int j = 0; j <= end && j < steps.size(); j++) {
+                    FColumnFilter step = steps.get(j);
+                    if (step.fitsValues()) {
+                        step.fitColumn(name, values);
+                    }
+                    if (j < end) {
+                        step.applyColumn(name, values, 0, values.length);
+                    }
+                }
+                if (keepValues) {
+                    computed[i] = values;
+                }
+            });
+            Map<String, double[]> values = new HashMap<>();
+            for (int i = 0; i < names.size(); i++) {
+                if (computed[i] != null) {
+                    values.put(names.get(i), computed[i]);
+                }
+            }
+            return values;
+        }
+
+        @Override
+        public Frame apply(Frame df, Map<String, double[]> computed) {
+            int rows = df.rowCount();
+            Var[] vars = new Var[df.varCount()];
+            List<String> pending = new ArrayList<>();
+            List<Var> sources = new ArrayList<>();
+            List<double[]> outputs = new ArrayList<>();
+            for (int i = 0; i < vars.length; i++) {
+                String name = df.varName(i);
+                if (!columns.containsKey(name)) {
+                    vars[i] = df.rvar(i);
+                    continue;
+                }
+                double[] values = (computed == null) ? null : computed.get(name);
+                if (values == null) {
+                    values = new double[rows];
+                    pending.add(name);
+                    sources.add(df.rvar(i));
+                    outputs.add(values);
+                }
+                vars[i] = VarDouble.wrap(values).withName(name);
+            }
+
+            int blocks = (rows + BLOCK_SIZE - 1) / BLOCK_SIZE;
+            IntStream.range(0, pending.size() * blocks).parallel().forEach(task -> {
+                int col = task / blocks;
+                int start = (task % blocks) * BLOCK_SIZE;
+                int end = Math.min(rows, start + BLOCK_SIZE);
+                String name = pending.get(col);
+                double[] values = outputs.get(col);
+                read(sources.get(col), values, start, end);
+                for (FColumnFilter step : columns.get(name)) {
+                    step.applyColumn(name, values, start, end);
+                }
+            });
+            return SolidFrame.byVars(rows, vars);
+        }
+
+        /**
+         * Reads values of a column as doubles. Numeric columns are read with
+         * missing values as NaN, other columns by parsing their labels.
+         */
+        private static void read(Var var, double[] values, int start, int end) {
+            if (var.type().isNumeric()) {
+                var.copyDoubles(start, end, values, start);
+                return;
+            }
+            for (int i = start; i < end; i++) {
+                String label = var.getLabel(i);
+                try {
+                    values[i] = (label == null) ? Double.NaN : Double.parseDouble(label);
+                } catch (NumberFormatException ex) {
+                    values[i] = Double.NaN;
+                }
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "Fused[" + filters.stream().map(f -> f.getClass().getSimpleName()).collect(Collectors.joining(","))
+                    + "] on " + columns.keySet();
+        }
+    }
+}
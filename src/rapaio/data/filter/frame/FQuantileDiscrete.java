@@ -64,22 +64,35 @@ public class FQuantileDiscrete extends AbstractFF {
 
     private final Map<String, VQuantileDiscrete> filters = new HashMap<>();
     private final double[] p;
+    private int sketchK = 0;
 
     private FQuantileDiscrete(double[] p, VRange vRange) {
         super(vRange);
         this.p = p;
     }
 
+    /**
+     * Uses approximate quantiles computed with a quantile sketch
+     * instead of sorting all the values.
+     *
+     * @param k accuracy parameter of the sketch, 0 for exact quantiles
+     * @return same filter instance
+     */
+    public FQuantileDiscrete withSketch(int k) {
+        this.sketchK = k;
+        return this;
+    }
+
     @Override
     public FQuantileDiscrete newInstance() {
-        return new FQuantileDiscrete(p, vRange);
+        return new FQuantileDiscrete(p, vRange).withSketch(sketchK);
     }
 
     @Override
     public void coreFit(Frame df) {
         filters.clear();
         for (String varName : varNames) {
-            VQuantileDiscrete filter = VQuantileDiscrete.with(p);
+            VQuantileDiscrete filter = VQuantileDiscrete.with(p).withSketch(sketchK);
             filter.fit(df.rvar(varName));
             filters.put(varName, filter);
         }
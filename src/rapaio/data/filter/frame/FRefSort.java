@@ -33,8 +33,10 @@ import rapaio.data.Frame;
 import rapaio.data.MappedFrame;
 import rapaio.data.Mapping;
 import rapaio.data.RowComparators;
+import rapaio.data.SortIndex;
 import rapaio.data.VRange;
 
+import java.util.Arrays;
 import java.util.stream.IntStream;
 
 /**
@@ -43,20 +45,50 @@ import java.util.stream.IntStream;
 public class FRefSort extends AbstractFF {
 
     public static FRefSort by(IntComparator...comparators) {
-        return new FRefSort(comparators);
+        return new FRefSort(RowComparators.from(comparators), null, null);
+    }
+
+    /**
+     * Sorts ascending by the values of the given variables, using a {@link SortIndex}.
+     *
+     * @param varNames key variable names, the first key is the most significant
+     * @return new filter instance
+     */
+    public static FRefSort byVars(String... varNames) {
+        boolean[] asc = new boolean[varNames.length];
+        Arrays.fill(asc, true);
+        return byVars(varNames, asc);
+    }
+
+    /**
+     * Sorts by the values of the given variables with the given directions, using a {@link SortIndex}.
+     *
+     * @param varNames key variable names, the first key is the most significant
+     * @param asc      sort direction for each key, true for ascending
+     * @return new filter instance
+     */
+    public static FRefSort byVars(String[] varNames, boolean[] asc) {
+        if (varNames.length == 0 || varNames.length != asc.length) {
+            throw new IllegalArgumentException("Sort keys and directions must be non empty and of the same length.");
+        }
+        return new FRefSort(null, varNames.clone(), asc.clone());
     }
 
     private static final long serialVersionUID = 3579078253849199109L;
     private final IntComparator aggregateComparator;
+    private final String[] keyNames;
+    private final boolean[] keyAsc;
 
-    private FRefSort(IntComparator... comparators) {
+    private FRefSort(IntComparator aggregateComparator, String[] keyNames, boolean[] keyAsc) {
         super(VRange.of("all"));
-        this.aggregateComparator = RowComparators.from(comparators);
+        this.aggregateComparator = aggregateComparator;
+        this.keyNames = keyNames;
+        this.keyAsc = keyAsc;
     }
 
     @Override
     public FRefSort newInstance() {
-        return new FRefSort(aggregateComparator);
+        return new FRefSort(aggregateComparator, keyNames, keyAsc);
     }
 
     @Override
@@ -65,6 +97,9 @@ public class FRefSort extends AbstractFF {
 
     @Override
     public Frame apply(Frame df) {
+        if (keyNames != null) {
+            return SortIndex.of(df, keyNames, keyAsc).apply(df);
+        }
         int[] rowArray = IntStream.range(0, df.rowCount()).toArray();
         IntArrays.quickSort(rowArray, aggregateComparator);
         return MappedFrame.byRow(df, Mapping.wrap(rowArray));
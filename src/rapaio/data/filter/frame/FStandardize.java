@@ -29,10 +29,13 @@ package rapaio.data.filter.frame;
 
 import rapaio.data.Frame;
 import rapaio.data.VRange;
+import rapaio.data.VType;
+import rapaio.data.VarDouble;
+import rapaio.data.filter.FColumnFilter;
 import rapaio.data.filter.var.VStandardize;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Transform numeric variables into standardized values.
@@ -50,14 +53,14 @@ import java.util.Map;
  *
  * Created by <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a> at 1/30/15.
  */
-public class FStandardize extends AbstractFF {
+public class FStandardize extends AbstractFF implements FColumnFilter {
 
     public static FStandardize on(VRange vRange) {
         return new FStandardize(vRange);
     }
 
     private static final long serialVersionUID = -2447577449010618416L;
-    private Map<String, VStandardize> filters = new HashMap<>();
+    private Map<String, VStandardize> filters = new ConcurrentHashMap<>();
 
     private FStandardize(VRange vRange) {
         super(vRange);
@@ -87,4 +90,40 @@ public class FStandardize extends AbstractFF {
         }
         return df;
     }
+
+    @Override
+    public void fitNames(Frame df) {
+        parseVarNames(df);
+        filters.clear();
+    }
+
+    @Override
+    public boolean fitsValues() {
+        return true;
+    }
+
+    @Override
+    public void fitColumn(String varName, double[] values) {
+        VStandardize filter = VStandardize.filter();
+        filter.fit(VarDouble.wrap(values));
+        filters.put(varName, filter);
+    }
+
+    @Override
+    public boolean ignores(VType type) {
+        return !type.isNumeric();
+    }
+
+    @Override
+    public boolean fuses(VType type) {
+        return type == VType.DOUBLE;
+    }
+
+    @Override
+    public void applyColumn(String varName, double[] values, int start, int end) {
+        VStandardize filter = filters.get(varName);
+        if (filter != null) {
+            filter.apply(values, start, end);
+        }
+    }
 }
@@ -30,7 +30,9 @@ package rapaio.data.filter.frame;
 import rapaio.data.Frame;
 import rapaio.data.SolidFrame;
 import rapaio.data.VRange;
+import rapaio.data.VType;
 import rapaio.data.Var;
+import rapaio.data.filter.FColumnFilter;
 import rapaio.data.filter.var.VToDouble;
 
 import java.util.Arrays;
@@ -43,7 +45,7 @@ import java.util.stream.Collectors;
  * <p>
  * Created by <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a> at 12/5/14.
  */
-public class FToDouble extends AbstractFF {
+public class FToDouble extends AbstractFF implements FColumnFilter {
 
     public static FToDouble on(VRange vRange) {
         return new FToDouble(vRange);
@@ -77,4 +79,27 @@ public class FToDouble extends AbstractFF {
         }
         return SolidFrame.byVars(df.rowCount(), vars);
     }
+
+    @Override
+    public void fitNames(Frame df) {
+        parseVarNames(df);
+    }
+
+    @Override
+    public boolean ignores(VType type) {
+        return false;
+    }
+
+    @Override
+    public boolean fuses(VType type) {
+        return type != VType.LONG;
+    }
+
+    /**
+     * The conversion itself happens when a pipeline reads the column values,
+     * since non numeric columns are read by parsing their labels.
+     */
+    @Override
+    public void applyColumn(String varName, double[] values, int start, int end) {
+    }
 }
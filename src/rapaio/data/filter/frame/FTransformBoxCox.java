@@ -29,12 +29,14 @@ package rapaio.data.filter.frame;
 
 import rapaio.data.Frame;
 import rapaio.data.VRange;
+import rapaio.data.VType;
+import rapaio.data.filter.FColumnFilter;
 import rapaio.data.filter.var.VTransformBoxCox;
 
 /**
  * Created by <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a> at 12/15/14.
  */
-public class FTransformBoxCox extends AbstractFF {
+public class FTransformBoxCox extends AbstractFF implements FColumnFilter {
 
     public static FTransformBoxCox on(double lambda, double shift, String... varNames) {
         return new FTransformBoxCox(lambda, shift, VRange.of(varNames));
@@ -68,4 +70,24 @@ public class FTransformBoxCox extends AbstractFF {
         }
         return df;
     }
+
+    @Override
+    public void fitNames(Frame df) {
+        parseVarNames(df);
+    }
+
+    @Override
+    public boolean ignores(VType type) {
+        return false;
+    }
+
+    @Override
+    public boolean fuses(VType type) {
+        return type == VType.DOUBLE;
+    }
+
+    @Override
+    public void applyColumn(String varName, double[] values, int start, int end) {
+        bct.apply(values, start, end);
+    }
 }
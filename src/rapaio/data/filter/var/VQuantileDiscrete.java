@@ -72,17 +72,32 @@ public class VQuantileDiscrete implements VFilter {
     private Map<String, SPredicate<Double>> predicates = new HashMap<>();
     private final double[] qp;
     private double[] qv;
+    private int sketchK = 0;
 
     private VQuantileDiscrete(double... qp) {
         this.qp = qp;
     }
 
+    /**
+     * Uses approximate quantiles computed with a {@link QuantileSketch}
+     * instead of sorting all the values.
+     *
+     * @param k accuracy parameter of the sketch, 0 for exact quantiles
+     * @return same filter instance
+     */
+    public VQuantileDiscrete withSketch(int k) {
+        this.sketchK = k;
+        return this;
+    }
+
     @Override
     public void fit(Var var) {
         if(!var.type().isNumeric()) {
             return;
         }
-        qv = Quantiles.of(var, qp).values();
+        qv = (sketchK > 0)
+                ? Quantiles.of(QuantileSketch.of(var, sketchK), qp).values()
+                : Quantiles.of(var, qp).values();
 
         // first interval
 
@@ -0,0 +1,199 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.data.filter.var;
+
+import rapaio.core.stat.RollingStat;
+import rapaio.data.Var;
+import rapaio.data.VarDouble;
+import rapaio.data.filter.VFilter;
+
+/**
+ * Computes a statistic over a sliding window which ends at each row. The window
+ * contains a fixed number of rows or, if a time variable is specified with
+ * {@link #withTime(Var, double)}, all rows with time in the interval (t - span, t],
+ * where t is the time of the current row.
+ * <p>
+ * The statistics are maintained incrementally with {@link RollingStat}, thus the
+ * cost does not depend on window size, excepting quantiles where the cost
+ * grows logarithmic. The result is a new double variable, with missing values
+ * for rows which have less than a minimum number of non missing values in the window.
+ */
+public class VRolling implements VFilter {
+
+    public static VRolling sum(int window) {
+        return new VRolling(Stat.SUM, window, 0);
+    }
+
+    public static VRolling mean(int window) {
+        return new VRolling(Stat.MEAN, window, 0);
+    }
+
+    /**
+     * Sample variance over the window
+     */
+    public static VRolling variance(int window) {
+        return new VRolling(Stat.VARIANCE, window, 0);
+    }
+
+    /**
+     * Sample standard deviation over the window
+     */
+    public static VRolling sd(int window) {
+        return new VRolling(Stat.SD, window, 0);
+    }
+
+    public static VRolling min(int window) {
+        return new VRolling(Stat.MIN, window, 0);
+    }
+
+    public static VRolling max(int window) {
+        return new VRolling(Stat.MAX, window, 0);
+    }
+
+    public static VRolling quantile(int window, double p) {
+        if (p < 0 || p > 1) {
+            throw new IllegalArgumentException("Percentile must be in interval [0,1].");
+        }
+        return new VRolling(Stat.QUANTILE, window, p);
+    }
+
+    private static final long serialVersionUID = 6322738209466893637L;
+
+    private final Stat stat;
+    private final int window;
+    private final double p;
+    private int minCount = 1;
+    private Var time;
+    private double span;
+
+    private VRolling(Stat stat, int window, double p) {
+        if (window < 1) {
+            throw new IllegalArgumentException("Window size must be positive.");
+        }
+        this.stat = stat;
+        this.window = window;
+        this.p = p;
+    }
+
+    /**
+     * Uses windows defined by a time variable instead of a fixed number of rows.
+     * The time variable must have the same number of rows as the filtered variable,
+     * with non decreasing values.
+     *
+     * @param time time variable
+     * @param span length of the time window
+     * @return same filter instance
+     */
+    public VRolling withTime(Var time, double span) {
+        this.time = time;
+        this.span = span;
+        return this;
+    }
+
+    /**
+     * @param minCount minimum number of non missing values in a window required to compute the statistic
+     * @return same filter instance
+     */
+    public VRolling withMinCount(int minCount) {
+        this.minCount = minCount;
+        return this;
+    }
+
+    @Override
+    public Var apply(Var var) {
+        if (time != null && time.rowCount() != var.rowCount()) {
+            throw new IllegalArgumentException("Time variable must have the same number of rows as the filtered variable.");
+        }
+        RollingStat rs = (time == null) ? RollingStat.ofWindow(window) : RollingStat.ofSpan(span);
+        rs.withQuantiles(stat == Stat.QUANTILE);
+
+        VarDouble result = VarDouble.empty(var.rowCount()).withName(var.name());
+        int minRequired = Math.max(1, stat == Stat.VARIANCE || stat == Stat.SD ? Math.max(2, minCount) : minCount);
+        for (int i = 0; i < var.rowCount(); i++) {
+            double x = var.isMissing(i) ? Double.NaN : var.getDouble(i);
+            if (time == null) {
+                rs.update(x);
+            } else {
+                rs.update(time.getDouble(i), x);
+            }
+            if (rs.n() < minRequired) {
+                result.setMissing(i);
+                continue;
+            }
+            result.setDouble(i, stat.compute(rs, p));
+        }
+        return result;
+    }
+
+    private enum Stat {
+        SUM {
+            @Override
+            double compute(RollingStat rs, double p) {
+                return rs.sum();
+            }
+        },
+        MEAN {
+            @Override
+            double compute(RollingStat rs, double p) {
+                return rs.mean();
+            }
+        },
+        VARIANCE {
+            @Override
+            double compute(RollingStat rs, double p) {
+                return rs.sampleVariance();
+            }
+        },
+        SD {
+            @Override
+            double compute(RollingStat rs, double p) {
+                return rs.sampleSd();
+            }
+        },
+        MIN {
+            @Override
+            double compute(RollingStat rs, double p) {
+                return rs.min();
+            }
+        },
+        MAX {
+            @Override
+            double compute(RollingStat rs, double p) {
+                return rs.max();
+            }
+        },
+        QUANTILE {
+            @Override
+            double compute(RollingStat rs, double p) {
+                return rs.quantile(p);
+            }
+        };
+
+        abstract double compute(RollingStat rs, double p);
+    }
+}
@@ -27,10 +27,14 @@
 
 package rapaio.data.filter.var;
 
+import rapaio.data.SortIndex;
 import rapaio.data.Var;
 import rapaio.data.filter.VFilter;
 
 /**
+ * Sorts the values of a variable. The result is a mapped variable over the original one,
+ * built from a {@link SortIndex}.
+ * <p>
  * Created by <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a> at 12/4/14.
  */
 public class VSort implements VFilter {
@@ -52,6 +56,6 @@ public class VSort implements VFilter {
 
     @Override
     public Var apply(Var var) {
-        return new VRefSort(var.refComparator(asc)).fapply(var);
+        return SortIndex.of(var, asc).apply(var);
     }
 }
@@ -69,6 +69,21 @@ public class VStandardize implements VFilter {
         }
     }
 
+    /**
+     * Standardizes in place the values of an array range, using the fitted mean and standard deviation.
+     *
+     * @param values array of values
+     * @param start  first position to transform
+     * @param end    position after the last position to transform
+     */
+    public void apply(double[] values, int start, int end) {
+        if (Math.abs(sd) < 1e-20)
+            return;
+        for (int i = start; i < end; i++) {
+            values[i] = (values[i] - mean) / sd;
+        }
+    }
+
     @Override
     public Var apply(Var var) {
         if (!var.type().isNumeric()) {
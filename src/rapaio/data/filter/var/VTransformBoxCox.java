@@ -60,6 +60,24 @@ public class VTransformBoxCox implements VFilter {
         return shift;
     }
 
+    /**
+     * Transforms in place the values of an array range.
+     *
+     * @param values array of values
+     * @param start  first position to transform
+     * @param end    position after the last position to transform
+     */
+    public void apply(double[] values, int start, int end) {
+        if (lambda == 0)
+            for (int i = start; i < end; i++) {
+                values[i] = Math.log(values[i] + shift);
+            }
+        else
+            for (int i = start; i < end; i++) {
+                values[i] = (Math.pow(values[i] + shift, lambda) - 1) / lambda;
+            }
+    }
+
     @Override
     public Var apply(Var var) {
         if (lambda == 0)
@@ -0,0 +1,198 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.data.index;
+
+import rapaio.data.Frame;
+import rapaio.data.VType;
+import rapaio.data.Var;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Bitmap index of a nominal variable, which stores for each level the
+ * bitmap of rows with that level.
+ * <p>
+ * Filters built from the index select rows with set operations on the stored
+ * bitmaps, without reading the variable values. The index is a snapshot of the
+ * variable, it has to be rebuilt when the variable is changed.
+ */
+public final class NominalIndex implements Serializable {
+
+    /**
+     * Builds an index for a nominal variable.
+     *
+     * @param var nominal variable
+     * @return new index
+     */
+    public static NominalIndex of(Var var) {
+        if (var.type() != VType.NOMINAL) {
+            throw new IllegalArgumentException("Bitmap index can be built only for nominal variables.");
+        }
+        return new NominalIndex(var);
+    }
+
+    private static final long serialVersionUID = 4127066563447766417L;
+
+    private final String name;
+    private final int rowCount;
+    private final List<String> levels;
+    private final Map<String, Integer> levelIndex = new HashMap<>();
+    private final RowBitmap[] bitmaps;
+
+    private NominalIndex(Var var) {
+        this.name = var.name();
+        this.rowCount = var.rowCount();
+        this.levels = Collections.unmodifiableList(new ArrayList<>(var.levels()));
+        for (int i = 0; i < levels.size(); i++) {
+            levelIndex.put(levels.get(i), i);
+        }
+
+        // group rows by level with a counting pass, rows remain ascending inside a level
+        int[] codes = var.intArray();
+        int[] start = new int[levels.size() + 1];
+        for (int row = 0; row < rowCount; row++) {
+            start[codes[row] + 1]++;
+        }
+        for (int i = 0; i < levels.size(); i++) {
+            start[i + 1] += start[i];
+        }
+        int[] pos = new int[levels.size()];
+        System.arraycopy(start, 0, pos, 0, pos.length);
+        int[] rows = new int[rowCount];
+        for (int row = 0; row < rowCount; row++) {
+            rows[pos[codes[row]]++] = row;
+        }
+        bitmaps = new RowBitmap[levels.size()];
+        IntStream.range(0, levels.size()).parallel()
+                .forEach(i -> bitmaps[i] = RowBitmap.fromSorted(rowCount, rows, start[i], start[i + 1]));
+    }
+
+    /**
+     * @return name of the indexed variable
+     */
+    public String name() {
+        return name;
+    }
+
+    /**
+     * @return number of rows of the indexed variable
+     */
+    public int rowCount() {
+        return rowCount;
+    }
+
+    /**
+     * @return levels of the indexed variable, the first level is the missing value
+     */
+    public List<String> levels() {
+        return levels;
+    }
+
+    /**
+     * @param label level label
+     * @return bitmap with rows having the given level, empty bitmap for unknown labels
+     */
+    public RowBitmap rows(String label) {
+        Integer index = levelIndex.get(label);
+        return index == null ? RowBitmap.empty(rowCount) : bitmaps[index];
+    }
+
+    /**
+     * @return bitmap with rows having missing values
+     */
+    public RowBitmap missingRows() {
+        return bitmaps[0];
+    }
+
+    /**
+     * Builds a filter with rows having one of the given levels. The filter uses the
+     * stored bitmaps and can be evaluated only on frames with the same number of rows.
+     * Similar to {@link RowFilter#in(String, String...)} the missing values
+     * are not selected.
+     *
+     * @param labels level labels
+     * @return filter based on index
+     */
+    public RowFilter in(String... labels) {
+        String[] copy = labels.clone();
+        return new RowFilter() {
+            private static final long serialVersionUID = -5012468917262981283L;
+
+            @Override
+            public RowBitmap eval(Frame df) {
+                checkRows(df);
+                RowBitmap result = RowBitmap.empty(rowCount);
+                for (String label : copy) {
+                    Integer index = levelIndex.get(label);
+                    if (index != null && index > 0) {
+                        result = result.or(bitmaps[index]);
+                    }
+                }
+                return result;
+            }
+
+            @Override
+            public String toString() {
+                return name + " in [" + String.join(",", copy) + "]";
+            }
+        };
+    }
+
+    /**
+     * @return filter with rows having missing values, based on index
+     */
+    public RowFilter missing() {
+        return new RowFilter() {
+            private static final long serialVersionUID = 5384880417633512113L;
+
+            @Override
+            public RowBitmap eval(Frame df) {
+                checkRows(df);
+                return bitmaps[0];
+            }
+
+            @Override
+            public String toString() {
+                return name + " is missing";
+            }
+        };
+    }
+
+    private void checkRows(Frame df) {
+        if (df.rowCount() != rowCount) {
+            throw new IllegalArgumentException("Index of variable " + name + " has " + rowCount
+                    + " rows, frame has " + df.rowCount() + " rows.");
+        }
+    }
+}
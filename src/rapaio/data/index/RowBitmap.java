@@ -0,0 +1,473 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.data.index;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import rapaio.data.Mapping;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+/**
+ * Compressed set of row numbers from a range {@code [0, size)}, used to evaluate
+ * row filters column by column.
+ * <p>
+ * Rows are split in chunks of 65536 rows, in the style of roaring bitmaps. The rows
+ * of each chunk are stored in a container which is either empty, a sorted array of
+ * row offsets when the chunk contains at most 4096 rows, or a bitmap of 1024 words
+ * otherwise. Bitmaps are immutable, set operations build new bitmaps and are
+ * computed in parallel over chunks.
+ */
+public final class RowBitmap implements Serializable {
+
+    /**
+     * @param size number of rows of the universe
+     * @return bitmap without rows
+     */
+    public static RowBitmap empty(int size) {
+        return new RowBitmap(size);
+    }
+
+    /**
+     * @param size number of rows of the universe
+     * @return bitmap with all rows from {@code [0, size)}
+     */
+    public static RowBitmap full(int size) {
+        return empty(size).not();
+    }
+
+    /**
+     * Builds a bitmap from row numbers, given in any order.
+     *
+     * @param size number of rows of the universe
+     * @param rows row numbers
+     * @return bitmap with given rows
+     */
+    public static RowBitmap of(int size, int... rows) {
+        RowBitmap bitmap = new RowBitmap(size);
+        long[][] words = new long[bitmap.chunks()][];
+        for (int row : rows) {
+            if (row < 0 || row >= size) {
+                throw new IllegalArgumentException("Row " + row + " is outside the range [0, " + size + ").");
+            }
+            int chunk = row >>> CHUNK_BITS;
+            if (words[chunk] == null) {
+                words[chunk] = new long[WORDS];
+            }
+            words[chunk][(row & CHUNK_MASK) >>> 6] |= 1L << row;
+        }
+        for (int chunk = 0; chunk < words.length; chunk++) {
+            if (words[chunk] != null) {
+                bitmap.store(chunk, words[chunk]);
+            }
+        }
+        return bitmap;
+    }
+
+    /**
+     * Builds a bitmap with the rows which pass a test. The test is evaluated in
+     * parallel over chunks of rows, in ascending row order within a chunk.
+     *
+     * @param size number of rows of the universe
+     * @param test row test
+     * @return bitmap with rows which pass the test
+     */
+    static RowBitmap fromTest(int size, IntPredicate test) {
+        RowBitmap bitmap = new RowBitmap(size);
+        IntStream.range(0, bitmap.chunks()).parallel().forEach(chunk -> {
+            int base = chunk << CHUNK_BITS;
+            int len = bitmap.chunkLength(chunk);
+            long[] words = new long[WORDS];
+            for (int i = 0; i < len; i++) {
+                if (test.test(base + i)) {
+                    words[i >>> 6] |= 1L << i;
+                }
+            }
+            bitmap.store(chunk, words);
+        });
+        return bitmap;
+    }
+
+    /**
+     * Builds a bitmap from a range of an ascending array of distinct rows.
+     *
+     * @param size  number of rows of the universe
+     * @param rows  ascending rows
+     * @param start start position of the range, inclusive
+     * @param end   end position of the range, exclusive
+     * @return bitmap with rows from the range
+     */
+    static RowBitmap fromSorted(int size, int[] rows, int start, int end) {
+        RowBitmap bitmap = new RowBitmap(size);
+        int pos = start;
+        while (pos < end) {
+            int chunk = rows[pos] >>> CHUNK_BITS;
+            int next = pos;
+            while (next < end && (rows[next] >>> CHUNK_BITS) == chunk) {
+                next++;
+            }
+            if (next - pos <= ARRAY_LIMIT) {
+                char[] array = new char[next - pos];
+                for (int i = pos; i < next; i++) {
+                    array[i - pos] = (char) (rows[i] & CHUNK_MASK);
+                }
+                bitmap.storeArray(chunk, array);
+            } else {
+                long[] words = new long[WORDS];
+                for (int i = pos; i < next; i++) {
+                    words[(rows[i] & CHUNK_MASK) >>> 6] |= 1L << rows[i];
+                }
+                bitmap.bits[chunk] = words;
+                bitmap.cards[chunk] = next - pos;
+            }
+            pos = next;
+        }
+        return bitmap;
+    }
+
+    static final int CHUNK_BITS = 16;
+    static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    static final int WORDS = CHUNK_SIZE / 64;
+    private static final int ARRAY_LIMIT = 4096;
+    private static final long serialVersionUID = -2687290227012405262L;
+
+    private final int size;
+    private final long[][] bits;
+    private final char[][] arrays;
+    private final int[] cards;
+
+    RowBitmap(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Bitmap size cannot be negative.");
+        }
+        this.size = size;
+        int chunks = (size + CHUNK_SIZE - 1) >>> CHUNK_BITS;
+        this.bits = new long[chunks][];
+        this.arrays = new char[chunks][];
+        this.cards = new int[chunks];
+    }
+
+    /**
+     * @return number of rows of the universe
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return number of rows contained in bitmap
+     */
+    public int cardinality() {
+        int total = 0;
+        for (int card : cards) {
+            total += card;
+        }
+        return total;
+    }
+
+    /**
+     * @return true if the bitmap contains no rows
+     */
+    public boolean isEmpty() {
+        for (int card : cards) {
+            if (card > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param row row number
+     * @return true if the bitmap contains the row
+     */
+    public boolean contains(int row) {
+        if (row < 0 || row >= size) {
+            return false;
+        }
+        int chunk = row >>> CHUNK_BITS;
+        int offset = row & CHUNK_MASK;
+        if (bits[chunk] != null) {
+            return (bits[chunk][offset >>> 6] & (1L << offset)) != 0;
+        }
+        if (arrays[chunk] != null) {
+            return Arrays.binarySearch(arrays[chunk], (char) offset) >= 0;
+        }
+        return false;
+    }
+
+    /**
+     * @param other bitmap with the same size
+     * @return bitmap with rows contained in both bitmaps
+     */
+    public RowBitmap and(RowBitmap other) {
+        checkSize(other);
+        RowBitmap result = new RowBitmap(size);
+        IntStream.range(0, chunks()).parallel().forEach(chunk -> {
+            if (cards[chunk] == 0 || other.cards[chunk] == 0) {
+                return;
+            }
+            if (arrays[chunk] != null && other.arrays[chunk] != null) {
+                result.storeArray(chunk, intersect(arrays[chunk], other.arrays[chunk]));
+                return;
+            }
+            if (arrays[chunk] != null || other.arrays[chunk] != null) {
+                char[] array = arrays[chunk] != null ? arrays[chunk] : other.arrays[chunk];
+                long[] words = arrays[chunk] != null ? other.bits[chunk] : bits[chunk];
+                char[] out = new char[array.length];
+                int len = 0;
+                for (char offset : array) {
+                    if ((words[offset >>> 6] & (1L << offset)) != 0) {
+                        out[len++] = offset;
+                    }
+                }
+                result.storeArray(chunk, Arrays.copyOf(out, len));
+                return;
+            }
+            long[] words = new long[WORDS];
+            for (int i = 0; i < WORDS; i++) {
+                words[i] = bits[chunk][i] & other.bits[chunk][i];
+            }
+            result.store(chunk, words);
+        });
+        return result;
+    }
+
+    /**
+     * @param other bitmap with the same size
+     * @return bitmap with rows contained in any of the bitmaps
+     */
+    public RowBitmap or(RowBitmap other) {
+        checkSize(other);
+        RowBitmap result = new RowBitmap(size);
+        IntStream.range(0, chunks()).parallel().forEach(chunk -> {
+            if (other.cards[chunk] == 0) {
+                result.copyFrom(this, chunk);
+                return;
+            }
+            if (cards[chunk] == 0) {
+                result.copyFrom(other, chunk);
+                return;
+            }
+            long[] words = words(chunk);
+            other.orInto(chunk, words);
+            result.store(chunk, words);
+        });
+        return result;
+    }
+
+    /**
+     * @param other bitmap with the same size
+     * @return bitmap with rows contained in this bitmap and not contained in the other
+     */
+    public RowBitmap andNot(RowBitmap other) {
+        checkSize(other);
+        RowBitmap result = new RowBitmap(size);
+        IntStream.range(0, chunks()).parallel().forEach(chunk -> {
+            if (cards[chunk] == 0) {
+                return;
+            }
+            if (other.cards[chunk] == 0) {
+                result.copyFrom(this, chunk);
+                return;
+            }
+            long[] words = words(chunk);
+            long[] remove = other.words(chunk);
+            for (int i = 0; i < WORDS; i++) {
+                words[i] &= ~remove[i];
+            }
+            result.store(chunk, words);
+        });
+        return result;
+    }
+
+    /**
+     * @return bitmap with the rows from {@code [0, size)} which are not contained in this bitmap
+     */
+    public RowBitmap not() {
+        RowBitmap result = new RowBitmap(size);
+        IntStream.range(0, chunks()).parallel().forEach(chunk -> {
+            long[] words = words(chunk);
+            for (int i = 0; i < WORDS; i++) {
+                words[i] = ~words[i];
+            }
+            int len = chunkLength(chunk);
+            if (len < CHUNK_SIZE) {
+                // clear the positions after the end of the universe
+                int last = len >>> 6;
+                if ((len & 63) != 0) {
+                    words[last] &= (1L << len) - 1;
+                    last++;
+                }
+                Arrays.fill(words, last, WORDS, 0L);
+            }
+            result.store(chunk, words);
+        });
+        return result;
+    }
+
+    /**
+     * @return ascending array with contained rows
+     */
+    public int[] toArray() {
+        int[] start = new int[chunks() + 1];
+        for (int chunk = 0; chunk < cards.length; chunk++) {
+            start[chunk + 1] = start[chunk] + cards[chunk];
+        }
+        int[] rows = new int[start[cards.length]];
+        IntStream.range(0, chunks()).parallel().forEach(chunk -> {
+            int base = chunk << CHUNK_BITS;
+            int pos = start[chunk];
+            if (arrays[chunk] != null) {
+                for (char offset : arrays[chunk]) {
+                    rows[pos++] = base + offset;
+                }
+            } else if (bits[chunk] != null) {
+                long[] words = bits[chunk];
+                for (int i = 0; i < WORDS; i++) {
+                    long word = words[i];
+                    while (word != 0) {
+                        rows[pos++] = base + (i << 6) + Long.numberOfTrailingZeros(word);
+                        word &= word - 1;
+                    }
+                }
+            }
+        });
+        return rows;
+    }
+
+    /**
+     * @return mapping with contained rows in ascending order
+     */
+    public Mapping toMapping() {
+        return Mapping.wrap(IntArrayList.wrap(toArray()));
+    }
+
+    @Override
+    public String toString() {
+        return "RowBitmap{size:" + size + ", cardinality:" + cardinality() + "}";
+    }
+
+    int chunks() {
+        return cards.length;
+    }
+
+    int chunkLength(int chunk) {
+        return Math.min(CHUNK_SIZE, size - (chunk << CHUNK_BITS));
+    }
+
+    /**
+     * Stores the rows of a chunk given as words, choosing the container by cardinality.
+     * The words array is kept if the chunk is stored as bitmap.
+     */
+    void store(int chunk, long[] words) {
+        int card = 0;
+        for (long word : words) {
+            card += Long.bitCount(word);
+        }
+        cards[chunk] = card;
+        bits[chunk] = null;
+        arrays[chunk] = null;
+        if (card == 0) {
+            return;
+        }
+        if (card > ARRAY_LIMIT) {
+            bits[chunk] = words;
+            return;
+        }
+        char[] array = new char[card];
+        int pos = 0;
+        for (int i = 0; i < WORDS; i++) {
+            long word = words[i];
+            while (word != 0) {
+                array[pos++] = (char) ((i << 6) + Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+        arrays[chunk] = array;
+    }
+
+    private void storeArray(int chunk, char[] array) {
+        cards[chunk] = array.length;
+        arrays[chunk] = array.length == 0 ? null : array;
+    }
+
+    private void copyFrom(RowBitmap source, int chunk) {
+        // containers are never modified after they are stored, so they can be shared
+        bits[chunk] = source.bits[chunk];
+        arrays[chunk] = source.arrays[chunk];
+        cards[chunk] = source.cards[chunk];
+    }
+
+    private long[] words(int chunk) {
+        long[] words = new long[WORDS];
+        orInto(chunk, words);
+        return words;
+    }
+
+    private void orInto(int chunk, long[] words) {
+        if (bits[chunk] != null) {
+            long[] source = bits[chunk];
+            for (int i = 0; i < WORDS; i++) {
+                words[i] |= source[i];
+            }
+        } else if (arrays[chunk] != null) {
+            for (char offset : arrays[chunk]) {
+                words[offset >>> 6] |= 1L << offset;
+            }
+        }
+    }
+
+    private static char[] intersect(char[] a, char[] b) {
+        char[] out = new char[Math.min(a.length, b.length)];
+        int i = 0;
+        int j = 0;
+        int len = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                out[len++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, len);
+    }
+
+    private void checkSize(RowBitmap other) {
+        if (size != other.size) {
+            throw new IllegalArgumentException("Bitmaps have different sizes: " + size + " and " + other.size + ".");
+        }
+    }
+}
@@ -0,0 +1,405 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.data.index;
+
+import rapaio.data.Frame;
+import rapaio.data.Mapping;
+import rapaio.data.VType;
+import rapaio.data.Var;
+import rapaio.ml.common.predicate.RowPredicate;
+import rapaio.printer.format.Format;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Row filter evaluated column at a time into a {@link RowBitmap}.
+ * <p>
+ * Leaf filters read the values of a single column through bulk array access
+ * and test all rows in parallel chunks. Composed filters combine the bitmaps of
+ * their operands with set operations, which is much cheaper than evaluating
+ * a predicate row by row for each operand. The resulting bitmap is converted
+ * into a {@link Mapping} with ascending rows which selects the filtered rows.
+ * <p>
+ * Comparisons and membership tests are false on missing values, the missing
+ * values can be selected explicitly with {@link #missing(String)}.
+ * Negation with {@link #not()} complements the set of rows, so missing values
+ * are selected by the negation of a comparison.
+ */
+@FunctionalInterface
+public interface RowFilter extends Serializable {
+
+    /**
+     * Evaluates the filter on all rows of a frame.
+     *
+     * @param df data frame
+     * @return bitmap with rows which pass the filter, with size equal with the number of rows
+     */
+    RowBitmap eval(Frame df);
+
+    /**
+     * @param df data frame
+     * @return mapping with the ascending rows which pass the filter
+     */
+    default Mapping mapping(Frame df) {
+        return eval(df).toMapping();
+    }
+
+    /**
+     * @param df data frame
+     * @return mapped frame with the rows which pass the filter
+     */
+    default Frame filter(Frame df) {
+        return df.mapRows(mapping(df));
+    }
+
+    default RowFilter and(RowFilter other) {
+        return new And(this, other);
+    }
+
+    default RowFilter or(RowFilter other) {
+        return new Or(this, other);
+    }
+
+    default RowFilter not() {
+        return new Not(this);
+    }
+
+    static RowFilter all() {
+        return new All();
+    }
+
+    /**
+     * Builds a filter which evaluates a row predicate for each row, used for
+     * predicates which have no column at a time implementation.
+     *
+     * @param predicate row predicate
+     * @return filter with rows which pass the predicate
+     */
+    static RowFilter from(RowPredicate predicate) {
+        return new FromPredicate(predicate);
+    }
+
+    static RowFilter eq(String name, double value) {
+        return new NumRange(name, value, true, value, true);
+    }
+
+    static RowFilter lt(String name, double value) {
+        return new NumRange(name, Double.NEGATIVE_INFINITY, true, value, false);
+    }
+
+    static RowFilter le(String name, double value) {
+        return new NumRange(name, Double.NEGATIVE_INFINITY, true, value, true);
+    }
+
+    static RowFilter gt(String name, double value) {
+        return new NumRange(name, value, false, Double.POSITIVE_INFINITY, true);
+    }
+
+    static RowFilter ge(String name, double value) {
+        return new NumRange(name, value, true, Double.POSITIVE_INFINITY, true);
+    }
+
+    /**
+     * @param name variable name
+     * @param low  lower bound, inclusive
+     * @param high upper bound, inclusive
+     * @return filter with rows which have values between the given bounds
+     */
+    static RowFilter between(String name, double low, double high) {
+        return new NumRange(name, low, true, high, true);
+    }
+
+    static RowFilter in(String name, double... values) {
+        return new NumIn(name, values);
+    }
+
+    static RowFilter eq(String name, String label) {
+        return new LabelIn(name, label);
+    }
+
+    static RowFilter in(String name, String... labels) {
+        return new LabelIn(name, labels);
+    }
+
+    static RowFilter missing(String name) {
+        return new Missing(name);
+    }
+
+    static RowFilter complete(String name) {
+        return new Missing(name).not();
+    }
+}
+
+final class All implements RowFilter {
+
+    private static final long serialVersionUID = 3164410693011394807L;
+
+    @Override
+    public RowBitmap eval(Frame df) {
+        return RowBitmap.full(df.rowCount());
+    }
+
+    @Override
+    public String toString() {
+        return "all";
+    }
+}
+
+final class FromPredicate implements RowFilter {
+
+    private static final long serialVersionUID = -4611547335893917146L;
+    private final RowPredicate predicate;
+
+    FromPredicate(RowPredicate predicate) {
+        this.predicate = predicate;
+    }
+
+    @Override
+    public RowBitmap eval(Frame df) {
+        return RowBitmap.fromTest(df.rowCount(), row -> predicate.test(row, df));
+    }
+
+    @Override
+    public String toString() {
+        return predicate.toString();
+    }
+}
+
+final class NumRange implements RowFilter {
+
+    private static final long serialVersionUID = 6006994916325926785L;
+    private final String name;
+    private final double low;
+    private final boolean lowInclusive;
+    private final double high;
+    private final boolean highInclusive;
+
+    NumRange(String name, double low, boolean lowInclusive, double high, boolean highInclusive) {
+        this.name = name;
+        this.low = low;
+        this.lowInclusive = lowInclusive;
+        this.high = high;
+        this.highInclusive = highInclusive;
+    }
+
+    @Override
+    public RowBitmap eval(Frame df) {
+        Var var = df.rvar(name);
+        double[] values = var.doubleArray();
+        // missing numeric values are NaN and fail all comparisons
+        boolean checkMissing = !var.type().isNumeric();
+        return RowBitmap.fromTest(df.rowCount(), row -> {
+            double value = values[row];
+            if (lowInclusive ? value < low : value <= low) {
+                return false;
+            }
+            if (highInclusive ? value > high : value >= high) {
+                return false;
+            }
+            return value == value && !(checkMissing && var.isMissing(row));
+        });
+    }
+
+    @Override
+    public String toString() {
+        if (low == high) {
+            return name + " == " + Format.floatFlex(low);
+        }
+        if (low == Double.NEGATIVE_INFINITY) {
+            return name + (highInclusive ? " <= " : " < ") + Format.floatFlex(high);
+        }
+        if (high == Double.POSITIVE_INFINITY) {
+            return name + (lowInclusive ? " >= " : " > ") + Format.floatFlex(low);
+        }
+        return Format.floatFlex(low) + (lowInclusive ? " <= " : " < ") + name
+                + (highInclusive ? " <= " : " < ") + Format.floatFlex(high);
+    }
+}
+
+final class NumIn implements RowFilter {
+
+    private static final long serialVersionUID = -1846096300853569402L;
+    private final String name;
+    private final double[] values;
+
+    NumIn(String name, double... values) {
+        this.name = name;
+        this.values = Arrays.copyOf(values, values.length);
+        Arrays.sort(this.values);
+    }
+
+    @Override
+    public RowBitmap eval(Frame df) {
+        Var var = df.rvar(name);
+        double[] array = var.doubleArray();
+        boolean checkMissing = !var.type().isNumeric();
+        return RowBitmap.fromTest(df.rowCount(), row -> {
+            double value = array[row];
+            return value == value && Arrays.binarySearch(values, value) >= 0
+                    && !(checkMissing && var.isMissing(row));
+        });
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(name).append(" in [");
+        for (int i = 0; i < values.length; i++) {
+            sb.append(i > 0 ? "," : "").append(Format.floatFlex(values[i]));
+        }
+        return sb.append("]").toString();
+    }
+}
+
+final class LabelIn implements RowFilter {
+
+    private static final long serialVersionUID = 2520151300233211785L;
+    private final String name;
+    private final String[] labels;
+
+    LabelIn(String name, String... labels) {
+        this.name = name;
+        this.labels = Arrays.copyOf(labels, labels.length);
+    }
+
+    @Override
+    public RowBitmap eval(Frame df) {
+        Var var = df.rvar(name);
+        Set<String> set = new HashSet<>(Arrays.asList(labels));
+        if (var.type() == VType.NOMINAL) {
+            // translate labels into a mask over level indexes, the first level is the missing value
+            List<String> levels = var.levels();
+            boolean[] mask = new boolean[levels.size()];
+            for (int i = 1; i < levels.size(); i++) {
+                mask[i] = set.contains(levels.get(i));
+            }
+            int[] codes = var.intArray();
+            return RowBitmap.fromTest(df.rowCount(), row -> mask[codes[row]]);
+        }
+        return RowBitmap.fromTest(df.rowCount(), row -> !var.isMissing(row) && set.contains(var.getLabel(row)));
+    }
+
+    @Override
+    public String toString() {
+        return name + " in [" + String.join(",", labels) + "]";
+    }
+}
+
+final class Missing implements RowFilter {
+
+    private static final long serialVersionUID = -8180493400209734932L;
+    private final String name;
+
+    Missing(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public RowBitmap eval(Frame df) {
+        Var var = df.rvar(name);
+        if (var.type().isNumeric()) {
+            double[] values = var.doubleArray();
+            return RowBitmap.fromTest(df.rowCount(), row -> Double.isNaN(values[row]));
+        }
+        return RowBitmap.fromTest(df.rowCount(), var::isMissing);
+    }
+
+    @Override
+    public String toString() {
+        return name + " is missing";
+    }
+}
+
+final class And implements RowFilter {
+
+    private static final long serialVersionUID = -1520843547221342565L;
+    private final RowFilter left;
+    private final RowFilter right;
+
+    And(RowFilter left, RowFilter right) {
+        this.left = left;
+        this.right = right;
+    }
+
+    @Override
+    public RowBitmap eval(Frame df) {
+        RowBitmap bitmap = left.eval(df);
+        return bitmap.isEmpty() ? bitmap : bitmap.and(right.eval(df));
+    }
+
+    @Override
+    public String toString() {
+        return "(" + left + " and " + right + ")";
+    }
+}
+
+final class Or implements RowFilter {
+
+    private static final long serialVersionUID = -8985340911010302040L;
+    private final RowFilter left;
+    private final RowFilter right;
+
+    Or(RowFilter left, RowFilter right) {
+        this.left = left;
+        this.right = right;
+    }
+
+    @Override
+    public RowBitmap eval(Frame df) {
+        return left.eval(df).or(right.eval(df));
+    }
+
+    @Override
+    public String toString() {
+        return "(" + left + " or " + right + ")";
+    }
+}
+
+final class Not implements RowFilter {
+
+    private static final long serialVersionUID = 4640218405513063779L;
+    private final RowFilter filter;
+
+    Not(RowFilter filter) {
+        this.filter = filter;
+    }
+
+    @Override
+    public RowBitmap eval(Frame df) {
+        return filter.eval(df).not();
+    }
+
+    @Override
+    public String toString() {
+        return "not " + filter;
+    }
+}
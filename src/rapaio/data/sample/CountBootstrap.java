@@ -0,0 +1,84 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.data.sample;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import rapaio.core.RandomSource;
+import rapaio.data.Frame;
+import rapaio.data.Mapping;
+import rapaio.data.Var;
+import rapaio.data.VarDouble;
+
+import static rapaio.printer.format.Format.floatFlex;
+
+/**
+ * Implements bootstrap row sampling expressed through row multiplicities.
+ * <p>
+ * Rows are drawn with replacement as in {@link Bootstrap}, but the sample contains
+ * each drawn row only once, in ascending order, with its weight multiplied by the number
+ * of times it was drawn. For learners which use weights as row frequencies this is
+ * equivalent with the plain bootstrap, while the sampled frame has only about 63% of the
+ * rows of the source. The rows which were never drawn are given as out of bag rows.
+ */
+final class CountBootstrap implements RowSampler {
+
+    private static final long serialVersionUID = 3542237733478418425L;
+    private final double percent;
+
+    public CountBootstrap(double percent) {
+        this.percent = percent;
+    }
+
+    @Override
+    public Sample nextSample(Frame df, Var weights) {
+        int rowCount = df.rowCount();
+        int sampleSize = (int) (percent * rowCount);
+        int[] counts = new int[rowCount];
+        for (int i = 0; i < sampleSize; i++) {
+            counts[RandomSource.nextInt(rowCount)]++;
+        }
+        IntArrayList rows = new IntArrayList();
+        IntArrayList oob = new IntArrayList();
+        VarDouble w = VarDouble.empty().withName(weights.name());
+        for (int row = 0; row < rowCount; row++) {
+            if (counts[row] == 0) {
+                oob.add(row);
+                continue;
+            }
+            rows.add(row);
+            w.addDouble(weights.getDouble(row) * counts[row]);
+        }
+        Mapping map = Mapping.wrap(rows);
+        return new Sample(df.mapRows(map), w, map, Mapping.wrap(oob));
+    }
+
+    @Override
+    public String name() {
+        return "CountBootstrap(p=" + floatFlex(percent) + ")";
+    }
+}
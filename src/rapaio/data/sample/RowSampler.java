@@ -65,6 +65,21 @@ public interface RowSampler extends Serializable {
         return new Bootstrap(p);
     }
 
+    /**
+     * Bootstrap sampling which does not duplicate rows. Each sampled row appears once
+     * in the sample and its weight is multiplied by the number of times it was drawn.
+     * The sample carries the out of bag rows.
+     *
+     * @return count weighted bootstrap sampler of the size of the data frame
+     */
+    static RowSampler countBootstrap() {
+        return new CountBootstrap(1.0);
+    }
+
+    static RowSampler countBootstrap(double p) {
+        return new CountBootstrap(p);
+    }
+
     static RowSampler subsampler(double p) {
         return new SubSampler(p);
     }
@@ -27,6 +27,7 @@
 
 package rapaio.data.sample;
 
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 import rapaio.data.Frame;
 import rapaio.data.Mapping;
 import rapaio.data.Var;
@@ -44,9 +45,47 @@ public final class Sample {
 
     public final Mapping mapping;
 
+    private final Mapping oob;
+
     public Sample(Frame df, Var weights, Mapping mapping) {
+        this(df, weights, mapping, null);
+    }
+
+    /**
+     * Builds a sample which knows also its out of bag rows.
+     *
+     * @param df      sampled data frame
+     * @param weights sampled weights
+     * @param mapping sampled rows of the source data frame
+     * @param oob     ascending rows of the source data frame which were not sampled
+     */
+    public Sample(Frame df, Var weights, Mapping mapping, Mapping oob) {
         this.df = df;
         this.weights = weights;
         this.mapping = mapping;
+        this.oob = oob;
+    }
+
+    /**
+     * Out of bag rows are the rows of the source data frame which are not contained
+     * in the sample. If the sampler produced them they are returned directly,
+     * otherwise they are computed from the sample mapping.
+     *
+     * @param rowCount number of rows of the source data frame
+     * @return ascending rows of the source data frame which were not sampled
+     */
+    public Mapping oob(int rowCount) {
+        if (oob != null) {
+            return oob;
+        }
+        boolean[] in = new boolean[rowCount];
+        mapping.stream().forEach(row -> in[row] = true);
+        IntArrayList rows = new IntArrayList();
+        for (int row = 0; row < rowCount; row++) {
+            if (!in[row]) {
+                rows.add(row);
+            }
+        }
+        return Mapping.wrap(rows);
     }
 }
@@ -63,6 +63,26 @@ public final class Json {
     }
 
     public static JsonStream stream(File root, FileFilter ff, Consumer<String> ph, Predicate<String> propFilter) {
+        return stream(root, ff, ph, propFilter, false);
+    }
+
+    /**
+     * Builds a stream of json values from files which contains one json value per line.
+     * Large plain files are split at line boundaries, so that even a single file
+     * is parsed in parallel. Only the keys of root objects accepted by the
+     * property filter are parsed, the other values are skipped.
+     *
+     * @param root       file or directory with files
+     * @param ff         file filter used when root is a directory
+     * @param propFilter filter for the keys of root objects
+     * @return stream of json values
+     */
+    public static JsonStream lineStream(File root, FileFilter ff, Predicate<String> propFilter) {
+        return stream(root, ff, msg -> {
+        }, propFilter, true);
+    }
+
+    private static JsonStream stream(File root, FileFilter ff, Consumer<String> ph, Predicate<String> propFilter, boolean splitLines) {
         List<File> files = new ArrayList<>();
         if (root.isDirectory()) {
             File[] listFiles = root.listFiles();
@@ -73,7 +93,7 @@ public final class Json {
         } else {
             files.add(root);
         }
-        JsonSpliterator spliterator = new JsonSpliterator(files, ph, propFilter);
+        JsonSpliterator spliterator = new JsonSpliterator(files, ph, propFilter, splitLines);
         return new JsonStream(StreamSupport.stream(spliterator, spliterator.isParallel()));
     }
 
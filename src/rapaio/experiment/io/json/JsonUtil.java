@@ -27,6 +27,7 @@
 
 package rapaio.experiment.io.json;
 
+import rapaio.experiment.io.json.stream.JsonBlockOutput;
 import rapaio.experiment.io.json.stream.JsonInputFlat;
 import rapaio.experiment.io.json.stream.LzJsonOutput;
 import rapaio.experiment.io.json.tree.JsonValue;
@@ -90,6 +91,32 @@ public class JsonUtil {
         });
     }
 
+    /**
+     * Converts json files into json block format, see {@link JsonBlockOutput}.
+     * The name of the new files should have the extension .jsonb in order to be
+     * recognized by json streams.
+     */
+    public static void convertToBlocks(File root, FileFilter fnf, Function<String, String> rename, Consumer<String> mh) {
+        File[] children = root.listFiles(fnf);
+        Arrays.stream(children).parallel().forEach(f -> {
+            String newFileName = rename.apply(f.getAbsolutePath());
+            mh.accept("converting ... " + newFileName);
+            try (JsonBlockOutput out = new JsonBlockOutput(new BufferedOutputStream(new FileOutputStream(new File(newFileName))))) {
+                Json.stream(f, nf -> nf.getName().equals(f.getName()), Json.allFilter())
+                        .sequential()
+                        .forEach(js -> {
+                            try {
+                                out.write(js);
+                            } catch (Exception ex) {
+                                ex.printStackTrace();
+                            }
+                        });
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
     public static void balancedConvertToLz(File root, FileFilter ff, String prefix, int sliceCount, Consumer<String> messageHandler) {
         Pin<Integer> fileCounter = new Pin<>(0);
         Stream<JsonValue> stream = Json.stream(root, ff).parallel();
@@ -33,7 +33,12 @@ import rapaio.data.Var;
 import rapaio.experiment.io.json.tree.JsonValue;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
@@ -50,17 +55,81 @@ public class JsonExtractor {
         features.add(feat);
     }
 
+    /**
+     * Builds a filter for the root keys which are needed by features. It can be used to skip
+     * the parsing of unneeded values, see {@link rapaio.experiment.io.json.Json#lineStream}.
+     *
+     * @return filter for root keys
+     */
+    public Predicate<String> propFilter() {
+        Set<String> keys = new HashSet<>();
+        for (JsonFeature feat : features) {
+            if (feat.keys().length == 0) {
+                return key -> true;
+            }
+            keys.addAll(Arrays.asList(feat.keys()));
+        }
+        return keys::contains;
+    }
+
+    /**
+     * Extracts features from all json values. If the stream is parallel, each split
+     * collects values into its own variables, which are concatenated at the end.
+     *
+     * @param stream stream of json values
+     * @return frame with a variable for each feature
+     */
     public Frame extract(Stream<JsonValue> stream) {
-        stream.sequential().forEach(js -> {
-            for (JsonFeature feat : features) {
-                feat.apply(js);
+        if (!stream.isParallel()) {
+            stream.forEach(js -> {
+                for (JsonFeature feat : features) {
+                    feat.apply(js);
+                }
+            });
+        } else {
+            List<JsonFeature> collected = stream.collect(
+                    () -> features.stream().map(JsonFeature::newInstance).collect(Collectors.toList()),
+                    (list, js) -> {
+                        for (JsonFeature feat : list) {
+                            feat.apply(js);
+                        }
+                    },
+                    (left, right) -> {
+                        for (int i = 0; i < left.size(); i++) {
+                            appendRows(left.get(i).getResult(), right.get(i).getResult());
+                        }
+                    });
+            for (int i = 0; i < features.size(); i++) {
+                appendRows(features.get(i).getResult(), collected.get(i).getResult());
             }
-        });
+        }
         List<Var> vars = new ArrayList<>();
         for (JsonFeature feat : features) {
             vars.add(feat.getResult());
         }
         return SolidFrame.byVars(vars);
     }
-}
 
+    private static void appendRows(Var to, Var from) {
+        for (int i = 0; i < from.rowCount(); i++) {
+            if (from.isMissing(i)) {
+                to.addMissing();
+                continue;
+            }
+            switch (to.type()) {
+                case DOUBLE:
+                    to.addDouble(from.getDouble(i));
+                    break;
+                case INT:
+                case BINARY:
+                    to.addInt(from.getInt(i));
+                    break;
+                case LONG:
+                    to.addLong(from.getLong(i));
+                    break;
+                default:
+                    to.addLabel(from.getLabel(i));
+            }
+        }
+    }
+}
@@ -40,10 +40,33 @@ public class JsonFeature {
 
     private final Var collector;
     private final BiConsumer<JsonValue, Var> consumer;
+    private final String[] keys;
 
     public JsonFeature(Var collector, BiConsumer<JsonValue, Var> consumer) {
+        this(collector, consumer, new String[0]);
+    }
+
+    /**
+     * @param collector variable which collects the extracted values
+     * @param consumer  function which extracts values from a json value into collector
+     * @param keys      keys of the root json object used by the consumer, if no keys are
+     *                  given, all the values are needed
+     */
+    public JsonFeature(Var collector, BiConsumer<JsonValue, Var> consumer, String... keys) {
         this.collector = collector;
         this.consumer = consumer;
+        this.keys = keys;
+    }
+
+    /**
+     * @return a feature with the same extraction function and an empty collector of the same type
+     */
+    public JsonFeature newInstance() {
+        return new JsonFeature(collector.newInstance(0).withName(collector.name()), consumer, keys);
+    }
+
+    public String[] keys() {
+        return keys;
     }
 
     public void apply(JsonValue js) {
@@ -0,0 +1,133 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.experiment.io.json.stream;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Constants and shared encoding routines of the json block format.
+ * <p>
+ * A file starts with a magic number and contains a sequence of row groups.
+ * A row group starts with the number of rows and the number of columns,
+ * followed by one block for each root key. A block header contains the key,
+ * numeric statistics and the lengths of the compressed block content.
+ * The file ends with a row group with zero rows.
+ * <p>
+ * The content of a block contains the run length encoded value types for all rows,
+ * a dictionary with the distinct text of string, number and nested values and the
+ * dictionary ids of values, either plain or run length encoded.
+ */
+final class JsonBlockFormat {
+
+    static final int MAGIC = 0x524a4201;
+
+    static final byte TAG_ABSENT = 0;
+    static final byte TAG_NULL = 1;
+    static final byte TAG_TRUE = 2;
+    static final byte TAG_FALSE = 3;
+    static final byte TAG_NUMBER = 4;
+    static final byte TAG_STRING = 5;
+    static final byte TAG_NESTED = 6;
+
+    static final byte IDS_PLAIN = 0;
+    static final byte IDS_RLE = 1;
+
+    private JsonBlockFormat() {
+    }
+
+    static boolean hasText(byte tag) {
+        return tag == TAG_NUMBER || tag == TAG_STRING || tag == TAG_NESTED;
+    }
+
+    static void writeVarInt(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    /**
+     * Reads a variable length integer from buffer, the position is
+     * kept in the first element of the array.
+     */
+    static int readVarInt(byte[] buff, int[] pos) {
+        int value = 0;
+        int shift = 0;
+        while (true) {
+            int b = buff[pos[0]++];
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+            shift += 7;
+        }
+    }
+
+    static byte[] compress(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+        deflater.setInput(raw);
+        deflater.finish();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 2));
+        byte[] buff = new byte[64 * 1024];
+        while (!deflater.finished()) {
+            int len = deflater.deflate(buff);
+            out.write(buff, 0, len);
+        }
+        deflater.end();
+        return out.toByteArray();
+    }
+
+    static byte[] decompress(byte[] compressed, int rawLen) throws IOException {
+        Inflater inflater = new Inflater(true);
+        inflater.setInput(compressed);
+        byte[] raw = new byte[rawLen];
+        try {
+            int pos = 0;
+            while (pos < rawLen) {
+                int len = inflater.inflate(raw, pos, rawLen - pos);
+                if (len == 0 && (inflater.finished() || inflater.needsInput())) {
+                    break;
+                }
+                pos += len;
+            }
+            if (pos != rawLen) {
+                throw new IOException("Corrupted json block, expected " + rawLen + " bytes, found " + pos + ".");
+            }
+        } catch (DataFormatException ex) {
+            throw new IOException("Corrupted json block.", ex);
+        } finally {
+            inflater.end();
+        }
+        return raw;
+    }
+}
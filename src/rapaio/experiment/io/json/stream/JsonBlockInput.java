@@ -0,0 +1,260 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.experiment.io.json.stream;
+
+import rapaio.experiment.io.json.tree.JsonBool;
+import rapaio.experiment.io.json.tree.JsonNumber;
+import rapaio.experiment.io.json.tree.JsonObject;
+import rapaio.experiment.io.json.tree.JsonString;
+import rapaio.experiment.io.json.tree.JsonValue;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import static rapaio.experiment.io.json.stream.JsonBlockFormat.*;
+
+/**
+ * Reads json objects written with {@link JsonBlockOutput}.
+ * <p>
+ * Only the blocks of root keys accepted by the property filter are decoded, the
+ * others are skipped without decompression. Numeric ranges can be used to skip
+ * entire row groups, based on block statistics.
+ */
+public class JsonBlockInput implements JsonInput {
+
+    private final DataInputStream is;
+    private final Predicate<String> propFilter;
+    private final Map<String, double[]> ranges = new HashMap<>();
+
+    private JsonObject[] rows = new JsonObject[0];
+    private int pos;
+    private boolean done;
+
+    public JsonBlockInput(InputStream is, Predicate<String> propFilter) throws IOException {
+        this.is = new DataInputStream(is);
+        this.propFilter = propFilter;
+        if (this.is.readInt() != MAGIC) {
+            throw new IOException("Input is not in json block format.");
+        }
+    }
+
+    /**
+     * Skips row groups which does not contain numeric values for the given key
+     * in the given range. This is based only on block statistics, rows from
+     * row groups which are not skipped are not filtered.
+     *
+     * @param key root key
+     * @param min minimum value
+     * @param max maximum value
+     * @return self instance
+     */
+    public JsonBlockInput withRange(String key, double min, double max) {
+        ranges.put(key, new double[]{min, max});
+        return this;
+    }
+
+    @Override
+    public JsonValue read() throws IOException {
+        while (pos >= rows.length) {
+            if (done || !readRowGroup()) {
+                done = true;
+                return null;
+            }
+        }
+        return rows[pos++];
+    }
+
+    private boolean readRowGroup() throws IOException {
+        int rowCount;
+        try {
+            rowCount = is.readInt();
+        } catch (EOFException eof) {
+            return false;
+        }
+        if (rowCount == 0) {
+            return false;
+        }
+        int columnCount = is.readInt();
+
+        boolean skip = false;
+        Set<String> matched = new HashSet<>();
+        List<String> keys = new ArrayList<>();
+        List<byte[]> blocks = new ArrayList<>();
+        List<Integer> rawLengths = new ArrayList<>();
+        for (int i = 0; i < columnCount; i++) {
+            String key = is.readUTF();
+            boolean stats = is.readBoolean();
+            double min = is.readDouble();
+            double max = is.readDouble();
+            int rawLen = is.readInt();
+            int len = is.readInt();
+
+            double[] range = ranges.get(key);
+            if (range != null) {
+                if (stats && max >= range[0] && min <= range[1]) {
+                    matched.add(key);
+                } else {
+                    skip = true;
+                }
+            }
+            if (skip || !propFilter.test(key)) {
+                skipFully(len);
+                continue;
+            }
+            byte[] compressed = new byte[len];
+            is.readFully(compressed);
+            keys.add(key);
+            blocks.add(compressed);
+            rawLengths.add(rawLen);
+        }
+        rows = new JsonObject[0];
+        pos = 0;
+        if (skip || matched.size() < ranges.size()) {
+            return true;
+        }
+
+        rows = new JsonObject[rowCount];
+        for (int i = 0; i < rowCount; i++) {
+            rows[i] = new JsonObject();
+        }
+        for (int i = 0; i < keys.size(); i++) {
+            decodeBlock(keys.get(i), decompress(blocks.get(i), rawLengths.get(i)), rowCount);
+        }
+        return true;
+    }
+
+    private void decodeBlock(String key, byte[] raw, int rowCount) throws IOException {
+        int[] p = new int[]{0};
+
+        byte[] tags = new byte[rowCount];
+        int row = 0;
+        int count = 0;
+        while (row < rowCount) {
+            byte tag = raw[p[0]++];
+            int run = readVarInt(raw, p);
+            for (int i = 0; i < run; i++) {
+                tags[row++] = tag;
+            }
+            if (hasText(tag)) {
+                count += run;
+            }
+        }
+
+        int termCount = readVarInt(raw, p);
+        String[] terms = new String[termCount];
+        for (int i = 0; i < termCount; i++) {
+            int len = readVarInt(raw, p);
+            terms[i] = new String(raw, p[0], len, StandardCharsets.UTF_8);
+            p[0] += len;
+        }
+
+        int[] ids = new int[count];
+        byte mode = raw[p[0]++];
+        if (mode == IDS_RLE) {
+            int i = 0;
+            while (i < count) {
+                int id = readVarInt(raw, p);
+                int run = readVarInt(raw, p);
+                for (int j = 0; j < run; j++) {
+                    ids[i++] = id;
+                }
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                ids[i] = readVarInt(raw, p);
+            }
+        }
+
+        // strings and numbers are shared between rows with the same dictionary term
+        JsonValue[] numbers = new JsonValue[termCount];
+        JsonValue[] strings = new JsonValue[termCount];
+        JsonBool trueValue = new JsonBool("true");
+        JsonBool falseValue = new JsonBool("false");
+        int next = 0;
+        for (int i = 0; i < rowCount; i++) {
+            switch (tags[i]) {
+                case TAG_ABSENT:
+                    break;
+                case TAG_NULL:
+                    rows[i].addValue(key, JsonValue.NULL);
+                    break;
+                case TAG_TRUE:
+                    rows[i].addValue(key, trueValue);
+                    break;
+                case TAG_FALSE:
+                    rows[i].addValue(key, falseValue);
+                    break;
+                case TAG_NUMBER:
+                    int id = ids[next++];
+                    if (numbers[id] == null) {
+                        numbers[id] = new JsonNumber(terms[id]);
+                    }
+                    rows[i].addValue(key, numbers[id]);
+                    break;
+                case TAG_STRING:
+                    id = ids[next++];
+                    if (strings[id] == null) {
+                        strings[id] = new JsonString(terms[id]);
+                    }
+                    rows[i].addValue(key, strings[id]);
+                    break;
+                default:
+                    rows[i].addValue(key, new JsonInputFlat(terms[ids[next++]]).read());
+            }
+        }
+    }
+
+    private void skipFully(int len) throws IOException {
+        while (len > 0) {
+            int skipped = is.skipBytes(len);
+            if (skipped <= 0) {
+                // skipBytes can stop early, a read tells if the stream ended
+                if (is.read() == -1) {
+                    throw new EOFException("Unexpected end of json block input.");
+                }
+                skipped = 1;
+            }
+            len -= skipped;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        is.close();
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.experiment.io.json.stream;
+
+import rapaio.experiment.io.json.tree.JsonValue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static rapaio.experiment.io.json.stream.JsonBlockFormat.*;
+
+/**
+ * Writes json objects in the columnar json block format, which can be read with {@link JsonBlockInput}.
+ * <p>
+ * Objects are buffered in row groups. Each root key of the objects from a row group
+ * is written as a separate compressed block, so readers can decode only the keys they
+ * need and can skip row groups using the numeric statistics of the blocks.
+ * Nested objects and arrays are stored as text values.
+ */
+public class JsonBlockOutput implements Closeable {
+
+    private final DataOutputStream os;
+    private int rowGroupSize = 10_000;
+    private final List<JsonValue> buffer = new ArrayList<>();
+
+    public JsonBlockOutput(OutputStream os) throws IOException {
+        this.os = new DataOutputStream(os);
+        this.os.writeInt(MAGIC);
+    }
+
+    /**
+     * @param rowGroupSize number of objects from a row group
+     * @return self instance
+     */
+    public JsonBlockOutput withRowGroupSize(int rowGroupSize) {
+        if (rowGroupSize < 1) {
+            throw new IllegalArgumentException("Row group size must be positive.");
+        }
+        this.rowGroupSize = rowGroupSize;
+        return this;
+    }
+
+    public void write(JsonValue js) throws IOException {
+        if (!js.isObject()) {
+            throw new IllegalArgumentException("Json block format stores only json objects.");
+        }
+        buffer.add(js);
+        if (buffer.size() >= rowGroupSize) {
+            writeRowGroup();
+        }
+    }
+
+    private void writeRowGroup() throws IOException {
+        if (buffer.isEmpty()) {
+            return;
+        }
+        Map<String, Integer> columns = new LinkedHashMap<>();
+        for (JsonValue js : buffer) {
+            for (String key : js.keySet()) {
+                columns.putIfAbsent(key, columns.size());
+            }
+        }
+        os.writeInt(buffer.size());
+        os.writeInt(columns.size());
+        for (String key : columns.keySet()) {
+            writeBlock(key);
+        }
+        buffer.clear();
+    }
+
+    private void writeBlock(String key) throws IOException {
+        int rows = buffer.size();
+        byte[] tags = new byte[rows];
+        Map<String, Integer> dictionary = new HashMap<>();
+        List<String> terms = new ArrayList<>();
+        int[] ids = new int[rows];
+        int count = 0;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+
+        for (int i = 0; i < rows; i++) {
+            JsonValue js = buffer.get(i).keySet().contains(key) ? buffer.get(i).get(key) : null;
+            String text = null;
+            if (js == null) {
+                tags[i] = TAG_ABSENT;
+            } else if (js.isNumber()) {
+                tags[i] = TAG_NUMBER;
+                text = js.asString().get();
+                try {
+                    double value = Double.parseDouble(text);
+                    min = Math.min(min, value);
+                    max = Math.max(max, value);
+                } catch (NumberFormatException ignored) {
+                }
+            } else if (js.isString()) {
+                tags[i] = TAG_STRING;
+                text = js.asString().get();
+            } else if (js.isBool()) {
+                tags[i] = js.asBool().get() ? TAG_TRUE : TAG_FALSE;
+            } else if (js.isObject() || js.isArray()) {
+                tags[i] = TAG_NESTED;
+                text = js.toString();
+            } else {
+                tags[i] = TAG_NULL;
+            }
+            if (text != null) {
+                Integer id = dictionary.get(text);
+                if (id == null) {
+                    id = terms.size();
+                    dictionary.put(text, id);
+                    terms.add(text);
+                }
+                ids[count++] = id;
+            }
+        }
+
+        ByteArrayOutputStream raw = new ByteArrayOutputStream(rows * 2);
+
+        // run length encoded tags
+        int start = 0;
+        while (start < rows) {
+            int end = start + 1;
+            while (end < rows && tags[end] == tags[start]) {
+                end++;
+            }
+            raw.write(tags[start]);
+            writeVarInt(raw, end - start);
+            start = end;
+        }
+
+        // dictionary
+        writeVarInt(raw, terms.size());
+        for (String term : terms) {
+            byte[] bytes = term.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(raw, bytes.length);
+            raw.write(bytes, 0, bytes.length);
+        }
+
+        // ids, run length encoded if there are enough repetitions
+        int runs = 0;
+        for (int i = 0; i < count; i++) {
+            if (i == 0 || ids[i] != ids[i - 1]) {
+                runs++;
+            }
+        }
+        if (runs * 2 < count) {
+            raw.write(IDS_RLE);
+            start = 0;
+            while (start < count) {
+                int end = start + 1;
+                while (end < count && ids[end] == ids[start]) {
+                    end++;
+                }
+                writeVarInt(raw, ids[start]);
+                writeVarInt(raw, end - start);
+                start = end;
+            }
+        } else {
+            raw.write(IDS_PLAIN);
+            for (int i = 0; i < count; i++) {
+                writeVarInt(raw, ids[i]);
+            }
+        }
+
+        byte[] rawBytes = raw.toByteArray();
+        byte[] compressed = compress(rawBytes);
+
+        os.writeUTF(key);
+        boolean stats = min <= max;
+        os.writeBoolean(stats);
+        os.writeDouble(stats ? min : Double.NaN);
+        os.writeDouble(stats ? max : Double.NaN);
+        os.writeInt(rawBytes.length);
+        os.writeInt(compressed.length);
+        os.write(compressed);
+    }
+
+    @Override
+    public void close() throws IOException {
+        writeRowGroup();
+        os.writeInt(0);
+        os.flush();
+        os.close();
+    }
+}
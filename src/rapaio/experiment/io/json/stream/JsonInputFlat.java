@@ -40,8 +40,10 @@ import java.io.CharArrayReader;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.util.function.Predicate;
 import java.util.logging.Logger;
 import java.util.zip.GZIPInputStream;
 
@@ -67,16 +69,29 @@ public class JsonInputFlat implements JsonInput {
     private int pos = 0;
 
     private final Reader reader;
+    // filter for the keys of root objects, values of rejected keys are skipped without parsing
+    private final Predicate<String> propFilter;
     int _next = ' ';
 
     public JsonInputFlat(File file) throws IOException {
+        this(file, key -> true);
+    }
+
+    public JsonInputFlat(File file, Predicate<String> propFilter) throws IOException {
         this.reader = (file.getName().endsWith(".gz")) ?
                 new InputStreamReader(new GZIPInputStream(new BufferedInputStream(new FileInputStream(file), 1024 * 1024), 16 * 1024), "utf-8") :
                 new InputStreamReader(new BufferedInputStream(new FileInputStream(file), 16 * 1024), "utf-8");
+        this.propFilter = propFilter;
+    }
+
+    public JsonInputFlat(InputStream is, Predicate<String> propFilter) throws IOException {
+        this.reader = new InputStreamReader(is, "utf-8");
+        this.propFilter = propFilter;
     }
 
     public JsonInputFlat(String text) throws IOException {
         this.reader = new CharArrayReader(text.toCharArray());
+        this.propFilter = key -> true;
     }
 
     private boolean isNumeric(int ch) {
@@ -122,7 +137,7 @@ public class JsonInputFlat implements JsonInput {
             }
             skipWhite();
             if (LEFT_CURLY == _next) {
-                return readObject();
+                return readObject(true);
             } else if (LEFT_SQUARE == _next) {
                 return readArray();
             } else if ('\"' == _next) {
@@ -152,7 +167,7 @@ public class JsonInputFlat implements JsonInput {
             while (_next == COMMA || isWhite(_next)) _next = getNext();
 
             if (LEFT_CURLY == _next) {
-                value = readObject();
+                value = readObject(false);
             } else if (LEFT_SQUARE == _next) {
                 value = readArray();
             } else if ('\"' == _next) {
@@ -170,7 +185,7 @@ public class JsonInputFlat implements JsonInput {
         }
     }
 
-    private JsonObject readObject() throws IOException {
+    private JsonObject readObject(boolean root) throws IOException {
         JsonObject obj = new JsonObject();
 
         _next = getNext();
@@ -196,10 +211,14 @@ public class JsonInputFlat implements JsonInput {
             _next = getNext();
             skipWhite();
 
+            if (root && !propFilter.test(key)) {
+                skipValue();
+                continue;
+            }
             if ('\"' == _next) {
                 obj.addValue(key, readString());
             } else if (LEFT_CURLY == _next) {
-                obj.addValue(key, readObject());
+                obj.addValue(key, readObject(false));
             } else if (isNumeric(_next)) {
                 obj.addValue(key, readNumeric());
             } else if (LEFT_SQUARE == _next) {
@@ -214,6 +233,54 @@ public class JsonInputFlat implements JsonInput {
         }
     }
 
+    /**
+     * Skips the next value without building it.
+     */
+    private void skipValue() throws IOException {
+        if ('\"' == _next) {
+            skipString();
+            _next = ' ';
+            return;
+        }
+        if (LEFT_CURLY == _next || LEFT_SQUARE == _next) {
+            int depth = 1;
+            while (depth > 0) {
+                _next = getNext();
+                if (_next == -1) {
+                    return;
+                }
+                if (_next == '\"') {
+                    skipString();
+                } else if (_next == LEFT_CURLY || _next == LEFT_SQUARE) {
+                    depth++;
+                } else if (_next == RIGHT_CURLY || _next == RIGHT_SQUARE) {
+                    depth--;
+                }
+            }
+            _next = ' ';
+            return;
+        }
+        // numbers and literals
+        while (_next != -1 && !(isWhite(_next) || _next == COMMA ||
+                _next == COLON || _next == RIGHT_CURLY ||
+                _next == LEFT_CURLY || _next == RIGHT_SQUARE ||
+                _next == LEFT_SQUARE)) {
+            _next = getNext();
+        }
+    }
+
+    private void skipString() throws IOException {
+        while (true) {
+            _next = getNext();
+            if (_next == -1 || _next == '\"') {
+                return;
+            }
+            if (_next == '\\') {
+                getNext();
+            }
+        }
+    }
+
     private JsonBool readBool() throws IOException {
         pos = 0;
         buffer[pos++] = (char) _next;
@@ -35,6 +35,7 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.stream.Collectors;
 import java.util.Spliterator;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
@@ -44,32 +45,66 @@ import java.util.zip.GZIPInputStream;
 
 /**
  * JsonSpliterator
+ * <p>
+ * Files are split between spliterators. When line splitting is enabled, large plain
+ * json files which contains one value per line are also split in byte ranges aligned
+ * at line boundaries, so a single file can be parsed in parallel.
+ * <p>
  * Created by <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a> on 3/6/15.
  */
 public class JsonSpliterator implements Spliterator<JsonValue> {
 
     private static final Logger logger = Logger.getLogger(JsonSpliterator.class.getName());
 
-    private LinkedList<File> files;
+    /**
+     * Minimum size in bytes of a file range produced by splitting a file
+     */
+    private static final long MIN_SPLIT_SIZE = 1024 * 1024;
+
+    private LinkedList<Part> parts;
     private final Consumer<String> messageHandler;
     private final boolean parallel;
+    private final boolean splitLines;
     private final Predicate<String> propFilter;
     private long estimateSize = Long.MAX_VALUE;
 
     private JsonInput input;
 
     public JsonSpliterator(List<File> files, Consumer<String> messageHandler, Predicate<String> propFilter) {
-        this.files = new LinkedList<>(files);
-        this.parallel = files.size() > 1;
+        this(files, messageHandler, propFilter, false);
+    }
+
+    /**
+     * @param files          files to be parsed
+     * @param messageHandler handler for progress messages
+     * @param propFilter     filter for the keys of root objects
+     * @param splitLines     if true, plain files are considered to have one json value per line
+     *                       and are split at line boundaries for parallel parsing
+     */
+    public JsonSpliterator(List<File> files, Consumer<String> messageHandler, Predicate<String> propFilter, boolean splitLines) {
+        this(files.stream().map(f -> new Part(f, 0, f.length())).collect(Collectors.toCollection(LinkedList::new)),
+                messageHandler, propFilter, splitLines);
+    }
+
+    private JsonSpliterator(LinkedList<Part> parts, Consumer<String> messageHandler, Predicate<String> propFilter, boolean splitLines) {
+        this.parts = parts;
+        this.splitLines = splitLines;
+        this.parallel = parts.size() > 1 || (splitLines && parts.stream().anyMatch(this::splittable));
         this.messageHandler = messageHandler;
         this.propFilter = propFilter;
-        estimateSize = files.stream().mapToLong(File::length).sum();
+        estimateSize = parts.stream().mapToLong(Part::length).sum();
     }
 
     public boolean isParallel() {
         return parallel;
     }
 
+    private boolean splittable(Part part) {
+        String name = part.file.getName();
+        return splitLines && !name.endsWith(".gz") && !name.endsWith(".lzjson") && !name.endsWith(".jsonb")
+                && part.length() >= 2 * MIN_SPLIT_SIZE;
+    }
+
     private JsonValue parseStream() throws IOException {
         if (input != null) {
             JsonValue js;
@@ -81,27 +116,26 @@ public class JsonSpliterator implements Spliterator<JsonValue> {
             if (js != null)
                 return js;
             input.close();
-            if (files.isEmpty())
-                return null;
-            messageHandler.accept("parsing (next): " + files.getFirst().getName());
-            estimateSize = files.stream().mapToLong(File::length).sum();
-            input = buildInput(files.pollFirst());
-            return parseStream();
-        } else {
-            if (files.isEmpty()) {
-                return null;
-            }
-            messageHandler.accept("parsing (head): " + files.getFirst().getName());
-            estimateSize = files.stream().mapToLong(File::length).sum();
-            input = buildInput(files.pollFirst());
-            return parseStream();
+            input = null;
+        }
+        if (parts.isEmpty()) {
+            return null;
         }
+        messageHandler.accept("parsing: " + parts.getFirst().file.getName());
+        estimateSize = parts.stream().mapToLong(Part::length).sum();
+        input = buildInput(parts.pollFirst());
+        return parseStream();
     }
 
-    private JsonInput buildInput(File file) throws IOException {
+    private JsonInput buildInput(Part part) throws IOException {
+        File file = part.file;
         if (file.getName().endsWith(".lzjson"))
             return new LzJsonInput(new BufferedInputStream(new GZIPInputStream(new FileInputStream(file))), propFilter);
-        return new JsonInputFlat(file);
+        if (file.getName().endsWith(".jsonb"))
+            return new JsonBlockInput(new BufferedInputStream(new FileInputStream(file), 1024 * 1024), propFilter);
+        if (part.start == 0 && part.end == file.length())
+            return new JsonInputFlat(file, propFilter);
+        return new JsonInputFlat(new LineRangeInputStream(file, part.start, part.end), propFilter);
     }
 
     @Override
@@ -120,11 +154,21 @@ public class JsonSpliterator implements Spliterator<JsonValue> {
 
     @Override
     public Spliterator<JsonValue> trySplit() {
-        if (files.size() > 1) {
-            int len = files.size() / 2;
-            LinkedList<File> splitFiles = new LinkedList<>(files.subList(files.size() - len, files.size()));
-            files = new LinkedList<>(files.subList(0, files.size() - len));
-            return new JsonSpliterator(splitFiles, messageHandler, propFilter);
+        if (parts.size() > 1) {
+            int len = parts.size() / 2;
+            LinkedList<Part> splitParts = new LinkedList<>(parts.subList(parts.size() - len, parts.size()));
+            parts = new LinkedList<>(parts.subList(0, parts.size() - len));
+            estimateSize = parts.stream().mapToLong(Part::length).sum();
+            return new JsonSpliterator(splitParts, messageHandler, propFilter, splitLines);
+        }
+        if (parts.size() == 1 && input == null && splittable(parts.getFirst())) {
+            Part part = parts.pollFirst();
+            long mid = part.start + part.length() / 2;
+            parts.add(new Part(part.file, part.start, mid));
+            estimateSize = mid - part.start;
+            LinkedList<Part> splitParts = new LinkedList<>();
+            splitParts.add(new Part(part.file, mid, part.end));
+            return new JsonSpliterator(splitParts, messageHandler, propFilter, splitLines);
         }
         return null;
     }
@@ -153,4 +197,24 @@ public class JsonSpliterator implements Spliterator<JsonValue> {
     public int characteristics() {
         return SIZED & SUBSIZED & IMMUTABLE;
     }
+
+    /**
+     * Byte range [start, end) of a file
+     */
+    private static final class Part {
+
+        private final File file;
+        private final long start;
+        private final long end;
+
+        Part(File file, long start, long end) {
+            this.file = file;
+            this.start = start;
+            this.end = end;
+        }
+
+        long length() {
+            return end - start;
+        }
+    }
 }
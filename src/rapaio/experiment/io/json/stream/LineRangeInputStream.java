@@ -0,0 +1,139 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.experiment.io.json.stream;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+
+/**
+ * Input stream over a byte range of a newline delimited file.
+ * <p>
+ * A record is a line which starts inside the range [start, end). The stream starts
+ * with the first record which begins at or after start and stops after the last
+ * record which begins before end, even if that record continues after end.
+ * Consecutive ranges of the same file produce each record exactly once.
+ */
+final class LineRangeInputStream extends InputStream {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final RandomAccessFile file;
+    private final long end;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int bufferPos;
+    private int bufferLen;
+    // file position of the next byte
+    private long pos;
+    // last byte returned, the range starts at a record boundary
+    private int last = '\n';
+    private boolean done;
+
+    LineRangeInputStream(File file, long start, long end) throws IOException {
+        this.file = new RandomAccessFile(file, "r");
+        this.end = end;
+        if (start > 0) {
+            // a record starts at start only if the previous byte is a new line
+            this.file.seek(start - 1);
+            pos = start - 1;
+            int b;
+            do {
+                b = nextByte();
+            } while (b != -1 && b != '\n');
+        }
+    }
+
+    private boolean fill() throws IOException {
+        bufferLen = file.read(buffer, 0, buffer.length);
+        bufferPos = 0;
+        if (bufferLen <= 0) {
+            bufferLen = 0;
+            done = true;
+            return false;
+        }
+        return true;
+    }
+
+    private int nextByte() throws IOException {
+        if (bufferPos == bufferLen && !fill()) {
+            return -1;
+        }
+        pos++;
+        return buffer[bufferPos++] & 0xff;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (done) {
+            return -1;
+        }
+        if (pos >= end && last == '\n') {
+            done = true;
+            return -1;
+        }
+        int b = nextByte();
+        if (b != -1) {
+            last = b;
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        int n = 0;
+        while (n < len && !done) {
+            if (pos < end) {
+                if (bufferPos == bufferLen && !fill()) {
+                    break;
+                }
+                int count = (int) Math.min(Math.min(len - n, bufferLen - bufferPos), end - pos);
+                System.arraycopy(buffer, bufferPos, b, off + n, count);
+                bufferPos += count;
+                pos += count;
+                n += count;
+                last = b[off + n - 1] & 0xff;
+            } else {
+                int c = read();
+                if (c == -1) {
+                    break;
+                }
+                b[off + n++] = (byte) c;
+            }
+        }
+        return n == 0 ? -1 : n;
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+}
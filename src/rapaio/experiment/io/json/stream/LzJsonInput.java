@@ -44,6 +44,8 @@ import java.util.function.Predicate;
  * Utility class able to produce json values from an input stream formatted as lzjson.
  * <p>
  * Created by <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a> on 3/9/15.
+ *
+ * @deprecated replaced by the columnar json block format, see {@link JsonBlockInput}
  */
 @Deprecated
 public class LzJsonInput extends LzJsonAlgorithm implements JsonInput {
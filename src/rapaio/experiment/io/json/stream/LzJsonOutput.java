@@ -53,6 +53,8 @@ import static java.util.stream.Collectors.*;
  * Utility class able to write json values to an output stream formatted as lzjson.
  * <p>
  * Created by <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a> on 3/9/15.
+ *
+ * @deprecated replaced by the columnar json block format, see {@link JsonBlockOutput}
  */
 @Deprecated
 public class LzJsonOutput extends LzJsonAlgorithm implements Closeable {
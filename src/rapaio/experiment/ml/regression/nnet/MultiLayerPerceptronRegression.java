@@ -29,76 +29,87 @@ package rapaio.experiment.ml.regression.nnet;
 
 import rapaio.core.*;
 import rapaio.data.*;
+import rapaio.math.linear.*;
+import rapaio.math.linear.dense.*;
 import rapaio.ml.common.*;
 import rapaio.ml.regression.*;
 import rapaio.printer.*;
+import rapaio.util.*;
 
 import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
 
 import static rapaio.printer.format.Format.*;
 
 /**
+ * Multi layer perceptron regression trained with mini batch gradient descent.
+ * <p>
+ * Each layer keeps its weights in a dense matrix with one row for each input of
+ * the layer, where the first row contains the bias weights, and one column for
+ * each node of the layer. Forward and backward passes are computed as matrix
+ * products over a mini batch of rows.
+ * <p>
+ * A training run is a single weights update computed on a mini batch of rows.
+ * Batches are taken in sequence from a random permutation of the rows, which
+ * is shuffled again after each pass over the data. The gradient of a batch is
+ * computed over chunks of fixed size and summed up in chunk order, in parallel
+ * unless pool size is 0, thus serial and parallel fits produce the same weights.
+ * The weights are updated with plain stochastic gradient descent or with Adam.
+ * <p>
  * User: Aurelian Tutuianu <padreati@yahoo.com>
  */
-@Deprecated
 public class MultiLayerPerceptronRegression extends AbstractRegression implements DefaultPrintable {
 
+    private static final long serialVersionUID = -5219620462584927164L;
+
+    /**
+     * Rule used to update weights from batch gradients.
+     */
+    public enum Optimizer {
+        SGD,
+        ADAM
+    }
+
+    // number of rows processed by one task, fixed so that partial gradients
+    // are summed in the same order regardless of pool size
+    private static final int CHUNK_SIZE = 32;
+
+    private static final double ADAM_BETA1 = 0.9;
+    private static final double ADAM_BETA2 = 0.999;
+    private static final double ADAM_EPS = 1e-8;
+
     private final int[] layerSizes;
-    private final NetNode[][] net;
-    int runs = 0;
     private TFunction function = TFunction.SIGMOID;
     private double learningRate = 1.0;
+    private int batchSize = 1;
+    private Optimizer optimizer = Optimizer.SGD;
 
-    public MultiLayerPerceptronRegression(int... layerSizes) {
-        this.layerSizes = layerSizes;
+    // weights[l] has layerSizes[l-1]+1 rows and layerSizes[l] columns, weights[0] is not used
+    private SolidRM[] weights;
 
+    public MultiLayerPerceptronRegression(int... layerSizes) {
         if (layerSizes.length < 2) {
             throw new IllegalArgumentException("neural net must have at least 2 layers (including input layer)");
         }
-
-        // build design
-
-        net = new NetNode[layerSizes.length][];
-        for (int i = 0; i < layerSizes.length; i++) {
-            int add = (i != net.length - 1) ? 1 : 0;
-            net[i] = new NetNode[layerSizes[i] + add];
-            for (int j = 0; j < net[i].length; j++) {
-                net[i][j] = new NetNode();
-            }
-        }
-
-        // wire-up nodes
-        for (int i = 0; i < net.length; i++) {
-            if (i == 0) {
-                for (int j = 0; j < net[i].length; j++) {
-                    net[i][j].setInputs(null);
-                    if (j == 0) {
-                        net[i][j].value = 1.;
-                    }
-                }
-                continue;
-            }
-            if (i == net.length - 1) {
-                for (int j = 0; j < net[i].length; j++) {
-                    net[i][j].setInputs(net[i - 1]);
-                }
-                continue;
-            }
-
-            for (int j = 0; j < net[i].length; j++) {
-                if (j == 0) {
-                    net[i][j].setInputs(null);
-                    net[i][j].value = 1.;
-                    continue;
-                }
-                net[i][j].setInputs(net[i - 1]);
+        for (int size : layerSizes) {
+            if (size < 1) {
+                throw new IllegalArgumentException("each layer must have at least one node");
             }
         }
+        this.layerSizes = Arrays.copyOf(layerSizes, layerSizes.length);
+        this.runs = 0;
     }
 
     @Override
     public Regression newInstance() {
-        return new MultiLayerPerceptronRegression(layerSizes);
+        return new MultiLayerPerceptronRegression(layerSizes)
+                .withFunction(function)
+                .withLearningRate(learningRate)
+                .withBatchSize(batchSize)
+                .withOptimizer(optimizer)
+                .withRuns(runs);
     }
 
     @Override
@@ -112,7 +123,10 @@ public class MultiLayerPerceptronRegression extends AbstractRegression implement
         sb.append(name()).append("{");
         sb.append("function=").append(function.name()).append(", ");
         sb.append("learningRate=").append(floatFlex(learningRate)).append(", ");
-        sb.append("layerSizes=").append(Arrays.deepToString(Arrays.stream(layerSizes).mapToObj(i -> i).toArray()));
+        sb.append("batchSize=").append(batchSize).append(", ");
+        sb.append("optimizer=").append(optimizer.name()).append(", ");
+        sb.append("runs=").append(runs).append(", ");
+        sb.append("layerSizes=").append(Arrays.toString(layerSizes));
         sb.append("}");
         return sb.toString();
     }
@@ -138,119 +152,263 @@ public class MultiLayerPerceptronRegression extends AbstractRegression implement
         return this;
     }
 
+    /**
+     * @param batchSize number of rows used to compute the gradient of one weights update
+     * @return this instance
+     */
+    public MultiLayerPerceptronRegression withBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batch size must be at least 1");
+        }
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    public MultiLayerPerceptronRegression withOptimizer(Optimizer optimizer) {
+        this.optimizer = optimizer;
+        return this;
+    }
+
+    /**
+     * @param runs number of weights updates, each one computed on a mini batch
+     * @return this instance
+     */
+    @Override
     public MultiLayerPerceptronRegression withRuns(int runs) {
         this.runs = runs;
         return this;
     }
 
-    @Override
-    protected boolean coreFit(Frame df, Var weights) {
-        for (String varName : df.varNames()) {
-            if (df.rvar(varName).type().isNominal()) {
-                throw new IllegalArgumentException("perceptrons can't predict nominal features");
-            }
+    /**
+     * @return weight matrices of each layer, starting with the first hidden layer
+     */
+    public List<RM> weights() {
+        if (weights == null) {
+            throw new IllegalStateException("Model was not fitted.");
         }
+        return Arrays.stream(weights, 1, weights.length).collect(Collectors.toList());
+    }
+
+    @Override
+    protected boolean coreFit(Frame df, Var w) {
 
         // validate
 
-        if (this.targetNames().length != net[net.length - 1].length) {
+        if (targetNames().length != layerSizes[layerSizes.length - 1]) {
             throw new IllegalArgumentException("target var names does not predict output nodes");
         }
-        if (inputNames().length != net[0].length - 1) {
+        if (inputNames().length != layerSizes[0]) {
             throw new IllegalArgumentException("input var names does not predict input nodes");
         }
 
-        // learn network
+        SolidRM x = SolidRM.copy(df.mapVars(inputNames()));
+        SolidRM y = SolidRM.copy(df.mapVars(targetNames()));
+        int rows = x.rowCount();
+        if (rows == 0) {
+            throw new IllegalArgumentException("cannot fit a neural net on an empty frame");
+        }
 
-        int pos;
-        for (int kk = 0; kk < runs; kk++) {
-            pos = RandomSource.nextInt(df.rowCount());
+        int layers = layerSizes.length;
+        weights = new SolidRM[layers];
+        for (int l = 1; l < layers; l++) {
+            weights[l] = SolidRM.fill(layerSizes[l - 1] + 1, layerSizes[l], (r, c) -> RandomSource.nextDouble() / 10.);
+        }
+
+        SolidRM[] m = null;
+        SolidRM[] v = null;
+        if (optimizer == Optimizer.ADAM) {
+            m = new SolidRM[layers];
+            v = new SolidRM[layers];
+            for (int l = 1; l < layers; l++) {
+                m[l] = SolidRM.empty(weights[l].rowCount(), weights[l].colCount());
+                v[l] = SolidRM.empty(weights[l].rowCount(), weights[l].colCount());
+            }
+        }
+
+        Random random = RandomSource.getRandom();
+        int[] perm = new int[rows];
+        for (int i = 0; i < rows; i++) {
+            perm[i] = i;
+        }
+        int pos = rows;
+        int size = Math.min(batchSize, rows);
+        int[] batch = new int[size];
+
+        for (int run = 1; run <= runs; run++) {
+
+            // next mini batch from the current permutation of rows
 
-            // set inputs
-            for (int i = 0; i < inputNames().length; i++) {
-                if (df.isMissing(pos, inputName(i))) {
-                    throw new RuntimeException("detected NaN in input values");
+            for (int i = 0; i < size; i++) {
+                if (pos == rows) {
+                    for (int j = rows - 1; j > 0; j--) {
+                        int k = random.nextInt(j + 1);
+                        int tmp = perm[j];
+                        perm[j] = perm[k];
+                        perm[k] = tmp;
+                    }
+                    pos = 0;
                 }
-                net[0][i + 1].value = df.getDouble(pos, inputName(i));
+                batch[i] = perm[pos++];
             }
 
-            // feed forward
-            for (int i = 1; i < net.length; i++) {
-                for (int j = 0; j < net[i].length; j++) {
-                    if (net[i][j].inputs != null) {
-                        double t = 0;
-                        for (int k = 0; k < net[i][j].inputs.length; k++) {
-                            t += net[i][j].inputs[k].value * net[i][j].weights[k];
+            SolidRM[] grad = gradient(x, y, batch);
+
+            // update weights
+
+            for (int l = 1; l < layers; l++) {
+                SolidRM wl = weights[l];
+                SolidRM gl = grad[l];
+                for (int i = 0; i < wl.rowCount(); i++) {
+                    for (int j = 0; j < wl.colCount(); j++) {
+                        double g = gl.get(i, j) / size;
+                        if (optimizer == Optimizer.SGD) {
+                            wl.increment(i, j, -learningRate * g);
+                            continue;
                         }
-                        net[i][j].value = function.compute(t);
+                        double mij = ADAM_BETA1 * m[l].get(i, j) + (1 - ADAM_BETA1) * g;
+                        double vij = ADAM_BETA2 * v[l].get(i, j) + (1 - ADAM_BETA2) * g * g;
+                        m[l].set(i, j, mij);
+                        v[l].set(i, j, vij);
+                        double mHat = mij / (1 - Math.pow(ADAM_BETA1, run));
+                        double vHat = vij / (1 - Math.pow(ADAM_BETA2, run));
+                        wl.increment(i, j, -learningRate * mHat / (Math.sqrt(vHat) + ADAM_EPS));
                     }
                 }
             }
+            if (runningHook != null) {
+                runningHook.accept(this, run);
+            }
+        }
+        return true;
+    }
 
-            // back propagate
+    /**
+     * Computes the gradient of the squared error summed over the rows of the batch.
+     * The batch is split in chunks, the gradient of each chunk is computed
+     * independently and the partial gradients are summed up.
+     */
+    private SolidRM[] gradient(SolidRM x, SolidRM y, int[] batch) {
+        int layers = layerSizes.length;
+
+        // transposed weights without bias rows, shared by all chunks for back propagation
+        RM[] back = new RM[layers];
+        for (int l = 2; l < layers; l++) {
+            back[l] = weights[l].rangeRows(1, weights[l].rowCount()).t();
+        }
 
-            for (NetNode[] layer : net) {
-                for (NetNode node : layer) {
-                    node.gamma = 0;
-                }
+        int chunks = chunkCount(batch.length);
+        List<SolidRM[]> partials = Util.rangeStream(chunks, parallel(chunks))
+                .mapToObj(chunk -> chunkGradient(x, y, batch,
+                        chunk * CHUNK_SIZE, Math.min(batch.length, (chunk + 1) * CHUNK_SIZE), back))
+                .collect(Collectors.toList());
+
+        SolidRM[] grad = partials.get(0);
+        for (int i = 1; i < partials.size(); i++) {
+            for (int l = 1; l < layers; l++) {
+                grad[l].plus(partials.get(i)[l]);
             }
+        }
+        return grad;
+    }
+
+    private SolidRM[] chunkGradient(SolidRM x, SolidRM y, int[] batch, int start, int end, RM[] back) {
+        int layers = layerSizes.length;
+        int[] rows = Arrays.copyOfRange(batch, start, end);
+        SolidRM[] a = forward(x, rows);
 
-            int last = net.length - 1;
-            for (int i = 0; i < net[last].length; i++) {
-                double expected = df.getDouble(pos, targetName(i));
-                double actual = net[last][i].value;
-                net[last][i].gamma = function.differential(actual) * (expected - actual);
+        // output layer error
+
+        int last = layers - 1;
+        SolidRM delta = SolidRM.empty(rows.length, layerSizes[last]);
+        for (int i = 0; i < rows.length; i++) {
+            for (int j = 0; j < layerSizes[last]; j++) {
+                double actual = a[last].get(i, j);
+                delta.set(i, j, function.differential(actual) * (actual - y.get(rows[i], j)));
             }
-            for (int i = last - 1; i > 0; i--) {
-                for (int j = 0; j < net[i].length; j++) {
-                    double sum = 0;
-                    for (int k = 0; k < net[i + 1].length; k++) {
-                        if (net[i + 1][k].weights == null) continue;
-                        sum += net[i + 1][k].weights[j] * net[i + 1][k].gamma;
-                    }
-                    net[i][j].gamma = function.differential(net[i][j].value) * sum;
+        }
+
+        SolidRM[] grad = new SolidRM[layers];
+        for (int l = last; l > 0; l--) {
+            grad[l] = (SolidRM) MatrixMultiplication.ikjAlgorithm(a[l - 1].t(), delta);
+            if (l == 1) {
+                break;
+            }
+            RM propagated = MatrixMultiplication.ikjAlgorithm(delta, back[l]);
+            SolidRM next = SolidRM.empty(rows.length, layerSizes[l - 1]);
+            for (int i = 0; i < rows.length; i++) {
+                for (int j = 0; j < layerSizes[l - 1]; j++) {
+                    // skip the bias column of hidden layer outputs
+                    next.set(i, j, function.differential(a[l - 1].get(i, j + 1)) * propagated.get(i, j));
                 }
             }
-            for (int i = net.length - 1; i > 0; i--) {
-                for (int j = 0; j < net[i].length; j++) {
-                    if (net[i][j].weights != null) {
-                        for (int k = 0; k < net[i][j].weights.length; k++) {
-                            net[i][j].weights[k] +=
-                                    learningRate * net[i][j].inputs[k].value * net[i][j].gamma;
-                        }
-                    }
+            delta = next;
+        }
+        return grad;
+    }
+
+    /**
+     * Computes outputs of all layers for the given rows. Outputs of the input
+     * and hidden layers have a first column filled with 1, used for bias.
+     */
+    private SolidRM[] forward(SolidRM x, int[] rows) {
+        int layers = layerSizes.length;
+        SolidRM[] a = new SolidRM[layers];
+        a[0] = SolidRM.empty(rows.length, layerSizes[0] + 1);
+        for (int i = 0; i < rows.length; i++) {
+            a[0].set(i, 0, 1.);
+            for (int j = 0; j < layerSizes[0]; j++) {
+                a[0].set(i, j + 1, x.get(rows[i], j));
+            }
+        }
+        for (int l = 1; l < layers; l++) {
+            RM z = MatrixMultiplication.ikjAlgorithm(a[l - 1], weights[l]);
+            int offset = (l < layers - 1) ? 1 : 0;
+            a[l] = SolidRM.empty(rows.length, layerSizes[l] + offset);
+            for (int i = 0; i < rows.length; i++) {
+                if (offset == 1) {
+                    a[l].set(i, 0, 1.);
+                }
+                for (int j = 0; j < layerSizes[l]; j++) {
+                    a[l].set(i, j + offset, function.compute(z.get(i, j)));
                 }
             }
         }
-        return true;
+        return a;
+    }
+
+    private int chunkCount(int rows) {
+        return Math.max(1, (rows + CHUNK_SIZE - 1) / CHUNK_SIZE);
+    }
+
+    private boolean parallel(int chunks) {
+        return poolSize() != 0 && chunks > 1;
     }
 
     @Override
     protected RPrediction corePredict(final Frame df, final boolean withResiduals) {
+        if (weights == null) {
+            throw new IllegalStateException("Model was not fitted.");
+        }
         RPrediction pred = RPrediction.build(this, df, withResiduals);
-        for (int pos = 0; pos < df.rowCount(); pos++) {
-
-            // set inputs
-            for (int i = 0; i < inputNames().length; i++) {
-                net[0][i + 1].value = df.getDouble(pos, inputName(i));
+        SolidRM x = SolidRM.copy(df.mapVars(inputNames()));
+        int rowCount = x.rowCount();
+        int last = layerSizes.length - 1;
+
+        int chunks = chunkCount(rowCount);
+        Util.rangeStream(chunks, parallel(chunks)).forEach(chunk -> {
+            int start = chunk * CHUNK_SIZE;
+            int end = Math.min(rowCount, start + CHUNK_SIZE);
+            int[] rows = new int[Math.max(0, end - start)];
+            for (int i = 0; i < rows.length; i++) {
+                rows[i] = start + i;
             }
-
-            // feed forward
-            for (int i = 1; i < net.length; i++) {
-                for (int j = 0; j < net[i].length; j++) {
-                    if (net[i][j].inputs != null) {
-                        double t = 0;
-                        for (int k = 0; k < net[i][j].inputs.length; k++) {
-                            t += net[i][j].inputs[k].value * net[i][j].weights[k];
-                        }
-                        net[i][j].value = function.compute(t);
-                    }
+            SolidRM out = forward(x, rows)[last];
+            for (int i = 0; i < rows.length; i++) {
+                for (int j = 0; j < targetNames().length; j++) {
+                    pred.fit(targetName(j)).setDouble(rows[i], out.get(i, j));
                 }
             }
-            for (int i = 0; i < targetNames().length; i++) {
-                pred.fit(targetName(i)).setDouble(pos, net[net.length - 1][i].value);
-            }
-        }
+        });
         pred.buildComplete();
         return pred;
     }
@@ -260,24 +418,3 @@ public class MultiLayerPerceptronRegression extends AbstractRegression implement
         throw new IllegalArgumentException("not implemented");
     }
 }
-
-@Deprecated
-class NetNode {
-
-    double value = RandomSource.nextDouble() / 10.;
-    NetNode[] inputs;
-    double[] weights;
-    double gamma;
-
-    public void setInputs(NetNode[] inputs) {
-        this.inputs = inputs;
-        if (inputs == null) {
-            this.weights = null;
-            return;
-        }
-        this.weights = new double[inputs.length];
-        for (int i = 0; i < weights.length; i++) {
-            weights[i] = RandomSource.nextDouble() / 10.;
-        }
-    }
-}
\ No newline at end of file
@@ -27,12 +27,9 @@
 
 package rapaio.experiment.ml.regression.nnet;
 
-import rapaio.core.RandomSource;
-
 /**
  * @author <a href="mailto:padreati@yahoo.com>Aurelian Tutuianu</a>
  */
-@Deprecated
 public enum TFunction {
 
     SIGMOID() {
@@ -41,7 +38,6 @@ public enum TFunction {
         }
 
         public double differential(double value) {
-            if (value == 0) return RandomSource.nextDouble() / 100;
             return value * (1. - value);
         }
     },
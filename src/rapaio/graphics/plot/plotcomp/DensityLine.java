@@ -28,6 +28,7 @@
 package rapaio.graphics.plot.plotcomp;
 
 import rapaio.core.distributions.empirical.KDE;
+import rapaio.core.distributions.empirical.KDEGrid;
 import rapaio.core.distributions.empirical.KFunc;
 import rapaio.core.distributions.empirical.KFuncGaussian;
 import rapaio.data.Var;
@@ -49,9 +50,18 @@ import java.util.function.Function;
 public class DensityLine extends PlotComponent {
 
     private static final long serialVersionUID = -9207144655129877629L;
+
+    /**
+     * Sample size from which the density is estimated on a binned grid instead of exactly
+     */
+    private static final int BINNED_THRESHOLD = 10_000;
+    private static final int MIN_GRID_SIZE = 1_024;
+    private static final int MAX_GRID_SIZE = 1 << 20;
+
     private final Var var;
     private final double bandwidth;
     private final KDE kde;
+    private KDEGrid grid;
 
     public DensityLine(Var var, GOption... opts) {
         this(var, new KFuncGaussian(), KDE.silvermanBandwidth(var), opts);
@@ -74,6 +84,15 @@ public class DensityLine extends PlotComponent {
 
     @Override
     public Range buildRange() {
+        if (kde.sampleCount() > BINNED_THRESHOLD) {
+            KDEGrid g = grid();
+            Range range = new Range();
+            range.setX1(g.min());
+            range.setX2(g.max());
+            range.setY1(0.0);
+            range.setY2(g.maxDensity() * 1.05);
+            return range;
+        }
         Pin<Double> xmin = new Pin<>(Double.NaN);
         Pin<Double> xmax = new Pin<>(Double.NaN);
         Pin<Double> ymin = new Pin<>(0.0);
@@ -98,6 +117,18 @@ public class DensityLine extends PlotComponent {
         return range;
     }
 
+    /**
+     * Binned density estimation over the whole support, with grid points
+     * spaced at a small fraction of the bandwidth.
+     */
+    private KDEGrid grid() {
+        if (grid == null) {
+            double size = Math.ceil((kde.supportMax() - kde.supportMin()) / (bandwidth / 16)) + 1;
+            grid = kde.grid((int) Math.max(MIN_GRID_SIZE, Math.min(MAX_GRID_SIZE, size)));
+        }
+        return grid;
+    }
+
     @Override
     public void paint(Graphics2D g2d) {
         buildRange();
@@ -105,9 +136,22 @@ public class DensityLine extends PlotComponent {
         Var x = VarDouble.fill(options.getPoints() + 1, 0);
         Var y = VarDouble.fill(options.getPoints() + 1, 0);
         double xstep = (range.x2() - range.x1()) / options.getPoints();
-        for (int i = 0; i < x.rowCount(); i++) {
-            x.setDouble(i, range.x1() + i * xstep);
-            y.setDouble(i, kde.pdf(x.getDouble(i)));
+        double[] xs = new double[x.rowCount()];
+        double[] ys = new double[x.rowCount()];
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = range.x1() + i * xstep;
+        }
+        if (kde.sampleCount() > BINNED_THRESHOLD) {
+            KDEGrid g = grid();
+            for (int i = 0; i < xs.length; i++) {
+                ys[i] = g.pdf(xs[i]);
+            }
+        } else {
+            kde.pdf(xs, ys);
+        }
+        for (int i = 0; i < xs.length; i++) {
+            x.setDouble(i, xs[i]);
+            y.setDouble(i, ys[i]);
         }
 
         for (int i = 1; i < x.rowCount(); i++) {
@@ -0,0 +1,53 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.io;
+
+/**
+ * Model which can be stored in the compact binary model format handled by {@link ModelIO}.
+ * <p>
+ * The parameters of the model are stored separately by {@link ModelIO}, a binary model
+ * writes and reads only the artifacts produced by fitting, like schema, tree nodes or
+ * coefficients.
+ */
+public interface BinaryModel {
+
+    /**
+     * Writes the fitted artifacts of the model.
+     *
+     * @param out binary model writer
+     */
+    void writeFitted(ModelWriter out);
+
+    /**
+     * Reads the fitted artifacts of the model into a new unfitted instance
+     * which has the same parameters as the stored model.
+     *
+     * @param in binary model reader
+     */
+    void readFitted(ModelReader in);
+}
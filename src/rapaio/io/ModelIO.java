@@ -0,0 +1,160 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.io;
+
+import rapaio.ml.classifier.Classifier;
+import rapaio.ml.regression.Regression;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Stores and restores fitted models in a compact and versioned binary format.
+ * <p>
+ * Unlike {@link JavaIO}, which serializes the whole object graph, the binary format
+ * contains the parameters of the model as a serialized unfitted instance, followed by
+ * the fitted artifacts written by the model itself as flat arrays of primitive values,
+ * see {@link BinaryModel}. All strings are stored once in a shared string table.
+ * <p>
+ * The file layout is: magic number, format version, string table, model parameters
+ * and fitted artifacts. Files are restored through a read only memory mapped buffer.
+ */
+public final class ModelIO {
+
+    private static final int MAGIC = 0x52504D44;
+
+    /**
+     * Version of the binary model format.
+     */
+    public static final int VERSION = 1;
+
+    private ModelIO() {
+    }
+
+    public static void store(Classifier model, File file) throws IOException {
+        storeModel(model, model.newInstance(), file);
+    }
+
+    public static void store(Regression model, File file) throws IOException {
+        storeModel(model, model.newInstance(), file);
+    }
+
+    public static Classifier restoreClassifier(File file) throws IOException {
+        Object model = restoreModel(file);
+        if (!(model instanceof Classifier)) {
+            throw new IOException("File " + file.getName() + " does not contain a classifier.");
+        }
+        return (Classifier) model;
+    }
+
+    public static Regression restoreRegression(File file) throws IOException {
+        Object model = restoreModel(file);
+        if (!(model instanceof Regression)) {
+            throw new IOException("File " + file.getName() + " does not contain a regression.");
+        }
+        return (Regression) model;
+    }
+
+    private static void storeModel(Object model, Object parameters, File file) throws IOException {
+        if (!(model instanceof BinaryModel)) {
+            throw new IllegalArgumentException("Model " + model.getClass().getSimpleName() + " cannot be stored in binary format.");
+        }
+        ModelWriter out = new ModelWriter();
+        out.writeBytes(serialize(parameters));
+        ((BinaryModel) model).writeFitted(out);
+
+        try (DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            dos.writeInt(MAGIC);
+            dos.writeInt(VERSION);
+            List<String> strings = out.strings();
+            dos.writeInt(strings.size());
+            for (String value : strings) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                dos.writeInt(bytes.length);
+                dos.write(bytes);
+            }
+            ByteBuffer body = out.body();
+            dos.write(body.array(), 0, body.limit());
+        }
+    }
+
+    private static Object restoreModel(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("File " + file.getName() + " is not a binary model file.");
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("Binary model format version " + version + " is not supported.");
+            }
+            String[] strings = new String[buffer.getInt()];
+            for (int i = 0; i < strings.length; i++) {
+                byte[] bytes = new byte[buffer.getInt()];
+                buffer.get(bytes);
+                strings[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+            ModelReader in = new ModelReader(buffer, Arrays.asList(strings));
+            Object model = deserialize(in.readBytes());
+            if (!(model instanceof BinaryModel)) {
+                throw new IOException("File " + file.getName() + " does not contain a binary model.");
+            }
+            ((BinaryModel) model).readFitted(in);
+            return model;
+        }
+    }
+
+    private static byte[] serialize(Object parameters) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(bos)) {
+            oos.writeObject(parameters);
+        }
+        return bos.toByteArray();
+    }
+
+    private static Object deserialize(byte[] bytes) throws IOException {
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return ois.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Cannot restore model parameters.", e);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.io;
+
+import rapaio.data.VType;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Reader used by {@link BinaryModel} implementations to restore fitted artifacts
+ * written by {@link ModelWriter}. Values are read directly from the buffer, which
+ * is usually a memory mapped model file.
+ */
+public final class ModelReader {
+
+    private final ByteBuffer buffer;
+    private final List<String> strings;
+
+    ModelReader(ByteBuffer buffer, List<String> strings) {
+        this.buffer = buffer;
+        this.strings = strings;
+    }
+
+    public byte readByte() {
+        return buffer.get();
+    }
+
+    public boolean readBoolean() {
+        return buffer.get() != 0;
+    }
+
+    public int readInt() {
+        return buffer.getInt();
+    }
+
+    public double readDouble() {
+        return buffer.getDouble();
+    }
+
+    public String readString() {
+        int index = buffer.getInt();
+        return index < 0 ? null : strings.get(index);
+    }
+
+    public byte[] readBytes() {
+        byte[] values = new byte[buffer.getInt()];
+        buffer.get(values);
+        return values;
+    }
+
+    public int[] readInts() {
+        int[] values = new int[buffer.getInt()];
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + values.length * 4);
+        return values;
+    }
+
+    public double[] readDoubles() {
+        double[] values = new double[buffer.getInt()];
+        buffer.asDoubleBuffer().get(values);
+        buffer.position(buffer.position() + values.length * 8);
+        return values;
+    }
+
+    public String[] readStrings() {
+        String[] values = new String[buffer.getInt()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = readString();
+        }
+        return values;
+    }
+
+    public VType[] readTypes() {
+        VType[] types = new VType[buffer.getInt()];
+        for (int i = 0; i < types.length; i++) {
+            types[i] = VType.valueOf(readString());
+        }
+        return types;
+    }
+}
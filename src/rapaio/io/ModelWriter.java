@@ -0,0 +1,147 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.io;
+
+import rapaio.data.VType;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writer used by {@link BinaryModel} implementations to store fitted artifacts.
+ * <p>
+ * Values are written in a growing byte buffer, strings are written as indexes into a
+ * string table which is shared by all the models stored in the same file. This way variable
+ * names, levels and test names are stored only once for all the trees of an ensemble.
+ */
+public final class ModelWriter {
+
+    private ByteBuffer buffer = ByteBuffer.allocate(1024);
+    private final Map<String, Integer> stringIndex = new HashMap<>();
+    private final List<String> strings = new ArrayList<>();
+
+    ModelWriter() {
+    }
+
+    private void ensure(int len) {
+        if (buffer.remaining() >= len) {
+            return;
+        }
+        int capacity = buffer.capacity();
+        while (capacity - buffer.position() < len) {
+            capacity = capacity * 2;
+        }
+        ByteBuffer grown = ByteBuffer.allocate(capacity);
+        buffer.flip();
+        grown.put(buffer);
+        buffer = grown;
+    }
+
+    public void writeByte(byte value) {
+        ensure(1);
+        buffer.put(value);
+    }
+
+    public void writeBoolean(boolean value) {
+        writeByte(value ? (byte) 1 : (byte) 0);
+    }
+
+    public void writeInt(int value) {
+        ensure(4);
+        buffer.putInt(value);
+    }
+
+    public void writeDouble(double value) {
+        ensure(8);
+        buffer.putDouble(value);
+    }
+
+    /**
+     * Writes a string as an index in the string table, null values are allowed.
+     */
+    public void writeString(String value) {
+        if (value == null) {
+            writeInt(-1);
+            return;
+        }
+        Integer index = stringIndex.get(value);
+        if (index == null) {
+            index = strings.size();
+            strings.add(value);
+            stringIndex.put(value, index);
+        }
+        writeInt(index);
+    }
+
+    public void writeBytes(byte[] values) {
+        writeInt(values.length);
+        ensure(values.length);
+        buffer.put(values);
+    }
+
+    public void writeInts(int[] values) {
+        writeInt(values.length);
+        ensure(values.length * 4);
+        buffer.asIntBuffer().put(values);
+        buffer.position(buffer.position() + values.length * 4);
+    }
+
+    public void writeDoubles(double[] values) {
+        writeInt(values.length);
+        ensure(values.length * 8);
+        buffer.asDoubleBuffer().put(values);
+        buffer.position(buffer.position() + values.length * 8);
+    }
+
+    public void writeStrings(String[] values) {
+        writeInt(values.length);
+        for (String value : values) {
+            writeString(value);
+        }
+    }
+
+    public void writeTypes(VType[] types) {
+        writeInt(types.length);
+        for (VType type : types) {
+            writeString(type.name());
+        }
+    }
+
+    List<String> strings() {
+        return strings;
+    }
+
+    ByteBuffer body() {
+        ByteBuffer body = buffer.duplicate();
+        body.flip();
+        return body;
+    }
+}
@@ -32,114 +32,475 @@ import rapaio.data.Var;
 import rapaio.data.VarDouble;
 import rapaio.util.Pair;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
 /**
  * Fast Fourier Transform
  * <p>
+ * Transforms are computed in place on primitive arrays with an iterative radix 2
+ * Cooley-Tukey algorithm for lengths which are powers of 2 and with Bluestein's
+ * chirp z-transform for arbitrary lengths. Twiddle factors, bit reversal
+ * permutations and Bluestein chirp filters are cached for the most recently used lengths.
+ * <p>
+ * Real input can be transformed with {@link #rfft(double[], double[], double[])}, which
+ * uses a complex transform of half length and returns only the non redundant
+ * half of the spectrum. Many series can be transformed at once in parallel
+ * with the batch methods.
+ * <p>
  * Created by <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a> on 6/28/16.
  */
 public class FFT {
 
-    // compute the FFT of x[], assuming its length is a power of 2
+    /**
+     * Maximum number of lengths kept in each cache
+     */
+    static final int CACHE_SIZE = 16;
+
+    private static final LengthCache<double[][]> twiddleCache = new LengthCache<>(CACHE_SIZE);
+    private static final LengthCache<int[]> reverseCache = new LengthCache<>(CACHE_SIZE);
+    private static final LengthCache<double[][]> chirpCache = new LengthCache<>(CACHE_SIZE);
+
+    // compute the FFT of x[]
     public static Pair<Var, Var> fft(Pair<Var, Var> x) {
+        int N = x._1.rowCount();
+        double[] re = new double[N];
+        double[] im = new double[N];
+        for (int i = 0; i < N; i++) {
+            re[i] = x._1.getDouble(i);
+            im[i] = x._2.getDouble(i);
+        }
+        fft(re, im);
+        return Pair.from(VarDouble.wrap(re), VarDouble.wrap(im));
+    }
 
+    // compute the inverse FFT of x[]
+    public static Pair<Var, Var> ifft(Pair<Var, Var> x) {
         int N = x._1.rowCount();
+        double[] re = new double[N];
+        double[] im = new double[N];
+        for (int i = 0; i < N; i++) {
+            re[i] = x._1.getDouble(i);
+            im[i] = x._2.getDouble(i);
+        }
+        ifft(re, im);
+        return Pair.from(VarDouble.wrap(re), VarDouble.wrap(im));
+    }
 
-        // base case
-        if (N == 1) return x;
+    // compute the circular convolution of x and y
+    public static Pair<Var, Var> cconvolve(Pair<Var, Var> x, Pair<Var, Var> y) {
 
-        // radix 2 Cooley-Tukey FFT
-        if (N % 2 != 0) {
-            throw new RuntimeException("N is not a power of 2");
+        int len = x._1.rowCount();
+        if (x._2.rowCount() != len || y._1.rowCount() != len || y._2.rowCount() != len) {
+            throw new RuntimeException("Dimensions don't agree");
         }
 
-        // fft of even terms
-        int[] evenMap = new int[N / 2];
-        for (int k = 0; k < N / 2; k++) {
-            evenMap[k] = 2 * k;
+        double[] are = new double[len];
+        double[] aim = new double[len];
+        double[] bre = new double[len];
+        double[] bim = new double[len];
+        for (int i = 0; i < len; i++) {
+            are[i] = x._1.getDouble(i);
+            aim[i] = x._2.getDouble(i);
+            bre[i] = y._1.getDouble(i);
+            bim[i] = y._2.getDouble(i);
         }
-        Pair<Var, Var> even = Pair.from(x._1.mapRows(evenMap), x._2.mapRows(evenMap));
-        Pair<Var, Var> q = fft(even);
+        cconvolve(are, aim, bre, bim);
+        return Pair.from(VarDouble.wrap(are), VarDouble.wrap(aim));
+    }
 
-        // fft of odd terms
-        int[] oddMap = new int[N / 2];
-        for (int k = 0; k < N / 2; k++) {
-            oddMap[k] = 2 * k + 1;
+    // compute the linear convolution of x and y
+    public static Pair<Var, Var> convolve(Pair<Var, Var> x, Pair<Var, Var> y) {
+        Pair<Var, Var> a = Pair.from(x._1.solidCopy(), x._2.solidCopy());
+        Pair<Var, Var> b = Pair.from(y._1.solidCopy(), y._2.solidCopy());
+
+        for (int i = 0; i < x._1.rowCount(); i++) {
+            a._1.addDouble(0.0);
+            a._2.addDouble(0.0);
+            b._1.addDouble(0.0);
+            b._2.addDouble(0.0);
         }
-        Pair<Var, Var> r = fft(Pair.from(x._1.mapRows(oddMap), x._2.mapRows(oddMap)));
+        return cconvolve(a, b);
+    }
 
-        // combine
-        Var rey = VarDouble.fill(N, 0.0);
-        Var imy = VarDouble.fill(N, 0.0);
-        for (int k = 0; k < N / 2; k++) {
-            double kth = -2 * k * Math.PI / N;
-            double coskth = Math.cos(kth);
-            double sinkth = Math.sin(kth);
+    /**
+     * Computes in place the discrete Fourier transform of a complex sequence
+     * of arbitrary length.
+     *
+     * @param re real parts, replaced with real parts of the transform
+     * @param im imaginary parts, replaced with imaginary parts of the transform
+     */
+    public static void fft(double[] re, double[] im) {
+        if (re.length != im.length) {
+            throw new IllegalArgumentException("Real and imaginary parts must have the same length.");
+        }
+        int n = re.length;
+        if (n <= 1) {
+            return;
+        }
+        if (isPowerOfTwo(n)) {
+            radix2(re, im);
+        } else {
+            bluestein(re, im);
+        }
+    }
 
-            rey.setDouble(k, q._1.getDouble(k) + coskth * r._1.getDouble(k) - sinkth * r._2.getDouble(k));
-            imy.setDouble(k, q._2.getDouble(k) + coskth * r._2.getDouble(k) + sinkth * r._1.getDouble(k));
+    /**
+     * Computes in place the inverse discrete Fourier transform of a complex sequence
+     * of arbitrary length. The result is scaled with 1/n.
+     *
+     * @param re real parts, replaced with real parts of the inverse transform
+     * @param im imaginary parts, replaced with imaginary parts of the inverse transform
+     */
+    public static void ifft(double[] re, double[] im) {
+        int n = re.length;
+        for (int i = 0; i < n; i++) {
+            im[i] = -im[i];
+        }
+        fft(re, im);
+        for (int i = 0; i < n; i++) {
+            re[i] /= n;
+            im[i] = -im[i] / n;
+        }
+    }
 
-            rey.setDouble(k + N / 2, q._1.getDouble(k) - coskth * r._1.getDouble(k) + sinkth * r._2.getDouble(k));
-            imy.setDouble(k + N / 2, q._2.getDouble(k) - coskth * r._2.getDouble(k) - sinkth * r._1.getDouble(k));
+    /**
+     * Computes in place the circular convolution of two complex sequences of the same length.
+     * The result is stored in the first sequence, while the second sequence is replaced
+     * with its transform.
+     */
+    public static void cconvolve(double[] are, double[] aim, double[] bre, double[] bim) {
+        int n = are.length;
+        fft(are, aim);
+        fft(bre, bim);
+        for (int i = 0; i < n; i++) {
+            double r = are[i] * bre[i] - aim[i] * bim[i];
+            double m = are[i] * bim[i] + aim[i] * bre[i];
+            are[i] = r;
+            aim[i] = m;
         }
-        return Pair.from(rey, imy);
+        ifft(are, aim);
     }
 
+    /**
+     * Computes the discrete Fourier transform of a real sequence. Since the spectrum
+     * of a real sequence is conjugate symmetric, only the first n/2+1 values are computed.
+     *
+     * @param x     real input sequence, not modified
+     * @param outRe real parts of the first n/2+1 spectrum values
+     * @param outIm imaginary parts of the first n/2+1 spectrum values
+     */
+    public static void rfft(double[] x, double[] outRe, double[] outIm) {
+        int n = x.length;
+        int bins = n / 2 + 1;
+        if (outRe.length < bins || outIm.length < bins) {
+            throw new IllegalArgumentException("Output arrays must have at least n/2+1 elements.");
+        }
+        if (n % 2 != 0) {
+            double[] re = x.clone();
+            double[] im = new double[n];
+            fft(re, im);
+            System.arraycopy(re, 0, outRe, 0, bins);
+            System.arraycopy(im, 0, outIm, 0, bins);
+            return;
+        }
+        int h = n / 2;
+        double[] zre = new double[h];
+        double[] zim = new double[h];
+        for (int i = 0; i < h; i++) {
+            zre[i] = x[2 * i];
+            zim[i] = x[2 * i + 1];
+        }
+        fft(zre, zim);
+        double[][] tw = twiddles(n);
+        double[] cos = tw[0];
+        double[] sin = tw[1];
+        for (int k = 0; k <= h; k++) {
+            int p = k % h;
+            int q = (h - k) % h;
+            // even and odd parts, from Z[k] and conj(Z[h-k])
+            double ere = (zre[p] + zre[q]) / 2;
+            double eim = (zim[p] - zim[q]) / 2;
+            double ore = (zim[p] + zim[q]) / 2;
+            double oim = -(zre[p] - zre[q]) / 2;
+            // X[k] = E[k] + exp(-2 pi i k / n) O[k]
+            double wr = cos[k];
+            double wi = -sin[k];
+            outRe[k] = ere + wr * ore - wi * oim;
+            outIm[k] = eim + wr * oim + wi * ore;
+        }
+    }
 
-    // compute the inverse FFT of x[], assuming its length is a power of 2
-    public static Pair<Var, Var> ifft(Pair<Var, Var> x) {
-        int N = x._1.rowCount();
+    /**
+     * Computes the inverse of {@link #rfft(double[], double[], double[])}, building a real sequence
+     * of length n from the first n/2+1 values of its conjugate symmetric spectrum.
+     *
+     * @param re real parts of the first n/2+1 spectrum values
+     * @param im imaginary parts of the first n/2+1 spectrum values
+     * @param n  length of the real sequence
+     * @return real sequence
+     */
+    public static double[] irfft(double[] re, double[] im, int n) {
+        int bins = n / 2 + 1;
+        if (re.length < bins || im.length < bins) {
+            throw new IllegalArgumentException("Input arrays must have at least n/2+1 elements.");
+        }
+        double[] x = new double[n];
+        if (n % 2 != 0) {
+            double[] fre = new double[n];
+            double[] fim = new double[n];
+            for (int k = 0; k < bins; k++) {
+                fre[k] = re[k];
+                fim[k] = im[k];
+                if (k > 0) {
+                    fre[n - k] = re[k];
+                    fim[n - k] = -im[k];
+                }
+            }
+            ifft(fre, fim);
+            System.arraycopy(fre, 0, x, 0, n);
+            return x;
+        }
+        int h = n / 2;
+        double[] zre = new double[h];
+        double[] zim = new double[h];
+        double[][] tw = twiddles(n);
+        double[] cos = tw[0];
+        double[] sin = tw[1];
+        for (int k = 0; k < h; k++) {
+            // E[k] = (X[k] + conj(X[h-k])) / 2, O[k] = (X[k] - conj(X[h-k])) exp(2 pi i k / n) / 2
+            double ere = (re[k] + re[h - k]) / 2;
+            double eim = (im[k] - im[h - k]) / 2;
+            double dre = (re[k] - re[h - k]) / 2;
+            double dim = (im[k] + im[h - k]) / 2;
+            double ore = dre * cos[k] - dim * sin[k];
+            double oim = dre * sin[k] + dim * cos[k];
+            // Z[k] = E[k] + i O[k]
+            zre[k] = ere - oim;
+            zim[k] = eim + ore;
+        }
+        ifft(zre, zim);
+        for (int i = 0; i < h; i++) {
+            x[2 * i] = zre[i];
+            x[2 * i + 1] = zim[i];
+        }
+        return x;
+    }
 
-        Var im2 = VarDouble.from(N, row -> -x._2.getDouble(row));
+    /**
+     * Computes in place and in parallel the transforms of many complex sequences.
+     *
+     * @param re real parts of each sequence
+     * @param im imaginary parts of each sequence
+     */
+    public static void fftBatch(double[][] re, double[][] im) {
+        if (re.length != im.length) {
+            throw new IllegalArgumentException("Real and imaginary parts must have the same number of sequences.");
+        }
+        IntStream.range(0, re.length).parallel().forEach(i -> fft(re[i], im[i]));
+    }
 
-        // compute forward FFT
-        Pair<Var, Var> y = fft(Pair.from(x._1, im2));
+    /**
+     * Computes in parallel the transforms of many real sequences.
+     *
+     * @param x     real sequences
+     * @param outRe real parts of the first n/2+1 spectrum values for each sequence
+     * @param outIm imaginary parts of the first n/2+1 spectrum values for each sequence
+     */
+    public static void rfftBatch(double[][] x, double[][] outRe, double[][] outIm) {
+        if (x.length != outRe.length || x.length != outIm.length) {
+            throw new IllegalArgumentException("Input and output must have the same number of sequences.");
+        }
+        IntStream.range(0, x.length).parallel().forEach(i -> rfft(x[i], outRe[i], outIm[i]));
+    }
 
-        // take conjugate again and divide by N
-        Var re3 = VarDouble.from(N, row -> y._1.getDouble(row) / N);
-        Var im3 = VarDouble.from(N, row -> -y._2.getDouble(row) / N);
-        return Pair.from(re3, im3);
+    /**
+     * @return smallest power of two greater than or equal with n
+     */
+    public static int nextPowerOfTwo(int n) {
+        int p = 1;
+        while (p < n) {
+            p <<= 1;
+        }
+        return p;
     }
 
-    // compute the circular convolution of x and y
-    public static Pair<Var, Var> cconvolve(Pair<Var, Var> x, Pair<Var, Var> y) {
+    private static boolean isPowerOfTwo(int n) {
+        return (n & (n - 1)) == 0;
+    }
 
-        int len = x._1.rowCount();
+    /**
+     * Cosine and sine of 2 pi k / n for k in [0, n/2].
+     */
+    private static double[][] twiddles(int n) {
+        return twiddleCache.computeIfAbsent(n, len -> {
+            int h = len / 2 + 1;
+            double[] cos = new double[h];
+            double[] sin = new double[h];
+            for (int k = 0; k < h; k++) {
+                double angle = 2 * Math.PI * k / len;
+                cos[k] = Math.cos(angle);
+                sin[k] = Math.sin(angle);
+            }
+            return new double[][]{cos, sin};
+        });
+    }
 
-        // should probably pad x and y with 0s so that they have same length
-        // and are powers of 2
-        if ((x._2.rowCount() != len)) {
-            throw new RuntimeException("Dimensions don't agree");
+    private static int[] bitReverse(int n) {
+        return reverseCache.computeIfAbsent(n, len -> {
+            int bits = Integer.numberOfTrailingZeros(len);
+            int[] rev = new int[len];
+            for (int i = 0; i < len; i++) {
+                rev[i] = Integer.reverse(i) >>> (32 - bits);
+            }
+            return rev;
+        });
+    }
+
+    private static void radix2(double[] re, double[] im) {
+        int n = re.length;
+        int[] rev = bitReverse(n);
+        for (int i = 0; i < n; i++) {
+            int j = rev[i];
+            if (i < j) {
+                double t = re[i];
+                re[i] = re[j];
+                re[j] = t;
+                t = im[i];
+                im[i] = im[j];
+                im[j] = t;
+            }
         }
+        double[][] tw = twiddles(n);
+        double[] cos = tw[0];
+        double[] sin = tw[1];
+        for (int len = 2; len <= n; len <<= 1) {
+            int half = len >> 1;
+            int step = n / len;
+            for (int i = 0; i < n; i += len) {
+                for (int j = 0, t = 0; j < half; j++, t += step) {
+                    double wr = cos[t];
+                    double wi = -sin[t];
+                    int a = i + j;
+                    int b = a + half;
+                    double tr = wr * re[b] - wi * im[b];
+                    double ti = wr * im[b] + wi * re[b];
+                    re[b] = re[a] - tr;
+                    im[b] = im[a] - ti;
+                    re[a] += tr;
+                    im[a] += ti;
+                }
+            }
+        }
+    }
 
-        int N = x._1.rowCount();
+    /**
+     * Chirp values exp(-pi i k^2 / n) and the transform of the conjugate chirp filter
+     * padded to length m, the smallest power of 2 with m >= 2n - 1.
+     */
+    private static double[][] chirp(int n) {
+        return chirpCache.computeIfAbsent(n, len -> {
+            int m = nextPowerOfTwo(2 * len - 1);
+            double[] cos = new double[len];
+            double[] sin = new double[len];
+            for (int k = 0; k < len; k++) {
+                // k^2 mod 2n keeps the angle small and precise
+                long kk = ((long) k * k) % (2L * len);
+                double angle = Math.PI * kk / len;
+                cos[k] = Math.cos(angle);
+                sin[k] = -Math.sin(angle);
+            }
+            double[] bre = new double[m];
+            double[] bim = new double[m];
+            bre[0] = cos[0];
+            bim[0] = -sin[0];
+            for (int k = 1; k < len; k++) {
+                bre[k] = bre[m - k] = cos[k];
+                bim[k] = bim[m - k] = -sin[k];
+            }
+            radix2(bre, bim);
+            return new double[][]{cos, sin, bre, bim};
+        });
+    }
 
-        // compute FFT of each sequence
-        Pair<Var, Var> a = fft(x);
-        Pair<Var, Var> b = fft(y);
+    private static void bluestein(double[] re, double[] im) {
+        int n = re.length;
+        double[][] chirp = chirp(n);
+        double[] cos = chirp[0];
+        double[] sin = chirp[1];
+        double[] bre = chirp[2];
+        double[] bim = chirp[3];
+        int m = bre.length;
 
-        // point-wise multiply
-        Pair<Var, Var> c = Pair.from(VarDouble.fill(len, 0.0), VarDouble.fill(len, 0.0));
-        for (int i = 0; i < N; i++) {
-            c._1.setDouble(i, a._1.getDouble(i) * b._1.getDouble(i) - a._2.getDouble(i) * b._2.getDouble(i));
-            c._2.setDouble(i, a._1.getDouble(i) * b._2.getDouble(i) + a._1.getDouble(i) * b._2.getDouble(i));
+        double[] are = new double[m];
+        double[] aim = new double[m];
+        for (int k = 0; k < n; k++) {
+            are[k] = re[k] * cos[k] - im[k] * sin[k];
+            aim[k] = re[k] * sin[k] + im[k] * cos[k];
         }
+        radix2(are, aim);
+        for (int k = 0; k < m; k++) {
+            double r = are[k] * bre[k] - aim[k] * bim[k];
+            double i = are[k] * bim[k] + aim[k] * bre[k];
+            // conjugate to obtain inverse through forward transform
+            are[k] = r;
+            aim[k] = -i;
+        }
+        radix2(are, aim);
+        for (int k = 0; k < n; k++) {
+            double r = are[k] / m;
+            double i = -aim[k] / m;
+            re[k] = r * cos[k] - i * sin[k];
+            im[k] = r * sin[k] + i * cos[k];
+        }
+    }
 
-        // compute inverse FFT
-        return ifft(c);
+    /**
+     * @return largest number of lengths kept in any cache
+     */
+    static int cachedLengths() {
+        return Math.max(twiddleCache.size(), Math.max(reverseCache.size(), chirpCache.size()));
     }
 
+    /**
+     * Least recently used cache of values computed for a sequence length. Values are computed
+     * outside the lock, thus concurrent threads may compute the same value more than once.
+     */
+    private static final class LengthCache<T> {
 
-    // compute the linear convolution of x and y
-    public static Pair<Var, Var> convolve(Pair<Var, Var> x, Pair<Var, Var> y) {
-        Pair<Var, Var> a = Pair.from(x._1.solidCopy(), x._2.solidCopy());
-        Pair<Var, Var> b = Pair.from(y._1.solidCopy(), y._2.solidCopy());
+        private final Map<Integer, T> map;
 
-        for (int i = 0; i < x._1.rowCount(); i++) {
-            a._1.addDouble(0.0);
-            a._2.addDouble(0.0);
-            b._1.addDouble(0.0);
-            b._2.addDouble(0.0);
+        LengthCache(int capacity) {
+            map = new LinkedHashMap<Integer, T>(capacity, 0.75f, true) {
+                private static final long serialVersionUID = -2213487930467150129L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, T> eldest) {
+                    return size() > capacity;
+                }
+            };
+        }
+
+        T computeIfAbsent(int n, IntFunction<T> fun) {
+            T value;
+            synchronized (map) {
+                value = map.get(n);
+            }
+            if (value == null) {
+                value = fun.apply(n);
+                synchronized (map) {
+                    map.put(n, value);
+                }
+            }
+            return value;
+        }
+
+        int size() {
+            synchronized (map) {
+                return map.size();
+            }
         }
-        return cconvolve(a, b);
     }
 }
@@ -0,0 +1,193 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.math.linear.dense;
+
+import rapaio.core.distributions.Normal;
+import rapaio.math.linear.RM;
+
+import java.util.stream.IntStream;
+
+/**
+ * Parallel dense kernels working directly on row major primitive arrays.
+ * <p>
+ * Used by truncated decompositions where the big matrix is touched only
+ * through a few thin products, which makes per element dispatch through
+ * {@link RM#get(int, int)} the dominant cost.
+ */
+final class DenseKernels {
+
+    private DenseKernels() {
+    }
+
+    /**
+     * Returns row arrays of the given matrix. For solid matrices the backing
+     * arrays are returned, otherwise a copy is created.
+     */
+    static double[][] rows(RM a) {
+        if (a instanceof SolidRM) {
+            return ((SolidRM) a).rowArrays();
+        }
+        double[][] rows = new double[a.rowCount()][a.colCount()];
+        for (int i = 0; i < a.rowCount(); i++) {
+            for (int j = 0; j < a.colCount(); j++) {
+                rows[i][j] = a.get(i, j);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Builds a matrix filled with independent standard normal values.
+     */
+    static double[][] gaussian(int rowCount, int colCount) {
+        Normal normal = Normal.std();
+        double[][] x = new double[rowCount][colCount];
+        for (int i = 0; i < rowCount; i++) {
+            for (int j = 0; j < colCount; j++) {
+                x[i][j] = normal.sampleNext();
+            }
+        }
+        return x;
+    }
+
+    /**
+     * Computes a * b, parallel over rows of a.
+     */
+    static double[][] dot(double[][] a, int innerCount, double[][] b, int colCount) {
+        double[][] c = new double[a.length][colCount];
+        IntStream.range(0, a.length).parallel().forEach(i -> {
+            double[] ai = a[i];
+            double[] ci = c[i];
+            for (int k = 0; k < innerCount; k++) {
+                double v = ai[k];
+                if (v == 0) {
+                    continue;
+                }
+                double[] bk = b[k];
+                for (int j = 0; j < colCount; j++) {
+                    ci[j] += v * bk[j];
+                }
+            }
+        });
+        return c;
+    }
+
+    /**
+     * Computes a^T * b, where both matrices have the same number of rows.
+     * The work is split in parallel over blocks of columns of a, thus no
+     * reduction between threads is needed.
+     */
+    static double[][] tdot(double[][] a, int aColCount, double[][] b, int bColCount) {
+        double[][] c = new double[aColCount][bColCount];
+        int blockSize = 64;
+        int blocks = (aColCount + blockSize - 1) / blockSize;
+        IntStream.range(0, blocks).parallel().forEach(block -> {
+            int start = block * blockSize;
+            int end = Math.min(aColCount, start + blockSize);
+            for (int i = 0; i < a.length; i++) {
+                double[] ai = a[i];
+                double[] bi = b[i];
+                for (int j = start; j < end; j++) {
+                    double v = ai[j];
+                    if (v == 0) {
+                        continue;
+                    }
+                    double[] cj = c[j];
+                    for (int k = 0; k < bColCount; k++) {
+                        cj[k] += v * bi[k];
+                    }
+                }
+            }
+        });
+        return c;
+    }
+
+    /**
+     * Orthonormalize in place the columns of a row major matrix using modified
+     * Gram-Schmidt, applied twice for numerical stability. Columns which
+     * become numerically zero are replaced with zeros.
+     */
+    static void orthonormalize(double[][] x, int colCount) {
+        for (int pass = 0; pass < 2; pass++) {
+            for (int j = 0; j < colCount; j++) {
+                for (int p = 0; p < j; p++) {
+                    double dot = colDot(x, p, j);
+                    if (dot == 0) {
+                        continue;
+                    }
+                    for (double[] row : x) {
+                        row[j] -= dot * row[p];
+                    }
+                }
+                double norm = Math.sqrt(colDot(x, j, j));
+                if (norm < 1e-300) {
+                    for (double[] row : x) {
+                        row[j] = 0;
+                    }
+                    continue;
+                }
+                for (double[] row : x) {
+                    row[j] /= norm;
+                }
+            }
+        }
+    }
+
+    private static double colDot(double[][] x, int p, int q) {
+        double sum = 0;
+        for (double[] row : x) {
+            sum += row[p] * row[q];
+        }
+        return sum;
+    }
+
+    /**
+     * Computes a * v for a vector v, parallel over rows of a.
+     */
+    static double[] dot(double[][] a, double[] v) {
+        double[] c = new double[a.length];
+        IntStream.range(0, a.length).parallel().forEach(i -> {
+            double[] ai = a[i];
+            double sum = 0;
+            for (int j = 0; j < v.length; j++) {
+                sum += ai[j] * v[j];
+            }
+            c[i] = sum;
+        });
+        return c;
+    }
+
+    /**
+     * Sort indexes of the given values in descending order.
+     */
+    static int[] descendingOrder(double[] values) {
+        return IntStream.range(0, values.length).boxed()
+                .sorted((i, j) -> Double.compare(values[j], values[i]))
+                .mapToInt(i -> i).toArray();
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.math.linear.dense;
+
+import rapaio.math.linear.RM;
+
+import java.io.Serializable;
+
+/**
+ * Randomized truncated singular value decomposition.
+ * <p>
+ * For an m-by-n matrix A computes an approximation A ~ U*S*V' where U is m-by-k,
+ * S is a k-by-k diagonal matrix with singular values in descending order and V is n-by-k.
+ * <p>
+ * The range of A is captured by a Gaussian sketch Y = A*G, similar with a random
+ * projection, refined with a few power iterations and orthonormalized into Q.
+ * The small matrix B = Q'*A is then decomposed exactly with {@link SVDecomposition}.
+ * All products with A are parallel and the cost is O(m n (k + oversampling)), without
+ * the need of a full decomposition.
+ * <p>
+ * See: Halko, Martinsson, Tropp, Finding structure with randomness: probabilistic
+ * algorithms for constructing approximate matrix decompositions, 2011.
+ */
+public class RandomizedSVDecomposition implements Serializable {
+
+    private static final long serialVersionUID = 1853640291730785302L;
+
+    /**
+     * Computes a rank k decomposition with default oversampling of 10 vectors
+     * and 2 power iterations.
+     *
+     * @param a given matrix
+     * @param k number of singular values
+     * @return truncated decomposition
+     */
+    public static RandomizedSVDecomposition from(RM a, int k) {
+        return from(a, k, 10, 2);
+    }
+
+    /**
+     * Computes a rank k decomposition.
+     *
+     * @param a               given matrix
+     * @param k               number of singular values
+     * @param oversampling    number of additional random vectors used to sketch the range
+     * @param powerIterations number of power iterations, useful when singular values decay slowly
+     * @return truncated decomposition
+     */
+    public static RandomizedSVDecomposition from(RM a, int k, int oversampling, int powerIterations) {
+        if (k < 1 || k > Math.min(a.rowCount(), a.colCount())) {
+            throw new IllegalArgumentException("Number of singular values must be between 1 and min(rowCount, colCount).");
+        }
+        if (oversampling < 0 || powerIterations < 0) {
+            throw new IllegalArgumentException("Oversampling and power iterations cannot be negative.");
+        }
+        return new RandomizedSVDecomposition(a, k, oversampling, powerIterations);
+    }
+
+    private final int k;
+    private final double[][] u;
+    private final double[] s;
+    private final double[][] v;
+
+    private RandomizedSVDecomposition(RM a, int k, int oversampling, int powerIterations) {
+        this.k = k;
+        int m = a.rowCount();
+        int n = a.colCount();
+        int l = Math.min(k + oversampling, Math.min(m, n));
+        double[][] x = DenseKernels.rows(a);
+
+        // sketch the range of A
+        double[][] q = DenseKernels.dot(x, n, DenseKernels.gaussian(n, l), l);
+        DenseKernels.orthonormalize(q, l);
+        for (int i = 0; i < powerIterations; i++) {
+            double[][] z = DenseKernels.tdot(x, n, q, l);
+            DenseKernels.orthonormalize(z, l);
+            q = DenseKernels.dot(x, n, z, l);
+            DenseKernels.orthonormalize(q, l);
+        }
+
+        // B' = A'Q is n-by-l with n >= l, decomposed as B' = W * S * Z'
+        // thus A ~ Q * B = (Q * Z) * S * W'
+        SVDecomposition svd = SVDecomposition.from(SolidRM.wrap(DenseKernels.tdot(x, n, q, l)));
+        double[][] z = DenseKernels.rows(svd.getV());
+        double[][] w = DenseKernels.rows(svd.getU());
+        double[][] qz = DenseKernels.dot(q, l, z, l);
+
+        s = new double[k];
+        u = new double[m][k];
+        v = new double[n][k];
+        System.arraycopy(svd.getSingularValues(), 0, s, 0, k);
+        for (int i = 0; i < m; i++) {
+            System.arraycopy(qz[i], 0, u[i], 0, k);
+        }
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(w[i], 0, v[i], 0, k);
+        }
+    }
+
+    /**
+     * @return number of computed singular values
+     */
+    public int k() {
+        return k;
+    }
+
+    /**
+     * Return the m-by-k matrix of left singular vectors
+     *
+     * @return U
+     */
+    public RM getU() {
+        return SolidRM.wrap(u);
+    }
+
+    /**
+     * Return the n-by-k matrix of right singular vectors
+     *
+     * @return V
+     */
+    public RM getV() {
+        return SolidRM.wrap(v);
+    }
+
+    /**
+     * Return the one-dimensional array of top k singular values
+     *
+     * @return diagonal of S.
+     */
+    public double[] getSingularValues() {
+        return s;
+    }
+
+    /**
+     * Return the diagonal matrix of singular values
+     *
+     * @return S
+     */
+    public RM getS() {
+        RM S = SolidRM.empty(k, k);
+        for (int i = 0; i < k; i++) {
+            S.set(i, i, s[i]);
+        }
+        return S;
+    }
+}
@@ -267,6 +267,13 @@ public class SolidRM implements RM {
         return Arrays.stream(values).flatMapToDouble(Arrays::stream);
     }
 
+    /**
+     * @return backing row arrays, used by dense kernels from this package without copy
+     */
+    double[][] rowArrays() {
+        return values;
+    }
+
     @Override
     public SolidRM solidCopy() {
         SolidRM copy = new SolidRM(rowCount, colCount);
@@ -0,0 +1,364 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.math.linear.dense;
+
+import rapaio.math.linear.RM;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Truncated eigenvalue decomposition of a symmetric real matrix.
+ * <p>
+ * Computes only the top k eigenpairs of a symmetric matrix A, ordered descending
+ * by eigenvalue, so that A*V is approximately V*D, where V is an n-by-k matrix
+ * with orthonormal columns and D is a k-by-k diagonal matrix.
+ * <p>
+ * Two iterative solvers are available. Lanczos iterations with full reorthogonalization
+ * build a small tridiagonal matrix whose eigenpairs approximate the largest eigenpairs of A.
+ * Block subspace iteration with Rayleigh-Ritz projection converges to the eigenpairs
+ * with the largest absolute values, which are the top ones for positive semi-definite
+ * matrices like covariance or scatter matrices.
+ * <p>
+ * In both cases the matrix is touched only through parallel matrix products, thus
+ * the cost is dominated by O(n^2 k) operations instead of the O(n^3) required
+ * by a full {@link EigenDecomposition}.
+ */
+public class TruncatedEigenDecomposition implements Serializable {
+
+    private static final long serialVersionUID = -3346306011364346233L;
+
+    private static final double TOL = 1e-10;
+
+    /**
+     * Computes top k eigenpairs using Lanczos iterations.
+     *
+     * @param a symmetric matrix
+     * @param k number of eigenpairs
+     * @return truncated decomposition
+     */
+    public static TruncatedEigenDecomposition from(RM a, int k) {
+        return lanczos(a, k, TOL);
+    }
+
+    /**
+     * Computes top k eigenpairs using Lanczos iterations with full reorthogonalization.
+     *
+     * @param a   symmetric matrix
+     * @param k   number of eigenpairs
+     * @param tol relative tolerance for Ritz pairs residuals
+     * @return truncated decomposition
+     */
+    public static TruncatedEigenDecomposition lanczos(RM a, int k, double tol) {
+        validate(a, k);
+        return new TruncatedEigenDecomposition(a, k).lanczos(DenseKernels.rows(a), tol);
+    }
+
+    /**
+     * Computes top k eigenpairs using block subspace iteration.
+     *
+     * @param a           symmetric matrix
+     * @param k           number of eigenpairs
+     * @param oversampling number of additional vectors used to accelerate convergence
+     * @param maxRuns     maximum number of iterations
+     * @param tol         relative tolerance for the change of eigenvalues between iterations
+     * @return truncated decomposition
+     */
+    public static TruncatedEigenDecomposition subspace(RM a, int k, int oversampling, int maxRuns, double tol) {
+        validate(a, k);
+        if (oversampling < 0) {
+            throw new IllegalArgumentException("Oversampling cannot be negative.");
+        }
+        if (maxRuns < 1) {
+            throw new IllegalArgumentException("Maximum number of iterations must be at least 1.");
+        }
+        return new TruncatedEigenDecomposition(a, k).subspace(DenseKernels.rows(a), oversampling, maxRuns, tol);
+    }
+
+    private static void validate(RM a, int k) {
+        if (a.rowCount() != a.colCount()) {
+            throw new IllegalArgumentException("Truncated eigen decomposition works only on square matrices.");
+        }
+        if (k < 1 || k > a.rowCount()) {
+            throw new IllegalArgumentException("Number of eigenpairs must be between 1 and matrix dimension.");
+        }
+    }
+
+    private final int n;
+    private final int k;
+    private double[] values;
+    private double[][] vectors;
+    private int iterations;
+
+    private TruncatedEigenDecomposition(RM a, int k) {
+        this.n = a.rowCount();
+        this.k = k;
+    }
+
+    private TruncatedEigenDecomposition lanczos(double[][] a, double tol) {
+        List<double[]> q = new ArrayList<>();
+        double[] alpha = new double[n];
+        double[] beta = new double[n];
+
+        q.add(randomUnitVector(q));
+        int checkEvery = Math.max(1, k / 2);
+
+        EigenDecomposition ritz = null;
+        int[] order = null;
+        int m = 0;
+        while (m < n) {
+            double[] qj = q.get(m);
+            double[] w = DenseKernels.dot(a, qj);
+            alpha[m] = dot(qj, w);
+            for (int pass = 0; pass < 2; pass++) {
+                for (double[] qi : q) {
+                    axpy(-dot(qi, w), qi, w);
+                }
+            }
+            beta[m] = Math.sqrt(dot(w, w));
+            m++;
+
+            if (m >= k && (m % checkEvery == 0 || m == n)) {
+                ritz = EigenDecomposition.from(tridiagonal(alpha, beta, m));
+                order = DenseKernels.descendingOrder(ritz.getRealEigenvalues());
+                double scale = Math.max(1.0, Math.abs(ritz.getRealEigenvalues()[order[0]]));
+                boolean converged = true;
+                for (int i = 0; i < k; i++) {
+                    if (Math.abs(beta[m - 1] * ritz.getV().get(m - 1, order[i])) > tol * scale) {
+                        converged = false;
+                        break;
+                    }
+                }
+                if (converged) {
+                    break;
+                }
+            }
+            if (m == n) {
+                break;
+            }
+            if (beta[m - 1] < 1e-12 * Math.max(1.0, Math.abs(alpha[m - 1]))) {
+                // invariant subspace found, continue with a new orthogonal direction
+                beta[m - 1] = 0;
+                q.add(randomUnitVector(q));
+            } else {
+                for (int i = 0; i < w.length; i++) {
+                    w[i] /= beta[m - 1];
+                }
+                q.add(w);
+            }
+        }
+        if (ritz == null || ritz.getV().rowCount() != m) {
+            ritz = EigenDecomposition.from(tridiagonal(alpha, beta, m));
+            order = DenseKernels.descendingOrder(ritz.getRealEigenvalues());
+        }
+
+        iterations = m;
+        values = new double[k];
+        vectors = new double[n][k];
+        RM s = ritz.getV();
+        for (int c = 0; c < k; c++) {
+            values[c] = ritz.getRealEigenvalues()[order[c]];
+            for (int i = 0; i < m; i++) {
+                double sic = s.get(i, order[c]);
+                double[] qi = q.get(i);
+                for (int r = 0; r < n; r++) {
+                    vectors[r][c] += qi[r] * sic;
+                }
+            }
+        }
+        return this;
+    }
+
+    private TruncatedEigenDecomposition subspace(double[][] a, int oversampling, int maxRuns, double tol) {
+        int l = Math.min(n, k + oversampling);
+        double[][] ax = DenseKernels.dot(a, n, DenseKernels.gaussian(n, l), l);
+        double[] prev = null;
+        for (iterations = 1; iterations <= maxRuns; iterations++) {
+            double[][] y = ax;
+            DenseKernels.orthonormalize(y, l);
+            double[][] z = DenseKernels.dot(a, n, y, l);
+
+            // Rayleigh-Ritz projection on the current subspace
+            RM h = SolidRM.wrap(DenseKernels.tdot(y, l, z, l));
+            for (int i = 0; i < l; i++) {
+                for (int j = i + 1; j < l; j++) {
+                    double avg = (h.get(i, j) + h.get(j, i)) / 2;
+                    h.set(i, j, avg);
+                    h.set(j, i, avg);
+                }
+            }
+            EigenDecomposition evd = EigenDecomposition.from(h);
+            double[] ev = evd.getRealEigenvalues();
+            int[] order = DenseKernels.descendingOrder(absolute(ev));
+            double[][] s = new double[l][l];
+            double[] current = new double[l];
+            for (int c = 0; c < l; c++) {
+                current[c] = ev[order[c]];
+                for (int r = 0; r < l; r++) {
+                    s[r][c] = evd.getV().get(r, order[c]);
+                }
+            }
+
+            vectors = DenseKernels.dot(y, l, s, l);
+            ax = DenseKernels.dot(z, l, s, l);
+            values = current;
+
+            if (prev != null) {
+                double scale = Math.max(1.0, Math.abs(current[0]));
+                boolean converged = true;
+                for (int i = 0; i < k; i++) {
+                    if (Math.abs(current[i] - prev[i]) > tol * scale) {
+                        converged = false;
+                        break;
+                    }
+                }
+                if (converged) {
+                    break;
+                }
+            }
+            prev = current;
+        }
+        iterations = Math.min(iterations, maxRuns);
+
+        // keep only the top k pairs, ordered descending by value
+        int[] order = DenseKernels.descendingOrder(Arrays.copyOf(values, k));
+        double[] topValues = new double[k];
+        double[][] topVectors = new double[n][k];
+        for (int c = 0; c < k; c++) {
+            topValues[c] = values[order[c]];
+            for (int r = 0; r < n; r++) {
+                topVectors[r][c] = vectors[r][order[c]];
+            }
+        }
+        values = topValues;
+        vectors = topVectors;
+        return this;
+    }
+
+    private double[] randomUnitVector(List<double[]> q) {
+        double[][] x = DenseKernels.gaussian(n, 1);
+        double[] v = new double[n];
+        for (int i = 0; i < n; i++) {
+            v[i] = x[i][0];
+        }
+        for (int pass = 0; pass < 2; pass++) {
+            for (double[] qi : q) {
+                axpy(-dot(qi, v), qi, v);
+            }
+        }
+        double norm = Math.sqrt(dot(v, v));
+        for (int i = 0; i < n; i++) {
+            v[i] /= norm;
+        }
+        return v;
+    }
+
+    private static RM tridiagonal(double[] alpha, double[] beta, int m) {
+        RM t = SolidRM.empty(m, m);
+        for (int i = 0; i < m; i++) {
+            t.set(i, i, alpha[i]);
+            if (i + 1 < m) {
+                t.set(i, i + 1, beta[i]);
+                t.set(i + 1, i, beta[i]);
+            }
+        }
+        return t;
+    }
+
+    private static double[] absolute(double[] values) {
+        double[] abs = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            abs[i] = Math.abs(values[i]);
+        }
+        return abs;
+    }
+
+    private static double dot(double[] x, double[] y) {
+        double sum = 0;
+        for (int i = 0; i < x.length; i++) {
+            sum += x[i] * y[i];
+        }
+        return sum;
+    }
+
+    private static void axpy(double alpha, double[] x, double[] y) {
+        if (alpha == 0) {
+            return;
+        }
+        for (int i = 0; i < x.length; i++) {
+            y[i] += alpha * x[i];
+        }
+    }
+
+    /**
+     * @return number of computed eigenpairs
+     */
+    public int k() {
+        return k;
+    }
+
+    /**
+     * @return number of iterations performed by the solver
+     */
+    public int iterations() {
+        return iterations;
+    }
+
+    /**
+     * Return the top k eigenvalues in descending order
+     *
+     * @return eigenvalues
+     */
+    public double[] getRealEigenvalues() {
+        return values;
+    }
+
+    /**
+     * Return the n-by-k matrix of eigenvectors
+     *
+     * @return V
+     */
+    public RM getV() {
+        return SolidRM.wrap(vectors);
+    }
+
+    /**
+     * Return the k-by-k diagonal matrix of eigenvalues
+     *
+     * @return D
+     */
+    public RM getD() {
+        RM d = SolidRM.empty(k, k);
+        for (int i = 0; i < k; i++) {
+            d.set(i, i, values[i]);
+        }
+        return d;
+    }
+}
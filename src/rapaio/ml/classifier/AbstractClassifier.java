@@ -34,6 +34,10 @@ import rapaio.data.VarDouble;
 import rapaio.data.VType;
 import rapaio.data.filter.FFilter;
 import rapaio.data.sample.RowSampler;
+import rapaio.io.ModelReader;
+import rapaio.io.ModelWriter;
+import rapaio.ml.common.instrument.FitSink;
+import rapaio.ml.common.instrument.Instrument;
 import rapaio.printer.format.TextTable;
 
 import java.util.ArrayList;
@@ -57,6 +61,8 @@ public abstract class AbstractClassifier implements Classifier {
     private List<FFilter> inputFilters = new ArrayList<>();
     private String[] inputNames;
     private VType[] inputTypes;
+    private String[] sourceInputNames;
+    private VType[] sourceInputTypes;
     private String[] targetNames;
     private VType[] targetTypes;
     private Map<String, List<String>> dict;
@@ -65,6 +71,8 @@ public abstract class AbstractClassifier implements Classifier {
     private int poolSize = 0;
     private int runs = 1;
     private BiConsumer<Classifier, Integer> runningHook;
+    private transient FitSink fitSink;
+    private transient Instrument instrument;
 
     @Override
     public RowSampler sampler() {
@@ -127,9 +135,33 @@ public abstract class AbstractClassifier implements Classifier {
 
     @Override
     public final Classifier fit(Frame df, Var weights, String... targetVars) {
-        BaseTrainSetup setup = baseFit(df, weights, targetVars);
-        Frame workDf = prepareFit(setup.df, setup.w, setup.targetVars);
-        learned = coreFit(workDf, setup.w);
+        boolean ownInstrument = instrument == null && fitSink != null;
+        if (ownInstrument) {
+            instrument = Instrument.enabled(name());
+        }
+        try {
+            Instrument ins = instrument();
+            long start = ins.start();
+            BaseTrainSetup setup = baseFit(df, weights, targetVars);
+
+            // input variables before input filters, used by scorers
+            HashSet<String> sourceTargets = new HashSet<>(VRange.of(setup.targetVars).parseVarNames(setup.df));
+            sourceInputNames = Arrays.stream(setup.df.varNames()).filter(name -> !sourceTargets.contains(name)).toArray(String[]::new);
+            sourceInputTypes = Arrays.stream(sourceInputNames).map(setup.df::type).toArray(VType[]::new);
+
+            Frame workDf = prepareFit(setup.df, setup.w, setup.targetVars);
+            ins.stop(Instrument.Phase.PREPARE, start);
+
+            start = ins.start();
+            learned = coreFit(workDf, setup.w);
+            ins.stop(Instrument.Phase.FIT, start);
+
+            if (ownInstrument) {
+                fitSink.accept(ins.report());
+            }
+        } finally {
+            instrument = null;
+        }
         return this;
     }
 
@@ -144,9 +176,11 @@ public abstract class AbstractClassifier implements Classifier {
      */
     protected Frame prepareFit(Frame dfOld, final Var weights, final String... targetVars) {
         Frame df = dfOld;
+        long start = instrument().start();
         for (FFilter filter : inputFilters) {
             df = filter.fapply(df);
         }
+        instrument().stop(Instrument.Phase.FILTERS, start);
         Frame result = df;
         List<String> targets = VRange.of(targetVars).parseVarNames(result);
         this.targetNames = targets.toArray(new String[0]);
@@ -176,9 +210,16 @@ public abstract class AbstractClassifier implements Classifier {
 
     @Override
     public final CPrediction predict(Frame df, boolean withClasses, boolean withDistributions) {
+        Instrument ins = (instrument == null && fitSink != null) ? Instrument.enabled(name()) : instrument();
+        long start = ins.start();
         BaseFitSetup setup = basePredict(df, withClasses, withDistributions);
         Frame workDf = preparePredict(setup.df);
-        return corePredict(workDf, setup.withClasses, setup.withDistributions);
+        CPrediction prediction = corePredict(workDf, setup.withClasses, setup.withDistributions);
+        ins.stop(Instrument.Phase.PREDICT, start);
+        if (instrument == null && fitSink != null) {
+            fitSink.accept(ins.report());
+        }
+        return prediction;
     }
 
     // by default do nothing, it is only for two stage training
@@ -196,6 +237,93 @@ public abstract class AbstractClassifier implements Classifier {
 
     protected abstract CPrediction corePredict(Frame df, boolean withClasses, boolean withDistributions);
 
+    @Override
+    public CScorer scorer() {
+        if (!learned) {
+            throw new IllegalStateException("Scorer can be built only for a fitted model.");
+        }
+        checkSourceSchema();
+        return new FrameCScorer(this, sourceInputNames, sourceInputTypes);
+    }
+
+    /**
+     * Gives the names of the input variables if the fitted model can be scored
+     * directly on its own inputs, which means it has no input filters and all the
+     * inputs are numeric. Models which build their own scorers use it to decide
+     * if they can skip the default scorer.
+     *
+     * @return input variable names in row order, or null if the default scorer must be used
+     */
+    protected String[] directScorerInputs() {
+        if (!learned || !inputFilters.isEmpty()) {
+            return null;
+        }
+        checkSourceSchema();
+        for (VType type : sourceInputTypes) {
+            if (!type.isNumeric() && type != VType.LONG) {
+                return null;
+            }
+        }
+        return sourceInputNames;
+    }
+
+    /**
+     * Models fitted before the input variables were recorded prior to input filters,
+     * or restored without fitting, have no such schema. Without input filters it is
+     * the same as the schema of the fitted inputs, otherwise the model must be fitted again.
+     */
+    private void checkSourceSchema() {
+        if (sourceInputNames != null) {
+            return;
+        }
+        if (!inputFilters.isEmpty()) {
+            throw new IllegalStateException("Model has no schema of input variables before input filters, it must be fitted again.");
+        }
+        sourceInputNames = inputNames;
+        sourceInputTypes = inputTypes;
+    }
+
+    /**
+     * Writes the fitted schema of the classifier: input and target variables and
+     * target levels. Used by classifiers which can be stored in binary format.
+     *
+     * @param out binary model writer
+     */
+    protected void writeSchema(ModelWriter out) {
+        if (!learned) {
+            throw new IllegalStateException("Only fitted models can be stored in binary format.");
+        }
+        if (!inputFilters.isEmpty()) {
+            throw new IllegalArgumentException("Models with input filters cannot be stored in binary format.");
+        }
+        checkSourceSchema();
+        out.writeStrings(inputNames);
+        out.writeTypes(inputTypes);
+        out.writeStrings(sourceInputNames);
+        out.writeTypes(sourceInputTypes);
+        out.writeStrings(targetNames);
+        out.writeTypes(targetTypes);
+        out.writeStrings(firstTargetLevels().toArray(new String[0]));
+    }
+
+    /**
+     * Reads the fitted schema written by {@link #writeSchema(ModelWriter)} and
+     * marks the classifier as fitted.
+     *
+     * @param in binary model reader
+     */
+    protected void readSchema(ModelReader in) {
+        inputNames = in.readStrings();
+        inputTypes = in.readTypes();
+        sourceInputNames = in.readStrings();
+        sourceInputTypes = in.readTypes();
+        targetNames = in.readStrings();
+        targetTypes = in.readTypes();
+        dict = new HashMap<>();
+        dict.put(firstTargetName(), new ArrayList<>(Arrays.asList(in.readStrings())));
+        learned = true;
+    }
+
     @Override
     public String summary() {
         return "not implemented";
@@ -259,6 +387,47 @@ public abstract class AbstractClassifier implements Classifier {
         return this;
     }
 
+    /**
+     * @return sink which receives instrumentation reports, null if instrumentation is disabled
+     */
+    public FitSink fitSink() {
+        return fitSink;
+    }
+
+    /**
+     * Enables instrumentation. After each fit and each predict call the model
+     * sends a report with timings and counters to the given sink.
+     * The sink is transient and it is not copied by {@link #newInstance()}.
+     *
+     * @param fitSink report sink, null to disable instrumentation
+     * @return this instance
+     */
+    public AbstractClassifier withFitSink(FitSink fitSink) {
+        this.fitSink = fitSink;
+        return this;
+    }
+
+    /**
+     * Sets the instrument used by the next fit call, after which it is cleared.
+     * It is used by ensembles to accumulate the metrics of their weak learners
+     * into their own instrument. A model fitted with a given instrument does not
+     * send its own report to its sink.
+     *
+     * @param instrument instrument used by the next fit
+     * @return this instance
+     */
+    public AbstractClassifier withInstrument(Instrument instrument) {
+        this.instrument = instrument;
+        return this;
+    }
+
+    /**
+     * @return instrument active for the current fit, {@link Instrument#NONE} if disabled
+     */
+    protected Instrument instrument() {
+        return instrument == null ? Instrument.NONE : instrument;
+    }
+
     protected static class BaseTrainSetup {
         public final Frame df;
         public final Var w;
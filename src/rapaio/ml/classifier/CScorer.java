@@ -0,0 +1,69 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.classifier;
+
+import java.util.List;
+
+/**
+ * Scorer of single rows for a fitted classifier.
+ * <p>
+ * A scorer reads the input values of a row from a primitive array and writes the
+ * results into arrays given by the caller, so that scoring a row does not require
+ * to build a frame. Input filters of the model are already bound into the scorer,
+ * so the row contains the values of the variables from the frame used to fit the
+ * model. Scorers are thread safe, the same instance can be used concurrently.
+ * <p>
+ * Trees, random forests and gradient boosting classifiers without input filters
+ * follow their nodes directly on row values and only read fitted state. Other models
+ * are scored with a reused one row frame on their predict method, which is called
+ * concurrently. This is safe for models which do not change their state when they
+ * predict; {@link rapaio.ml.classifier.svm.BinarySMO}, which caches kernel values
+ * during prediction, serializes its predictions.
+ */
+public interface CScorer {
+
+    /**
+     * @return names of the input variables, in the order of values from a row
+     */
+    String[] inputNames();
+
+    /**
+     * @return levels of the target variable, the first level is the missing level
+     */
+    List<String> levels();
+
+    /**
+     * Scores a single row.
+     *
+     * @param row       input values in the order given by {@link #inputNames()}, missing values are NaN
+     * @param densities array with length equal with the number of levels, which is
+     *                  filled with densities, or null if densities are not needed
+     * @return index of the predicted level
+     */
+    int score(double[] row, double[] densities);
+}
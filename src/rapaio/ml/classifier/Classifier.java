@@ -289,6 +289,14 @@ public interface Classifier extends Printable, Serializable {
      */
     CPrediction predict(Frame df, boolean withClasses, boolean withDistributions);
 
+    /**
+     * Builds a scorer for single rows of the fitted model, which avoids the cost
+     * of building frames when rows are scored one by one.
+     *
+     * @return thread safe scorer of the fitted model
+     */
+    CScorer scorer();
+
     /**
      * set the pool size for fork join tasks
      * - poolSize == 0 it is executed in a single non fork join thread
@@ -0,0 +1,98 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.classifier;
+
+import rapaio.data.Frame;
+import rapaio.data.SolidFrame;
+import rapaio.data.VType;
+import rapaio.data.Var;
+
+import java.util.List;
+
+/**
+ * Scorer which works with any classifier, it scores rows through a one row frame
+ * which is reused by each thread.
+ */
+final class FrameCScorer implements CScorer {
+
+    private final Classifier model;
+    private final String[] inputNames;
+    private final List<String> levels;
+    private final ThreadLocal<Frame> buffer;
+
+    FrameCScorer(Classifier model, String[] inputNames, VType[] inputTypes) {
+        this.model = model;
+        this.inputNames = inputNames;
+        this.levels = model.firstTargetLevels();
+        this.buffer = ThreadLocal.withInitial(() -> {
+            Var[] vars = new Var[inputNames.length];
+            for (int i = 0; i < inputNames.length; i++) {
+                if (!inputTypes[i].isNumeric() && inputTypes[i] != VType.LONG) {
+                    throw new IllegalArgumentException("Scorer accepts only numeric input variables, variable "
+                            + inputNames[i] + " has type " + inputTypes[i].code() + ".");
+                }
+                vars[i] = inputTypes[i].newInstance(1).withName(inputNames[i]);
+            }
+            return SolidFrame.byVars(vars);
+        });
+        // fail fast on input types which cannot be scored
+        buffer.get();
+    }
+
+    @Override
+    public String[] inputNames() {
+        return inputNames;
+    }
+
+    @Override
+    public List<String> levels() {
+        return levels;
+    }
+
+    @Override
+    public int score(double[] row, double[] densities) {
+        if (row.length != inputNames.length) {
+            throw new IllegalArgumentException("Row has " + row.length + " values, scorer expects " + inputNames.length + ".");
+        }
+        Frame df = buffer.get();
+        for (int i = 0; i < row.length; i++) {
+            if (Double.isNaN(row[i])) {
+                df.setMissing(0, i);
+            } else {
+                df.setDouble(0, i, row[i]);
+            }
+        }
+        CPrediction prediction = model.predict(df, true, densities != null);
+        if (densities != null) {
+            for (int i = 0; i < levels.size(); i++) {
+                densities[i] = prediction.firstDensity().getDouble(0, i);
+            }
+        }
+        return prediction.firstClasses().getInt(0);
+    }
+}
@@ -38,6 +38,7 @@ import rapaio.ml.classifier.CPrediction;
 import rapaio.ml.classifier.Classifier;
 import rapaio.ml.classifier.tree.CTree;
 import rapaio.ml.common.Capabilities;
+import rapaio.ml.common.EarlyStopping;
 import rapaio.printer.*;
 
 import java.util.ArrayList;
@@ -61,6 +62,7 @@ public class AdaBoostSAMME extends AbstractClassifier implements DefaultPrintabl
     private Classifier weak = CTree.newCART().withMaxDepth(6).withMinCount(6);
     private boolean stopOnError = false;
     private double shrinkage = 1.0;
+    private EarlyStopping earlyStopping;
 
     // model artifacts
 
@@ -85,7 +87,8 @@ public class AdaBoostSAMME extends AbstractClassifier implements DefaultPrintabl
                 .withSampler(sampler())
                 .withRuns(runs())
                 .withRunningHook(runningHook())
-                .withRunPoolSize(runPoolSize());
+                .withRunPoolSize(runPoolSize())
+                .withEarlyStopping(earlyStopping == null ? null : earlyStopping.newInstance());
     }
 
     @Override
@@ -135,6 +138,26 @@ public class AdaBoostSAMME extends AbstractClassifier implements DefaultPrintabl
         return this;
     }
 
+    /**
+     * Enables early stopping on a validation frame. The validation loss is the
+     * misclassification rate, and the model keeps only the weak learners which
+     * give the best validation loss.
+     *
+     * @param earlyStopping early stopping settings, null to disable early stopping
+     * @return classifier instance
+     */
+    public AdaBoostSAMME withEarlyStopping(EarlyStopping earlyStopping) {
+        this.earlyStopping = earlyStopping;
+        return this;
+    }
+
+    /**
+     * @return early stopping settings and validation losses of the last fit, null if not enabled
+     */
+    public EarlyStopping earlyStopping() {
+        return earlyStopping;
+    }
+
     @Override
     protected boolean coreFit(Frame df, Var weights) {
 
@@ -149,8 +172,25 @@ public class AdaBoostSAMME extends AbstractClassifier implements DefaultPrintabl
             w.setDouble(i, w.getDouble(i) / total);
         }
 
+        // validation votes are updated with each added weak learner
+
+        Frame validation = null;
+        double[][] votes = null;
+        if (earlyStopping != null) {
+            earlyStopping = earlyStopping.newInstance();
+            validation = preparePredict(earlyStopping.validation(firstTargetName()));
+            votes = new double[firstTargetLevels().size()][validation.rowCount()];
+        }
+
         for (int i = 0; i < runs(); i++) {
+            int size = h.size();
             boolean success = learnRound(df);
+            if (earlyStopping != null && h.size() > size) {
+                addVotes(votes, h.size() - 1, validation);
+                if (earlyStopping.update(validationError(votes, validation))) {
+                    break;
+                }
+            }
             if (!success && stopOnError) {
                 break;
             }
@@ -158,9 +198,42 @@ public class AdaBoostSAMME extends AbstractClassifier implements DefaultPrintabl
                 runningHook().accept(this, i + 1);
             }
         }
+        if (earlyStopping != null) {
+            int keep = earlyStopping.runsToKeep(h.size());
+            h.subList(keep, h.size()).clear();
+            a.subList(keep, a.size()).clear();
+        }
         return true;
     }
 
+    private double validationError(double[][] votes, Frame validation) {
+        // labels are compared by name, since the validation dictionary may order levels differently
+        List<String> levels = firstTargetLevels();
+        double err = 0;
+        for (int i = 0; i < validation.rowCount(); i++) {
+            double max = 0;
+            int best = 0;
+            for (int j = 1; j < votes.length; j++) {
+                if (votes[j][i] > max) {
+                    best = j;
+                    max = votes[j][i];
+                }
+            }
+            if (!levels.get(best).equals(validation.getLabel(i, firstTargetName()))) {
+                err++;
+            }
+        }
+        return err / validation.rowCount();
+    }
+
+    private void addVotes(double[][] votes, int learner, Frame df) {
+        int[] classes = h.get(learner).predict(df, true, false).firstClasses().intArray();
+        double alpha = a.get(learner);
+        for (int j = 0; j < df.rowCount(); j++) {
+            votes[classes[j]][j] += alpha;
+        }
+    }
+
     private boolean learnRound(Frame df) {
 
         Classifier hh = weak.newInstance();
@@ -207,33 +280,55 @@ public class AdaBoostSAMME extends AbstractClassifier implements DefaultPrintabl
     @Override
     protected CPrediction corePredict(Frame df, boolean withClasses, boolean withDistributions) {
         CPrediction fit = CPrediction.build(this, df, withClasses, true);
+        double[][] votes = new double[firstTargetLevels().size()][df.rowCount()];
         for (int i = 0; i < h.size(); i++) {
-            CPrediction hp = h.get(i).predict(df, true, false);
-            for (int j = 0; j < df.rowCount(); j++) {
-                int index = hp.firstClasses().getInt(j);
-                fit.firstDensity().setDouble(j, index, fit.firstDensity().getDouble(j, index) + a.get(i));
-            }
+            addVotes(votes, i, df);
         }
+        fillPrediction(fit, votes, df.rowCount());
+        return fit;
+    }
+
+    /**
+     * Computes in a single pass the predictions of the model truncated after each weak
+     * learner. The stage consumer receives the number of weak learners and the prediction
+     * with classes and densities given by the first weak learners of the model.
+     *
+     * @param df            data frame
+     * @param stageConsumer consumer of staged predictions
+     */
+    public void predictStages(Frame df, BiConsumer<Integer, CPrediction> stageConsumer) {
+        Frame workDf = preparePredict(df);
+        double[][] votes = new double[firstTargetLevels().size()][workDf.rowCount()];
+        for (int i = 0; i < h.size(); i++) {
+            addVotes(votes, i, workDf);
+            CPrediction fit = CPrediction.build(this, workDf, true, true);
+            fillPrediction(fit, votes, workDf.rowCount());
+            stageConsumer.accept(i + 1, fit);
+        }
+    }
+
+    private void fillPrediction(CPrediction fit, double[][] votes, int rowCount) {
 
         // simply predict
-        for (int i = 0; i < fit.firstDensity().rowCount(); i++) {
+        for (int i = 0; i < rowCount; i++) {
 
             double max = 0;
             int best = 0;
             double total = 0;
-            for (int j = 1; j < fit.firstDensity().varCount(); j++) {
-                total += fit.firstDensity().getDouble(i, j);
-                if (fit.firstDensity().getDouble(i, j) > max) {
+            for (int j = 1; j < votes.length; j++) {
+                total += votes[j][i];
+                if (votes[j][i] > max) {
                     best = j;
-                    max = fit.firstDensity().getDouble(i, j);
+                    max = votes[j][i];
                 }
             }
-            for (int j = 1; j < fit.firstDensity().varCount(); j++) {
-                fit.firstDensity().setDouble(i, j, fit.firstDensity().getDouble(i, j) / total);
+            for (int j = 1; j < votes.length; j++) {
+                fit.firstDensity().setDouble(i, j, votes[j][i] / total);
+            }
+            if (fit.hasClasses()) {
+                fit.firstClasses().setInt(i, best);
             }
-            fit.firstClasses().setInt(i, best);
         }
-        return fit;
     }
 
     @Override
@@ -241,6 +336,11 @@ public class AdaBoostSAMME extends AbstractClassifier implements DefaultPrintabl
         return (AdaBoostSAMME) super.withRuns(runs);
     }
 
+    @Override
+    public AdaBoostSAMME withRunPoolSize(int poolSize) {
+        return (AdaBoostSAMME) super.withRunPoolSize(poolSize);
+    }
+
     @Override
     public AdaBoostSAMME withRunningHook(BiConsumer<Classifier, Integer> runningHook) {
         return (AdaBoostSAMME) super.withRunningHook(runningHook);
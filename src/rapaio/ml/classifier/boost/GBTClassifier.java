@@ -31,28 +31,36 @@ import rapaio.data.Frame;
 import rapaio.data.VRange;
 import rapaio.data.VType;
 import rapaio.data.Var;
+import rapaio.data.VarDouble;
 import rapaio.data.sample.RowSampler;
 import rapaio.data.sample.Sample;
-import rapaio.math.linear.RM;
-import rapaio.math.linear.RV;
-import rapaio.math.linear.dense.SolidRM;
+import rapaio.io.BinaryModel;
+import rapaio.io.ModelReader;
+import rapaio.io.ModelWriter;
 import rapaio.ml.classifier.AbstractClassifier;
 import rapaio.ml.classifier.CPrediction;
+import rapaio.ml.classifier.CScorer;
 import rapaio.ml.classifier.Classifier;
 import rapaio.ml.common.Capabilities;
-import rapaio.ml.regression.RPrediction;
+import rapaio.ml.common.EarlyStopping;
+import rapaio.ml.common.instrument.Instrument;
+import rapaio.ml.regression.RScorer;
 import rapaio.ml.regression.loss.KDevianceRegressionLoss;
 import rapaio.ml.regression.tree.RTree;
 import rapaio.printer.*;
-import rapaio.sys.WS;
+import rapaio.util.Util;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * Created by <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a> at 12/12/14.
  */
-public class GBTClassifier extends AbstractClassifier implements Classifier, DefaultPrintable {
+public class GBTClassifier extends AbstractClassifier implements Classifier, BinaryModel, DefaultPrintable {
 
     private static final long serialVersionUID = -2979235364091072967L;
 
@@ -67,12 +75,13 @@ public class GBTClassifier extends AbstractClassifier implements Classifier, Def
     private double shrinkage = .2;
     private boolean debug = false;
     private RTree rTree = RTree.newCART().withMaxDepth(4).withMinCount(5).withRegressionLoss(new KDevianceRegressionLoss(-1));
+    private EarlyStopping earlyStopping;
 
     // learning artifacts
 
     int K;
-    RM f;
-    RM residual;
+    double[][] f;
+    double[][] residual;
     private List<List<RTree>> trees;
 
     private GBTClassifier() {
@@ -86,7 +95,8 @@ public class GBTClassifier extends AbstractClassifier implements Classifier, Def
                 .withRTree(rTree.newInstance().withRegressionLoss(new KDevianceRegressionLoss(-1)))
                 .withSampler(sampler())
                 .withRuns(runs())
-                .withRunPoolSize(runPoolSize());
+                .withRunPoolSize(runPoolSize())
+                .withEarlyStopping(earlyStopping == null ? null : earlyStopping.newInstance());
     }
 
     @Override
@@ -125,6 +135,26 @@ public class GBTClassifier extends AbstractClassifier implements Classifier, Def
         return this;
     }
 
+    /**
+     * Enables early stopping on a validation frame. The validation loss is the
+     * average multinomial deviance, and the model keeps only the runs with the
+     * best validation loss.
+     *
+     * @param earlyStopping early stopping settings, null to disable early stopping
+     * @return classifier instance
+     */
+    public GBTClassifier withEarlyStopping(EarlyStopping earlyStopping) {
+        this.earlyStopping = earlyStopping;
+        return this;
+    }
+
+    /**
+     * @return early stopping settings and validation losses of the last fit, null if not enabled
+     */
+    public EarlyStopping earlyStopping() {
+        return earlyStopping;
+    }
+
     public GBTClassifier withShrinkage(double shrinkage) {
         this.shrinkage = shrinkage;
         return this;
@@ -140,118 +170,276 @@ public class GBTClassifier extends AbstractClassifier implements Classifier, Def
         return (GBTClassifier) super.withRuns(runs);
     }
 
+    @Override
+    public GBTClassifier withRunPoolSize(int poolSize) {
+        return (GBTClassifier) super.withRunPoolSize(poolSize);
+    }
+
     @Override
     public boolean coreFit(Frame df, Var weights) {
 
         // algorithm described by ESTL pag. 387
 
         K = firstTargetLevels().size() - 1;
-        f = SolidRM.empty(K, df.rowCount());
-        residual = SolidRM.empty(K, df.rowCount());
+        int n = df.rowCount();
+        f = new double[K][n];
+        residual = new double[K][n];
         trees = new ArrayList<>();
         for (int i = 0; i < K; i++) {
             trees.add(new ArrayList<>());
         }
 
-        // build individual regression targets for each class
+        // class index of each row, the class k has regression target 1 and all others 0
+
+        int[] y = new int[n];
+        for (int i = 0; i < n; i++) {
+            y[i] = df.getInt(i, firstTargetName()) - 1;
+        }
+
+        // input frame and residual targets are built once and are updated in place for each run
+
+        Frame x = df.removeVars(VRange.of(targetNames()));
+        Var[] targets = new Var[K];
+        for (int k = 0; k < K; k++) {
+            targets[k] = VarDouble.wrap(residual[k]).withName("##tt##");
+        }
+
+        // validation scores are updated with the trees of each run
 
-        SolidRM yk = SolidRM.empty(K, df.rowCount());
-        for (int i = 0; i < df.rowCount(); i++) {
-            yk.set(df.getInt(i, firstTargetName()) - 1, i, 1);
+        Frame validation = null;
+        int[] vy = null;
+        double[][] vf = null;
+        if (earlyStopping != null) {
+            earlyStopping = earlyStopping.newInstance();
+            validation = preparePredict(earlyStopping.validation(firstTargetName()));
+            vy = validationTargets(validation);
+            vf = new double[K][validation.rowCount()];
         }
 
         for (int m = 0; m < runs(); m++) {
-            buildAdditionalTree(df, weights, yk);
+            List<RTree> round = buildAdditionalTree(df, x, weights, y, targets);
             if (runningHook() != null) {
                 runningHook().accept(this, m);
             }
+            if (earlyStopping != null) {
+                for (int k = 0; k < K; k++) {
+                    addScores(vf[k], round.get(k), validation);
+                }
+                if (earlyStopping.update(deviance(vf, vy))) {
+                    break;
+                }
+            }
+        }
+        if (earlyStopping != null) {
+            for (List<RTree> classTrees : trees) {
+                classTrees.subList(earlyStopping.runsToKeep(classTrees.size()), classTrees.size()).clear();
+            }
         }
         return true;
     }
 
-    private void buildAdditionalTree(Frame df, Var w, RM yk) {
-
-        // a) Set p_k(x)
+    /**
+     * Maps validation labels to class indexes through the levels of the training target,
+     * since the nominal dictionary of the validation frame may order levels differently.
+     */
+    private int[] validationTargets(Frame validation) {
+        List<String> levels = firstTargetLevels();
+        int[] vy = new int[validation.rowCount()];
+        for (int i = 0; i < vy.length; i++) {
+            String label = validation.getLabel(i, firstTargetName());
+            vy[i] = levels.indexOf(label) - 1;
+            if (vy[i] < 0) {
+                throw new IllegalArgumentException("Validation label " + label + " is not a level of the target variable.");
+            }
+        }
+        return vy;
+    }
 
-        RV max = f.t().rowValueMax();
-        for (int i = 0; i < df.rowCount(); i++) {
-            double sum = 0;
+    private double deviance(double[][] scores, int[] y) {
+        double sum = 0;
+        for (int i = 0; i < y.length; i++) {
+            double max = Double.NEGATIVE_INFINITY;
             for (int k = 0; k < K; k++) {
-                sum += Math.exp(f.get(k,i) - max.get(i));
-                if (!Double.isFinite(sum)) {
-                    WS.println("ERROR");
-                }
+                max = Math.max(max, scores[k][i]);
             }
+            double t = 0;
             for (int k = 0; k < K; k++) {
-                residual.set(k,i, yk.get(k,i) -
-                        Math.exp(f.get(k,i) - max.get(i)) / Math.exp(sum));
+                t += Math.exp(scores[k][i] - max);
             }
+            sum += Math.log(t) + max - scores[y[i]][i];
         }
+        return sum / y.length;
+    }
 
-        // b)
+    private void addScores(double[] scores, RTree tree, Frame df) {
+        double[] fit = tree.predict(df, false).firstFit().doubleArray();
+        for (int i = 0; i < scores.length; i++) {
+            scores[i] += shrinkage * fit[i];
+        }
+    }
 
-        Frame x = df.removeVars(VRange.of(targetNames()));
-        Sample sample = sampler().nextSample(x, w);
+    private List<RTree> buildAdditionalTree(Frame df, Frame x, Var w, int[] y, Var[] targets) {
 
-        for (int k = 0; k < K; k++) {
+        // a) Set p_k(x) and residuals y_k - p_k(x) in a single pass over rows
 
-            Var resk = residual.mapRow(k).asNumericVar().withName("##tt##");
-            Frame train = sample.df.bindVars(resk.mapRows(sample.mapping));
+        IntStream.range(0, df.rowCount()).parallel().forEach(i -> {
+            double max = Double.NEGATIVE_INFINITY;
+            for (int k = 0; k < K; k++) {
+                max = Math.max(max, f[k][i]);
+            }
+            double sum = 0;
+            for (int k = 0; k < K; k++) {
+                double e = Math.exp(f[k][i] - max);
+                residual[k][i] = e;
+                sum += e;
+            }
+            for (int k = 0; k < K; k++) {
+                residual[k][i] = (y[i] == k ? 1.0 : 0.0) - residual[k][i] / sum;
+            }
+        });
+
+        // b) fit the regression trees for all classes on the same sample
 
+        long start = instrument().start();
+        Sample sample = sampler().nextSample(x, w);
+        instrument().stop(Instrument.Phase.SAMPLING, start);
+
+        List<RTree> round = Util.rangeStream(K, runPoolSize() > 0).boxed().map(k -> {
+            Frame train = sample.df.bindVars(targets[k].mapRows(sample.mapping));
             RTree tree = rTree.newInstance().withRegressionLoss(new KDevianceRegressionLoss(K));
+            tree.withInstrument(instrument());
             tree.fit(train, sample.weights, "##tt##");
-            trees.get(k).add(tree);
+            addScores(f[k], tree, df);
+            return tree;
+        }).collect(Collectors.toList());
 
-            RPrediction rr = tree.predict(df, false);
-            for (int i = 0; i < df.rowCount(); i++) {
-                f.increment(k,i, shrinkage * rr.firstFit().getDouble(i));
-            }
+        for (int k = 0; k < K; k++) {
+            trees.get(k).add(round.get(k));
         }
+        return round;
     }
 
     @Override
     public CPrediction corePredict(Frame df, boolean withClasses, boolean withDistributions) {
         CPrediction cr = CPrediction.build(this, df, withClasses, withDistributions);
 
-        RM p_f = SolidRM.empty(K, df.rowCount());
+        double[][] p_f = new double[K][df.rowCount()];
+        Util.rangeStream(K, runPoolSize() > 0).forEach(k -> {
+            for (RTree tree : trees.get(k)) {
+                addScores(p_f[k], tree, df);
+            }
+        });
+        fillPrediction(cr, p_f, df.rowCount());
+        return cr;
+    }
+
+    /**
+     * Computes in a single pass the predictions of the model truncated after each run.
+     * The stage consumer receives the number of runs and the prediction with classes
+     * and densities given by the first runs of the model.
+     *
+     * @param df            data frame
+     * @param stageConsumer consumer of staged predictions
+     */
+    public void predictStages(Frame df, BiConsumer<Integer, CPrediction> stageConsumer) {
+        Frame workDf = preparePredict(df);
+        double[][] p_f = new double[K][workDf.rowCount()];
+        int stages = trees.isEmpty() ? 0 : trees.get(0).size();
+        for (int m = 0; m < stages; m++) {
+            int run = m;
+            Util.rangeStream(K, runPoolSize() > 0).forEach(k -> addScores(p_f[k], trees.get(k).get(run), workDf));
+            CPrediction cr = CPrediction.build(this, workDf, true, true);
+            fillPrediction(cr, p_f, workDf.rowCount());
+            stageConsumer.accept(m + 1, cr);
+        }
+    }
 
+    /**
+     * Models without input filters and with numeric inputs are scored with the
+     * scorers of the regression trees, other models use the default scorer.
+     */
+    @Override
+    public CScorer scorer() {
+        String[] names = directScorerInputs();
+        if (names == null) {
+            return super.scorer();
+        }
+        RScorer[][] scorers = new RScorer[K][];
         for (int k = 0; k < K; k++) {
-            for (RTree tree : trees.get(k)) {
-                RPrediction rr = tree.predict(df, false);
-                for (int i = 0; i < df.rowCount(); i++) {
-                    p_f.increment(k, i, shrinkage * rr.firstFit().getDouble(i));
+            scorers[k] = new RScorer[trees.get(k).size()];
+            for (int i = 0; i < scorers[k].length; i++) {
+                scorers[k][i] = trees.get(k).get(i).scorer();
+                if (!Arrays.equals(names, scorers[k][i].inputNames())) {
+                    return super.scorer();
                 }
             }
         }
+        return new GBTScorer(names, firstTargetLevels(), scorers, shrinkage);
+    }
 
-        // make probabilities
+    /**
+     * Writes the trees of each class, which are written without parameters since all
+     * of them are new instances of the same tree. Training scores are not stored.
+     */
+    @Override
+    public void writeFitted(ModelWriter out) {
+        writeSchema(out);
+        out.writeInt(K);
+        for (List<RTree> classTrees : trees) {
+            out.writeInt(classTrees.size());
+            for (RTree tree : classTrees) {
+                tree.writeFitted(out);
+            }
+        }
+    }
+
+    @Override
+    public void readFitted(ModelReader in) {
+        readSchema(in);
+        K = in.readInt();
+        trees = new ArrayList<>(K);
+        for (int k = 0; k < K; k++) {
+            int count = in.readInt();
+            List<RTree> classTrees = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                RTree tree = rTree.newInstance();
+                tree.readFitted(in);
+                classTrees.add(tree);
+            }
+            trees.add(classTrees);
+        }
+    }
 
-        RV max = p_f.t().rowValueMax();
+    private void fillPrediction(CPrediction cr, double[][] p_f, int rowCount) {
 
-        for (int i = 0; i < df.rowCount(); i++) {
-            double t = 0.0;
+        // make probabilities and classes
+
+        double[] p = new double[K];
+        for (int i = 0; i < rowCount; i++) {
+            double max = Double.NEGATIVE_INFINITY;
             for (int k = 0; k < K; k++) {
-                t += Math.exp(p_f.get(k, i) - max.get(i));
+                max = Math.max(max, p_f[k][i]);
             }
-            if (t != 0) {
-                for (int k = 0; k < K; k++) {
-                    cr.firstDensity().setDouble(i, k + 1, Math.exp(p_f.get(k, i) - max.get(i)) / t);
-                }
+            double t = 0.0;
+            for (int k = 0; k < K; k++) {
+                p[k] = Math.exp(p_f[k][i] - max);
+                t += p[k];
             }
-        }
-
-        for (int i = 0; i < df.rowCount(); i++) {
             int maxIndex = 0;
             double maxValue = Double.NEGATIVE_INFINITY;
             for (int k = 0; k < K; k++) {
-                if (cr.firstDensity().getDouble(i, k + 1) > maxValue) {
-                    maxValue = cr.firstDensity().getDouble(i, k + 1);
+                double value = t != 0 ? p[k] / t : 0.0;
+                if (t != 0 && cr.hasDensities()) {
+                    cr.firstDensity().setDouble(i, k + 1, value);
+                }
+                if (value > maxValue) {
+                    maxValue = value;
                     maxIndex = k + 1;
                 }
             }
-            cr.firstClasses().setInt(i, maxIndex);
+            if (cr.hasClasses()) {
+                cr.firstClasses().setInt(i, maxIndex);
+            }
         }
-        return cr;
     }
 }
-
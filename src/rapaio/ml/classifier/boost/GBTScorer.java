@@ -0,0 +1,97 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.classifier.boost;
+
+import rapaio.ml.classifier.CScorer;
+import rapaio.ml.regression.RScorer;
+
+import java.util.List;
+
+/**
+ * Scorer of gradient boosting classifiers, which adds the shrunk scores of the
+ * regression trees of each class and transforms them into densities with softmax.
+ */
+final class GBTScorer implements CScorer {
+
+    private final String[] inputNames;
+    private final List<String> levels;
+    private final RScorer[][] trees;
+    private final double shrinkage;
+    private final ThreadLocal<double[]> buffer;
+
+    GBTScorer(String[] inputNames, List<String> levels, RScorer[][] trees, double shrinkage) {
+        this.inputNames = inputNames;
+        this.levels = levels;
+        this.trees = trees;
+        this.shrinkage = shrinkage;
+        this.buffer = ThreadLocal.withInitial(() -> new double[levels.size()]);
+    }
+
+    @Override
+    public String[] inputNames() {
+        return inputNames;
+    }
+
+    @Override
+    public List<String> levels() {
+        return levels;
+    }
+
+    @Override
+    public int score(double[] row, double[] densities) {
+        if (row.length != inputNames.length) {
+            throw new IllegalArgumentException("Row has " + row.length + " values, scorer expects " + inputNames.length + ".");
+        }
+        double[] p = (densities != null) ? densities : buffer.get();
+        p[0] = 0;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int k = 0; k < trees.length; k++) {
+            double score = 0;
+            for (RScorer tree : trees[k]) {
+                score += shrinkage * tree.score(row);
+            }
+            p[k + 1] = score;
+            max = Math.max(max, score);
+        }
+        double t = 0.0;
+        for (int k = 1; k <= trees.length; k++) {
+            p[k] = Math.exp(p[k] - max);
+            t += p[k];
+        }
+        int maxIndex = 0;
+        double maxValue = Double.NEGATIVE_INFINITY;
+        for (int k = 1; k <= trees.length; k++) {
+            p[k] = t != 0 ? p[k] / t : 0.0;
+            if (p[k] > maxValue) {
+                maxValue = p[k];
+                maxIndex = k;
+            }
+        }
+        return maxIndex;
+    }
+}
@@ -31,8 +31,10 @@ import rapaio.core.tools.DVector;
 import rapaio.data.Frame;
 import rapaio.data.VarNominal;
 import rapaio.ml.classifier.CPrediction;
+import rapaio.ml.classifier.CScorer;
 
 import java.io.Serializable;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -64,6 +66,15 @@ public enum BaggingMode implements Serializable {
             }
         }
 
+        @Override
+        int score(CScorer[] members, double[] row, double[] densities, double[] memberDensities) {
+            Arrays.fill(densities, 0);
+            for (CScorer member : members) {
+                densities[member.score(row, null)]++;
+            }
+            return normalize(densities);
+        }
+
         @Override
         boolean needsClass() {
             return true;
@@ -106,6 +117,22 @@ public enum BaggingMode implements Serializable {
             }
         }
 
+        @Override
+        int score(CScorer[] members, double[] row, double[] densities, double[] memberDensities) {
+            Arrays.fill(densities, 0);
+            for (CScorer member : members) {
+                member.score(row, memberDensities);
+                double t = 0.0;
+                for (double density : memberDensities) {
+                    t += density;
+                }
+                for (int j = 0; j < densities.length; j++) {
+                    densities[j] += memberDensities[j] / t;
+                }
+            }
+            return normalize(densities);
+        }
+
         @Override
         boolean needsClass() {
             return false;
@@ -119,6 +146,38 @@ public enum BaggingMode implements Serializable {
 
     abstract void computeDensity(List<String> dictionary, List<CPrediction> treeFits, VarNominal classes, Frame densities);
 
+    /**
+     * Scores a single row with the scorers of the ensemble members.
+     *
+     * @param members         scorers of ensemble members
+     * @param row             row values
+     * @param densities       array filled with the densities of the ensemble
+     * @param memberDensities buffer for the densities of a member
+     * @return index of the predicted level
+     */
+    abstract int score(CScorer[] members, double[] row, double[] densities, double[] memberDensities);
+
+    /**
+     * Normalizes densities of the non missing levels, the way {@link DVector#normalize()}
+     * does, and finds the first level with maximal density.
+     */
+    private static int normalize(double[] densities) {
+        double total = 0.0;
+        for (int j = 1; j < densities.length; j++) {
+            total += densities[j];
+        }
+        int best = 1;
+        for (int j = 1; j < densities.length; j++) {
+            if (total != 0) {
+                densities[j] /= total;
+            }
+            if (densities[j] > densities[best]) {
+                best = j;
+            }
+        }
+        return best;
+    }
+
     abstract boolean needsClass();
 
     abstract boolean needsDensity();
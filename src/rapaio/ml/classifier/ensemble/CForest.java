@@ -48,35 +48,37 @@ import rapaio.data.filter.frame.FRefSort;
 import rapaio.data.filter.var.VShuffle;
 import rapaio.data.sample.RowSampler;
 import rapaio.data.sample.Sample;
+import rapaio.io.BinaryModel;
+import rapaio.io.ModelReader;
+import rapaio.io.ModelWriter;
 import rapaio.ml.classifier.AbstractClassifier;
 import rapaio.ml.classifier.CPrediction;
+import rapaio.ml.classifier.CScorer;
 import rapaio.ml.classifier.Classifier;
 import rapaio.ml.classifier.tree.CTree;
 import rapaio.ml.classifier.tree.CTreeNode;
 import rapaio.ml.common.Capabilities;
 import rapaio.ml.common.VarSelector;
+import rapaio.ml.common.instrument.Instrument;
 import rapaio.ml.eval.Confusion;
 import rapaio.printer.*;
 import rapaio.util.Pair;
 import rapaio.util.Util;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
-
-import static java.util.stream.Collectors.toSet;
 
 /**
  * Breiman random forest implementation.
  * <p>
  * Created by <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a> on 4/16/15.
  */
-public class CForest extends AbstractClassifier implements DefaultPrintable {
+public class CForest extends AbstractClassifier implements BinaryModel, DefaultPrintable {
 
     private static final long serialVersionUID = -145958939373105497L;
 
@@ -453,8 +455,13 @@ public class CForest extends AbstractClassifier implements DefaultPrintable {
 
     private Pair<Classifier, IntList> buildWeakPredictor(Frame df, Var weights) {
         Classifier weak = c.newInstance();
+        if (weak instanceof AbstractClassifier) {
+            ((AbstractClassifier) weak).withInstrument(instrument());
+        }
 
+        long start = instrument().start();
         Sample sample = sampler().nextSample(df, weights);
+        instrument().stop(Instrument.Phase.SAMPLING, start);
 
         Frame trainFrame = sample.df;
         Var trainWeights = sample.weights;
@@ -462,8 +469,7 @@ public class CForest extends AbstractClassifier implements DefaultPrintable {
         weak.fit(trainFrame, trainWeights, firstTargetName());
         IntList oobIndexes = new IntArrayList();
         if (oobComp) {
-            Set<Integer> out = sample.mapping.stream().boxed().collect(toSet());
-            oobIndexes = IntArrayList.wrap(IntStream.range(0, df.rowCount()).filter(row -> !out.contains(row)).toArray());
+            oobIndexes = sample.oob(df.rowCount()).toList();
         }
         return Pair.from(weak, oobIndexes);
     }
@@ -478,6 +484,86 @@ public class CForest extends AbstractClassifier implements DefaultPrintable {
         return cp;
     }
 
+    /**
+     * Forests without input filters and with numeric inputs are scored with the
+     * scorers of the weak classifiers, which are direct for trees. Other forests
+     * use the default scorer.
+     */
+    @Override
+    public CScorer scorer() {
+        String[] names = directScorerInputs();
+        if (names == null) {
+            return super.scorer();
+        }
+        CScorer[] members = new CScorer[predictors.size()];
+        for (int i = 0; i < members.length; i++) {
+            members[i] = predictors.get(i).scorer();
+            if (!Arrays.equals(names, members[i].inputNames())) {
+                return super.scorer();
+            }
+        }
+        return new CForestScorer(names, firstTargetLevels(), members, baggingMode);
+    }
+
+    /**
+     * Writes the out of bag error, variable importance and the fitted weak predictors.
+     * Weak predictors are written without parameters, since all of them are new
+     * instances of the same classifier. Out of bag predictions are not stored.
+     */
+    @Override
+    public void writeFitted(ModelWriter out) {
+        writeSchema(out);
+        out.writeDouble(oobError);
+        writeVIMap(out, freqVIMap);
+        writeVIMap(out, gainVIMap);
+        writeVIMap(out, permVIMap);
+        out.writeInt(predictors.size());
+        for (Classifier predictor : predictors) {
+            if (!(predictor instanceof BinaryModel)) {
+                throw new IllegalArgumentException("Weak classifier " + predictor.name() + " cannot be stored in binary format.");
+            }
+            ((BinaryModel) predictor).writeFitted(out);
+        }
+    }
+
+    private void writeVIMap(ModelWriter out, Map<String, List<Double>> map) {
+        out.writeInt(map.size());
+        for (Map.Entry<String, List<Double>> e : map.entrySet()) {
+            out.writeString(e.getKey());
+            out.writeDoubles(e.getValue().stream().mapToDouble(Double::doubleValue).toArray());
+        }
+    }
+
+    @Override
+    public void readFitted(ModelReader in) {
+        readSchema(in);
+        oobError = in.readDouble();
+        freqVIMap = readVIMap(in);
+        gainVIMap = readVIMap(in);
+        permVIMap = readVIMap(in);
+        int count = in.readInt();
+        predictors = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Classifier predictor = c.newInstance();
+            ((BinaryModel) predictor).readFitted(in);
+            predictors.add(predictor);
+        }
+    }
+
+    private Map<String, List<Double>> readVIMap(ModelReader in) {
+        int size = in.readInt();
+        Map<String, List<Double>> map = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            String name = in.readString();
+            List<Double> values = new ArrayList<>();
+            for (double value : in.readDoubles()) {
+                values.add(value);
+            }
+            map.put(name, values);
+        }
+        return map;
+    }
+
     @Override
     public CForest withRunningHook(BiConsumer<Classifier, Integer> runningHook) {
         return (CForest) super.withRunningHook(runningHook);
@@ -0,0 +1,76 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.classifier.ensemble;
+
+import rapaio.ml.classifier.CScorer;
+
+import java.util.List;
+
+/**
+ * Scorer of random forests, which combines the scores of the weak classifiers
+ * scorers with the bagging mode of the forest.
+ */
+final class CForestScorer implements CScorer {
+
+    private final String[] inputNames;
+    private final List<String> levels;
+    private final CScorer[] members;
+    private final BaggingMode baggingMode;
+    private final ThreadLocal<double[][]> buffer;
+
+    CForestScorer(String[] inputNames, List<String> levels, CScorer[] members, BaggingMode baggingMode) {
+        this.inputNames = inputNames;
+        this.levels = levels;
+        this.members = members;
+        this.baggingMode = baggingMode;
+        this.buffer = ThreadLocal.withInitial(() -> new double[2][levels.size()]);
+    }
+
+    @Override
+    public String[] inputNames() {
+        return inputNames;
+    }
+
+    @Override
+    public List<String> levels() {
+        return levels;
+    }
+
+    @Override
+    public int score(double[] row, double[] densities) {
+        if (row.length != inputNames.length) {
+            throw new IllegalArgumentException("Row has " + row.length + " values, scorer expects " + inputNames.length + ".");
+        }
+        double[][] buffers = buffer.get();
+        int best = baggingMode.score(members, row, buffers[0], buffers[1]);
+        if (densities != null) {
+            System.arraycopy(buffers[0], 0, densities, 0, buffers[0].length);
+        }
+        return best;
+    }
+}
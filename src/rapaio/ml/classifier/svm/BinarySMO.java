@@ -46,6 +46,7 @@ import rapaio.ml.classifier.Classifier;
 import rapaio.ml.classifier.svm.kernel.Kernel;
 import rapaio.ml.classifier.svm.kernel.PolyKernel;
 import rapaio.ml.common.Capabilities;
+import rapaio.ml.common.instrument.Instrument;
 import rapaio.printer.*;
 
 import java.io.Serializable;
@@ -418,6 +419,9 @@ public class BinarySMO extends AbstractClassifier implements Serializable, Defau
         // Set threshold
         b = (bLow + bUp) / 2.0;
 
+        instrument().count(Instrument.Counter.KERNEL_CACHE_HITS, kernel.cacheHits());
+        instrument().count(Instrument.Counter.KERNEL_CACHE_MISSES, kernel.cacheMisses());
+
         // Save memory
         kernel.clean();
 
@@ -446,8 +450,12 @@ public class BinarySMO extends AbstractClassifier implements Serializable, Defau
     }
 
 
+    /**
+     * Predictions are serialized, since kernel values are cached in a structure
+     * shared by all calls, which is not thread safe.
+     */
     @Override
-    protected CPrediction corePredict(Frame df, boolean withClasses, boolean withDistributions) {
+    protected synchronized CPrediction corePredict(Frame df, boolean withClasses, boolean withDistributions) {
         CPrediction cr = CPrediction.build(this, df, withClasses, withDistributions);
         for (int i = 0; i < df.rowCount(); i++) {
             double pred = predict(df, i);
@@ -41,10 +41,14 @@ public abstract class AbstractKernel implements Kernel {
 
     protected String[] varNames;
     private KernelCache cache;
+    private transient long cacheHits;
+    private transient long cacheMisses;
 
     @Override
     public void buildKernel(String[] varNames, Frame df) {
         this.varNames = varNames;
+        this.cacheHits = 0;
+        this.cacheMisses = 0;
         if (df.rowCount() <= 10_000) {
             cache = new SolidKernelCache(df);
         } else {
@@ -77,12 +81,25 @@ public abstract class AbstractKernel implements Kernel {
     public double compute(Frame df1, int row1, Frame df2, int row2) {
         Double value = cache.retrieve(df1, row1, df2, row2);
         if (value == null) {
+            cacheMisses++;
             value = eval(df1, row1, df2, row2);
             cache.store(df1, row1, df2, row2, value);
+        } else {
+            cacheHits++;
         }
         return value;
     }
 
+    @Override
+    public long cacheHits() {
+        return cacheHits;
+    }
+
+    @Override
+    public long cacheMisses() {
+        return cacheMisses;
+    }
+
 
     public abstract double eval(Frame df1, int row1, Frame df2, int row2);
 
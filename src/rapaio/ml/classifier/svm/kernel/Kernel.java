@@ -50,4 +50,18 @@ public interface Kernel extends Serializable {
 
     default void clean() {
     }
+
+    /**
+     * @return number of kernel values served from cache since the kernel was built
+     */
+    default long cacheHits() {
+        return 0;
+    }
+
+    /**
+     * @return number of kernel values evaluated since the kernel was built
+     */
+    default long cacheMisses() {
+        return 0;
+    }
 }
@@ -32,8 +32,10 @@ import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
 import rapaio.core.tools.*;
 import rapaio.data.*;
 import rapaio.data.filter.*;
+import rapaio.io.*;
 import rapaio.ml.classifier.*;
 import rapaio.ml.common.*;
+import rapaio.ml.common.instrument.Instrument;
 import rapaio.ml.common.predicate.*;
 import rapaio.printer.*;
 import rapaio.printer.format.*;
@@ -59,7 +61,7 @@ import static java.util.stream.Collectors.joining;
  *
  * @author <a href="mailto:padreati@yahoo.com>Aurelian Tutuianu</a>
  */
-public class CTree extends AbstractClassifier implements DefaultPrintable {
+public class CTree extends AbstractClassifier implements BinaryModel, DefaultPrintable {
 
     private static final long serialVersionUID = 1203926824359387358L;
 
@@ -327,8 +329,10 @@ public class CTree extends AbstractClassifier implements DefaultPrintable {
             String testName = bestCandidate.getTestName();
 
             // now that we have a best candidate, do the effective split
+            long start = instrument().start();
             Pair<List<Frame>, List<Var>> frames = splitter.performSplit(nodeDf, weightsDf,
                     bestCandidate.getGroupPredicates());
+            instrument().stop(Instrument.Phase.PARTITION, start);
 
             for (RowPredicate predicate : bestCandidate.getGroupPredicates()) {
                 CTreeNode child = new CTreeNode(
@@ -348,6 +352,7 @@ public class CTree extends AbstractClassifier implements DefaultPrintable {
     }
 
     private void learnNode(CTreeNode node, Frame df, Var weights) {
+        instrument().count(Instrument.Counter.NODES, 1);
         node.density = DVector.fromWeights(false, df.rvar(firstTargetName()), weights);
         node.counter = DVector.fromCounts(false, df.rvar(firstTargetName()));
         node.bestIndex = node.density.findBestIndex();
@@ -361,6 +366,7 @@ public class CTree extends AbstractClassifier implements DefaultPrintable {
             return;
         }
 
+        long searchStart = instrument().start();
         String[] nextVarNames = varSelector.nextAllVarNames();
         List<CTreeCandidate> candidateList = new ArrayList<>();
         Queue<String> exhaustList = new ConcurrentLinkedQueue<>();
@@ -387,6 +393,7 @@ public class CTree extends AbstractClassifier implements DefaultPrintable {
                             "tests for given variable: " + testCol +
                             " [" + df.type(testCol).name() + "]");
                 }
+                instrument().count(Instrument.Counter.ROWS_SCANNED, df.rowCount());
                 CTreeCandidate candidate = test.computeCandidate(
                         this, df, weights, testCol, firstTargetName(), function);
                 if (candidate != null) {
@@ -418,6 +425,7 @@ public class CTree extends AbstractClassifier implements DefaultPrintable {
                                         "tests for given variable: " + testCol +
                                         " [" + df.type(testCol).name() + "]");
                             }
+                            instrument().count(Instrument.Counter.ROWS_SCANNED, df.rowCount());
                             CTreeCandidate candidate = test.computeCandidate(
                                     this, df, weights, testCol, firstTargetName(), function);
                             if (candidate == null) {
@@ -432,6 +440,8 @@ public class CTree extends AbstractClassifier implements DefaultPrintable {
                 m -= next.size();
             }
         }
+        instrument().count(Instrument.Counter.CANDIDATES, candidateList.size());
+        instrument().stop(Instrument.Phase.SPLIT_SEARCH, searchStart);
         Collections.sort(candidateList);
         if (candidateList.isEmpty() || candidateList.get(0).getGroupPredicates().isEmpty()) {
             return;
@@ -531,6 +541,24 @@ public class CTree extends AbstractClassifier implements DefaultPrintable {
         return prediction;
     }
 
+    /**
+     * Trees without input filters and with numeric inputs are scored directly
+     * on row values, other trees use the default scorer.
+     */
+    @Override
+    public CScorer scorer() {
+        String[] names = directScorerInputs();
+        if (names == null) {
+            return super.scorer();
+        }
+        try {
+            return new CTreeScorer(this, names);
+        } catch (IllegalArgumentException ex) {
+            // custom node predicates cannot be bound to array rows
+            return super.scorer();
+        }
+    }
+
     protected Pair<Integer, DVector> predictPoint(CTree tree, CTreeNode node, int row, Frame df) {
         if (node.isLeaf())
             return Pair.from(node.getBestIndex(), node.getDensity().solidCopy().normalize());
@@ -580,6 +608,90 @@ public class CTree extends AbstractClassifier implements DefaultPrintable {
         return count;
     }
 
+    /**
+     * Writes the fitted tree as a flat list of nodes in depth first order. Group names
+     * which are the same as the text of the predicate are not stored.
+     */
+    @Override
+    public void writeFitted(ModelWriter out) {
+        writeSchema(out);
+        writeNode(out, root);
+    }
+
+    private void writeNode(ModelWriter out, CTreeNode node) {
+        out.writeInt(node.id);
+        if (node.parent == null) {
+            out.writeString(node.groupName);
+        } else {
+            node.predicate.write(out);
+            out.writeString(node.groupName.equals(node.predicate.toString()) ? null : node.groupName);
+        }
+        out.writeBoolean(node.leaf);
+        out.writeInt(node.bestIndex);
+        writeDVector(out, node.density);
+        writeDVector(out, node.counter);
+        out.writeBoolean(node.bestCandidate != null);
+        if (node.bestCandidate != null) {
+            out.writeDouble(node.bestCandidate.getScore());
+            out.writeString(node.bestCandidate.getTestName());
+        }
+        out.writeInt(node.children.size());
+        for (CTreeNode child : node.children) {
+            writeNode(out, child);
+        }
+    }
+
+    private void writeDVector(ModelWriter out, DVector dv) {
+        double[] values = new double[dv.rowCount()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = dv.get(i);
+        }
+        out.writeDoubles(values);
+    }
+
+    @Override
+    public void readFitted(ModelReader in) {
+        readSchema(in);
+        root = readNode(in, null);
+    }
+
+    private CTreeNode readNode(ModelReader in, CTreeNode parent) {
+        int id = in.readInt();
+        CTreeNode node;
+        if (parent == null) {
+            node = new CTreeNode(id, null, in.readString(), RowPredicate.all(), 0);
+        } else {
+            RowPredicate predicate = RowPredicate.read(in);
+            String groupName = in.readString();
+            node = new CTreeNode(id, parent, groupName == null ? predicate.toString() : groupName, predicate, parent.depth + 1);
+        }
+        node.leaf = in.readBoolean();
+        node.bestIndex = in.readInt();
+        node.density = readDVector(in);
+        node.counter = readDVector(in);
+        if (in.readBoolean()) {
+            node.bestCandidate = new CTreeCandidate(in.readDouble(), in.readString());
+        }
+        int childCount = in.readInt();
+        for (int i = 0; i < childCount; i++) {
+            CTreeNode child = readNode(in, node);
+            node.children.add(child);
+            if (node.bestCandidate != null) {
+                node.bestCandidate.addGroup(child.predicate);
+            }
+        }
+        return node;
+    }
+
+    private DVector readDVector(ModelReader in) {
+        double[] values = in.readDoubles();
+        DVector dv = DVector.empty(false, firstTargetLevels());
+        for (int i = 0; i < values.length; i++) {
+            dv.set(i, values[i]);
+        }
+        return dv;
+    }
+
     @Override
     public CTree withInputFilters(List<FFilter> filters) {
         return (CTree) super.withInputFilters(filters);
@@ -27,8 +27,11 @@
 
 package rapaio.ml.classifier.tree;
 
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import rapaio.core.RandomSource;
 import rapaio.data.Frame;
 import rapaio.util.Tag;
+import rapaio.util.Util;
 import rapaio.util.ValuePair;
 
 import java.io.Serializable;
@@ -37,7 +40,10 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Random;
 import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * Pruning techniques
@@ -54,6 +60,27 @@ public interface CTreePruning extends Serializable {
      * Reduced error pruning, according with Quinlan for ID3, Described in Tom Mitchell
      */
     Tag<CTreePruning> REDUCED_ERROR = Tag.valueOf("ReducedError", ReducedErrorPruning::prune);
+    /**
+     * Minimal cost-complexity pruning, according with Breiman et al. for CART.
+     * The sequence of nested subtrees is evaluated on the frame received for pruning
+     * and the subtree with the smallest error is kept.
+     */
+    Tag<CTreePruning> COST_COMPLEXITY = Tag.valueOf("CostComplexity", new CostComplexityPruning(0));
+
+    /**
+     * Minimal cost-complexity pruning with the complexity parameter selected by
+     * cross validation. The folds are built from the frame received for pruning,
+     * which is the training frame if no pruning frame is given.
+     *
+     * @param folds number of cross validation folds
+     * @return pruning tag
+     */
+    static Tag<CTreePruning> costComplexityCV(int folds) {
+        if (folds < 2) {
+            throw new IllegalArgumentException("Number of folds must be at least 2.");
+        }
+        return Tag.valueOf("CostComplexityCV(" + folds + ")", new CostComplexityPruning(folds));
+    }
 
     default CTree prune(CTree tree, Frame df) {
         return prune(tree, df, false);
@@ -194,3 +221,260 @@ class ReducedErrorPruning {
         }
     }
 }
+
+/**
+ * Minimal cost-complexity pruning.
+ * <p>
+ * Node statistics are collected in a single bottom-up pass over the fitted tree and
+ * the sequence of complexity parameters is produced by weakest link cutting, where
+ * each cut updates only the ancestors of the collapsed node. For each node we keep
+ * the complexity value at which it becomes a leaf, thus any subtree of the sequence
+ * is described without copying the tree.
+ * <p>
+ * Evaluation frames are routed once through the full tree, collecting the errors of
+ * the majority class of each node visited by each row. The error of any subtree is
+ * the sum of the errors collected in its leaves.
+ */
+class CostComplexityPruning implements CTreePruning {
+
+    private static final long serialVersionUID = 4093720866213958231L;
+
+    private final int folds;
+
+    CostComplexityPruning(int folds) {
+        this.folds = folds;
+    }
+
+    @Override
+    public CTree prune(CTree tree, Frame df, boolean all) {
+        AlphaPath path = new AlphaPath(tree);
+        double[] alphas = path.alphas();
+        if (alphas.length == 1) {
+            return tree;
+        }
+        double[] errors = (folds < 2) ? path.errors(tree, df, alphas) : cvErrors(tree, df, alphas);
+
+        // the last of the minimal errors selects the smallest subtree
+        int best = 0;
+        for (int i = 1; i < errors.length; i++) {
+            if (errors[i] <= errors[best]) {
+                best = i;
+            }
+        }
+        path.prune(alphas[best]);
+        if (tree.runningHook() != null) {
+            tree.runningHook().accept(tree, tree.countNodes(false));
+        }
+        return tree;
+    }
+
+    private double[] cvErrors(CTree tree, Frame df, double[] alphas) {
+
+        // each subtree is represented by the geometric mean of the interval of alpha values
+
+        double[] betas = new double[alphas.length];
+        for (int i = 0; i < alphas.length - 1; i++) {
+            betas[i] = Math.sqrt(alphas[i] * alphas[i + 1]);
+        }
+        betas[alphas.length - 1] = alphas[alphas.length - 1];
+
+        int[] rows = IntStream.range(0, df.rowCount()).toArray();
+        Random random = RandomSource.getRandom();
+        for (int i = rows.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = rows[i];
+            rows[i] = rows[j];
+            rows[j] = tmp;
+        }
+
+        double[] errors = new double[alphas.length];
+        List<double[]> foldErrors = Util.rangeStream(folds, tree.runPoolSize() > 0).mapToObj(fold -> {
+            int[] test = IntStream.range(0, rows.length).filter(i -> i % folds == fold).map(i -> rows[i]).toArray();
+            int[] train = IntStream.range(0, rows.length).filter(i -> i % folds != fold).map(i -> rows[i]).toArray();
+            CTree foldTree = tree.newInstance();
+            foldTree.fit(df.mapRows(train), tree.firstTargetName());
+            return new AlphaPath(foldTree).errors(foldTree, df.mapRows(test), betas);
+        }).collect(Collectors.toList());
+        for (double[] foldError : foldErrors) {
+            for (int i = 0; i < errors.length; i++) {
+                errors[i] += foldError[i];
+            }
+        }
+        return errors;
+    }
+
+    /**
+     * Sequence of nested subtrees of a fitted tree, described by the complexity
+     * value at which each internal node becomes a leaf.
+     */
+    private static final class AlphaPath {
+
+        private final List<CTreeNode> nodes = new ArrayList<>();
+        private final Int2IntOpenHashMap index = new Int2IntOpenHashMap();
+        private final int[] parent;
+        private final double[] collapse;
+        private final double[] alphas;
+
+        AlphaPath(CTree tree) {
+            collectNodes(tree.getRoot());
+            int len = nodes.size();
+            parent = new int[len];
+            collapse = new double[len];
+
+            // node errors on training data, relative to the total weight of the tree
+
+            double total = nodes.get(0).getDensity().sum();
+            double[] r = new double[len];
+            double[] subtreeR = new double[len];
+            int[] leaves = new int[len];
+            for (int i = 0; i < len; i++) {
+                CTreeNode node = nodes.get(i);
+                parent[i] = node.getParent() == null ? -1 : index.get(node.getParent().getId());
+                r[i] = total == 0 ? 0 : node.getDensity().sumExcept(node.getBestIndex()) / total;
+                collapse[i] = node.isLeaf() ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+            }
+
+            // bottom-up pass, children are after their parents in preorder
+
+            for (int i = len - 1; i >= 0; i--) {
+                if (nodes.get(i).isLeaf()) {
+                    subtreeR[i] = r[i];
+                    leaves[i] = 1;
+                }
+                if (parent[i] >= 0) {
+                    subtreeR[parent[i]] += subtreeR[i];
+                    leaves[parent[i]] += leaves[i];
+                }
+            }
+
+            // weakest link cutting
+
+            List<Double> sequence = new ArrayList<>();
+            sequence.add(0.0);
+            double[] g = new double[len];
+            while (collapse[0] == Double.POSITIVE_INFINITY) {
+                double min = Double.POSITIVE_INFINITY;
+                for (int i = 0; i < len; i++) {
+                    if (collapse[i] != Double.POSITIVE_INFINITY) {
+                        continue;
+                    }
+                    g[i] = leaves[i] <= 1 ? 0 : Math.max(0, (r[i] - subtreeR[i]) / (leaves[i] - 1));
+                    min = Math.min(min, g[i]);
+                }
+                double alpha = Math.max(min, sequence.get(sequence.size() - 1));
+                for (int i = 0; i < len; i++) {
+                    if (collapse[i] != Double.POSITIVE_INFINITY || g[i] > min + 1e-12) {
+                        continue;
+                    }
+                    collapse[i] = alpha;
+                    collapseDescendants(i, alpha);
+                    double deltaR = r[i] - subtreeR[i];
+                    int deltaLeaves = 1 - leaves[i];
+                    for (int p = i; p >= 0; p = parent[p]) {
+                        subtreeR[p] += deltaR;
+                        leaves[p] += deltaLeaves;
+                    }
+                }
+                if (alpha > sequence.get(sequence.size() - 1)) {
+                    sequence.add(alpha);
+                }
+            }
+            alphas = sequence.stream().mapToDouble(Double::doubleValue).toArray();
+        }
+
+        private void collectNodes(CTreeNode node) {
+            index.put(node.getId(), nodes.size());
+            nodes.add(node);
+            for (CTreeNode child : node.getChildren()) {
+                collectNodes(child);
+            }
+        }
+
+        private void collapseDescendants(int i, double alpha) {
+            for (CTreeNode child : nodes.get(i).getChildren()) {
+                int c = index.get(child.getId());
+                if (collapse[c] == Double.POSITIVE_INFINITY) {
+                    collapse[c] = alpha;
+                }
+                collapseDescendants(c, alpha);
+            }
+        }
+
+        double[] alphas() {
+            return alphas;
+        }
+
+        private boolean isLeaf(int i, double alpha) {
+            return collapse[i] <= alpha;
+        }
+
+        /**
+         * Computes the number of misclassified rows of the subtree of each given
+         * complexity value, with a single routing of the rows through the tree.
+         */
+        double[] errors(CTree tree, Frame df, double[] alphas) {
+            double[] nodeErrors = new double[nodes.size()];
+            int targetIndex = df.varIndex(tree.firstTargetName());
+            for (int row = 0; row < df.rowCount(); row++) {
+                if (df.isMissing(row, targetIndex)) {
+                    continue;
+                }
+                int y = df.getInt(row, targetIndex);
+                CTreeNode node = nodes.get(0);
+                while (true) {
+                    if (y != node.getBestIndex()) {
+                        nodeErrors[index.get(node.getId())]++;
+                    }
+                    if (node.isLeaf()) {
+                        break;
+                    }
+                    node = route(node, df, row);
+                }
+            }
+            double[] errors = new double[alphas.length];
+            for (int i = 0; i < alphas.length; i++) {
+                errors[i] = subtreeErrors(0, alphas[i], nodeErrors);
+            }
+            return errors;
+        }
+
+        private CTreeNode route(CTreeNode node, Frame df, int row) {
+            CTreeNode maxChild = null;
+            double maxWeight = Double.NEGATIVE_INFINITY;
+            for (CTreeNode child : node.getChildren()) {
+                if (child.getPredicate().test(row, df)) {
+                    return child;
+                }
+                if (maxWeight < child.getCounter().sum()) {
+                    maxChild = child;
+                    maxWeight = child.getCounter().sum();
+                }
+            }
+            // if missing value
+            return maxChild;
+        }
+
+        private double subtreeErrors(int i, double alpha, double[] nodeErrors) {
+            if (isLeaf(i, alpha)) {
+                return nodeErrors[i];
+            }
+            double sum = 0;
+            for (CTreeNode child : nodes.get(i).getChildren()) {
+                sum += subtreeErrors(index.get(child.getId()), alpha, nodeErrors);
+            }
+            return sum;
+        }
+
+        /**
+         * Cuts the tree to the subtree of the given complexity value.
+         */
+        void prune(double alpha) {
+            for (int i = 0; i < nodes.size(); i++) {
+                CTreeNode node = nodes.get(i);
+                if (!node.isLeaf() && isLeaf(i, alpha)) {
+                    node.cut();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.classifier.tree;
+
+import rapaio.core.tools.DVector;
+import rapaio.ml.classifier.CScorer;
+import rapaio.ml.common.predicate.ArrayPredicate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Scorer of classification trees, which follows the nodes of the tree directly
+ * on the row values.
+ * <p>
+ * Nodes are flattened in arrays, with node predicates bound to the positions of
+ * row values. Densities of leaves are normalized once, when the scorer is built.
+ * A row with a missing value on a node test is scored as the mixture of children
+ * densities, weighted by the children densities sums, like in {@link CTree}. When
+ * the densities are not requested, a buffer for each thread is used for that case.
+ * Ties in mixtures are resolved to the first level with maximal density.
+ */
+final class CTreeScorer implements CScorer {
+
+    private final String[] inputNames;
+    private final List<String> levels;
+
+    private final ArrayPredicate[] predicates;
+    private final int[][] children;
+    private final int[] bestIndex;
+    private final double[][] densities;
+    private final double[] weights;
+    private final ThreadLocal<double[]> buffer;
+
+    CTreeScorer(CTree tree, String[] inputNames) {
+        this.inputNames = inputNames;
+        this.levels = tree.firstTargetLevels();
+
+        List<CTreeNode> nodes = new ArrayList<>();
+        collect(tree.getRoot(), nodes);
+        predicates = new ArrayPredicate[nodes.size()];
+        children = new int[nodes.size()][];
+        bestIndex = new int[nodes.size()];
+        densities = new double[nodes.size()][];
+        weights = new double[nodes.size()];
+
+        int next = 1;
+        for (int i = 0; i < nodes.size(); i++) {
+            CTreeNode node = nodes.get(i);
+            // the root predicate is never tested
+            predicates[i] = (i == 0) ? null : node.getPredicate().bind(inputNames);
+            weights[i] = node.getDensity().sum();
+            if (node.isLeaf()) {
+                children[i] = new int[0];
+                bestIndex[i] = node.getBestIndex();
+                DVector density = node.getDensity().solidCopy().normalize();
+                densities[i] = new double[levels.size()];
+                for (int j = 0; j < levels.size(); j++) {
+                    densities[i][j] = density.get(j);
+                }
+                continue;
+            }
+            // children are collected in breadth first order
+            children[i] = new int[node.getChildren().size()];
+            for (int j = 0; j < children[i].length; j++) {
+                children[i][j] = next++;
+            }
+        }
+        buffer = ThreadLocal.withInitial(() -> new double[levels.size()]);
+    }
+
+    private static void collect(CTreeNode root, List<CTreeNode> nodes) {
+        nodes.add(root);
+        for (int i = 0; i < nodes.size(); i++) {
+            if (!nodes.get(i).isLeaf()) {
+                nodes.addAll(nodes.get(i).getChildren());
+            }
+        }
+    }
+
+    @Override
+    public String[] inputNames() {
+        return inputNames;
+    }
+
+    @Override
+    public List<String> levels() {
+        return levels;
+    }
+
+    @Override
+    public int score(double[] row, double[] out) {
+        if (row.length != inputNames.length) {
+            throw new IllegalArgumentException("Row has " + row.length + " values, scorer expects " + inputNames.length + ".");
+        }
+        int node = 0;
+        while (children[node].length > 0) {
+            int next = -1;
+            for (int child : children[node]) {
+                if (predicates[child].test(row)) {
+                    next = child;
+                    break;
+                }
+            }
+            if (next == -1) {
+                return mixture(node, row, out);
+            }
+            node = next;
+        }
+        if (out != null) {
+            System.arraycopy(densities[node], 0, out, 0, densities[node].length);
+        }
+        return bestIndex[node];
+    }
+
+    private int mixture(int node, double[] row, double[] out) {
+        double[] dv = (out != null) ? out : buffer.get();
+        for (int i = 0; i < levels.size(); i++) {
+            dv[i] = 0;
+        }
+        add(node, row, 1.0, dv);
+        int best = 1;
+        for (int i = 2; i < levels.size(); i++) {
+            if (dv[i] > dv[best]) {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Adds to the mixture the density of the given node scaled with its weight in the mixture.
+     */
+    private void add(int node, double[] row, double factor, double[] dv) {
+        if (children[node].length == 0) {
+            for (int i = 0; i < densities[node].length; i++) {
+                dv[i] += factor * densities[node][i];
+            }
+            return;
+        }
+        for (int child : children[node]) {
+            if (predicates[child].test(row)) {
+                add(child, row, factor, dv);
+                return;
+            }
+        }
+        double total = 0;
+        for (int child : children[node]) {
+            total += weights[child];
+        }
+        for (int child : children[node]) {
+            add(child, row, factor * weights[child] / total, dv);
+        }
+    }
+}
@@ -118,24 +118,30 @@ public interface CTreeTest extends Tagged, Serializable {
             int targetNameIndex = df.varIndex(targetName);
             DTable dt = DTable.empty(DTable.NUMERIC_DEFAULT_LABELS, df.levels(targetName), false);
 
-            int[] rows = new int[df.rowCount()];
+            int rowCount = df.rowCount();
+            Var test = df.rvar(testNameIndex);
+            double[] values = new double[rowCount];
+            test.copyDoubles(0, rowCount, values, 0);
+            int[] targets = new int[rowCount];
+            df.copyInts(targetNameIndex, 0, rowCount, targets, 0);
+            double[] w = weights.doubleArray();
+            // for numeric types missing values are read as NaN
+            boolean numeric = test.type().isNumeric();
+
+            int[] rows = new int[rowCount];
             int len = 0;
-            for (int i = 0; i < df.rowCount(); i++) {
-                boolean missing = df.isMissing(i, testNameIndex);
+            for (int i = 0; i < rowCount; i++) {
+                boolean missing = numeric ? Double.isNaN(values[i]) : test.isMissing(i);
                 int row = missing ? 0 : 2;
                 if (!missing) {
                     rows[len++] = i;
                 }
-                dt.update(row, df.getInt(i, targetNameIndex), weights.getDouble(i));
+                dt.update(row, targets[i], w[i]);
             }
-            int misCount = df.rowCount() - len;
+            int misCount = rowCount - len;
 
-            double[] values = new double[df.rowCount()];
-            for (int i = 0; i < df.rowCount(); i++) {
-                values[i] = df.getDouble(i, testNameIndex);
-            }
             IntComparator comparator = (i, j) -> Double.compare(values[i], values[j]);
-            IntArrays.quickSort(rows, comparator);
+            IntArrays.quickSort(rows, 0, len, comparator);
 
             CTreeCandidate best = null;
             double bestScore = 0.0;
@@ -143,15 +149,13 @@ public interface CTreeTest extends Tagged, Serializable {
             for (int i = 0; i < len; i++) {
                 int row = rows[i];
 
-                if (df.isMissing(row, testNameIndex)) continue;
-
-                int index = df.getInt(row, targetNameIndex);
-                double w = weights.getDouble(row);
-                dt.update(2, index, -w);
-                dt.update(1, index, +w);
+                int index = targets[row];
+                dt.update(2, index, -w[row]);
+                dt.update(1, index, +w[row]);
 
                 if (i >= misCount + c.minCount() - 1 &&
-                        i < df.rowCount() - c.minCount() &&
+                        i < rowCount - c.minCount() &&
+                        i + 1 < len &&
                         values[rows[i]] < values[rows[i + 1]]) {
 
                     double currentScore = function.compute(dt);
@@ -27,7 +27,11 @@
 
 package rapaio.ml.clustering;
 
+import rapaio.core.RandomSource;
+import rapaio.data.Frame;
+import rapaio.data.VRange;
 import rapaio.data.Var;
+import rapaio.ml.common.distance.Distance;
 import rapaio.printer.*;
 
 import java.util.ArrayList;
@@ -35,6 +39,8 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.stream.IntStream;
 
 /**
  * Computes cluster silhouette information based
@@ -47,17 +53,164 @@ import java.util.Map;
  * Distance matrix should have the same length as the number of clusters
  * considered.
  * <p>
+ * Silhouettes can also be computed directly from the points, without a distance
+ * matrix, in parallel blocks of rows. For large data sets the sampled mode computes
+ * exact silhouettes only for a random sample of rows and estimates the average
+ * widths with a standard error, while the simplified mode replaces the average
+ * distances to clusters with the distances to cluster centroids.
+ * <p>
  * Created by <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a> on 9/13/17.
  */
 public class ClusterSilhouette implements Printable, DefaultPrintable {
 
     public static ClusterSilhouette from(Var asgn, DistanceMatrix d, boolean similarity) {
-        return new ClusterSilhouette(asgn, d, similarity);
+        ClusterSilhouette cs = new ClusterSilhouette(asgn, d.length(), similarity, d.names());
+        cs.compute(IntStream.range(0, d.length()).toArray(), d::get);
+        return cs;
+    }
+
+    /**
+     * Computes exact silhouettes from the points of a data frame, without building
+     * a distance matrix. Memory usage is linear in the number of rows, the distances
+     * are computed in parallel blocks of rows.
+     *
+     * @param df       data frame with points
+     * @param asgn     cluster assignment
+     * @param distance distance between points
+     * @param varNames features used to compute distances
+     * @return silhouette information
+     */
+    public static ClusterSilhouette from(Frame df, Var asgn, Distance distance, String... varNames) {
+        ClusterSilhouette cs = new ClusterSilhouette(asgn, df.rowCount(), false, null);
+        cs.compute(IntStream.range(0, df.rowCount()).toArray(), pointDistance(df, distance, varNames));
+        return cs;
+    }
+
+    /**
+     * Computes exact silhouettes for a uniform random sample of rows, using distances
+     * to all points. The average silhouette widths are estimates, the standard error of
+     * the overall estimate is available through {@link #overallScoreStdError()}.
+     *
+     * @param df         data frame with points
+     * @param asgn       cluster assignment
+     * @param distance   distance between points
+     * @param sampleSize number of rows used to estimate average widths
+     * @param varNames   features used to compute distances
+     * @return silhouette information
+     */
+    public static ClusterSilhouette sampled(Frame df, Var asgn, Distance distance, int sampleSize, String... varNames) {
+        if (sampleSize < 2) {
+            throw new IllegalArgumentException("Sample size must be at least 2.");
+        }
+        int rows = df.rowCount();
+        int size = Math.min(sampleSize, rows);
+        // partial Fisher-Yates shuffle for the first size positions
+        int[] perm = IntStream.range(0, rows).toArray();
+        Random random = RandomSource.getRandom();
+        for (int i = 0; i < size; i++) {
+            int j = i + random.nextInt(rows - i);
+            int tmp = perm[i];
+            perm[i] = perm[j];
+            perm[j] = tmp;
+        }
+        int[] sample = Arrays.copyOf(perm, size);
+        Arrays.sort(sample);
+
+        ClusterSilhouette cs = new ClusterSilhouette(asgn, rows, false, null);
+        cs.compute(sample, pointDistance(df, distance, varNames));
+        return cs;
     }
 
+    /**
+     * Computes simplified silhouettes, where the average distance to the own cluster
+     * is replaced by the distance to the own cluster centroid and the average distance
+     * to the neighbour cluster by the distance to the closest other centroid.
+     * Centroids are computed as feature means of the points from each cluster.
+     * It needs a single pass over the data.
+     *
+     * @param df       data frame with points
+     * @param asgn     cluster assignment
+     * @param distance distance between points
+     * @param varNames features used to compute distances
+     * @return silhouette information
+     */
+    public static ClusterSilhouette simplified(Frame df, Var asgn, Distance distance, String... varNames) {
+        ClusterSilhouette cs = new ClusterSilhouette(asgn, df.rowCount(), false, null);
+        String[] names = VRange.of(varNames).parseVarNames(df).toArray(new String[0]);
+        double[][] points = points(df, names);
+        double[][] centroids = new double[cs.clusterIds.length][names.length];
+        for (int row = 0; row < points.length; row++) {
+            double[] centroid = centroids[cs.clusterOf[row]];
+            for (int j = 0; j < names.length; j++) {
+                centroid[j] += points[row][j];
+            }
+        }
+        for (int c = 0; c < centroids.length; c++) {
+            for (int j = 0; j < names.length; j++) {
+                centroids[c][j] /= cs.clusterSize[c];
+            }
+        }
+        cs.computeSimplified(points, centroids, distance);
+        return cs;
+    }
+
+    /**
+     * Computes simplified silhouettes for the clustering produced by k-means,
+     * using the centroids found by the algorithm.
+     *
+     * @param kMeans fitted k-means
+     * @param df     data frame clustered by k-means
+     * @return silhouette information
+     */
+    public static ClusterSilhouette simplified(KMeans kMeans, Frame df) {
+        Var asgn = kMeans.clusterAssignment();
+        Frame c = kMeans.centroids();
+        if (asgn == null || c == null) {
+            throw new IllegalArgumentException("KMeans clustering was not computed.");
+        }
+        ClusterSilhouette cs = new ClusterSilhouette(asgn, df.rowCount(), false, null);
+        double[][] points = points(df, c.varNames());
+        double[][] centroids = new double[cs.clusterIds.length][];
+        double[][] kmCentroids = points(c, c.varNames());
+        for (int row = 0; row < asgn.rowCount(); row++) {
+            centroids[cs.clusterOf[row]] = kmCentroids[asgn.getInt(row)];
+        }
+        cs.computeSimplified(points, centroids, kMeans.distance());
+        return cs;
+    }
+
+    @FunctionalInterface
+    private interface RowDistance {
+        double get(int row1, int row2);
+    }
+
+    private static double[][] points(Frame df, String[] varNames) {
+        double[][] points = new double[df.rowCount()][varNames.length];
+        for (int j = 0; j < varNames.length; j++) {
+            int varIndex = df.varIndex(varNames[j]);
+            for (int i = 0; i < df.rowCount(); i++) {
+                points[i][j] = df.getDouble(i, varIndex);
+            }
+        }
+        return points;
+    }
+
+    private static RowDistance pointDistance(Frame df, Distance distance, String... varNames) {
+        String[] names = VRange.of(varNames).parseVarNames(df).toArray(new String[0]);
+        if (!distance.hasArrayCompute()) {
+            return (row1, row2) -> distance.compute(df, row1, df, row2, names)._1;
+        }
+        double[][] points = points(df, names);
+        return (row1, row2) -> distance.distance(points[row1], points[row2]);
+    }
+
+    // rows processed by a parallel task
+    private static final int BLOCK_SIZE = 64;
+
     private final Var assignment;
-    private final DistanceMatrix d;
     private final boolean similarity; // true is similarity, false if distance
+    private final String[] names;
+    private final int rowCount;
 
     private boolean debug = false;
 
@@ -67,35 +220,28 @@ public class ClusterSilhouette implements Printable, DefaultPrintable {
     private double[] b; // score with neighbour cluster for each instance
     private double[] s; // silhouette score of each instance
     private int[] n; // neighbour cluster index
+    private int[] evaluated; // rows for which silhouettes are computed
 
     private Map<String, Integer> clusterIndex = new HashMap<>();
     private String[] clusterIds;
+    private int[] clusterOf;
+    private int[] clusterSize;
     private double[] clusterScore;
     private double overallScore;
+    private double overallScoreStdError;
 
     private List<Integer> clusterOrder;
     private List<List<Integer>> instanceOrder;
 
-    private ClusterSilhouette(Var assignment, DistanceMatrix d, boolean similarity) {
+    private ClusterSilhouette(Var assignment, int rowCount, boolean similarity, String[] names) {
         this.assignment = assignment;
-        this.d = d;
+        this.rowCount = rowCount;
         this.similarity = similarity;
+        this.names = names;
 
-        compute();
-    }
-
-    public ClusterSilhouette withDebug(boolean debug) {
-        this.debug = debug;
-        return this;
-    }
-
-    private int getCluster(int row) {
-        return clusterIndex.get(assignment.getLabel(row));
-    }
-
-    private void compute() {
-        int len = d.length();
-
+        if (assignment.rowCount() != rowCount) {
+            throw new IllegalArgumentException("Assignment variable does not have the same number of rows as the data.");
+        }
         for (int i = 0; i < assignment.rowCount(); i++) {
             if (assignment.isMissing(i)) {
                 throw new IllegalArgumentException("Assignment variable contains missing data");
@@ -109,67 +255,103 @@ public class ClusterSilhouette implements Printable, DefaultPrintable {
         for (Map.Entry<String, Integer> entry : clusterIndex.entrySet()) {
             clusterIds[entry.getValue()] = entry.getKey();
         }
-
-        int clusters = clusterIds.length;
-        if (clusters == 1) {
+        if (clusterIds.length == 1) {
             throw new IllegalArgumentException("Silhouettes cannot be computed for a signle cluster.");
         }
+        clusterOf = new int[rowCount];
+        clusterSize = new int[clusterIds.length];
+        for (int i = 0; i < rowCount; i++) {
+            clusterOf[i] = clusterIndex.get(assignment.getLabel(i));
+            clusterSize[clusterOf[i]]++;
+        }
+    }
 
-        // compute individual a and b vectors
-
-        int rows = d.length();
+    public ClusterSilhouette withDebug(boolean debug) {
+        this.debug = debug;
+        return this;
+    }
 
-        a = new double[rows];
-        b = new double[rows];
-        n = new int[rows];
+    private void compute(int[] rows, RowDistance d) {
+        int clusters = clusterIds.length;
 
-        Arrays.fill(b, Double.NaN);
+        initArtifacts(rows);
 
+        // compute individual a and b vectors, in parallel blocks of rows
 
-        for (int row = 0; row < rows; row++) {
+        int blocks = (rows.length + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        IntStream.range(0, blocks).parallel().forEach(block -> {
             double[] sum = new double[clusters];
-            int[] count = new int[clusters];
+            int end = Math.min(rows.length, (block + 1) * BLOCK_SIZE);
+            for (int pos = block * BLOCK_SIZE; pos < end; pos++) {
+                int row = rows[pos];
+                Arrays.fill(sum, 0);
+                for (int i = 0; i < rowCount; i++) {
+                    if (i == row) {
+                        continue;
+                    }
+                    sum[clusterOf[i]] += d.get(row, i);
+                }
 
-            for (int i = 0; i < rows; i++) {
-                if (i == row) {
-                    continue;
+                int cluster = clusterOf[row];
+                int ownCount = clusterSize[cluster] - 1;
+                a[row] = ownCount == 0 ? 0 : sum[cluster] / ownCount;
+                for (int i = 0; i < clusters; i++) {
+                    if (i == cluster || clusterSize[i] == 0) {
+                        continue;
+                    }
+                    double score = sum[i] / clusterSize[i];
+                    if (Double.isNaN(b[row])
+                            || (similarity && score > b[row])
+                            || (!similarity && score < b[row])) {
+                        b[row] = score;
+                        n[row] = i;
+                    }
                 }
-                int cluster = getCluster(i);
-                count[cluster]++;
-                sum[cluster] += d.get(row, i);
+                s[row] = (b[row] - a[row]) / Math.max(a[row], b[row]);
             }
+        });
+
+        aggregate();
+    }
 
-            int cluster = getCluster(row);
-            a[row] = count[cluster] == 0 ? 0 : sum[cluster] / count[cluster];
+    private void computeSimplified(double[][] points, double[][] centroids, Distance distance) {
+        int clusters = clusterIds.length;
+        int[] rows = IntStream.range(0, rowCount).toArray();
+        initArtifacts(rows);
+
+        IntStream.range(0, rowCount).parallel().forEach(row -> {
+            int cluster = clusterOf[row];
             for (int i = 0; i < clusters; i++) {
-                if (i == cluster || count[i] == 0) {
+                double dist = distance.distance(points[row], centroids[i]);
+                if (i == cluster) {
+                    a[row] = dist;
                     continue;
                 }
-                if (Double.isNaN(b[row])) {
-                    b[row] = sum[i] / count[i];
+                if (Double.isNaN(b[row]) || dist < b[row]) {
+                    b[row] = dist;
                     n[row] = i;
-                } else {
-                    if (similarity) {
-                        if ((sum[i] / count[i]) > b[row]) {
-                            b[row] = sum[i] / count[i];
-                            n[row] = i;
-                        }
-                    } else {
-                        if ((sum[i] / count[i]) < b[row]) {
-                            b[row] = sum[i] / count[i];
-                            n[row] = i;
-                        }
-                    }
                 }
             }
-        }
+            double max = Math.max(a[row], b[row]);
+            s[row] = max == 0 ? 0 : (b[row] - a[row]) / max;
+        });
 
-        // compute individual silhouettes
+        aggregate();
+    }
 
-        s = new double[rows];
-        for (int i = 0; i < rows; i++) {
-            s[i] = (b[i] - a[i]) / Math.max(a[i], b[i]);
-        }
+    private void initArtifacts(int[] rows) {
+        evaluated = rows;
+        a = new double[rowCount];
+        b = new double[rowCount];
+        s = new double[rowCount];
+        n = new int[rowCount];
+        Arrays.fill(a, Double.NaN);
+        Arrays.fill(b, Double.NaN);
+        Arrays.fill(s, Double.NaN);
+    }
+
+    private void aggregate() {
+        int clusters = clusterIds.length;
 
         // compute cluster score averages and overall average score
 
@@ -177,9 +359,9 @@ public class ClusterSilhouette implements Printable, DefaultPrintable {
         int tcount = 0;
         double tsum = 0;
         double[] sum = new double[clusters];
-        for (int i = 0; i < rows; i++) {
-            count[getCluster(i)]++;
-            sum[getCluster(i)] += s[i];
+        for (int i : evaluated) {
+            count[clusterOf[i]]++;
+            sum[clusterOf[i]] += s[i];
             tcount++;
             tsum += s[i];
         }
@@ -189,6 +371,19 @@ public class ClusterSilhouette implements Printable, DefaultPrintable {
         }
         overallScore = tsum / tcount;
 
+        // standard error of the overall average, with finite population correction,
+        // which is 0 when all rows are evaluated
+
+        overallScoreStdError = 0;
+        if (tcount < rowCount) {
+            double ss = 0;
+            for (int i : evaluated) {
+                ss += (s[i] - overallScore) * (s[i] - overallScore);
+            }
+            double variance = ss / (tcount - 1);
+            overallScoreStdError = Math.sqrt(variance / tcount * (1 - tcount / (double) rowCount));
+        }
+
         // build cluster order
 
         clusterOrder = new ArrayList<>();
@@ -199,19 +394,64 @@ public class ClusterSilhouette implements Printable, DefaultPrintable {
 
         // build instance order
 
+        List<List<Integer>> instances = new ArrayList<>();
+        for (int i = 0; i < clusters; i++) {
+            instances.add(new ArrayList<>());
+        }
+        for (int i : evaluated) {
+            instances.get(clusterOf[i]).add(i);
+        }
         instanceOrder = new ArrayList<>();
         for (int cluster : clusterOrder) {
-            List<Integer> instances = new ArrayList<>();
-            for (int i = 0; i < rows; i++) {
-                if (getCluster(i) == cluster) {
-                    instances.add(i);
-                }
-            }
-            instances.sort((o1, o2) -> -1 * Double.compare(s[o1], s[o2]));
-            instanceOrder.add(instances);
+            List<Integer> list = instances.get(cluster);
+            list.sort((o1, o2) -> -1 * Double.compare(s[o1], s[o2]));
+            instanceOrder.add(list);
         }
     }
 
+    /**
+     * @return cluster ids in order of their first appearance in assignment
+     */
+    public String[] clusterIds() {
+        return Arrays.copyOf(clusterIds, clusterIds.length);
+    }
+
+    /**
+     * @return average silhouette width of each cluster, in the order given by {@link #clusterIds()}
+     */
+    public double[] clusterScores() {
+        return Arrays.copyOf(clusterScore, clusterScore.length);
+    }
+
+    /**
+     * @return average silhouette width over all evaluated rows
+     */
+    public double overallScore() {
+        return overallScore;
+    }
+
+    /**
+     * @return standard error of the overall average width, which is 0 if all rows are evaluated
+     */
+    public double overallScoreStdError() {
+        return overallScoreStdError;
+    }
+
+    /**
+     * @return rows for which silhouettes are computed, all rows if silhouettes are not sampled
+     */
+    public int[] evaluatedRows() {
+        return Arrays.copyOf(evaluated, evaluated.length);
+    }
+
+    /**
+     * @param row row index
+     * @return silhouette of the given row, NaN if the row was not evaluated
+     */
+    public double score(int row) {
+        return s[row];
+    }
+
     @Override
     public String summary() {
         StringBuilder sb = new StringBuilder();
@@ -226,7 +466,7 @@ public class ClusterSilhouette implements Printable, DefaultPrintable {
                     sb.append(clusterIds[cluster]).append(" ");
                     sb.append(clusterIds[n[row]]).append(" ");
                     sb.append(String.format("%.2f ", s[row]));
-                    sb.append(d.name(row)).append(" ");
+                    sb.append(names != null ? names[row] : String.valueOf(row)).append(" ");
                     sb.append("\n");
                 }
                 sb.append("\n");
@@ -238,6 +478,12 @@ public class ClusterSilhouette implements Printable, DefaultPrintable {
             sb.append("Cluster ").append(clusterIds[cluster]).append(" has average silhouette width: ").append(clusterScore[cluster]).append("\n");
         }
         sb.append("\n");
+        sb.append("Overall average silhouette width: ").append(overallScore).append("\n");
+        if (evaluated.length < rowCount) {
+            sb.append("Estimated from ").append(evaluated.length).append(" sampled rows out of ").append(rowCount)
+                    .append(", standard error: ").append(overallScoreStdError).append("\n");
+        }
+        sb.append("\n");
 
         return sb.toString();
     }
@@ -67,6 +67,10 @@ public class KMeans implements Printable, DefaultPrintable {
     // clustering artifacts
 
     private String[] inputs;
+    // values of input features, read once since vars are accessed for each row in each run
+    private double[][] columns;
+    // values of input features by row, used by distances which compute on arrays
+    private double[][] points;
     private Frame centroids;
     private VarInt arrows;
     private VarDouble errors;
@@ -117,6 +121,18 @@ public class KMeans implements Printable, DefaultPrintable {
         validate(df, varNames);
 
         inputs = VRange.of(varNames).parseVarNames(df).toArray(new String[0]);
+        columns = new double[inputs.length][];
+        for (int i = 0; i < inputs.length; i++) {
+            columns[i] = df.doubleArray(inputs[i]);
+        }
+        if (distance.hasArrayCompute()) {
+            points = new double[df.rowCount()][inputs.length];
+            for (int j = 0; j < inputs.length; j++) {
+                for (int i = 0; i < df.rowCount(); i++) {
+                    points[i][j] = columns[j][i];
+                }
+            }
+        }
 
         Frame bestCentroids = init.get().init(df, inputs, k);
         double bestError = computeError(df, bestCentroids);
@@ -176,6 +192,8 @@ public class KMeans implements Printable, DefaultPrintable {
             }
         }
         buildSummary(df);
+        columns = null;
+        points = null;
         learned = true;
     }
 
@@ -190,11 +208,43 @@ public class KMeans implements Printable, DefaultPrintable {
         }
     }
 
+    /**
+     * @return centroid values by row if distances are computed on arrays, null otherwise
+     */
+    private double[][] centroidPoints(Frame centroids) {
+        if (points == null) {
+            return null;
+        }
+        double[][] values = new double[centroids.rowCount()][inputs.length];
+        for (int j = 0; j < inputs.length; j++) {
+            int varIndex = centroids.varIndex(inputs[j]);
+            for (int i = 0; i < centroids.rowCount(); i++) {
+                values[i][j] = centroids.getDouble(i, varIndex);
+            }
+        }
+        return values;
+    }
+
+    private double rowDistance(Frame df, int row, Frame centroids, double[][] centroidPoints, int c) {
+        if (centroidPoints != null) {
+            return distance.distance(points[row], centroidPoints[c]);
+        }
+        return distance.compute(df, row, centroids, c, inputs)._1;
+    }
+
+    private double rowError(Frame df, int row, Frame centroids, double[][] centroidPoints, int c) {
+        if (centroidPoints != null) {
+            return distance.error(points[row], centroidPoints[c]);
+        }
+        return distance.compute(df, row, centroids, c, inputs)._2;
+    }
+
     private double computeError(Frame df, Frame centroids) {
+        double[][] centroidPoints = centroidPoints(centroids);
         return IntStream.range(0, df.rowCount()).parallel().mapToDouble(j -> {
             double d = Double.NaN;
             for (int c = 0; c < centroids.rowCount(); c++) {
-                double dd = distance.compute(df, j, centroids, c, inputs)._2;
+                double dd = rowError(df, j, centroids, centroidPoints, c);
                 if (!Double.isFinite(dd)) continue;
                 d = Double.isNaN(d) ? dd : Math.min(dd, d);
             }
@@ -207,30 +257,22 @@ public class KMeans implements Printable, DefaultPrintable {
 
     private void assignToCentroids(Frame df) {
         double[] rowErrors = new double[df.rowCount()];
+        double[][] centroidPoints = centroidPoints(centroids);
         for (int i = 0; i < df.rowCount(); i++) {
             double d = Double.NaN;
-            double err = Double.NaN;
             int cluster = -1;
             for (int j = 0; j < centroids.rowCount(); j++) {
-                Pair<Double, Double> comp = distance.compute(df, i, centroids, j, inputs);
-                double dd = comp._1;
+                double dd = rowDistance(df, i, centroids, centroidPoints, j);
                 if (!Double.isFinite(dd)) continue;
-                if (!Double.isNaN(d)) {
-                    if (dd < d) {
-                        d = dd;
-                        err = comp._2;
-                        cluster = j;
-                    }
-                } else {
+                if (Double.isNaN(d) || dd < d) {
                     d = dd;
-                    err = comp._2;
                     cluster = j;
                 }
             }
             if (cluster == -1) {
                 throw new RuntimeException("cluster could not be computed");
             }
-            rowErrors[i] = err;
+            rowErrors[i] = rowError(df, i, centroids, centroidPoints, cluster);
             arrows.setInt(i, cluster);
         }
 
@@ -244,16 +286,30 @@ public class KMeans implements Printable, DefaultPrintable {
     private void recomputeCentroids(Frame df) {
 
         // we compute mean for each feature separately
-        for (String input : inputs) {
-            // collect values for each cluster in mean, for a given input feature
-            Var[] means = IntStream.range(0, k).boxed()
-                    .map(i -> VarDouble.empty())
-                    .toArray(VarDouble[]::new);
-            for (int i = 0; i < df.rowCount(); i++) {
-                means[arrows.getInt(i)].addDouble(df.getDouble(i, input));
+        // rows are grouped by cluster, keeping their order, and the values
+        // of each group are used to compute the mean
+        int n = df.rowCount();
+        int[] assignment = arrows.intArray();
+        int[] start = new int[k + 1];
+        for (int i = 0; i < n; i++) {
+            start[assignment[i] + 1]++;
+        }
+        for (int i = 0; i < k; i++) {
+            start[i + 1] += start[i];
+        }
+        int[] order = new int[n];
+        int[] next = Arrays.copyOf(start, k);
+        for (int i = 0; i < n; i++) {
+            order[next[assignment[i]]++] = i;
+        }
+        double[] grouped = new double[n];
+        for (int j = 0; j < inputs.length; j++) {
+            double[] values = columns[j];
+            for (int i = 0; i < n; i++) {
+                grouped[i] = values[order[i]];
             }
             for (int i = 0; i < k; i++) {
-                centroids.setDouble(i, input, Mean.of(means[i]).value());
+                centroids.setDouble(i, inputs[j], Mean.of(grouped, start[i], start[i + 1]).value());
             }
         }
     }
@@ -336,6 +392,10 @@ public class KMeans implements Printable, DefaultPrintable {
         return centroids;
     }
 
+    public Distance distance() {
+        return distance;
+    }
+
     public VarDouble runningErrors() {
         return errors.solidCopy();
     }
@@ -357,8 +417,9 @@ public class KMeans implements Printable, DefaultPrintable {
 
         Map<Integer, VarDouble> errors = new HashMap<>();
 
+        double[][] centroidPoints = centroidPoints(centroids);
         for (int i = 0; i < df.rowCount(); i++) {
-            double d = distance.compute(centroids, arrows.getInt(i), df, i, inputs)._2;
+            double d = rowError(df, i, centroids, centroidPoints, arrows.getInt(i));
             if (!errors.containsKey(arrows.getInt(i)))
                 errors.put(arrows.getInt(i), VarDouble.empty());
             errors.get(arrows.getInt(i)).addDouble(d);
@@ -0,0 +1,157 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.common;
+
+import rapaio.data.Frame;
+import rapaio.data.Mapping;
+import rapaio.data.VarDouble;
+
+import java.io.Serializable;
+
+/**
+ * Early stopping for models built in successive runs, like boosting models.
+ * <p>
+ * After each run the model evaluates its loss on a validation frame, using scores
+ * updated incrementally with the predictions of the last added learner, and reports it
+ * to {@link #update(double)}. Training stops when the loss did not improve for a given
+ * number of runs and the model is truncated to the number of runs with the best
+ * validation loss, available through {@link #bestRuns()}. Rows of the validation frame
+ * with a missing target value are not used to compute the loss.
+ * <p>
+ * The validation frame is used only during training and is not serialized with the model.
+ */
+public class EarlyStopping implements Serializable {
+
+    private static final long serialVersionUID = 4381137802466180237L;
+
+    /**
+     * @param validation validation frame, which contains input and target variables
+     * @param patience   number of runs without improvement after which training stops
+     * @return new early stopping instance
+     */
+    public static EarlyStopping of(Frame validation, int patience) {
+        if (validation == null) {
+            throw new IllegalArgumentException("Validation frame cannot be null.");
+        }
+        if (validation.rowCount() == 0) {
+            throw new IllegalArgumentException("Validation frame cannot be empty.");
+        }
+        if (patience < 1) {
+            throw new IllegalArgumentException("Patience must be at least 1.");
+        }
+        return new EarlyStopping(validation, patience);
+    }
+
+    private final transient Frame validation;
+    private final int patience;
+    private final VarDouble losses = VarDouble.empty().withName("loss");
+    private double bestLoss = Double.POSITIVE_INFINITY;
+    private int bestRuns = 0;
+
+    private EarlyStopping(Frame validation, int patience) {
+        this.validation = validation;
+        this.patience = patience;
+    }
+
+    /**
+     * @return new instance with the same validation frame and patience, without tracked losses
+     */
+    public EarlyStopping newInstance() {
+        return new EarlyStopping(validation, patience);
+    }
+
+    public Frame validation() {
+        return validation;
+    }
+
+    /**
+     * @param targetName name of the target variable
+     * @return rows of the validation frame with a non missing target value
+     */
+    public Frame validation(String targetName) {
+        Mapping rows = Mapping.empty();
+        for (int i = 0; i < validation.rowCount(); i++) {
+            if (!validation.isMissing(i, targetName)) {
+                rows.add(i);
+            }
+        }
+        if (rows.size() == 0) {
+            throw new IllegalArgumentException("Validation frame has no rows with a value for target variable: " + targetName + ".");
+        }
+        return rows.size() == validation.rowCount() ? validation : validation.mapRows(rows);
+    }
+
+    public int patience() {
+        return patience;
+    }
+
+    /**
+     * Registers the validation loss of the model after a new run. A loss which
+     * is not a number is registered, but never counts as an improvement.
+     *
+     * @param loss validation loss, lower is better
+     * @return true if the training should stop
+     */
+    public boolean update(double loss) {
+        losses.addDouble(loss);
+        if (loss < bestLoss) {
+            bestLoss = loss;
+            bestRuns = losses.rowCount();
+        }
+        return losses.rowCount() - bestRuns >= patience;
+    }
+
+    /**
+     * @return validation losses after each run
+     */
+    public VarDouble losses() {
+        return losses;
+    }
+
+    /**
+     * @return best validation loss
+     */
+    public double bestLoss() {
+        return bestLoss;
+    }
+
+    /**
+     * @return number of runs which gives the best validation loss, 0 if no finite loss was registered
+     */
+    public int bestRuns() {
+        return bestRuns;
+    }
+
+    /**
+     * @param runs number of fitted runs
+     * @return number of runs to keep, which are all fitted runs if no finite loss was registered
+     */
+    public int runsToKeep(int runs) {
+        return bestRuns == 0 ? runs : Math.min(bestRuns, runs);
+    }
+}
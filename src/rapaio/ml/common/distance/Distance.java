@@ -28,6 +28,9 @@
 package rapaio.ml.common.distance;
 
 import rapaio.data.Frame;
+import rapaio.data.SolidFrame;
+import rapaio.data.Var;
+import rapaio.data.VarDouble;
 import rapaio.util.Pair;
 
 import java.io.Serializable;
@@ -56,5 +59,62 @@ public interface Distance extends Serializable {
      */
     Pair<Double, Double> compute(Frame s, int sRow, Frame t, int tRow, String... varNames);
 
+    /**
+     * @return true if the distance implements {@link #compute(double[], double[])} directly
+     * on arrays, false if the arrays are wrapped into frames
+     */
+    default boolean hasArrayCompute() {
+        return false;
+    }
+
+    /**
+     * Computes the distance and the error for two instances given by arrays with
+     * the values of the features used in computation, in the same order for both
+     * instances. Missing values are represented by NaN.
+     * <p>
+     * The default implementation wraps the arrays into single row frames and calls
+     * {@link #compute(Frame, int, Frame, int, String...)}, distances which report
+     * {@link #hasArrayCompute()} work directly on arrays.
+     *
+     * @param s feature values of the first instance
+     * @param t feature values of the second instance
+     * @return a pair of values, first in pair is the distance, second in pair is the error
+     */
+    default Pair<Double, Double> compute(double[] s, double[] t) {
+        String[] names = new String[s.length];
+        Var[] sVars = new Var[s.length];
+        Var[] tVars = new Var[t.length];
+        for (int i = 0; i < s.length; i++) {
+            names[i] = "x" + i;
+            sVars[i] = VarDouble.scalar(s[i]).withName(names[i]);
+            tVars[i] = VarDouble.scalar(t[i]).withName(names[i]);
+        }
+        return compute(SolidFrame.byVars(sVars), 0, SolidFrame.byVars(tVars), 0, names);
+    }
+
+    /**
+     * Computes the distance for two instances given by arrays, without boxing
+     * for distances which work directly on arrays.
+     *
+     * @param s feature values of the first instance
+     * @param t feature values of the second instance
+     * @return distance value
+     */
+    default double distance(double[] s, double[] t) {
+        return compute(s, t)._1;
+    }
+
+    /**
+     * Computes the error for two instances given by arrays, without boxing
+     * for distances which work directly on arrays.
+     *
+     * @param s feature values of the first instance
+     * @param t feature values of the second instance
+     * @return error value
+     */
+    default double error(double[] s, double[] t) {
+        return compute(s, t)._2;
+    }
+
     Distance EUCLIDEAN = new EuclideanDistance();
 }
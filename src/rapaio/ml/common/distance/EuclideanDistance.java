@@ -64,5 +64,33 @@ public class EuclideanDistance implements Distance {
         return Pair.from(Math.sqrt(total), total);
     }
 
+    @Override
+    public boolean hasArrayCompute() {
+        return true;
+    }
+
+    @Override
+    public Pair<Double, Double> compute(double[] s, double[] t) {
+        double total = error(s, t);
+        return Pair.from(Math.sqrt(total), total);
+    }
+
+    @Override
+    public double distance(double[] s, double[] t) {
+        return Math.sqrt(error(s, t));
+    }
+
+    @Override
+    public double error(double[] s, double[] t) {
+        double total = 0;
+        for (int i = 0; i < s.length; i++) {
+            if (Double.isNaN(s[i]) || Double.isNaN(t[i]))
+                continue;
+            double delta = s[i] - t[i];
+            total += delta * delta;
+        }
+        return total;
+    }
+
 
 }
@@ -0,0 +1,146 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.common.instrument;
+
+import rapaio.printer.DefaultPrintable;
+import rapaio.printer.format.TextTable;
+
+import java.io.Serializable;
+
+/**
+ * Immutable snapshot of the timings and counters recorded by an {@link Instrument}.
+ */
+public final class FitReport implements DefaultPrintable, Serializable {
+
+    private static final long serialVersionUID = -2650360954420347917L;
+
+    private final String name;
+    private final long wallNanos;
+    private final long[] phaseNanos;
+    private final long[] phaseCalls;
+    private final long[] counters;
+    private final long allocatedBytes;
+
+    FitReport(String name, long wallNanos, long[] phaseNanos, long[] phaseCalls, long[] counters, long allocatedBytes) {
+        this.name = name;
+        this.wallNanos = wallNanos;
+        this.phaseNanos = phaseNanos;
+        this.phaseCalls = phaseCalls;
+        this.counters = counters;
+        this.allocatedBytes = allocatedBytes;
+    }
+
+    /**
+     * @return name of the instrumented model
+     */
+    public String name() {
+        return name;
+    }
+
+    /**
+     * @return elapsed time in nanoseconds since the instrument was created
+     */
+    public long wallNanos() {
+        return wallNanos;
+    }
+
+    /**
+     * @return total time in nanoseconds spent in the given phase
+     */
+    public long nanos(Instrument.Phase phase) {
+        return phaseNanos[phase.ordinal()];
+    }
+
+    /**
+     * @return number of times the given phase was recorded
+     */
+    public long calls(Instrument.Phase phase) {
+        return phaseCalls[phase.ordinal()];
+    }
+
+    /**
+     * @return value of the given counter
+     */
+    public long count(Instrument.Counter counter) {
+        return counters[counter.ordinal()];
+    }
+
+    /**
+     * @return estimated bytes allocated by the instrumented thread, or -1 if not available
+     */
+    public long allocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * @return fraction of kernel evaluations served from cache, or NaN if no kernel was evaluated
+     */
+    public double kernelCacheHitRate() {
+        long hits = count(Instrument.Counter.KERNEL_CACHE_HITS);
+        long total = hits + count(Instrument.Counter.KERNEL_CACHE_MISSES);
+        return total == 0 ? Double.NaN : hits / (double) total;
+    }
+
+    @Override
+    public String summary() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Fit report: ").append(name).append("\n");
+        sb.append("wall time: ").append(String.format("%.3f", wallNanos / 1e6)).append(" ms\n");
+        if (allocatedBytes >= 0) {
+            sb.append("allocated: ").append(allocatedBytes).append(" bytes\n");
+        }
+        sb.append("\n");
+
+        Instrument.Phase[] phases = Instrument.Phase.values();
+        TextTable tt = TextTable.empty(phases.length + 1, 3, 1, 0);
+        tt.textLeft(0, 0, "phase");
+        tt.textRight(0, 1, "calls");
+        tt.textRight(0, 2, "ms");
+        for (int i = 0; i < phases.length; i++) {
+            tt.textLeft(i + 1, 0, phases[i].name());
+            tt.textRight(i + 1, 1, String.valueOf(phaseCalls[i]));
+            tt.textRight(i + 1, 2, String.format("%.3f", phaseNanos[i] / 1e6));
+        }
+        sb.append(tt.getDefaultText()).append("\n");
+
+        Instrument.Counter[] values = Instrument.Counter.values();
+        tt = TextTable.empty(values.length + 1, 2, 1, 0);
+        tt.textLeft(0, 0, "counter");
+        tt.textRight(0, 1, "value");
+        for (int i = 0; i < values.length; i++) {
+            tt.textLeft(i + 1, 0, values[i].name());
+            tt.textRight(i + 1, 1, String.valueOf(counters[i]));
+        }
+        sb.append(tt.getDefaultText());
+        double hitRate = kernelCacheHitRate();
+        if (!Double.isNaN(hitRate)) {
+            sb.append("\nkernel cache hit rate: ").append(String.format("%.4f", hitRate)).append("\n");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.common.instrument;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects timings and counters while a model is fitted or used for prediction.
+ * <p>
+ * Models record into an instrument through {@link #start()}, {@link #stop(Phase, long)}
+ * and {@link #count(Counter, long)}. The shared {@link #NONE} instance is disabled and
+ * does not record anything; for it {@link #start()} does not even read the clock,
+ * which keeps the cost of instrumentation negligible when nobody listens.
+ * <p>
+ * An enabled instrument is safe to use from multiple threads. Phases may nest, for
+ * example split search time is also part of fit time, and when an ensemble shares
+ * its instrument with its weak learners the phases of all learners are accumulated.
+ * The allocation estimate covers only the thread which created the instrument and
+ * is available only on virtual machines which support thread allocation tracking.
+ */
+public class Instrument {
+
+    /**
+     * Timed phases of model fitting and prediction.
+     */
+    public enum Phase {
+        PREPARE,
+        FILTERS,
+        SAMPLING,
+        FIT,
+        SPLIT_SEARCH,
+        PARTITION,
+        PREDICT
+    }
+
+    /**
+     * Counted events of model fitting.
+     */
+    public enum Counter {
+        NODES,
+        CANDIDATES,
+        ROWS_SCANNED,
+        KERNEL_CACHE_HITS,
+        KERNEL_CACHE_MISSES
+    }
+
+    /**
+     * Disabled instrument, which records nothing.
+     */
+    public static final Instrument NONE = new Instrument(null, false);
+
+    /**
+     * Builds a new enabled instrument.
+     *
+     * @param name name of the instrumented model
+     * @return new enabled instrument
+     */
+    public static Instrument enabled(String name) {
+        return new Instrument(name, true);
+    }
+
+    private final String name;
+    private final boolean enabled;
+    private final LongAdder[] nanos;
+    private final LongAdder[] calls;
+    private final LongAdder[] counters;
+    private final long startNanos;
+    private final long threadId;
+    private final long startAllocated;
+
+    private Instrument(String name, boolean enabled) {
+        this.name = name;
+        this.enabled = enabled;
+        this.nanos = enabled ? adders(Phase.values().length) : null;
+        this.calls = enabled ? adders(Phase.values().length) : null;
+        this.counters = enabled ? adders(Counter.values().length) : null;
+        this.startNanos = enabled ? System.nanoTime() : 0;
+        this.threadId = Thread.currentThread().getId();
+        this.startAllocated = enabled ? allocatedBytes(threadId) : -1;
+    }
+
+    private static LongAdder[] adders(int len) {
+        LongAdder[] adders = new LongAdder[len];
+        for (int i = 0; i < len; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Marks the beginning of a timed phase.
+     *
+     * @return current time in nanoseconds, or 0 if the instrument is disabled
+     */
+    public long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Records the time spent in a phase since the given start.
+     *
+     * @param phase timed phase
+     * @param start value returned by {@link #start()}
+     */
+    public void stop(Phase phase, long start) {
+        if (enabled) {
+            nanos[phase.ordinal()].add(System.nanoTime() - start);
+            calls[phase.ordinal()].increment();
+        }
+    }
+
+    /**
+     * Adds the given value to a counter.
+     *
+     * @param counter counter
+     * @param value   value to be added
+     */
+    public void count(Counter counter, long value) {
+        if (enabled) {
+            counters[counter.ordinal()].add(value);
+        }
+    }
+
+    /**
+     * @return snapshot of the values recorded until now
+     */
+    public FitReport report() {
+        if (!enabled) {
+            throw new IllegalStateException("A disabled instrument does not produce reports.");
+        }
+        long[] phaseNanos = new long[nanos.length];
+        long[] phaseCalls = new long[calls.length];
+        long[] counterValues = new long[counters.length];
+        for (int i = 0; i < nanos.length; i++) {
+            phaseNanos[i] = nanos[i].sum();
+            phaseCalls[i] = calls[i].sum();
+        }
+        for (int i = 0; i < counters.length; i++) {
+            counterValues[i] = counters[i].sum();
+        }
+        long allocated = -1;
+        if (startAllocated >= 0) {
+            long current = allocatedBytes(threadId);
+            allocated = current >= 0 ? current - startAllocated : -1;
+        }
+        return new FitReport(name, System.nanoTime() - startNanos, phaseNanos, phaseCalls, counterValues, allocated);
+    }
+
+    private static long allocatedBytes(long threadId) {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+            return -1;
+        }
+        com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+        if (!sunBean.isThreadAllocatedMemorySupported() || !sunBean.isThreadAllocatedMemoryEnabled()) {
+            return -1;
+        }
+        return sunBean.getThreadAllocatedBytes(threadId);
+    }
+}
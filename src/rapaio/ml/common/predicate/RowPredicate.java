@@ -28,6 +28,8 @@
 package rapaio.ml.common.predicate;
 
 import rapaio.data.*;
+import rapaio.io.ModelReader;
+import rapaio.io.ModelWriter;
 import rapaio.printer.format.*;
 
 import java.io.Serializable;
@@ -49,6 +51,60 @@ public interface RowPredicate extends Serializable {
 
     String toString();
 
+    /**
+     * Binds the predicate to rows given as primitive arrays, where values of variables
+     * are found by position and missing values are NaN. Only the predicates on numeric
+     * and binary variables built with the static factory methods can be bound.
+     *
+     * @param names names of the variables, in the order of values from a row
+     * @return predicate which tests array rows
+     */
+    default ArrayPredicate bind(String[] names) {
+        throw new IllegalArgumentException("Predicate " + toString() + " cannot be bound to array rows.");
+    }
+
+    /**
+     * Writes the predicate in binary model format. Only the predicates built with
+     * the static factory methods from this interface can be written.
+     *
+     * @param out binary model writer
+     */
+    default void write(ModelWriter out) {
+        throw new IllegalArgumentException("Predicate " + toString() + " cannot be stored in binary format.");
+    }
+
+    /**
+     * Reads a predicate written in binary model format.
+     *
+     * @param in binary model reader
+     * @return new predicate instance
+     */
+    static RowPredicate read(ModelReader in) {
+        byte kind = in.readByte();
+        switch (kind) {
+            case All.KIND:
+                return all();
+            case NumLessEqual.KIND:
+                return numLessEqual(in.readString(), in.readDouble());
+            case NumLess.KIND:
+                return numLess(in.readString(), in.readDouble());
+            case NumGreaterEqual.KIND:
+                return numGreaterEqual(in.readString(), in.readDouble());
+            case NumGreater.KIND:
+                return numGreater(in.readString(), in.readDouble());
+            case BinaryEqual.KIND:
+                return binEqual(in.readString(), in.readBoolean());
+            case BinaryNotEqual.KIND:
+                return binNotEqual(in.readString(), in.readBoolean());
+            case NominalEqual.KIND:
+                return nomEqual(in.readString(), in.readString());
+            case NominalNotEqual.KIND:
+                return nomNotEqual(in.readString(), in.readString());
+            default:
+                throw new IllegalArgumentException("Unknown predicate kind: " + kind);
+        }
+    }
+
     static RowPredicate all() {
         return new All();
     }
@@ -89,12 +145,23 @@ public interface RowPredicate extends Serializable {
 final class All implements RowPredicate {
 
     private static final long serialVersionUID = -3530613310623768690L;
+    static final byte KIND = 0;
 
     @Override
     public boolean test(int row, Frame df) {
         return true;
     }
 
+    @Override
+    public ArrayPredicate bind(String[] names) {
+        return row -> true;
+    }
+
+    @Override
+    public void write(ModelWriter out) {
+        out.writeByte(KIND);
+    }
+
     @Override
     public String toString() {
         return "all";
@@ -104,6 +171,7 @@ final class All implements RowPredicate {
 final class NumLessEqual implements RowPredicate {
 
     private static final long serialVersionUID = 8215441575970091295L;
+    static final byte KIND = 1;
     private final String testName;
     private final double testValue;
 
@@ -120,6 +188,21 @@ final class NumLessEqual implements RowPredicate {
         return df.getDouble(row, testName) <= testValue;
     }
 
+    @Override
+    public ArrayPredicate bind(String[] names) {
+        int index = Bindings.indexOf(names, testName);
+        double value = testValue;
+        // comparisons with NaN are false, as for missing values
+        return row -> row[index] <= value;
+    }
+
+    @Override
+    public void write(ModelWriter out) {
+        out.writeByte(KIND);
+        out.writeString(testName);
+        out.writeDouble(testValue);
+    }
+
     @Override
     public String toString() {
         return testName + " <= " + Format.floatFlex(testValue);
@@ -129,6 +212,7 @@ final class NumLessEqual implements RowPredicate {
 final class NumGreaterEqual implements RowPredicate {
 
     private static final long serialVersionUID = 8904590203760623732L;
+    static final byte KIND = 3;
     public final String testName;
     public final double testValue;
 
@@ -144,6 +228,20 @@ final class NumGreaterEqual implements RowPredicate {
         return df.getDouble(row, testName) >= testValue;
     }
 
+    @Override
+    public ArrayPredicate bind(String[] names) {
+        int index = Bindings.indexOf(names, testName);
+        double value = testValue;
+        return row -> row[index] >= value;
+    }
+
+    @Override
+    public void write(ModelWriter out) {
+        out.writeByte(KIND);
+        out.writeString(testName);
+        out.writeDouble(testValue);
+    }
+
     @Override
     public String toString() {
         return testName + " >= " + Format.floatFlex(testValue);
@@ -153,6 +251,7 @@ final class NumGreaterEqual implements RowPredicate {
 final class NumLess implements RowPredicate {
 
     private static final long serialVersionUID = -8274469785632211359L;
+    static final byte KIND = 2;
     public final String testName;
     public final double testValue;
 
@@ -169,6 +268,20 @@ final class NumLess implements RowPredicate {
         return value < testValue;
     }
 
+    @Override
+    public ArrayPredicate bind(String[] names) {
+        int index = Bindings.indexOf(names, testName);
+        double value = testValue;
+        return row -> row[index] < value;
+    }
+
+    @Override
+    public void write(ModelWriter out) {
+        out.writeByte(KIND);
+        out.writeString(testName);
+        out.writeDouble(testValue);
+    }
+
     @Override
     public String toString() {
         return testName + " < " + Format.floatFlex(testValue);
@@ -178,6 +291,7 @@ final class NumLess implements RowPredicate {
 final class NumGreater implements RowPredicate {
 
     private static final long serialVersionUID = 5664720893373938432L;
+    static final byte KIND = 4;
     public final String testName;
     public final double testValue;
 
@@ -194,6 +308,20 @@ final class NumGreater implements RowPredicate {
         return value > testValue;
     }
 
+    @Override
+    public ArrayPredicate bind(String[] names) {
+        int index = Bindings.indexOf(names, testName);
+        double value = testValue;
+        return row -> row[index] > value;
+    }
+
+    @Override
+    public void write(ModelWriter out) {
+        out.writeByte(KIND);
+        out.writeString(testName);
+        out.writeDouble(testValue);
+    }
+
     @Override
     public String toString() {
         return testName + " > " + Format.floatFlex(testValue);
@@ -203,6 +331,7 @@ final class NumGreater implements RowPredicate {
 final class BinaryEqual implements RowPredicate {
 
     private static final long serialVersionUID = 830863153933290391L;
+    static final byte KIND = 5;
 
     private final String testName;
     private final int testValue;
@@ -219,6 +348,20 @@ final class BinaryEqual implements RowPredicate {
         return df.getInt(row, testName) == testValue;
     }
 
+    @Override
+    public ArrayPredicate bind(String[] names) {
+        int index = Bindings.indexOf(names, testName);
+        double value = testValue;
+        return row -> row[index] == value;
+    }
+
+    @Override
+    public void write(ModelWriter out) {
+        out.writeByte(KIND);
+        out.writeString(testName);
+        out.writeBoolean(testValue == 1);
+    }
+
     @Override
     public String toString() {
         return testName + " = " + testValue;
@@ -228,6 +371,7 @@ final class BinaryEqual implements RowPredicate {
 final class BinaryNotEqual implements RowPredicate {
 
     private static final long serialVersionUID = 830863153933290391L;
+    static final byte KIND = 6;
 
     private final String testName;
     private final int testValue;
@@ -244,6 +388,20 @@ final class BinaryNotEqual implements RowPredicate {
         return df.getInt(row, testName) != testValue;
     }
 
+    @Override
+    public ArrayPredicate bind(String[] names) {
+        int index = Bindings.indexOf(names, testName);
+        double value = testValue;
+        return row -> !Double.isNaN(row[index]) && row[index] != value;
+    }
+
+    @Override
+    public void write(ModelWriter out) {
+        out.writeByte(KIND);
+        out.writeString(testName);
+        out.writeBoolean(testValue == 1);
+    }
+
     @Override
     public String toString() {
         return testName + " != " + testValue;
@@ -254,6 +412,7 @@ final class NominalEqual implements RowPredicate {
 
 
     private static final long serialVersionUID = -148943086245103236L;
+    static final byte KIND = 7;
     private final String testName;
     private final String testValue;
 
@@ -269,6 +428,13 @@ final class NominalEqual implements RowPredicate {
         return df.getLabel(row, testName).equals(testValue);
     }
 
+    @Override
+    public void write(ModelWriter out) {
+        out.writeByte(KIND);
+        out.writeString(testName);
+        out.writeString(testValue);
+    }
+
     @Override
     public String toString() {
         return testName + " = \'" + testValue + "\'";
@@ -279,6 +445,7 @@ final class NominalNotEqual implements RowPredicate {
 
 
     private static final long serialVersionUID = -148943086245103236L;
+    static final byte KIND = 8;
     private final String testName;
     private final String testValue;
 
@@ -294,8 +461,33 @@ final class NominalNotEqual implements RowPredicate {
         return !df.getLabel(row, testName).equals(testValue);
     }
 
+    @Override
+    public void write(ModelWriter out) {
+        out.writeByte(KIND);
+        out.writeString(testName);
+        out.writeString(testValue);
+    }
+
     @Override
     public String toString() {
         return testName + " != \'" + testValue + "\'";
     }
 }
+
+final class Bindings {
+
+    private Bindings() {
+    }
+
+    /**
+     * Finds the position of a tested variable in the names of row values.
+     */
+    static int indexOf(String[] names, String name) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(name)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Variable " + name + " is not found in row variables.");
+    }
+}
@@ -33,6 +33,10 @@ import rapaio.data.Var;
 import rapaio.data.VType;
 import rapaio.data.filter.FFilter;
 import rapaio.data.sample.RowSampler;
+import rapaio.io.ModelReader;
+import rapaio.io.ModelWriter;
+import rapaio.ml.common.instrument.FitSink;
+import rapaio.ml.common.instrument.Instrument;
 import rapaio.printer.format.TextTable;
 
 import java.util.ArrayList;
@@ -53,6 +57,8 @@ public abstract class AbstractRegression implements Regression {
 
     protected String[] inputNames;
     protected VType[] inputTypes;
+    protected String[] sourceInputNames;
+    protected VType[] sourceInputTypes;
     protected String[] targetNames;
     protected VType[] targetTypes;
     protected RowSampler sampler = RowSampler.identity();
@@ -62,6 +68,8 @@ public abstract class AbstractRegression implements Regression {
     protected List<FFilter> inputFilters = new ArrayList<>();
 
     protected BiConsumer<Regression, Integer> runningHook;
+    private transient FitSink fitSink;
+    private transient Instrument instrument;
 
 
     @Override
@@ -122,17 +130,43 @@ public abstract class AbstractRegression implements Regression {
 
     @Override
     public Regression fit(Frame df, Var weights, String... targetVarNames) {
-        TrainSetup setup = prepareFitSetup(df, weights, targetVarNames);
-        setup = prepareFit(setup);
-        hasLearned = coreFit(setup.df, setup.w);
+        boolean ownInstrument = instrument == null && fitSink != null;
+        if (ownInstrument) {
+            instrument = Instrument.enabled(name());
+        }
+        try {
+            Instrument ins = instrument();
+            long start = ins.start();
+            TrainSetup setup = prepareFitSetup(df, weights, targetVarNames);
+
+            // input variables before input filters, used by scorers
+            HashSet<String> sourceTargets = new HashSet<>(VRange.of(setup.targetVars).parseVarNames(setup.df));
+            sourceInputNames = Arrays.stream(setup.df.varNames()).filter(name -> !sourceTargets.contains(name)).toArray(String[]::new);
+            sourceInputTypes = Arrays.stream(sourceInputNames).map(setup.df::type).toArray(VType[]::new);
+
+            setup = prepareFit(setup);
+            ins.stop(Instrument.Phase.PREPARE, start);
+
+            start = ins.start();
+            hasLearned = coreFit(setup.df, setup.w);
+            ins.stop(Instrument.Phase.FIT, start);
+
+            if (ownInstrument) {
+                fitSink.accept(ins.report());
+            }
+        } finally {
+            instrument = null;
+        }
         return this;
     }
 
     protected TrainSetup prepareFit(TrainSetup trainSetup) {
         Frame df = trainSetup.df;
+        long start = instrument().start();
         for (FFilter filter : inputFilters) {
             df = filter.fapply(df);
         }
+        instrument().stop(Instrument.Phase.FILTERS, start);
         Frame result = df;
         List<String> targets = VRange.of(trainSetup.targetVars).parseVarNames(result);
         this.targetNames = targets.toArray(new String[0]);
@@ -155,9 +189,16 @@ public abstract class AbstractRegression implements Regression {
 
     @Override
     public RPrediction predict(Frame df, boolean withResiduals) {
+        Instrument ins = (instrument == null && fitSink != null) ? Instrument.enabled(name()) : instrument();
+        long start = ins.start();
         FitSetup setup = preparePredictSetup(df, withResiduals);
         setup = preparePredict(setup);
-        return corePredict(setup.df, setup.withResiduals);
+        RPrediction prediction = corePredict(setup.df, setup.withResiduals);
+        ins.stop(Instrument.Phase.PREDICT, start);
+        if (instrument == null && fitSink != null) {
+            fitSink.accept(ins.report());
+        }
+        return prediction;
     }
 
     // by default do nothing, it is only for two stage training
@@ -176,6 +217,90 @@ public abstract class AbstractRegression implements Regression {
 
     protected abstract RPrediction corePredict(Frame df, boolean withResiduals);
 
+    @Override
+    public RScorer scorer() {
+        if (!hasLearned) {
+            throw new IllegalStateException("Scorer can be built only for a fitted model.");
+        }
+        checkSourceSchema();
+        return new FrameRScorer(this, sourceInputNames, sourceInputTypes);
+    }
+
+    /**
+     * Gives the names of the input variables if the fitted model can be scored
+     * directly on its own inputs, which means it has no input filters and all the
+     * inputs are numeric. Models which build their own scorers use it to decide
+     * if they can skip the default scorer.
+     *
+     * @return input variable names in row order, or null if the default scorer must be used
+     */
+    protected String[] directScorerInputs() {
+        if (!hasLearned || !inputFilters.isEmpty()) {
+            return null;
+        }
+        checkSourceSchema();
+        for (VType type : sourceInputTypes) {
+            if (!type.isNumeric() && type != VType.LONG) {
+                return null;
+            }
+        }
+        return sourceInputNames;
+    }
+
+    /**
+     * Models fitted before the input variables were recorded prior to input filters,
+     * or restored without fitting, have no such schema. Without input filters it is
+     * the same as the schema of the fitted inputs, otherwise the model must be fitted again.
+     */
+    private void checkSourceSchema() {
+        if (sourceInputNames != null) {
+            return;
+        }
+        if (!inputFilters.isEmpty()) {
+            throw new IllegalStateException("Model has no schema of input variables before input filters, it must be fitted again.");
+        }
+        sourceInputNames = inputNames;
+        sourceInputTypes = inputTypes;
+    }
+
+    /**
+     * Writes the fitted schema of the regression: input and target variables.
+     * Used by regressions which can be stored in binary format.
+     *
+     * @param out binary model writer
+     */
+    protected void writeSchema(ModelWriter out) {
+        if (!hasLearned) {
+            throw new IllegalStateException("Only fitted models can be stored in binary format.");
+        }
+        if (!inputFilters.isEmpty()) {
+            throw new IllegalArgumentException("Models with input filters cannot be stored in binary format.");
+        }
+        checkSourceSchema();
+        out.writeStrings(inputNames);
+        out.writeTypes(inputTypes);
+        out.writeStrings(sourceInputNames);
+        out.writeTypes(sourceInputTypes);
+        out.writeStrings(targetNames);
+        out.writeTypes(targetTypes);
+    }
+
+    /**
+     * Reads the fitted schema written by {@link #writeSchema(ModelWriter)} and
+     * marks the regression as fitted.
+     *
+     * @param in binary model reader
+     */
+    protected void readSchema(ModelReader in) {
+        inputNames = in.readStrings();
+        inputTypes = in.readTypes();
+        sourceInputNames = in.readStrings();
+        sourceInputTypes = in.readTypes();
+        targetNames = in.readStrings();
+        targetTypes = in.readTypes();
+        hasLearned = true;
+    }
+
     @Override
     public boolean isFitted() {
         return hasLearned;
@@ -213,6 +338,47 @@ public abstract class AbstractRegression implements Regression {
         return this;
     }
 
+    /**
+     * @return sink which receives instrumentation reports, null if instrumentation is disabled
+     */
+    public FitSink fitSink() {
+        return fitSink;
+    }
+
+    /**
+     * Enables instrumentation. After each fit and each predict call the model
+     * sends a report with timings and counters to the given sink.
+     * The sink is transient and it is not copied by {@link #newInstance()}.
+     *
+     * @param fitSink report sink, null to disable instrumentation
+     * @return this instance
+     */
+    public AbstractRegression withFitSink(FitSink fitSink) {
+        this.fitSink = fitSink;
+        return this;
+    }
+
+    /**
+     * Sets the instrument used by the next fit call, after which it is cleared.
+     * It is used by ensembles to accumulate the metrics of their weak learners
+     * into their own instrument. A model fitted with a given instrument does not
+     * send its own report to its sink.
+     *
+     * @param instrument instrument used by the next fit
+     * @return this instance
+     */
+    public AbstractRegression withInstrument(Instrument instrument) {
+        this.instrument = instrument;
+        return this;
+    }
+
+    /**
+     * @return instrument active for the current fit, {@link Instrument#NONE} if disabled
+     */
+    protected Instrument instrument() {
+        return instrument == null ? Instrument.NONE : instrument;
+    }
+
     protected static class TrainSetup {
         public final Frame df;
         public final Var w;
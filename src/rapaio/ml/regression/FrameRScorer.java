@@ -0,0 +1,83 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.regression;
+
+import rapaio.data.Frame;
+import rapaio.data.SolidFrame;
+import rapaio.data.VType;
+import rapaio.data.Var;
+
+/**
+ * Scorer which works with any regression model, it scores rows through a one row
+ * frame which is reused by each thread.
+ */
+final class FrameRScorer implements RScorer {
+
+    private final Regression model;
+    private final String[] inputNames;
+    private final ThreadLocal<Frame> buffer;
+
+    FrameRScorer(Regression model, String[] inputNames, VType[] inputTypes) {
+        this.model = model;
+        this.inputNames = inputNames;
+        this.buffer = ThreadLocal.withInitial(() -> {
+            Var[] vars = new Var[inputNames.length];
+            for (int i = 0; i < inputNames.length; i++) {
+                if (!inputTypes[i].isNumeric() && inputTypes[i] != VType.LONG) {
+                    throw new IllegalArgumentException("Scorer accepts only numeric input variables, variable "
+                            + inputNames[i] + " has type " + inputTypes[i].code() + ".");
+                }
+                vars[i] = inputTypes[i].newInstance(1).withName(inputNames[i]);
+            }
+            return SolidFrame.byVars(vars);
+        });
+        // fail fast on input types which cannot be scored
+        buffer.get();
+    }
+
+    @Override
+    public String[] inputNames() {
+        return inputNames;
+    }
+
+    @Override
+    public double score(double[] row) {
+        if (row.length != inputNames.length) {
+            throw new IllegalArgumentException("Row has " + row.length + " values, scorer expects " + inputNames.length + ".");
+        }
+        Frame df = buffer.get();
+        for (int i = 0; i < row.length; i++) {
+            if (Double.isNaN(row[i])) {
+                df.setMissing(0, i);
+            } else {
+                df.setDouble(0, i, row[i]);
+            }
+        }
+        return model.predict(df, false).firstFit().getDouble(0);
+    }
+}
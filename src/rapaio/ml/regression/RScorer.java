@@ -0,0 +1,58 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.regression;
+
+/**
+ * Scorer of single rows for a fitted regression model.
+ * <p>
+ * A scorer reads the input values of a row from a primitive array and returns the
+ * fitted value of the first target, so that scoring a row does not require to build
+ * a frame. Input filters of the model are already bound into the scorer, so the row
+ * contains the values of the variables from the frame used to fit the model.
+ * Scorers are thread safe, the same instance can be used concurrently.
+ * <p>
+ * Linear models, trees and random forests without input filters compute the fitted
+ * value directly on row values and only read fitted state. Other models are scored
+ * with a reused one row frame on their predict method, which is called concurrently,
+ * thus they must not change their state when they predict.
+ */
+public interface RScorer {
+
+    /**
+     * @return names of the input variables, in the order of values from a row
+     */
+    String[] inputNames();
+
+    /**
+     * Scores a single row.
+     *
+     * @param row input values in the order given by {@link #inputNames()}, missing values are NaN
+     * @return fitted value of the first target
+     */
+    double score(double[] row);
+}
@@ -269,6 +269,14 @@ public interface Regression extends Printable, Serializable {
      */
     RPrediction predict(Frame df, boolean withResiduals);
 
+    /**
+     * Builds a scorer for single rows of the fitted model, which avoids the cost
+     * of building frames when rows are scored one by one.
+     *
+     * @return thread safe scorer of the fitted model
+     */
+    RScorer scorer();
+
     /**
      * set the pool size for fork join tasks
      * - poolSize == 0 it is executed in a single non fork join thread
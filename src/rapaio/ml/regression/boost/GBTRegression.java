@@ -29,7 +29,9 @@ package rapaio.ml.regression.boost;
 
 import rapaio.data.*;
 import rapaio.data.sample.*;
+import rapaio.io.*;
 import rapaio.ml.common.*;
+import rapaio.ml.common.instrument.Instrument;
 import rapaio.ml.regression.*;
 import rapaio.ml.regression.boost.gbt.*;
 import rapaio.ml.regression.loss.*;
@@ -39,6 +41,7 @@ import rapaio.printer.*;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.BiConsumer;
 
 import static rapaio.printer.format.Format.*;
 
@@ -48,7 +51,7 @@ import static rapaio.printer.format.Format.*;
  * User: Aurelian Tutuianu <padreati@yahoo.com>
  */
 @Deprecated
-public class GBTRegression extends AbstractRegression implements DefaultPrintable {
+public class GBTRegression extends AbstractRegression implements BinaryModel, DefaultPrintable {
 
     private static final long serialVersionUID = 4559540258922653130L;
 
@@ -59,6 +62,7 @@ public class GBTRegression extends AbstractRegression implements DefaultPrintabl
             .withMaxDepth(4)
             .withMinCount(10);
     private double shrinkage = 1.0;
+    private EarlyStopping earlyStopping;
 
     // prediction
     VarDouble fitValues;
@@ -71,7 +75,8 @@ public class GBTRegression extends AbstractRegression implements DefaultPrintabl
                 .withRegressor(regressor)
                 .withShrinkage(shrinkage)
                 .withSampler(sampler())
-                .withRuns(runs());
+                .withRuns(runs())
+                .withEarlyStopping(earlyStopping == null ? null : earlyStopping.newInstance());
     }
 
     @Override
@@ -124,6 +129,26 @@ public class GBTRegression extends AbstractRegression implements DefaultPrintabl
         return this;
     }
 
+    /**
+     * Enables early stopping on a validation frame. The validation loss is given
+     * by the gradient boosting loss function, and the model keeps only the trees
+     * which give the best validation loss.
+     *
+     * @param earlyStopping early stopping settings, null to disable early stopping
+     * @return regression instance
+     */
+    public GBTRegression withEarlyStopping(EarlyStopping earlyStopping) {
+        this.earlyStopping = earlyStopping;
+        return this;
+    }
+
+    /**
+     * @return early stopping settings and validation losses of the last fit, null if not enabled
+     */
+    public EarlyStopping earlyStopping() {
+        return earlyStopping;
+    }
+
     public GBTRegression withSampler(RowSampler sampler) {
         return (GBTRegression) super.withSampler(sampler);
     }
@@ -143,15 +168,28 @@ public class GBTRegression extends AbstractRegression implements DefaultPrintabl
         initRegression.fit(df, weights, firstTargetName());
         fitValues = initRegression.predict(df, false).firstFit().solidCopy();
 
+        // validation fitted values are updated with each added tree
+
+        Frame validation = null;
+        Var validationFit = null;
+        if (earlyStopping != null) {
+            earlyStopping = earlyStopping.newInstance();
+            validation = preparePredict(FitSetup.valueOf(earlyStopping.validation(firstTargetName()), false)).df;
+            validationFit = initRegression.predict(validation, false).firstFit().solidCopy();
+        }
+
         for (int i = 1; i <= runs(); i++) {
             Var gradient = lossFunction.gradient(y, fitValues).withName("target");
 
             Frame xm = x.bindVars(gradient);
             RTree tree = regressor.newInstance();
+            tree.withInstrument(instrument());
 
             // frame sampling
 
+            long start = instrument().start();
             Mapping samplerMapping = sampler().nextSample(xm, weights).mapping;
+            instrument().stop(Instrument.Phase.SAMPLING, start);
             Frame xmLearn = xm.mapRows(samplerMapping);
 
             // build regions
@@ -179,10 +217,27 @@ public class GBTRegression extends AbstractRegression implements DefaultPrintabl
 
             if(runningHook()!=null)
                 runningHook().accept(this, i);
+
+            if (earlyStopping != null) {
+                addFit(validationFit, tree, validation);
+                if (earlyStopping.update(lossFunction.loss(validation.rvar(firstTargetName()), validationFit))) {
+                    break;
+                }
+            }
+        }
+        if (earlyStopping != null) {
+            trees.subList(earlyStopping.runsToKeep(trees.size()), trees.size()).clear();
         }
         return true;
     }
 
+    private void addFit(Var fit, RTree tree, Frame df) {
+        double[] treeFit = tree.predict(df, false).firstFit().doubleArray();
+        for (int i = 0; i < df.rowCount(); i++) {
+            fit.setDouble(i, fit.getDouble(i) + shrinkage * treeFit[i]);
+        }
+    }
+
     @Override
     protected RPrediction corePredict(final Frame df, final boolean withResiduals) {
         RPrediction pred = RPrediction.build(this, df, withResiduals);
@@ -191,15 +246,66 @@ public class GBTRegression extends AbstractRegression implements DefaultPrintabl
             pred.firstFit().setDouble(i, initPred.firstFit().getDouble(i));
         }
         for (RTree tree : trees) {
-            RPrediction treePred = tree.predict(df, false);
-            for (int i = 0; i < df.rowCount(); i++) {
-                pred.firstFit().setDouble(i, pred.firstFit().getDouble(i) + shrinkage * treePred.firstFit().getDouble(i));
-            }
+            addFit(pred.firstFit(), tree, df);
         }
         pred.buildComplete();
         return pred;
     }
 
+    /**
+     * Computes in a single pass the predictions of the model truncated after each tree.
+     * The stage consumer receives the number of trees and the prediction given by the
+     * initial regression and the first trees of the model.
+     *
+     * @param df            data frame
+     * @param withResiduals if residuals are computed
+     * @param stageConsumer consumer of staged predictions
+     */
+    public void predictStages(Frame df, boolean withResiduals, BiConsumer<Integer, RPrediction> stageConsumer) {
+        Frame workDf = preparePredict(FitSetup.valueOf(df, withResiduals)).df;
+        Var fit = initRegression.predict(workDf, false).firstFit().solidCopy();
+        for (int m = 0; m < trees.size(); m++) {
+            addFit(fit, trees.get(m), workDf);
+            RPrediction pred = RPrediction.build(this, workDf, withResiduals);
+            for (int i = 0; i < workDf.rowCount(); i++) {
+                pred.firstFit().setDouble(i, fit.getDouble(i));
+            }
+            pred.buildComplete();
+            stageConsumer.accept(m + 1, pred);
+        }
+    }
+
+    /**
+     * Writes the fitted initial regression and the trees, which are written without
+     * parameters since all of them are new instances of the same tree. Fitted values
+     * on the training data are not stored.
+     */
+    @Override
+    public void writeFitted(ModelWriter out) {
+        writeSchema(out);
+        if (!(initRegression instanceof BinaryModel)) {
+            throw new IllegalArgumentException("Initial regression " + initRegression.name() + " cannot be stored in binary format.");
+        }
+        ((BinaryModel) initRegression).writeFitted(out);
+        out.writeInt(trees.size());
+        for (RTree tree : trees) {
+            tree.writeFitted(out);
+        }
+    }
+
+    @Override
+    public void readFitted(ModelReader in) {
+        readSchema(in);
+        ((BinaryModel) initRegression).readFitted(in);
+        int count = in.readInt();
+        trees = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            RTree tree = regressor.newInstance();
+            tree.readFitted(in);
+            trees.add(tree);
+        }
+    }
+
     @Override
     public String summary() {
         throw new IllegalArgumentException("not implemented");
@@ -52,4 +52,17 @@ public interface GBTRegressionLoss extends Serializable {
      */
     VarDouble gradient(Var y, Var fx);
 
+    /**
+     * Computes the average loss of fitted values, used to compare
+     * models on a validation set. Loss functions which cannot be evaluated
+     * on fitted values do not support early stopping.
+     *
+     * @param y  target values
+     * @param fx fitted values
+     * @return average loss
+     */
+    default double loss(Var y, Var fx) {
+        throw new IllegalArgumentException("Loss function " + name() + " cannot compute a validation loss, it cannot be used with early stopping.");
+    }
+
 }
@@ -124,4 +124,23 @@ public class GBTRegressionLossHuber implements GBTRegressionLoss {
 
         return gradient;
     }
-}
\ No newline at end of file
+
+    @Override
+    public double loss(Var y, Var fx) {
+
+        // compute rho as an alpha-quantile of absolute residuals, same as for gradient
+
+        VarDouble absResidual = VarDouble.empty();
+        for (int i = 0; i < y.rowCount(); i++) {
+            absResidual.addDouble(Math.abs(y.getDouble(i) - fx.getDouble(i)));
+        }
+        double rho = Quantiles.of(absResidual, new double[]{alpha}).values()[0];
+
+        double sum = 0;
+        for (int i = 0; i < y.rowCount(); i++) {
+            double r = absResidual.getDouble(i);
+            sum += (r <= rho) ? r * r / 2 : rho * (r - rho / 2);
+        }
+        return sum / y.rowCount();
+    }
+}
@@ -66,4 +66,13 @@ public class GBTRegressionLossL1 implements GBTRegressionLoss {
         }
         return gradient;
     }
+
+    @Override
+    public double loss(Var y, Var fx) {
+        double sum = 0;
+        for (int i = 0; i < y.rowCount(); i++) {
+            sum += Math.abs(y.getDouble(i) - fx.getDouble(i));
+        }
+        return sum / y.rowCount();
+    }
 }
@@ -57,4 +57,14 @@ public class GBTRegressionLossL2 implements GBTRegressionLoss {
         }
         return delta;
     }
-}
\ No newline at end of file
+
+    @Override
+    public double loss(Var y, Var fx) {
+        double sum = 0;
+        for (int i = 0; i < y.rowCount(); i++) {
+            double delta = y.getDouble(i) - fx.getDouble(i);
+            sum += delta * delta / 2;
+        }
+        return sum / y.rowCount();
+    }
+}
@@ -33,14 +33,20 @@ import rapaio.data.VarDouble;
 import rapaio.data.VType;
 import rapaio.data.filter.FFilter;
 import rapaio.data.sample.Sample;
+import rapaio.io.BinaryModel;
+import rapaio.io.ModelReader;
+import rapaio.io.ModelWriter;
 import rapaio.ml.common.Capabilities;
+import rapaio.ml.common.instrument.Instrument;
 import rapaio.ml.regression.AbstractRegression;
 import rapaio.ml.regression.RPrediction;
+import rapaio.ml.regression.RScorer;
 import rapaio.ml.regression.Regression;
 import rapaio.ml.regression.tree.RTree;
 import rapaio.printer.*;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -48,7 +54,7 @@ import java.util.stream.IntStream;
 /**
  * Created by <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a> at 1/15/15.
  */
-public class RForest extends AbstractRegression implements DefaultPrintable {
+public class RForest extends AbstractRegression implements BinaryModel, DefaultPrintable {
 
     private static final long serialVersionUID = -3926256335736143438L;
 
@@ -106,7 +112,12 @@ public class RForest extends AbstractRegression implements DefaultPrintable {
         regressors.clear();
         IntStream.range(0, runs()).forEach(i -> {
                 Regression rnew = r.newInstance();
+                if (rnew instanceof AbstractRegression) {
+                    ((AbstractRegression) rnew).withInstrument(instrument());
+                }
+                long start = instrument().start();
                 Sample sample = sampler().nextSample(df, weights);
+                instrument().stop(Instrument.Phase.SAMPLING, start);
                 rnew.fit(sample.df, sample.weights, firstTargetName());
                 regressors.add(rnew);
                 if (runningHook() != null) {
@@ -139,6 +150,55 @@ public class RForest extends AbstractRegression implements DefaultPrintable {
         return fit;
     }
 
+    /**
+     * Forests without input filters and with numeric inputs are scored with the
+     * scorers of the weak regressions, which are direct for trees. Other forests
+     * use the default scorer.
+     */
+    @Override
+    public RScorer scorer() {
+        String[] names = directScorerInputs();
+        if (names == null) {
+            return super.scorer();
+        }
+        RScorer[] members = new RScorer[regressors.size()];
+        for (int i = 0; i < members.length; i++) {
+            members[i] = regressors.get(i).scorer();
+            if (!Arrays.equals(names, members[i].inputNames())) {
+                return super.scorer();
+            }
+        }
+        return new RForestScorer(names, members);
+    }
+
+    /**
+     * Writes the fitted weak regressions without parameters, since all of them
+     * are new instances of the same regression.
+     */
+    @Override
+    public void writeFitted(ModelWriter out) {
+        writeSchema(out);
+        out.writeInt(regressors.size());
+        for (Regression regressor : regressors) {
+            if (!(regressor instanceof BinaryModel)) {
+                throw new IllegalArgumentException("Weak regression " + regressor.name() + " cannot be stored in binary format.");
+            }
+            ((BinaryModel) regressor).writeFitted(out);
+        }
+    }
+
+    @Override
+    public void readFitted(ModelReader in) {
+        readSchema(in);
+        int count = in.readInt();
+        regressors = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Regression regressor = r.newInstance();
+            ((BinaryModel) regressor).readFitted(in);
+            regressors.add(regressor);
+        }
+    }
+
     @Override
     public String summary() {
         throw new IllegalArgumentException("not implemented");
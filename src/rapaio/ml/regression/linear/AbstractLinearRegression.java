@@ -29,14 +29,19 @@ package rapaio.ml.regression.linear;
 
 import rapaio.data.*;
 import rapaio.data.filter.frame.*;
+import rapaio.io.*;
 import rapaio.math.linear.*;
+import rapaio.math.linear.dense.*;
 import rapaio.ml.regression.*;
 import rapaio.printer.format.*;
 
+import java.util.Arrays;
+import java.util.List;
+
 /**
  * Created by <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a> on 2/1/18.
  */
-public abstract class AbstractLinearRegression extends AbstractRegression {
+public abstract class AbstractLinearRegression extends AbstractRegression implements BinaryModel {
 
     private static final long serialVersionUID = 5740157710314998364L;
     protected static String INTERCEPT = FIntercept.INTERCEPT;
@@ -121,6 +126,57 @@ public abstract class AbstractLinearRegression extends AbstractRegression {
         return rp;
     }
 
+    /**
+     * Linear models without input filters are scored directly with the
+     * coefficients of the first target, other models use the default scorer.
+     */
+    @Override
+    public RScorer scorer() {
+        String[] names = directScorerInputs();
+        if (names == null) {
+            return super.scorer();
+        }
+        List<String> sources = Arrays.asList(names);
+        double[] coefficients = new double[names.length];
+        double bias = 0;
+        for (int k = 0; k < inputNames.length; k++) {
+            int pos = sources.indexOf(inputNames[k]);
+            if (pos >= 0) {
+                coefficients[pos] = beta.get(k, 0);
+            } else if (INTERCEPT.equals(inputNames[k])) {
+                bias = beta.get(k, 0);
+            } else {
+                return super.scorer();
+            }
+        }
+        return new LinearRScorer(names, coefficients, bias);
+    }
+
+    /**
+     * Writes the coefficients matrix by rows, one column for each target.
+     */
+    @Override
+    public void writeFitted(ModelWriter out) {
+        writeSchema(out);
+        double[] values = new double[beta.rowCount() * beta.colCount()];
+        for (int i = 0; i < beta.rowCount(); i++) {
+            for (int j = 0; j < beta.colCount(); j++) {
+                values[i * beta.colCount() + j] = beta.get(i, j);
+            }
+        }
+        out.writeInt(beta.rowCount());
+        out.writeInt(beta.colCount());
+        out.writeDoubles(values);
+    }
+
+    @Override
+    public void readFitted(ModelReader in) {
+        readSchema(in);
+        int rowCount = in.readInt();
+        int colCount = in.readInt();
+        beta = SolidRM.copy(rowCount, colCount, in.readDoubles());
+    }
+
     @Override
     public String summary() {
         StringBuilder sb = new StringBuilder();
@@ -0,0 +1,64 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.regression.linear;
+
+import rapaio.ml.regression.RScorer;
+
+/**
+ * Scorer of linear models, which computes the fitted value as a dot product
+ * between row values and coefficients.
+ */
+final class LinearRScorer implements RScorer {
+
+    private final String[] inputNames;
+    private final double[] coefficients;
+    private final double intercept;
+
+    LinearRScorer(String[] inputNames, double[] coefficients, double intercept) {
+        this.inputNames = inputNames;
+        this.coefficients = coefficients;
+        this.intercept = intercept;
+    }
+
+    @Override
+    public String[] inputNames() {
+        return inputNames;
+    }
+
+    @Override
+    public double score(double[] row) {
+        if (row.length != coefficients.length) {
+            throw new IllegalArgumentException("Row has " + row.length + " values, scorer expects " + coefficients.length + ".");
+        }
+        double fit = intercept;
+        for (int i = 0; i < coefficients.length; i++) {
+            fit += coefficients[i] * row[i];
+        }
+        return fit;
+    }
+}
@@ -36,6 +36,8 @@ import rapaio.data.VarDouble;
  */
 public class KDevianceRegressionLoss implements RegressionLoss {
 
+    private static final long serialVersionUID = 2410573457236384411L;
+
     private final int k;
 
     public KDevianceRegressionLoss(int k) {
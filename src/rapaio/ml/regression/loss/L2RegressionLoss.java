@@ -36,6 +36,9 @@ import rapaio.data.VarDouble;
  * Created by <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a> on 7/6/18.
  */
 public class L2RegressionLoss implements RegressionLoss {
+
+    private static final long serialVersionUID = -7126414297563814082L;
+
     @Override
     public String name() {
         return "L2";
@@ -31,10 +31,12 @@ import rapaio.data.Frame;
 import rapaio.data.Var;
 import rapaio.data.VarDouble;
 
+import java.io.Serializable;
+
 /**
  * Created by <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a> on 7/6/18.
  */
-public interface RegressionLoss {
+public interface RegressionLoss extends Serializable {
 
     /**
      * @return name of the loss function
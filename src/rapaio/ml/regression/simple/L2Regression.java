@@ -29,6 +29,7 @@ package rapaio.ml.regression.simple;
 
 import rapaio.core.stat.*;
 import rapaio.data.*;
+import rapaio.io.*;
 import rapaio.ml.common.*;
 import rapaio.ml.regression.*;
 import rapaio.printer.*;
@@ -37,7 +38,7 @@ import rapaio.printer.format.*;
 /**
  * User: Aurelian Tutuianu <padreati@yahoo.com>
  */
-public class L2Regression extends AbstractRegression implements DefaultPrintable {
+public class L2Regression extends AbstractRegression implements BinaryModel, DefaultPrintable {
 
     private static final long serialVersionUID = -8666168876139028337L;
 
@@ -98,6 +99,18 @@ public class L2Regression extends AbstractRegression implements DefaultPrintable
         return fit;
     }
 
+    @Override
+    public void writeFitted(ModelWriter out) {
+        writeSchema(out);
+        out.writeDoubles(means);
+    }
+
+    @Override
+    public void readFitted(ModelReader in) {
+        readSchema(in);
+        means = in.readDoubles();
+    }
+
     @Override
     public String summary() {
         StringBuilder sb = new StringBuilder();
@@ -30,7 +30,9 @@ package rapaio.ml.regression.tree;
 import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
 import rapaio.core.stat.*;
 import rapaio.data.*;
+import rapaio.io.*;
 import rapaio.ml.common.*;
+import rapaio.ml.common.instrument.Instrument;
 import rapaio.ml.common.predicate.*;
 import rapaio.ml.regression.*;
 import rapaio.ml.regression.boost.gbt.*;
@@ -54,7 +56,7 @@ import static rapaio.printer.format.Format.*;
  * <p>
  * Created by <a href="mailto:padreati@yahoo.com>Aurelian Tutuianu</a> on 11/24/14.
  */
-public class RTree extends AbstractRegression implements DefaultPrintable {
+public class RTree extends AbstractRegression implements BinaryModel, DefaultPrintable {
 
     private static final long serialVersionUID = -2748764643670512376L;
 
@@ -291,6 +293,7 @@ public class RTree extends AbstractRegression implements DefaultPrintable {
             // now that we have a best candidate,do the effective split
 
             List<RowPredicate> predicates = last.bestCandidate().getGroupPredicates();
+            long start = instrument().start();
             List<Mapping> mappings = splitter.performSplitMapping(lastDf, lastWeights, predicates);
 
             for (int i = 0; i < predicates.size(); i++) {
@@ -303,6 +306,7 @@ public class RTree extends AbstractRegression implements DefaultPrintable {
 
                 queue.add(child);
             }
+            instrument().stop(Instrument.Phase.PARTITION, start);
 
             frameMap.remove(last.id());
             weightsMap.remove(last.id());
@@ -311,6 +315,7 @@ public class RTree extends AbstractRegression implements DefaultPrintable {
     }
 
     private void learnNode(RTreeNode node, Frame df, Var weights) {
+        instrument().count(Instrument.Counter.NODES, 1);
 
         node.setLeaf(true);
         node.setValue(regressionLoss.findWeightedMinimum(df, firstTargetName(), weights));
@@ -325,18 +330,22 @@ public class RTree extends AbstractRegression implements DefaultPrintable {
             return;
         }
 
+        long start = instrument().start();
         Stream<String> stream = Arrays.stream(varSelector.nextVarNames());
         if(runs>1) {
             stream = stream.parallel();
         }
 
         List<RTreeCandidate> candidates = stream.map(testCol -> {
+            instrument().count(Instrument.Counter.ROWS_SCANNED, df.rowCount());
             if (df.type(testCol).isNumeric()) {
                 return numericTest.computeCandidate(this, df, weights, testCol, firstTargetName(), purityFunction()).orElse(null);
             } else {
                 return nominalTest.computeCandidate(this, df, weights, testCol, firstTargetName(), purityFunction()).orElse(null);
             }
         }).filter(Objects::nonNull).collect(Collectors.toList());
+        instrument().count(Instrument.Counter.CANDIDATES, candidates.size());
+        instrument().stop(Instrument.Phase.SPLIT_SEARCH, start);
 
         RTreeCandidate bestCandidate = null;
         for (RTreeCandidate candidate : candidates) {
@@ -364,6 +373,91 @@ public class RTree extends AbstractRegression implements DefaultPrintable {
         return pred;
     }
 
+    /**
+     * Trees with the standard predictor, without input filters and with numeric
+     * inputs are scored directly on row values, other trees use the default scorer.
+     */
+    @Override
+    public RScorer scorer() {
+        String[] names = directScorerInputs();
+        if (names == null || predictor != RTreePredictor.STANDARD) {
+            return super.scorer();
+        }
+        try {
+            return new RTreeScorer(this, names);
+        } catch (IllegalArgumentException ex) {
+            // custom node predicates cannot be bound to array rows
+            return super.scorer();
+        }
+    }
+
+    /**
+     * Writes the fitted tree as a flat list of nodes in depth first order. Group names
+     * which are the same as the text of the predicate are not stored.
+     */
+    @Override
+    public void writeFitted(ModelWriter out) {
+        writeSchema(out);
+        writeNode(out, root);
+    }
+
+    private void writeNode(ModelWriter out, RTreeNode node) {
+        out.writeInt(node.id());
+        if (node.getParent() == null) {
+            out.writeString(node.groupName());
+        } else {
+            node.predicate().write(out);
+            out.writeString(node.groupName().equals(node.predicate().toString()) ? null : node.groupName());
+        }
+        out.writeBoolean(node.isLeaf());
+        out.writeDouble(node.value());
+        out.writeDouble(node.weight());
+        out.writeBoolean(node.bestCandidate() != null);
+        if (node.bestCandidate() != null) {
+            out.writeDouble(node.bestCandidate().getScore());
+            out.writeString(node.bestCandidate().getTestName());
+        }
+        out.writeInt(node.children().size());
+        for (RTreeNode child : node.children()) {
+            writeNode(out, child);
+        }
+    }
+
+    @Override
+    public void readFitted(ModelReader in) {
+        readSchema(in);
+        root = readNode(in, null);
+    }
+
+    private RTreeNode readNode(ModelReader in, RTreeNode parent) {
+        int id = in.readInt();
+        RTreeNode node;
+        if (parent == null) {
+            node = new RTreeNode(id, null, in.readString(), RowPredicate.all(), 1);
+        } else {
+            RowPredicate predicate = RowPredicate.read(in);
+            String groupName = in.readString();
+            node = new RTreeNode(id, parent, groupName == null ? predicate.toString() : groupName, predicate, parent.depth() + 1);
+        }
+        node.setLeaf(in.readBoolean());
+        node.setValue(in.readDouble());
+        node.setWeight(in.readDouble());
+        RTreeCandidate candidate = null;
+        if (in.readBoolean()) {
+            candidate = new RTreeCandidate(in.readDouble(), in.readString());
+            node.setBestCandidate(candidate);
+        }
+        int childCount = in.readInt();
+        for (int i = 0; i < childCount; i++) {
+            RTreeNode child = readNode(in, node);
+            node.children().add(child);
+            if (candidate != null) {
+                candidate.addGroup(child.predicate());
+            }
+        }
+        return node;
+    }
+
     @Override
     public String summary() {
         StringBuilder sb = new StringBuilder();
@@ -0,0 +1,155 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.regression.tree;
+
+import rapaio.ml.common.predicate.ArrayPredicate;
+import rapaio.ml.regression.RScorer;
+import rapaio.ml.regression.tree.rtree.RTreeNode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Scorer of regression trees with the standard predictor, which follows the nodes
+ * of the tree directly on the row values.
+ * <p>
+ * Nodes are flattened in arrays, with node predicates bound to the positions of
+ * row values. A row with a missing value on a node test is fitted with the mean of
+ * children fitted values weighted by their weights, and the weight of that node is
+ * the mean of children weights. The weights of nodes visited in that case are kept
+ * in a buffer for each thread, indexed by the number of such nodes above them.
+ */
+final class RTreeScorer implements RScorer {
+
+    private final String[] inputNames;
+    private final ArrayPredicate[] predicates;
+    private final int[][] children;
+    private final double[] values;
+    private final double[] weights;
+    private final ThreadLocal<double[]> buffer;
+
+    RTreeScorer(RTree tree, String[] inputNames) {
+        this.inputNames = inputNames;
+
+        List<RTreeNode> nodes = new ArrayList<>();
+        List<Integer> levels = new ArrayList<>();
+        nodes.add(tree.root());
+        levels.add(0);
+        for (int i = 0; i < nodes.size(); i++) {
+            if (nodes.get(i).isLeaf()) {
+                continue;
+            }
+            for (RTreeNode child : nodes.get(i).children()) {
+                nodes.add(child);
+                levels.add(levels.get(i) + 1);
+            }
+        }
+        predicates = new ArrayPredicate[nodes.size()];
+        children = new int[nodes.size()][];
+        values = new double[nodes.size()];
+        weights = new double[nodes.size()];
+
+        // children are collected in breadth first order
+        int next = 1;
+        for (int i = 0; i < nodes.size(); i++) {
+            RTreeNode node = nodes.get(i);
+            // the root predicate is never tested
+            predicates[i] = (i == 0) ? null : node.predicate().bind(inputNames);
+            values[i] = node.value();
+            weights[i] = node.weight();
+            children[i] = new int[node.isLeaf() ? 0 : node.children().size()];
+            for (int j = 0; j < children[i].length; j++) {
+                children[i][j] = next++;
+            }
+        }
+        int height = levels.get(levels.size() - 1) + 1;
+        buffer = ThreadLocal.withInitial(() -> new double[height]);
+    }
+
+    @Override
+    public String[] inputNames() {
+        return inputNames;
+    }
+
+    @Override
+    public double score(double[] row) {
+        if (row.length != inputNames.length) {
+            throw new IllegalArgumentException("Row has " + row.length + " values, scorer expects " + inputNames.length + ".");
+        }
+        int node = 0;
+        while (children[node].length > 0) {
+            int next = -1;
+            for (int child : children[node]) {
+                if (predicates[child].test(row)) {
+                    next = child;
+                    break;
+                }
+            }
+            if (next == -1) {
+                return fit(node, row, buffer.get(), 0);
+            }
+            node = next;
+        }
+        return values[node];
+    }
+
+    /**
+     * Computes the fitted value of a node and stores its weight in the buffer at the given level.
+     */
+    private double fit(int node, double[] row, double[] nodeWeights, int level) {
+        if (children[node].length == 0) {
+            nodeWeights[level] = weights[node];
+            return values[node];
+        }
+        for (int child : children[node]) {
+            if (predicates[child].test(row)) {
+                return fit(child, row, nodeWeights, level);
+            }
+        }
+        double sum = 0;
+        double total = 0;
+        double weightSum = 0;
+        int count = 0;
+        for (int child : children[node]) {
+            double value = fit(child, row, nodeWeights, level + 1);
+            double weight = nodeWeights[level + 1];
+            if (Double.isNaN(weight)) {
+                continue;
+            }
+            weightSum += weight;
+            count++;
+            if (Double.isNaN(value)) {
+                continue;
+            }
+            sum += weight * value;
+            total += weight;
+        }
+        nodeWeights[level] = (count == 0) ? Double.NaN : weightSum / count;
+        return (total == 0) ? Double.NaN : sum / total;
+    }
+}
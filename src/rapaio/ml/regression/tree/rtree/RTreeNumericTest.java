@@ -106,16 +106,26 @@ class NumericBinary implements RTreeNumericTest {
         int testNameIndex = df.varIndex(testName);
         int targetNameIndex = df.varIndex(targetName);
 
-        int[] rows = new int[df.rowCount()];
+        int rowCount = df.rowCount();
+        Var test = df.rvar(testNameIndex);
+        double[] testValues = new double[rowCount];
+        test.copyDoubles(0, rowCount, testValues, 0);
+        double[] targetValues = new double[rowCount];
+        df.copyDoubles(targetNameIndex, 0, rowCount, targetValues, 0);
+        double[] w = weights.doubleArray();
+        // for numeric types missing values are read as NaN
+        boolean numeric = test.type().isNumeric();
+
+        int[] rows = new int[rowCount];
         int len = 0;
-        for (int i = 0; i < df.rowCount(); i++) {
-            if (!df.isMissing(i, testNameIndex))
+        for (int i = 0; i < rowCount; i++) {
+            if (numeric ? !Double.isNaN(testValues[i]) : !test.isMissing(i))
                 rows[len++] = i;
         }
         if (len == 0) {
             return Optional.empty();
         }
-        IntArrays.quickSort(rows, 0, len, (o1, o2) -> Double.compare(df.getDouble(o1, testNameIndex), df.getDouble(o2, testNameIndex)));
+        IntArrays.quickSort(rows, 0, len, (o1, o2) -> Double.compare(testValues[o1], testValues[o2]));
 
         double[] leftWeight = new double[rows.length];
         double[] leftVar = new double[rows.length];
@@ -124,17 +134,17 @@ class NumericBinary implements RTreeNumericTest {
 
         WeightedOnlineStat so = WeightedOnlineStat.empty();
 
-        so.update(df.getDouble(rows[0], targetNameIndex), weights.getDouble(rows[0]));
+        so.update(targetValues[rows[0]], w[rows[0]]);
         for (int i = 1; i < len; i++) {
-            so.update(df.getDouble(rows[i], targetNameIndex), weights.getDouble(rows[i]));
-            leftWeight[i] = weights.getDouble(rows[i]) + leftWeight[i - 1];
+            so.update(targetValues[rows[i]], w[rows[i]]);
+            leftWeight[i] = w[rows[i]] + leftWeight[i - 1];
             leftVar[i] = so.variance();
         }
         so = WeightedOnlineStat.empty();
-        so.update(df.getDouble(rows[len - 1], targetNameIndex), weights.getDouble(rows[len - 1]));
+        so.update(targetValues[rows[len - 1]], w[rows[len - 1]]);
         for (int i = len - 2; i >= 0; i--) {
-            so.update(df.getDouble(rows[i], targetNameIndex), weights.getDouble(rows[i]));
-            rightWeight[i] = weights.getDouble(rows[i]) + rightWeight[i + 1];
+            so.update(targetValues[rows[i]], w[rows[i]]);
+            rightWeight[i] = w[rows[i]] + rightWeight[i + 1];
             rightVar[i] = so.variance();
         }
 
@@ -147,7 +157,7 @@ class NumericBinary implements RTreeNumericTest {
         p.totalWeight = rightWeight[0];
 
         for (int i = c.minCount(); i < len - c.minCount() - 1; i++) {
-            if (df.getDouble(rows[i], testNameIndex) == df.getDouble(rows[i + 1], testNameIndex)) continue;
+            if (testValues[rows[i]] == testValues[rows[i + 1]]) continue;
 
             p.splitVar[0] = leftVar[i];
             p.splitVar[1] = rightVar[i];
@@ -164,7 +174,7 @@ class NumericBinary implements RTreeNumericTest {
             bestScore = value;
             best = new RTreeCandidate(value, testName);
 
-            double testValue = (df.getDouble(rows[i], testName) + df.getDouble(rows[i + 1], testName)) / 2.0;
+            double testValue = (testValues[rows[i]] + testValues[rows[i + 1]]) / 2.0;
             best.addGroup(RowPredicate.numLessEqual(testName, testValue));
             best.addGroup(RowPredicate.numGreater(testName, testValue));
         }
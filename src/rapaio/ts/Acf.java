@@ -32,6 +32,9 @@ import rapaio.data.*;
 import rapaio.printer.*;
 import rapaio.printer.format.*;
 
+import java.util.List;
+import java.util.stream.Collectors;
+
 /**
  * Sample AutoCorrelation Function
  * <p>
@@ -39,29 +42,62 @@ import rapaio.printer.format.*;
  */
 public class Acf implements DefaultPrintable {
 
+    /**
+     * Method used to compute lagged products
+     */
+    public enum Method {
+        /**
+         * Choose the faster method from series length and number of lags
+         */
+        AUTO,
+        /**
+         * Direct sums, cost proportional with series length times number of lags
+         */
+        DIRECT,
+        /**
+         * Sums computed with FFT, cost proportional with n log(n)
+         */
+        FFT
+    }
+
     private final Var ts;
     private final VarInt lags;
     private final VarDouble correlation;
     private final VarDouble covariance;
 
     public static Acf from(Var ts, int maxLag) {
-        return new Acf(ts, VarInt.seq(0, maxLag).withName("lags"));
+        return new Acf(ts, VarInt.seq(0, maxLag).withName("lags"), Method.AUTO);
     }
 
     public static Acf from(Var ts, VarInt lags) {
-        return new Acf(ts, lags.withName("lags"));
+        return new Acf(ts, lags.withName("lags"), Method.AUTO);
     }
 
-    private Acf(Var ts, VarInt lags) {
-        if (ts.stream().complete().count() != ts.rowCount()) {
-            throw new IllegalArgumentException("Acf does not allow missing values.");
-        }
+    public static Acf from(Var ts, VarInt lags, Method method) {
+        return new Acf(ts, lags.withName("lags"), method);
+    }
+
+    /**
+     * Computes in parallel auto correlation functions for many series.
+     *
+     * @param series list of time series
+     * @param maxLag number of lags, starting with 0
+     * @return list of acf objects, in the same order as the series
+     */
+    public static List<Acf> from(List<? extends Var> series, int maxLag) {
+        return series.parallelStream()
+                .map(ts -> new Acf(ts, VarInt.seq(0, maxLag).withName("lags"), Method.AUTO))
+                .collect(Collectors.toList());
+    }
+
+    private Acf(Var ts, VarInt lags, Method method) {
+        double[] values = LagProducts.values(ts, "Acf");
         this.ts = ts.solidCopy();
         this.lags = lags.solidCopy();
         this.correlation = VarDouble.fill(lags.rowCount(), 0).withName("correlation");
         this.covariance = VarDouble.fill(lags.rowCount(), 0).withName("covariance");
 
-        compute();
+        compute(values, method);
     }
 
     public VarDouble correlation() {
@@ -72,17 +108,25 @@ public class Acf implements DefaultPrintable {
         return covariance;
     }
 
-    private void compute() {
+    private void compute(double[] values, Method method) {
         double mu = Mean.of(ts).value();
         double var = Variance.of(ts).biasedValue();
-        for (int i = 0; i < lags.rowCount(); i++) {
-            int lag = lags.getInt(i);
-            double acf = 0.0;
-            for (int j = 0; j < ts.rowCount() - lag; j++) {
-                acf += (ts.getDouble(j) - mu) * (ts.getDouble(j + lag) - mu);
-            }
-            correlation.setDouble(i, acf / (var * ts.rowCount()));
-            covariance.setDouble(i, acf / ts.rowCount());
+        int n = values.length;
+
+        int[] lagValues = new int[lags.rowCount()];
+        int maxLag = 0;
+        for (int i = 0; i < lagValues.length; i++) {
+            lagValues[i] = lags.getInt(i);
+            maxLag = Math.max(maxLag, Math.abs(lagValues[i]));
+        }
+        boolean fft = (method == Method.FFT)
+                || (method == Method.AUTO && LagProducts.useFft(n, lagValues.length, maxLag));
+
+        double[] centered = LagProducts.centered(values, mu);
+        double[] sums = LagProducts.sums(centered, centered, lagValues, fft);
+        for (int i = 0; i < lagValues.length; i++) {
+            correlation.setDouble(i, sums[i] / (var * n));
+            covariance.setDouble(i, sums[i] / n);
         }
     }
 
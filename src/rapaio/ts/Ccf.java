@@ -0,0 +1,132 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ts;
+
+import rapaio.core.stat.*;
+import rapaio.data.*;
+import rapaio.printer.*;
+import rapaio.printer.format.*;
+
+/**
+ * Sample Cross Correlation Function.
+ * <p>
+ * The value at lag k estimates the correlation between x[t+k] and y[t].
+ * Lagged products are computed directly or through FFT, depending on
+ * series length and number of lags.
+ */
+public class Ccf implements DefaultPrintable {
+
+    private final VarInt lags;
+    private final VarDouble correlation;
+    private final VarDouble covariance;
+
+    /**
+     * Builds cross correlation for lags from -maxLag to maxLag
+     *
+     * @param x      first time series
+     * @param y      second time series
+     * @param maxLag maximum absolute lag
+     * @return cross correlation function
+     */
+    public static Ccf from(Var x, Var y, int maxLag) {
+        return new Ccf(x, y, VarInt.seq(-maxLag, 2 * maxLag + 1).withName("lags"), Acf.Method.AUTO);
+    }
+
+    public static Ccf from(Var x, Var y, VarInt lags) {
+        return new Ccf(x, y, lags.withName("lags"), Acf.Method.AUTO);
+    }
+
+    public static Ccf from(Var x, Var y, VarInt lags, Acf.Method method) {
+        return new Ccf(x, y, lags.withName("lags"), method);
+    }
+
+    private Ccf(Var x, Var y, VarInt lags, Acf.Method method) {
+        if (x.rowCount() != y.rowCount()) {
+            throw new IllegalArgumentException("Ccf requires time series of equal length.");
+        }
+        double[] xs = LagProducts.values(x, "Ccf");
+        double[] ys = LagProducts.values(y, "Ccf");
+        this.lags = lags.solidCopy();
+        this.correlation = VarDouble.fill(lags.rowCount(), 0).withName("correlation");
+        this.covariance = VarDouble.fill(lags.rowCount(), 0).withName("covariance");
+
+        int n = xs.length;
+        int[] lagValues = new int[lags.rowCount()];
+        int maxLag = 0;
+        for (int i = 0; i < lagValues.length; i++) {
+            lagValues[i] = lags.getInt(i);
+            maxLag = Math.max(maxLag, Math.abs(lagValues[i]));
+        }
+        boolean fft = (method == Acf.Method.FFT)
+                || (method == Acf.Method.AUTO && LagProducts.useFft(n, lagValues.length, maxLag));
+
+        double sdx = Math.sqrt(Variance.of(x).biasedValue());
+        double sdy = Math.sqrt(Variance.of(y).biasedValue());
+        double[] sums = LagProducts.sums(
+                LagProducts.centered(xs, Mean.of(x).value()),
+                LagProducts.centered(ys, Mean.of(y).value()),
+                lagValues, fft);
+        for (int i = 0; i < lagValues.length; i++) {
+            correlation.setDouble(i, sums[i] / (sdx * sdy * n));
+            covariance.setDouble(i, sums[i] / n);
+        }
+    }
+
+    public VarInt lags() {
+        return lags;
+    }
+
+    public VarDouble correlation() {
+        return correlation;
+    }
+
+    public VarDouble covariance() {
+        return covariance;
+    }
+
+    @Override
+    public String summary() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Ccf summary\n");
+        sb.append("===========\n");
+        sb.append("\n");
+
+        TextTable tt = TextTable.empty(lags.rowCount() + 1, 3, 1, 0);
+        tt.textCenter(0, 0, "Lag");
+        tt.textCenter(0, 1, "correlation");
+        tt.textCenter(0, 2, "covariance");
+        for (int i = 0; i < lags.rowCount(); i++) {
+            tt.textRight(i + 1, 0, lags.getLabel(i));
+            tt.floatFlex(i + 1, 1, correlation.getDouble(i));
+            tt.floatFlex(i + 1, 2, covariance.getDouble(i));
+        }
+        sb.append(tt.getDefaultText());
+        sb.append("\n");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ts;
+
+import rapaio.data.Var;
+import rapaio.math.fourier.FFT;
+
+/**
+ * Sums of lagged products of centered series, the common core of
+ * auto and cross covariance functions.
+ * <p>
+ * Sums are computed either directly, with a cost proportional with
+ * series length times number of lags, or through FFT, with a cost
+ * proportional with m log(m), where m is the padded length. The method
+ * is chosen automatically from the estimated costs.
+ */
+final class LagProducts {
+
+    /**
+     * Relative cost of one FFT butterfly compared with a direct multiply-add,
+     * used to decide which method is faster.
+     */
+    private static final double FFT_COST = 10.0;
+
+    private LagProducts() {
+    }
+
+    /**
+     * Copies values of a series into an array, checking there are no missing values.
+     */
+    static double[] values(Var x, String name) {
+        double[] values = new double[x.rowCount()];
+        x.copyDoubles(0, values.length, values, 0);
+        boolean numeric = x.type().isNumeric();
+        for (int i = 0; i < values.length; i++) {
+            // numeric variables read missing values as NaN
+            if (numeric ? Double.isNaN(values[i]) : x.isMissing(i)) {
+                throw new IllegalArgumentException(name + " does not allow missing values.");
+            }
+        }
+        return values;
+    }
+
+    static double[] centered(double[] x, double mean) {
+        double[] c = new double[x.length];
+        for (int i = 0; i < x.length; i++) {
+            c[i] = x[i] - mean;
+        }
+        return c;
+    }
+
+    static boolean useFft(int n, int lagCount, int maxLag) {
+        int m = FFT.nextPowerOfTwo(n + maxLag + 1);
+        double fftCost = FFT_COST * m * (Math.log(m) / Math.log(2));
+        return (double) n * lagCount > fftCost;
+    }
+
+    /**
+     * Computes sum_t a[t+lag] * b[t] for each given lag, lags can be negative.
+     */
+    static double[] sums(double[] a, double[] b, int[] lags, boolean fft) {
+        int maxLag = 0;
+        for (int lag : lags) {
+            maxLag = Math.max(maxLag, Math.abs(lag));
+        }
+        return fft ? fftSums(a, b, lags, maxLag) : directSums(a, b, lags);
+    }
+
+    private static double[] directSums(double[] a, double[] b, int[] lags) {
+        int n = a.length;
+        double[] sums = new double[lags.length];
+        for (int i = 0; i < lags.length; i++) {
+            int lag = lags[i];
+            double sum = 0.0;
+            if (lag >= 0) {
+                for (int t = 0; t < n - lag; t++) {
+                    sum += a[t + lag] * b[t];
+                }
+            } else {
+                for (int t = -lag; t < n; t++) {
+                    sum += a[t + lag] * b[t];
+                }
+            }
+            sums[i] = sum;
+        }
+        return sums;
+    }
+
+    private static double[] fftSums(double[] a, double[] b, int[] lags, int maxLag) {
+        int n = a.length;
+        // padding avoids wrap around for all lags up to maxLag
+        int m = FFT.nextPowerOfTwo(n + Math.min(maxLag, n) + 1);
+        int bins = m / 2 + 1;
+
+        double[] pa = new double[m];
+        System.arraycopy(a, 0, pa, 0, n);
+        double[] are = new double[bins];
+        double[] aim = new double[bins];
+        FFT.rfft(pa, are, aim);
+
+        double[] pre = new double[bins];
+        double[] pim = new double[bins];
+        if (a == b) {
+            for (int k = 0; k < bins; k++) {
+                pre[k] = are[k] * are[k] + aim[k] * aim[k];
+            }
+        } else {
+            double[] pb = new double[m];
+            System.arraycopy(b, 0, pb, 0, n);
+            double[] bre = new double[bins];
+            double[] bim = new double[bins];
+            FFT.rfft(pb, bre, bim);
+            // A * conj(B)
+            for (int k = 0; k < bins; k++) {
+                pre[k] = are[k] * bre[k] + aim[k] * bim[k];
+                pim[k] = aim[k] * bre[k] - are[k] * bim[k];
+            }
+        }
+        double[] c = FFT.irfft(pre, pim, m);
+
+        double[] sums = new double[lags.length];
+        for (int i = 0; i < lags.length; i++) {
+            int lag = lags[i];
+            if (Math.abs(lag) >= n) {
+                continue;
+            }
+            sums[i] = lag >= 0 ? c[lag] : c[m + lag];
+        }
+        return sums;
+    }
+}
@@ -57,22 +57,25 @@ public class Pacf implements DefaultPrintable {
 
     private void computeDurbinLevinson() {
         Acf acf = Acf.from(ts, (int) Maximum.of(lags).value() + 1);
-        VarDouble cor = acf.correlation();
+        double[] cor = new double[acf.correlation().rowCount()];
+        for (int i = 0; i < cor.length; i++) {
+            cor[i] = acf.correlation().getDouble(i);
+        }
 
         double a, b, c;
-        int nlag = cor.rowCount()-1;
+        int nlag = cor.length - 1;
 
         double[] v = new double[nlag];
         double[] w = new double[nlag];
         pacf = VarDouble.empty(lags.rowCount()).withName("pacf");
-        w[0] = cor.getDouble(1);
-        pacf.setDouble(0, cor.getDouble(1));
+        w[0] = cor[1];
+        pacf.setDouble(0, cor[1]);
         for (int ll = 1; ll < nlag; ll++) {
-            a = cor.getDouble(ll + 1);
+            a = cor[ll + 1];
             b = 1.0;
             for (int i = 0; i < ll; i++) {
-                a -= w[i] * cor.getDouble(ll - i);
-                b -= w[i] * cor.getDouble(i + 1);
+                a -= w[i] * cor[ll - i];
+                b -= w[i] * cor[i + 1];
             }
             c = a / b;
             pacf.setDouble(ll, c);
@@ -31,6 +31,7 @@ import rapaio.core.RandomSource;
 import rapaio.core.distributions.Normal;
 import rapaio.ml.clustering.DistanceMatrix;
 import rapaio.data.SolidFrame;
+import rapaio.data.Var;
 import rapaio.data.VarDouble;
 import rapaio.math.linear.RM;
 import rapaio.math.linear.dense.SolidRM;
@@ -139,4 +140,21 @@ public class CorrPearsonTest {
                 "2. NaN   x NaN \n" +
                 "3. NaN NaN   x \n", CorrPearson.of(x, x, x).summary());
     }
+
+    @Test
+    public void testBlockedKeepsNames() {
+        RandomSource.setSeed(1234);
+        Var[] vars = new Var[10];
+        for (int i = 0; i < vars.length; i++) {
+            vars[i] = VarDouble.from(50, () -> Normal.std().sampleNext()).withName("v" + i);
+        }
+        CorrPearson cp = CorrPearson.of(vars);
+        for (int i = 0; i < vars.length; i++) {
+            assertEquals("v" + i, cp.matrix().names()[i]);
+            for (int j = 0; j < vars.length; j++) {
+                double expected = (i == j) ? 1 : CorrPearson.of(vars[i], vars[j]).singleValue();
+                assertEquals(expected, cp.matrix().get(i, j), 1e-12);
+            }
+        }
+    }
 }
@@ -0,0 +1,124 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.core.distributions;
+
+import org.junit.Before;
+import org.junit.Test;
+import rapaio.core.RandomSource;
+import rapaio.core.stat.Mean;
+import rapaio.core.stat.Variance;
+import rapaio.data.VarDouble;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DistributionBatchTest {
+
+    private static final double TOL = 1e-12;
+
+    private Distribution[] distributions;
+
+    @Before
+    public void setUp() {
+        RandomSource.setSeed(1234);
+        distributions = new Distribution[]{
+                Normal.of(2, 3),
+                Gamma.of(2.5, 1.5),
+                Gamma.of(1, 2),
+                StudentT.of(5, 1, 2),
+                ChiSquare.of(4),
+                Binomial.of(0.3, 40),
+                Poisson.of(7.5),
+                Hypergeometric.of(20, 30, 25),
+                Uniform.of(-1, 3)
+        };
+    }
+
+    @Test
+    public void testBatchMatchesScalar() {
+        double[] x = new double[200];
+        for (int i = 0; i < x.length; i++) {
+            x[i] = (i % 2 == 0) ? i / 4 : 0.173 * i;
+        }
+        double[] p = new double[99];
+        for (int i = 0; i < p.length; i++) {
+            p[i] = (i + 0.5) / p.length;
+        }
+        double[] out = new double[x.length];
+        double[] outp = new double[p.length];
+        for (Distribution d : distributions) {
+            d.pdf(x, out);
+            for (int i = 0; i < x.length; i++) {
+                assertEquals(d.name(), d.pdf(x[i]), out[i], TOL);
+            }
+            d.cdf(x, out);
+            for (int i = 0; i < x.length; i++) {
+                assertEquals(d.name(), d.cdf(x[i]), out[i], TOL);
+            }
+            d.quantile(p, outp);
+            for (int i = 0; i < p.length; i++) {
+                assertEquals(d.name(), d.quantile(p[i]), outp[i], TOL);
+            }
+        }
+    }
+
+    @Test
+    public void testVarBatch() {
+        Normal normal = Normal.of(1, 2);
+        VarDouble x = VarDouble.copy(-1, 0, Double.NaN, 2.5).withName("x");
+        VarDouble pdf = normal.pdf(x);
+        assertEquals("x", pdf.name());
+        assertEquals(4, pdf.rowCount());
+        assertTrue(pdf.isMissing(2));
+        assertEquals(normal.pdf(2.5), pdf.getDouble(3), TOL);
+        assertEquals(normal.cdf(-1), normal.cdf(x).getDouble(0), TOL);
+        assertEquals(normal.quantile(0.25), normal.quantile(VarDouble.wrap(0.25)).getDouble(0), TOL);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testShortOutput() {
+        Normal.std().pdf(new double[10], new double[9]);
+    }
+
+    @Test
+    public void testParallelSample() {
+        for (Distribution d : distributions) {
+            RandomSource.setSeed(42);
+            VarDouble first = d.sampleParallel(50_000);
+            RandomSource.setSeed(42);
+            VarDouble second = d.sampleParallel(50_000);
+            assertEquals(50_000, first.rowCount());
+            for (int i = 0; i < first.rowCount(); i++) {
+                assertEquals(first.getDouble(i), second.getDouble(i), 0);
+            }
+            VarDouble sequential = d.sample(50_000);
+            double err = 5 * Math.sqrt(2 * Variance.of(sequential).value() / first.rowCount());
+            assertEquals(d.name(), Mean.of(sequential).value(), Mean.of(first).value(), err);
+        }
+    }
+}
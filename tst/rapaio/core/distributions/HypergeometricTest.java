@@ -109,6 +109,22 @@ public class HypergeometricTest {
         hg1.pdf(Double.POSITIVE_INFINITY);
     }
 
+    @Test
+    public void testPdfTable() {
+        Hypergeometric hg = Hypergeometric.of(500, 700, 600);
+        double sum = 0;
+        for (int i = 0; i <= 600; i++) {
+            sum += hg.pdf(i);
+        }
+        assertEquals(1, sum, 1e-12);
+        assertEquals(1, hg.cdf(600), 1e-12);
+        assertEquals(hg.cdf(250) - hg.cdf(249), hg.pdf(250), 1e-15);
+        assertEquals(0, hg.pdf(-1), TOL);
+        assertEquals(0, hg.pdf(501), TOL);
+        assertEquals(0, Hypergeometric.of(3, 2, 4).pdf(1), TOL);
+        assertEquals(1, Hypergeometric.of(3, 2, 5).pdf(3), TOL);
+    }
+
     @Test
     public void testRPdf() {
         for (int i = 0; i < df.rowCount(); i++) {
@@ -0,0 +1,117 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.core.distributions.empirical;
+
+import org.junit.Before;
+import org.junit.Test;
+import rapaio.core.RandomSource;
+import rapaio.core.distributions.Normal;
+import rapaio.data.Var;
+
+import static org.junit.Assert.assertEquals;
+
+public class KDEGridTest {
+
+    private Var sample;
+
+    @Before
+    public void setUp() {
+        RandomSource.setSeed(1234);
+        sample = Normal.of(2, 3).sample(20_000);
+    }
+
+    @Test
+    public void testGridMatchesExact() {
+        KFunc[] kernels = new KFunc[]{new KFuncGaussian(), new KFuncEpanechnikov(), new KFuncTriweight()};
+        for (KFunc kernel : kernels) {
+            KDE kde = KDE.of(sample, kernel);
+            KDEGrid grid = kde.grid(-10, 14, 2_001);
+            assertEquals(2_001, grid.size());
+            assertEquals(-10, grid.x(0), 1e-12);
+            assertEquals(14, grid.x(2_000), 1e-12);
+
+            double[] x = new double[grid.size()];
+            double[] exact = new double[grid.size()];
+            for (int i = 0; i < x.length; i++) {
+                x[i] = grid.x(i);
+            }
+            kde.pdf(x, exact);
+            for (int i = 0; i < x.length; i++) {
+                assertEquals(kernel.summary(), exact[i], grid.density(i), 1e-4);
+            }
+        }
+    }
+
+    @Test
+    public void testInterpolation() {
+        KDE kde = KDE.of(sample);
+        KDEGrid grid = kde.grid(4_001);
+        for (double x = -8; x < 12; x += 0.37) {
+            assertEquals(kde.pdf(x), grid.pdf(x), 1e-4);
+        }
+        assertEquals(0, grid.pdf(grid.min() - 1), 0);
+        assertEquals(0, grid.pdf(grid.max() + 1), 0);
+        assertEquals(grid.density(0), grid.pdf(grid.min()), 1e-15);
+        assertEquals(grid.density(grid.size() - 1), grid.pdf(grid.max()), 1e-15);
+    }
+
+    @Test
+    public void testBatchExact() {
+        KDE kde = KDE.of(sample, new KFuncBiWeight());
+        double[] x = new double[]{-5, 0, 1.5, 2, 7};
+        double[] out = new double[x.length];
+        kde.pdf(x, out);
+        for (int i = 0; i < x.length; i++) {
+            assertEquals(kde.pdf(x[i]), out[i], 0);
+        }
+    }
+
+    @Test
+    public void testSupport() {
+        KDE kde = KDE.of(sample, new KFuncEpanechnikov(), 0.5);
+        double[] sorted = kde.sortedValues();
+        assertEquals(sorted[0] - 0.5, kde.supportMin(), 1e-12);
+        assertEquals(sorted[sorted.length - 1] + 0.5, kde.supportMax(), 1e-12);
+        assertEquals(0, kde.pdf(kde.supportMin() - 1e-9), 0);
+        assertEquals(0, kde.pdf(kde.supportMax() + 1e-9), 0);
+
+        KDEGrid grid = kde.grid(11);
+        assertEquals(kde.supportMin(), grid.min(), 0);
+        assertEquals(kde.supportMax(), grid.max(), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidSize() {
+        KDE.of(sample).grid(0, 1, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidRange() {
+        KDE.of(sample).grid(1, 1, 10);
+    }
+}
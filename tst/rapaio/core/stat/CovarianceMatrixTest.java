@@ -0,0 +1,123 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.core.stat;
+
+import org.junit.Before;
+import org.junit.Test;
+import rapaio.core.RandomSource;
+import rapaio.core.correlation.CorrPearson;
+import rapaio.core.correlation.CorrSpearman;
+import rapaio.core.distributions.Normal;
+import rapaio.data.Var;
+import rapaio.data.VarDouble;
+import rapaio.ml.clustering.DistanceMatrix;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CovarianceMatrixTest {
+
+    private static final double TOL = 1e-12;
+
+    @Before
+    public void setUp() {
+        RandomSource.setSeed(123);
+    }
+
+    private Var[] randomVars(int p, int n, boolean missing) {
+        Normal normal = Normal.of(10, 3);
+        Var[] vars = new Var[p];
+        VarDouble base = VarDouble.from(n, row -> normal.sampleNext());
+        for (int i = 0; i < p; i++) {
+            final int step = 3 + i;
+            final double w = (i % 5) / 5.0;
+            vars[i] = VarDouble.from(n, row -> (missing && (isMissing(row, step)))
+                    ? Double.NaN
+                    : w * base.getDouble(row) + normal.sampleNext()).withName("v" + i);
+        }
+        return vars;
+    }
+
+    private static boolean isMissing(int row, int step) {
+        return row % step == 1;
+    }
+
+    @Test
+    public void testCompleteValues() {
+        Var[] vars = randomVars(40, 500, false);
+        CovarianceMatrix cm = CovarianceMatrix.of(vars);
+        for (int i = 0; i < vars.length; i++) {
+            for (int j = 0; j < vars.length; j++) {
+                assertEquals(Covariance.of(vars[i], vars[j]).value(), cm.covariance().get(i, j), TOL);
+                double corr = (i == j) ? 1 : CorrPearson.of(vars[i], vars[j]).singleValue();
+                assertEquals(corr, cm.correlation().get(i, j), TOL);
+            }
+        }
+    }
+
+    @Test
+    public void testPairwiseMissingValues() {
+        Var[] vars = randomVars(37, 500, true);
+        CovarianceMatrix cm = CovarianceMatrix.of(vars);
+        for (int i = 0; i < vars.length; i++) {
+            assertEquals(Variance.of(vars[i]).value(), cm.covariance().get(i, i), TOL);
+            for (int j = i + 1; j < vars.length; j++) {
+                assertEquals(Covariance.of(vars[i], vars[j]).value(), cm.covariance().get(i, j), TOL);
+                assertEquals(CorrPearson.of(vars[i], vars[j]).singleValue(), cm.correlation().get(i, j), TOL);
+            }
+        }
+    }
+
+    @Test
+    public void testDegenerateColumns() {
+        VarDouble x = VarDouble.fill(10, 3).withName("x");
+        VarDouble y = VarDouble.seq(9).withName("y");
+        VarDouble z = VarDouble.copy(1, Double.NaN, Double.NaN, Double.NaN, Double.NaN,
+                Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN).withName("z");
+        CovarianceMatrix cm = CovarianceMatrix.of(x, y, z);
+
+        assertEquals(0, cm.covariance().get(0, 1), TOL);
+        assertTrue(Double.isNaN(cm.correlation().get(0, 1)));
+        assertTrue(Double.isNaN(cm.covariance().get(1, 2)));
+        assertTrue(Double.isNaN(cm.correlation().get(1, 2)));
+        assertTrue(Double.isNaN(cm.covariance().get(2, 2)));
+    }
+
+    @Test
+    public void testWideCorrelations() {
+        Var[] vars = randomVars(20, 300, true);
+        DistanceMatrix pearson = CorrPearson.of(vars).matrix();
+        DistanceMatrix spearman = CorrSpearman.of(vars).matrix();
+        for (int i = 0; i < vars.length; i++) {
+            for (int j = i + 1; j < vars.length; j++) {
+                assertEquals(CorrPearson.of(vars[i], vars[j]).singleValue(), pearson.get(i, j), TOL);
+                assertTrue(Math.abs(spearman.get(i, j)) <= 1);
+            }
+        }
+    }
+}
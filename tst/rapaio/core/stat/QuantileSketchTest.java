@@ -0,0 +1,156 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.core.stat;
+
+import org.junit.Before;
+import org.junit.Test;
+import rapaio.core.RandomSource;
+import rapaio.core.distributions.Normal;
+import rapaio.data.VarDouble;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class QuantileSketchTest {
+
+    private static final double[] PERCENTILES = new double[]{0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.99};
+
+    @Before
+    public void setUp() {
+        RandomSource.setSeed(123);
+    }
+
+    private void assertRankError(double[] sorted, QuantileSketch sketch, double eps) {
+        for (double p : PERCENTILES) {
+            double q = sketch.quantile(p);
+            int pos = Arrays.binarySearch(sorted, q);
+            double rank = (pos < 0 ? -pos - 1 : pos + 1) / (double) sorted.length;
+            assertEquals("rank error for p=" + p, p, rank, eps);
+            assertEquals(rank, sketch.rank(q), eps);
+        }
+    }
+
+    @Test
+    public void testAccuracy() {
+        Normal normal = Normal.std();
+        double[] values = new double[1_000_000];
+        QuantileSketch sketch = QuantileSketch.empty();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = normal.sampleNext();
+            sketch.update(values[i]);
+        }
+        assertEquals(values.length, sketch.n());
+        assertTrue(sketch.retainedCount() < 1_000);
+
+        Arrays.sort(values);
+        assertEquals(values[0], sketch.min(), 0);
+        assertEquals(values[values.length - 1], sketch.max(), 0);
+        assertEquals(values[0], sketch.quantile(0), 0);
+        assertEquals(values[values.length - 1], sketch.quantile(1), 0);
+        assertRankError(values, sketch, 0.01);
+    }
+
+    @Test
+    public void testMerge() {
+        Normal normal = Normal.of(10, 3);
+        double[] values = new double[200_000];
+        QuantileSketch[] chunks = new QuantileSketch[10];
+        for (int i = 0; i < chunks.length; i++) {
+            chunks[i] = QuantileSketch.empty(400);
+        }
+        for (int i = 0; i < values.length; i++) {
+            values[i] = normal.sampleNext();
+            chunks[i % chunks.length].update(values[i]);
+        }
+        QuantileSketch merged = QuantileSketch.empty(400);
+        for (QuantileSketch chunk : chunks) {
+            merged.merge(chunk);
+        }
+        assertEquals(values.length, merged.n());
+        Arrays.sort(values);
+        assertRankError(values, merged, 0.005);
+    }
+
+    @Test
+    public void testSmall() {
+        QuantileSketch sketch = QuantileSketch.of(VarDouble.copy(3, 1, 2, Double.NaN, 5, 4));
+        assertEquals(5, sketch.n());
+        assertEquals(3, sketch.quantile(0.5), 0);
+        assertEquals(1, sketch.quantile(0), 0);
+        assertEquals(5, sketch.quantile(1), 0);
+        assertEquals(0.4, sketch.rank(2), 1e-12);
+
+        QuantileSketch empty = QuantileSketch.empty();
+        assertTrue(Double.isNaN(empty.quantile(0.5)));
+        assertTrue(Double.isNaN(empty.min()));
+        assertEquals(5, sketch.merge(empty).n());
+    }
+
+    @Test(timeout = 10_000)
+    public void testSelfMerge() {
+        QuantileSketch sketch = QuantileSketch.of(VarDouble.copy(3, 1, 2, 5, 4));
+        sketch.merge(sketch);
+        assertEquals(10, sketch.n());
+        assertEquals(1, sketch.quantile(0), 0);
+        assertEquals(5, sketch.quantile(1), 0);
+        assertEquals(3, sketch.quantile(0.5), 0);
+
+        QuantileSketch large = QuantileSketch.of(Normal.std().sample(10_000));
+        double median = large.quantile(0.5);
+        large.merge(large);
+        assertEquals(20_000, large.n());
+        assertEquals(median, large.quantile(0.5), 0.05);
+    }
+
+    @Test
+    public void testSerialization() throws IOException, ClassNotFoundException {
+        QuantileSketch sketch = QuantileSketch.of(Normal.std().sample(10_000));
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(bos)) {
+            oos.writeObject(sketch);
+        }
+        QuantileSketch copy;
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bos.toByteArray()))) {
+            copy = (QuantileSketch) ois.readObject();
+        }
+        assertEquals(sketch.n(), copy.n());
+        assertArrayEquals(sketch.quantiles(PERCENTILES), copy.quantiles(PERCENTILES), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidK() {
+        QuantileSketch.empty(2);
+    }
+}
@@ -63,4 +63,24 @@ public class QuantilesTest {
         // aprox 1.96
         assertEquals(1.9615708871881077, qq[3], TOL);
     }
+
+    @Test
+    public void testApprox() {
+        Normal normal = Normal.std();
+        VarDouble x = VarDouble.from(100_000, normal::sampleNext);
+        x.addMissing();
+
+        double[] exact = Quantiles.of(x, 0, 0.025, 0.5, 0.975, 1).values();
+        double[] approx = Quantiles.approx(x, 0, 0.025, 0.5, 0.975, 1).values();
+
+        assertEquals(exact[0], approx[0], TOL);
+        assertEquals(exact[4], approx[4], TOL);
+        double[] p = new double[]{0, 0.025, 0.5, 0.975};
+        for (int i = 1; i < 4; i++) {
+            // rank of the approximate quantile is close to the percentile
+            double value = approx[i];
+            double rank = x.stream().complete().filter(s -> s.getDouble() <= value).count() / (x.rowCount() - 1.0);
+            assertEquals(p[i], rank, 0.01);
+        }
+    }
 }
@@ -0,0 +1,151 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.core.stat;
+
+import org.junit.Before;
+import org.junit.Test;
+import rapaio.core.RandomSource;
+import rapaio.data.Mapping;
+import rapaio.data.VarDouble;
+
+import static org.junit.Assert.*;
+
+public class RollingStatTest {
+
+    private static final double TOL = 1e-9;
+
+    @Before
+    public void setUp() {
+        RandomSource.setSeed(1234);
+    }
+
+    private void assertWindow(RollingStat rs, VarDouble window) {
+        VarDouble complete = VarDouble.empty();
+        for (int i = 0; i < window.rowCount(); i++) {
+            if (!window.isMissing(i)) {
+                complete.addDouble(window.getDouble(i));
+            }
+        }
+        assertEquals(window.rowCount(), rs.rows());
+        assertEquals(complete.rowCount(), rs.n());
+        if (complete.rowCount() == 0) {
+            assertTrue(Double.isNaN(rs.mean()));
+            assertTrue(Double.isNaN(rs.min()));
+            return;
+        }
+        assertEquals(Sum.of(complete).value(), rs.sum(), TOL);
+        assertEquals(Mean.of(complete).value(), rs.mean(), TOL);
+        assertEquals(Variance.of(complete).biasedValue(), rs.variance(), TOL);
+        if (complete.rowCount() > 1) {
+            assertEquals(Variance.of(complete).value(), rs.sampleVariance(), TOL);
+        }
+        assertEquals(Minimum.of(complete).value(), rs.min(), 0);
+        assertEquals(Maximum.of(complete).value(), rs.max(), 0);
+        double[] q = Quantiles.of(complete, 0, 0.1, 0.5, 0.75, 1).values();
+        assertEquals(q[0], rs.quantile(0), TOL);
+        assertEquals(q[1], rs.quantile(0.1), TOL);
+        assertEquals(q[2], rs.quantile(0.5), TOL);
+        assertEquals(q[3], rs.quantile(0.75), TOL);
+        assertEquals(q[4], rs.quantile(1), TOL);
+    }
+
+    @Test
+    public void testRowWindow() {
+        for (int window : new int[]{1, 2, 5, 17, 100}) {
+            RollingStat rs = RollingStat.ofWindow(window).withQuantiles(true);
+            VarDouble all = VarDouble.empty();
+            for (int i = 0; i < 500; i++) {
+                double x = RandomSource.nextDouble() < 0.1 ? Double.NaN : RandomSource.nextInt(20) * 10.0;
+                rs.update(x);
+                all.addDouble(x);
+                int start = Math.max(0, all.rowCount() - window);
+                assertWindow(rs, (VarDouble) all.mapRows(Mapping.range(start, all.rowCount())).solidCopy());
+            }
+        }
+    }
+
+    @Test
+    public void testTimeSpan() {
+        RollingStat rs = RollingStat.ofSpan(10).withQuantiles(true);
+        VarDouble times = VarDouble.empty();
+        VarDouble all = VarDouble.empty();
+        double time = 0;
+        for (int i = 0; i < 500; i++) {
+            time += RandomSource.nextInt(4);
+            double x = RandomSource.nextDouble() * 100;
+            rs.update(time, x);
+            times.addDouble(time);
+            all.addDouble(x);
+
+            VarDouble window = VarDouble.empty();
+            for (int j = 0; j < all.rowCount(); j++) {
+                if (times.getDouble(j) > time - 10) {
+                    window.addDouble(all.getDouble(j));
+                }
+            }
+            assertWindow(rs, window);
+        }
+    }
+
+    @Test
+    public void testLongDrift() {
+        RollingStat rs = RollingStat.ofWindow(10);
+        for (int i = 0; i < 100_000; i++) {
+            rs.update(1e6 + (i % 10));
+        }
+        assertEquals(1e6 + 4.5, rs.mean(), 1e-9);
+        assertEquals(8.25, rs.variance(), 1e-6);
+    }
+
+    @Test
+    public void testClean() {
+        RollingStat rs = RollingStat.ofWindow(3);
+        rs.update(1);
+        rs.update(2);
+        rs.clean();
+        assertEquals(0, rs.n());
+        rs.update(7);
+        assertEquals(7, rs.mean(), TOL);
+        assertEquals(7, rs.min(), TOL);
+        assertEquals(7, rs.max(), TOL);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDecreasingTime() {
+        RollingStat rs = RollingStat.ofSpan(3);
+        rs.update(2, 1);
+        rs.update(1, 1);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testQuantilesNotEnabled() {
+        RollingStat rs = RollingStat.ofWindow(3);
+        rs.update(1);
+        rs.quantile(0.5);
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.data;
+
+import it.unimi.dsi.fastutil.ints.IntComparator;
+import org.junit.Before;
+import org.junit.Test;
+import rapaio.core.RandomSource;
+import rapaio.data.filter.frame.FRefSort;
+
+import static org.junit.Assert.*;
+
+public class SortIndexTest {
+
+    private Frame df;
+
+    @Before
+    public void setUp() {
+        RandomSource.setSeed(1234);
+        int n = 200_000;
+        double[] specials = new double[]{Double.NaN, -0.0, 0.0, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, -1.5, 1.5};
+        VarDouble d = VarDouble.from(n, row -> RandomSource.nextDouble() < 0.2
+                ? specials[RandomSource.nextInt(specials.length)]
+                : RandomSource.nextInt(100) - 50.0).withName("d");
+        VarInt i = VarInt.from(n, row -> RandomSource.nextInt(20) - 10).withName("i");
+        for (int row = 0; row < n; row += 17) {
+            i.setMissing(row);
+        }
+        String[] words = new String[]{"?", "beta", "alpha", "gamma", "Delta", "alpha2"};
+        VarNominal nom = VarNominal.from(n, row -> words[RandomSource.nextInt(words.length)]).withName("nom");
+        VarText text = VarText.from(n, () -> RandomSource.nextDouble() < 0.1 ? null : words[RandomSource.nextInt(words.length)]).withName("text");
+        VarLong l = VarLong.from(n, row -> (long) RandomSource.nextInt(1000) * (1L << 40)).withName("l");
+        l.setMissing(3);
+        VarBinary b = VarBinary.from(n, row -> RandomSource.nextDouble() < 0.5).withName("b");
+        b.setMissing(5);
+        df = SolidFrame.byVars(d, i, nom, text, l, b);
+    }
+
+    private void assertSorted(int[] rows, IntComparator comparator) {
+        for (int k = 1; k < rows.length; k++) {
+            int comp = comparator.compare(rows[k - 1], rows[k]);
+            assertTrue(comp <= 0);
+            if (comp == 0) {
+                // stable order for equal keys
+                assertTrue(rows[k - 1] < rows[k]);
+            }
+        }
+    }
+
+    @Test
+    public void testSingleKeys() {
+        for (String name : df.varNames()) {
+            for (boolean asc : new boolean[]{true, false}) {
+                Var var = df.rvar(name);
+                SortIndex index = SortIndex.of(var, asc);
+                assertEquals(var.rowCount(), index.size());
+                assertSorted(index.rows(), var.refComparator(asc));
+            }
+        }
+    }
+
+    @Test
+    public void testMultipleKeys() {
+        String[] names = new String[]{"nom", "i", "d"};
+        boolean[] asc = new boolean[]{true, false, true};
+        SortIndex index = SortIndex.of(df, names, asc);
+        IntComparator comparator = RowComparators.from(
+                df.rvar("nom").refComparator(true),
+                df.rvar("i").refComparator(false),
+                df.rvar("d").refComparator(true));
+        assertSorted(index.rows(), comparator);
+
+        Frame sorted = df.fapply(FRefSort.byVars(names, asc));
+        for (int k = 0; k < sorted.rowCount(); k++) {
+            assertEquals(df.getDouble(index.row(k), "d"), sorted.getDouble(k, "d"), 0);
+            assertEquals(df.getLabel(index.row(k), "text"), sorted.getLabel(k, "text"));
+        }
+    }
+
+    @Test
+    public void testSmallAndMapped() {
+        assertEquals(0, SortIndex.of(VarDouble.empty(), true).size());
+        assertArrayEquals(new int[]{0}, SortIndex.of(VarDouble.wrap(3), true).rows());
+        assertArrayEquals(new int[]{2, 0, 1}, SortIndex.of(VarDouble.wrap(2, 3, 1), true).rows());
+        assertArrayEquals(new int[]{1, 0, 2}, SortIndex.of(VarDouble.wrap(2, 3, 1), false).rows());
+
+        Var mapped = df.rvar("d").mapRows(Mapping.range(1000, 5000));
+        assertSorted(SortIndex.of(mapped, true).rows(), mapped.refComparator(true));
+
+        Var sorted = SortIndex.of(VarDouble.wrap(2, 3, 1), true).apply(VarDouble.wrap(20, 30, 10));
+        assertEquals(10, sorted.getDouble(0), 0);
+        assertEquals(30, sorted.getDouble(2), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidRowCount() {
+        SortIndex.of(VarDouble.wrap(2, 3, 1), true).apply(VarDouble.wrap(1, 2));
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.data;
+
+import org.junit.Before;
+import org.junit.Test;
+import rapaio.core.RandomSource;
+
+import static org.junit.Assert.*;
+
+public class VarBulkAccessTest {
+
+    private static final double TOL = 1e-20;
+
+    @Before
+    public void setUp() {
+        RandomSource.setSeed(1234);
+    }
+
+    private void assertSameDoubles(Var var) {
+        double[] copy = new double[var.rowCount() + 2];
+        var.copyDoubles(0, var.rowCount(), copy, 2);
+        double[] array = var.doubleArray();
+        for (int i = 0; i < var.rowCount(); i++) {
+            assertEquals(var.getDouble(i), copy[i + 2], TOL);
+            assertEquals(var.getDouble(i), array[i], TOL);
+        }
+        if (var.rowCount() > 3) {
+            double[] range = new double[var.rowCount() - 3];
+            var.copyDoubles(2, var.rowCount() - 1, range, 0);
+            for (int i = 0; i < range.length; i++) {
+                assertEquals(var.getDouble(i + 2), range[i], TOL);
+            }
+        }
+    }
+
+    private void assertSameInts(Var var) {
+        int[] copy = new int[var.rowCount() + 2];
+        var.copyInts(0, var.rowCount(), copy, 2);
+        int[] array = var.intArray();
+        for (int i = 0; i < var.rowCount(); i++) {
+            assertEquals(var.getInt(i), copy[i + 2]);
+            assertEquals(var.getInt(i), array[i]);
+        }
+    }
+
+    @Test
+    public void testSolidVars() {
+        VarDouble x = VarDouble.from(100, RandomSource::nextDouble);
+        x.setMissing(7);
+        VarInt y = VarInt.from(100, row -> RandomSource.nextInt(10));
+        y.setMissing(3);
+        VarNominal z = VarNominal.from(100, row -> row % 3 == 0 ? "?" : "l" + (row % 5));
+        VarBinary b = VarBinary.from(100, row -> row % 2 == 0);
+        b.setMissing(1);
+        VarLong l = VarLong.from(100, row -> (long) row * 3);
+        l.setMissing(5);
+
+        for (Var var : new Var[]{x, y, z, b, l}) {
+            assertSameDoubles(var);
+            assertSameInts(var);
+        }
+
+        assertSame(x.doubleView(), x.doubleArray());
+        assertSame(y.intView(), y.intArray());
+        assertSame(z.intView(), z.intArray());
+        assertNull(x.intView());
+        assertNull(y.doubleView());
+        assertNull(b.doubleView());
+        assertTrue(Double.isNaN(y.doubleArray()[3]));
+    }
+
+    @Test
+    public void testMappedAndBoundVars() {
+        VarDouble x = VarDouble.from(5_000, RandomSource::nextDouble);
+        VarInt y = VarInt.from(5_000, row -> RandomSource.nextInt(100));
+        int[] rows = new int[3_000];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = RandomSource.nextInt(5_000);
+        }
+        assertSameDoubles(x.mapRows(rows));
+        assertSameInts(y.mapRows(rows));
+        assertSameDoubles(x.mapRows(Mapping.range(100, 2_000)));
+        assertNull(x.mapRows(rows).doubleView());
+
+        Var bound = x.mapRows(0, 1, 2).bindRows(VarDouble.empty()).bindRows(x.mapRows(rows)).bindRows(x);
+        assertSameDoubles(bound);
+        assertSameInts(y.bindRows(y.mapRows(rows)));
+    }
+
+    @Test
+    public void testFrames() {
+        VarDouble x = VarDouble.from(200, RandomSource::nextDouble).withName("x");
+        VarInt y = VarInt.from(200, row -> RandomSource.nextInt(100)).withName("y");
+        Frame df = SolidFrame.byVars(x, y);
+        Frame mapped = df.mapRows(Mapping.wrap(5, 2, 100, 199));
+        Frame bound = df.bindRows(mapped);
+
+        for (Frame frame : new Frame[]{df, mapped, bound}) {
+            double[] xs = frame.doubleArray("x");
+            int[] ys = frame.intArray("y");
+            int[] copy = new int[frame.rowCount()];
+            frame.copyInts(1, 0, frame.rowCount(), copy, 0);
+            for (int i = 0; i < frame.rowCount(); i++) {
+                assertEquals(frame.getDouble(i, "x"), xs[i], TOL);
+                assertEquals(frame.getInt(i, "y"), ys[i]);
+                assertEquals(frame.getInt(i, "y"), copy[i]);
+            }
+        }
+        assertSame(x.doubleView(), df.doubleArray("x"));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testInvalidRange() {
+        VarDouble.seq(10).copyDoubles(5, 12, new double[20], 0);
+    }
+}
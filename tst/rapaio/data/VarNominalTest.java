@@ -312,4 +312,22 @@ public class VarNominalTest {
         VarNominal y = VarNominal.empty(0, "a", "b");
         y.setLevels("x");
     }
+
+    @Test
+    public void testSharedInterning() {
+        StringPool.setEnabled(true);
+        try {
+            VarNominal a = VarNominal.copy(new String("x"), new String("y"));
+            VarNominal b = VarNominal.copy(new String("y"), new String("x"));
+            assertSame(a.getLabel(0), b.getLabel(1));
+            assertSame(a.getLabel(1), b.getLabel(0));
+        } finally {
+            StringPool.setEnabled(false);
+            StringPool.clear();
+        }
+        VarNominal c = VarNominal.copy(new String("x"));
+        VarNominal d = VarNominal.copy(new String("x"));
+        assertNotSame(c.getLabel(0), d.getLabel(0));
+        assertEquals(c.getLabel(0), d.getLabel(0));
+    }
 }
@@ -53,7 +53,6 @@ public class VarTextTest {
 
         VarText copy1 = VarText.copy(largeValues);
         assertTrue(copy1.deepEquals(VarText.copy(Arrays.asList(largeValues))));
-        assertTrue(copy1.deepEquals(VarText.wrap(Arrays.asList(largeValues))));
 
         Iterator<String> it = Arrays.asList(largeValues).iterator();
         assertTrue(copy1.deepEquals(VarText.from(largeValues.length, it::next)));
@@ -197,4 +196,62 @@ public class VarTextTest {
         assertEquals("l3", x.getLabel(2));
         assertTrue(x.isMissing(3));
     }
+
+    @Test
+    public void testNonAsciiValues() {
+        String[] values = new String[]{"caf\u00e9", "\u0103\u0219\u021b", "\u6f22\u5b57", "\ud83d\ude00", "", "plain"};
+        VarText text = VarText.copy(values);
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(values[i], text.getLabel(i));
+        }
+        VarText copy = text.solidCopy();
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(values[i], copy.getLabel(i));
+        }
+    }
+
+    @Test
+    public void testRepeatedUpdatesAndRemove() {
+        VarText text = VarText.empty(10);
+        for (int round = 0; round < 2_000; round++) {
+            text.setLabel(round % 10, "value-" + round);
+        }
+        for (int i = 0; i < 10; i++) {
+            assertEquals("value-" + (1_990 + i), text.getLabel(i));
+        }
+        text.removeRow(0);
+        text.setMissing(0);
+        assertEquals(9, text.rowCount());
+        assertTrue(text.isMissing(0));
+        assertEquals("value-1992", text.getLabel(1));
+        assertEquals("value-1999", text.getLabel(8));
+
+        text.clearRows();
+        assertEquals(0, text.rowCount());
+        text.addLabel("x");
+        assertEquals("x", text.getLabel(0));
+    }
+
+    @Test
+    public void testLabelEqualsAndCompare() {
+        String[] values = new String[]{"abc", "abd", "ab", "caf\u00e9", "cafe", "\uffff", "\ud83d\ude00",
+                "\u6f22\u5b57", "", null, "abc", "a\u00e9", "a\ud83d\ude00"};
+        VarText text = VarText.copy(values);
+        for (int i = 0; i < values.length; i++) {
+            for (String value : values) {
+                assertEquals(values[i] == null ? value == null : values[i].equals(value), text.labelEquals(i, value));
+            }
+            for (int j = 0; j < values.length; j++) {
+                int expected;
+                if (values[i] == null || values[j] == null) {
+                    expected = Boolean.compare(values[i] != null, values[j] != null);
+                } else {
+                    expected = values[i].compareTo(values[j]);
+                }
+                assertEquals(Integer.signum(expected), Integer.signum(text.compareLabels(i, j)));
+            }
+        }
+        assertFalse(text.labelEquals(0, "ab"));
+        assertFalse(text.labelEquals(3, "caf\u00e8"));
+    }
 }
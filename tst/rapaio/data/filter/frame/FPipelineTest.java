@@ -0,0 +1,176 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.data.filter.frame;
+
+import org.junit.Before;
+import org.junit.Test;
+import rapaio.core.RandomSource;
+import rapaio.data.Frame;
+import rapaio.data.SolidFrame;
+import rapaio.data.VRange;
+import rapaio.data.VarDouble;
+import rapaio.data.VarInt;
+import rapaio.data.VarNominal;
+import rapaio.data.filter.FFilter;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class FPipelineTest {
+
+    private static final double TOL = 1e-12;
+
+    @Before
+    public void setUp() {
+        RandomSource.setSeed(42);
+    }
+
+    private Frame sample(int n) {
+        VarDouble x = VarDouble.from(n, row -> RandomSource.nextDouble() * 10).withName("x");
+        VarDouble y = VarDouble.from(n, row -> RandomSource.nextDouble() * 5).withName("y");
+        for (int i = 0; i < n; i += 7) {
+            x.setMissing(i);
+        }
+        VarNominal num = VarNominal.from(n, row -> row % 11 == 0 ? "?" : String.valueOf(row % 13 / 2.0)).withName("n");
+        VarNominal cat = VarNominal.from(n, row -> row % 2 == 0 ? "a" : "b").withName("c");
+        VarInt k = VarInt.from(n, row -> row % 5).withName("k");
+        return SolidFrame.byVars(x, y, num, cat, k);
+    }
+
+    private FFilter[] fusedFilters() {
+        return new FFilter[]{
+                FToDouble.on(VRange.of("n")),
+                FFillNaDouble.on(0, VRange.of("x", "y", "n", "c")),
+                FStandardize.on(VRange.of("x", "y", "n", "c")),
+                FApplyDouble.on(v -> v * 2, VRange.of("x", "n")),
+                FTransformBoxCox.on(0.5, 10, "y")
+        };
+    }
+
+    private FFilter[] copies(FFilter[] filters) {
+        FFilter[] copies = new FFilter[filters.length];
+        for (int i = 0; i < filters.length; i++) {
+            copies[i] = filters[i].newInstance();
+        }
+        return copies;
+    }
+
+    private void assertFramesEqual(Frame expected, Frame actual) {
+        assertArrayEquals(expected.varNames(), actual.varNames());
+        assertEquals(expected.rowCount(), actual.rowCount());
+        for (int j = 0; j < expected.varCount(); j++) {
+            assertEquals(expected.rvar(j).type(), actual.rvar(j).type());
+            for (int i = 0; i < expected.rowCount(); i++) {
+                if (expected.rvar(j).type().isNumeric()) {
+                    assertEquals(expected.getDouble(i, j), actual.getDouble(i, j), TOL);
+                } else {
+                    assertEquals(expected.getLabel(i, j), actual.getLabel(i, j));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testFusedChain() {
+        Frame df = sample(50_000);
+        Frame copy = df.solidCopy();
+
+        Frame expected = df.solidCopy().fapply(copies(fusedFilters()));
+        FPipeline pipeline = FPipeline.of(fusedFilters());
+        Frame actual = df.fapply(pipeline);
+
+        assertFramesEqual(expected, actual);
+        assertFramesEqual(copy, df);
+
+        List<String> plan = pipeline.plan();
+        assertEquals(1, plan.size());
+        assertTrue(plan.get(0).startsWith("Fused["));
+        assertArrayEquals(new String[]{"n", "x", "y", "c"}, pipeline.varNames());
+    }
+
+    @Test
+    public void testFitThenApply() {
+        Frame train = sample(10_000);
+        Frame test = sample(3_000);
+
+        FFilter[] eager = copies(fusedFilters());
+        train.solidCopy().fapply(eager);
+        Frame expected = test.solidCopy().apply(eager);
+
+        FPipeline pipeline = FPipeline.of(fusedFilters());
+        pipeline.fit(train);
+        assertFramesEqual(expected, test.apply(pipeline));
+
+        FPipeline fresh = pipeline.newInstance();
+        fresh.fit(train);
+        assertFramesEqual(expected, fresh.apply(test));
+    }
+
+    @Test
+    public void testStagesWithOtherFilters() {
+        Frame df = sample(5_000);
+        FFilter[] filters = new FFilter[]{
+                FFillNaDouble.on(1, VRange.of("x")),
+                FStandardize.on(VRange.of("x", "k")),
+                FOneHotEncoding.on("c"),
+                FApplyDouble.on(v -> v + 1, VRange.of("x", "y")),
+                FStandardize.on(VRange.of("x", "y"))
+        };
+        Frame expected = df.solidCopy().fapply(copies(filters));
+        FPipeline pipeline = FPipeline.of(copies(filters));
+        Frame actual = df.fapply(pipeline);
+
+        assertFramesEqual(expected, actual);
+        List<String> plan = pipeline.plan();
+        assertEquals(4, plan.size());
+        assertTrue(plan.get(0).startsWith("Fused[FFillNaDouble]"));
+        assertEquals("FStandardize", plan.get(1));
+        assertEquals("FOneHotEncoding", plan.get(2));
+        assertTrue(plan.get(3).startsWith("Fused[FApplyDouble,FStandardize]"));
+    }
+
+    @Test
+    public void testInputNotAltered() {
+        Frame df = sample(2_000);
+        Frame copy = df.solidCopy();
+        FFilter[] filters = new FFilter[]{
+                FStandardize.on(VRange.of("k")),
+                FApplyDouble.on(v -> v + 1, VRange.of("x", "y")),
+                FOneHotEncoding.on("c")
+        };
+        FPipeline pipeline = FPipeline.of(filters);
+        Frame expected = df.solidCopy().fapply(copies(filters));
+
+        assertFramesEqual(expected, df.fapply(pipeline));
+        assertEquals("FStandardize", pipeline.plan().get(0));
+        assertFramesEqual(copy, df);
+        assertFramesEqual(expected, pipeline.apply(df));
+        assertFramesEqual(copy, df);
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.data.filter.var;
+
+import org.junit.Test;
+import rapaio.core.stat.Mean;
+import rapaio.core.stat.Quantiles;
+import rapaio.core.stat.Variance;
+import rapaio.data.Var;
+import rapaio.data.VarDouble;
+
+import static org.junit.Assert.*;
+
+public class VRollingTest {
+
+    private static final double TOL = 1e-12;
+
+    @Test
+    public void testRowWindow() {
+        Var x = VarDouble.wrap(1, 5, 3, Double.NaN, 7, 2, 8).withName("x");
+
+        Var mean = x.fapply(VRolling.mean(3));
+        assertEquals("x", mean.name());
+        assertEquals(x.rowCount(), mean.rowCount());
+        assertEquals(1, mean.getDouble(0), TOL);
+        assertEquals(3, mean.getDouble(1), TOL);
+        assertEquals(3, mean.getDouble(2), TOL);
+        assertEquals(4, mean.getDouble(3), TOL);
+        assertEquals(5, mean.getDouble(4), TOL);
+        assertEquals(4.5, mean.getDouble(5), TOL);
+        assertEquals(17 / 3.0, mean.getDouble(6), TOL);
+
+        Var max = x.fapply(VRolling.max(2));
+        assertEquals(5, max.getDouble(2), TOL);
+        assertEquals(3, max.getDouble(3), TOL);
+        assertEquals(7, max.getDouble(4), TOL);
+
+        Var min = x.fapply(VRolling.min(2).withMinCount(2));
+        assertTrue(min.isMissing(0));
+        assertEquals(1, min.getDouble(1), TOL);
+        assertTrue(min.isMissing(3));
+        assertTrue(min.isMissing(4));
+        assertEquals(2, min.getDouble(5), TOL);
+
+        Var sum = x.fapply(VRolling.sum(4));
+        assertEquals(15, sum.getDouble(4), TOL);
+
+        Var var = x.fapply(VRolling.variance(3));
+        assertTrue(var.isMissing(0));
+        assertEquals(Variance.of(VarDouble.wrap(1, 5, 3)).value(), var.getDouble(2), TOL);
+        assertEquals(Math.sqrt(var.getDouble(6)), x.fapply(VRolling.sd(3)).getDouble(6), TOL);
+
+        Var median = x.fapply(VRolling.quantile(5, 0.5));
+        assertEquals(Quantiles.of(VarDouble.wrap(3, 7, 2, 8), 0.5).values()[0], median.getDouble(6), TOL);
+    }
+
+    @Test
+    public void testTimeWindow() {
+        Var time = VarDouble.wrap(0, 1, 1, 5, 6, 20);
+        Var x = VarDouble.wrap(1, 2, 3, 4, 5, 6);
+        Var mean = x.fapply(VRolling.mean(1).withTime(time, 5));
+        assertEquals(1, mean.getDouble(0), TOL);
+        assertEquals(2, mean.getDouble(2), TOL);
+        assertEquals(Mean.of(VarDouble.wrap(2, 3, 4)).value(), mean.getDouble(3), TOL);
+        assertEquals(4.5, mean.getDouble(4), TOL);
+        assertEquals(6, mean.getDouble(5), TOL);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidPercentile() {
+        VRolling.quantile(3, 2);
+    }
+}
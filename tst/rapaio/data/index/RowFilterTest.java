@@ -0,0 +1,155 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.data.index;
+
+import org.junit.Before;
+import org.junit.Test;
+import rapaio.core.RandomSource;
+import rapaio.data.Frame;
+import rapaio.data.SolidFrame;
+import rapaio.data.VarDouble;
+import rapaio.data.VarInt;
+import rapaio.data.VarNominal;
+import rapaio.data.VarText;
+import rapaio.ml.common.predicate.RowPredicate;
+
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+public class RowFilterTest {
+
+    private static final String[] WORDS = new String[]{"?", "a", "b", "c", "d"};
+
+    private Frame df;
+
+    @Before
+    public void setUp() {
+        RandomSource.setSeed(42);
+        int n = 150_000;
+        VarDouble x = VarDouble.from(n, row -> RandomSource.nextDouble() < 0.1 ? Double.NaN : RandomSource.nextInt(100)).withName("x");
+        VarInt k = VarInt.from(n, row -> RandomSource.nextInt(10)).withName("k");
+        for (int row = 0; row < n; row += 13) {
+            k.setMissing(row);
+        }
+        // a sparse level produces array containers, frequent levels produce bitmap containers
+        VarNominal nom = VarNominal.from(n, row -> RandomSource.nextDouble() < 0.01 ? "rare" : WORDS[RandomSource.nextInt(WORDS.length)]).withName("nom");
+        VarText text = VarText.from(n, () -> WORDS[RandomSource.nextInt(WORDS.length)]).withName("text");
+        df = SolidFrame.byVars(x, k, nom, text);
+    }
+
+    private void assertRows(IntPredicate expected, RowBitmap bitmap) {
+        int[] rows = IntStream.range(0, df.rowCount()).filter(expected).toArray();
+        assertEquals(df.rowCount(), bitmap.size());
+        assertEquals(rows.length, bitmap.cardinality());
+        assertArrayEquals(rows, bitmap.toArray());
+        for (int row = 0; row < df.rowCount(); row += 97) {
+            assertEquals(expected.test(row), bitmap.contains(row));
+        }
+    }
+
+    @Test
+    public void testLeafFilters() {
+        assertRows(row -> !df.isMissing(row, "x") && df.getDouble(row, "x") < 30, RowFilter.lt("x", 30).eval(df));
+        assertRows(row -> !df.isMissing(row, "x") && df.getDouble(row, "x") <= 30, RowFilter.le("x", 30).eval(df));
+        assertRows(row -> !df.isMissing(row, "x") && df.getDouble(row, "x") > 98, RowFilter.gt("x", 98).eval(df));
+        assertRows(row -> !df.isMissing(row, "x") && df.getDouble(row, "x") >= 98, RowFilter.ge("x", 98).eval(df));
+        assertRows(row -> !df.isMissing(row, "x") && df.getDouble(row, "x") == 7, RowFilter.eq("x", 7).eval(df));
+        assertRows(row -> !df.isMissing(row, "k") && df.getInt(row, "k") >= 2 && df.getInt(row, "k") <= 4,
+                RowFilter.between("k", 2, 4).eval(df));
+        assertRows(row -> !df.isMissing(row, "k") && (df.getInt(row, "k") == 1 || df.getInt(row, "k") == 8),
+                RowFilter.in("k", 8, 1).eval(df));
+        assertRows(row -> df.isMissing(row, "x"), RowFilter.missing("x").eval(df));
+        assertRows(row -> !df.isMissing(row, "k"), RowFilter.complete("k").eval(df));
+        assertRows(row -> df.getLabel(row, "nom").equals("rare") || df.getLabel(row, "nom").equals("b"),
+                RowFilter.in("nom", "rare", "b", "?", "unknown").eval(df));
+        assertRows(row -> df.getLabel(row, "text").equals("c"), RowFilter.eq("text", "c").eval(df));
+        assertRows(row -> true, RowFilter.all().eval(df));
+        assertRows(row -> df.getLabel(row, "nom").equals("a"), RowFilter.from(RowPredicate.nomEqual("nom", "a")).eval(df));
+    }
+
+    @Test
+    public void testComposedFilters() {
+        RowFilter filter = RowFilter.lt("x", 50).and(RowFilter.in("nom", "a", "rare"))
+                .or(RowFilter.missing("k").and(RowFilter.eq("text", "d")).not());
+        IntPredicate expected = row -> (!df.isMissing(row, "x") && df.getDouble(row, "x") < 50
+                && (df.getLabel(row, "nom").equals("a") || df.getLabel(row, "nom").equals("rare")))
+                || !(df.isMissing(row, "k") && df.getLabel(row, "text").equals("d"));
+        assertRows(expected, filter.eval(df));
+
+        Frame filtered = RowFilter.eq("nom", "rare").and(RowFilter.gt("x", 90)).filter(df);
+        assertTrue(filtered.rowCount() > 0);
+        for (int i = 0; i < filtered.rowCount(); i++) {
+            assertEquals("rare", filtered.getLabel(i, "nom"));
+            assertTrue(filtered.getDouble(i, "x") > 90);
+        }
+    }
+
+    @Test
+    public void testBitmapOperations() {
+        int n = 200_000;
+        RowBitmap sparse = RowBitmap.of(n, 5, 70_000, 3, 199_999, 70_000);
+        RowBitmap dense = RowBitmap.fromTest(n, row -> row % 3 == 0);
+        assertEquals(4, sparse.cardinality());
+        assertArrayEquals(new int[]{3, 5, 70_000, 199_999}, sparse.toArray());
+        assertArrayEquals(new int[]{3}, sparse.and(dense).toArray());
+        assertEquals(dense.cardinality() + 3, sparse.or(dense).cardinality());
+        assertArrayEquals(new int[]{5, 70_000, 199_999}, sparse.andNot(dense).toArray());
+        assertEquals(n - 4, sparse.not().cardinality());
+        assertFalse(sparse.not().contains(70_000));
+        assertEquals(n, RowBitmap.full(n).cardinality());
+        assertTrue(RowBitmap.full(n).not().isEmpty());
+        assertEquals(0, RowBitmap.full(0).cardinality());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDifferentSizes() {
+        RowBitmap.empty(10).and(RowBitmap.empty(11));
+    }
+
+    @Test
+    public void testNominalIndex() {
+        NominalIndex index = NominalIndex.of(df.rvar("nom"));
+        assertEquals("nom", index.name());
+        assertEquals(df.rowCount(), index.rowCount());
+        for (String level : index.levels()) {
+            assertRows(row -> df.getLabel(row, "nom").equals(level), index.rows(level));
+        }
+        assertTrue(index.rows("unknown").isEmpty());
+        assertArrayEquals(RowFilter.in("nom", "rare", "c").eval(df).toArray(), index.in("rare", "c", "?").eval(df).toArray());
+        assertArrayEquals(RowFilter.missing("nom").eval(df).toArray(), index.missing().eval(df).toArray());
+        assertArrayEquals(RowFilter.in("nom", "a").and(RowFilter.lt("x", 10)).eval(df).toArray(),
+                index.in("a").and(RowFilter.lt("x", 10)).eval(df).toArray());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNominalIndexOnText() {
+        NominalIndex.of(df.rvar("text"));
+    }
+}
@@ -76,6 +76,43 @@ public class RowSamplerTest {
         Assert.assertEquals(0.63328, Mean.of(count).value(), 1e-5);
     }
 
+    @Test
+    public void countBootstrapTest() {
+        RandomSource.setSeed(123);
+
+        int N = 1_000;
+        VarDouble count = VarDouble.empty().withName("bcount");
+        for (int i = 0; i < N; i++) {
+            Sample s = RowSampler.countBootstrap(1.0).nextSample(df, w);
+            Assert.assertEquals(s.df.rowCount(), s.mapping.size());
+            Assert.assertEquals(s.df.rowCount(), s.weights.rowCount());
+            Assert.assertEquals(s.df.rowCount(), s.mapping.stream().distinct().count());
+            Assert.assertEquals(df.rowCount(), s.mapping.size() + s.oob(df.rowCount()).size());
+
+            // weights are original weights multiplied with integer counts which sum to sample size
+            double sampled = 0;
+            for (int j = 0; j < s.df.rowCount(); j++) {
+                double ratio = s.weights.getDouble(j) / w.getDouble(s.mapping.get(j));
+                Assert.assertEquals(Math.rint(ratio), ratio, 1e-12);
+                Assert.assertTrue(ratio >= 1);
+                sampled += ratio;
+            }
+            Assert.assertEquals(df.rowCount(), sampled, 1e-10);
+            s.oob(df.rowCount()).stream().forEach(row -> Assert.assertFalse(s.mapping.stream().anyMatch(r -> r == row)));
+            count.addDouble(1.0 * s.mapping.size() / df.rowCount());
+        }
+
+        // close to 1 - 1 / exp(1)
+        Assert.assertEquals(0.633, Mean.of(count).value(), 1e-2);
+    }
+
+    @Test
+    public void oobTest() {
+        Sample s = RowSampler.subsampler(0.5).nextSample(df, w);
+        Assert.assertEquals(df.rowCount() - 75, s.oob(df.rowCount()).size());
+        s.oob(df.rowCount()).stream().forEach(row -> Assert.assertFalse(s.mapping.stream().anyMatch(r -> r == row)));
+    }
+
     @Test
     public void subsampleTest() {
         RandomSource.setSeed(123);
@@ -108,6 +145,7 @@ public class RowSamplerTest {
         Assert.assertEquals("Identity", RowSampler.identity().name());
         Assert.assertEquals("Bootstrap(p=1)", RowSampler.bootstrap().name());
         Assert.assertEquals("Bootstrap(p=0.2)", RowSampler.bootstrap(0.2).name());
+        Assert.assertEquals("CountBootstrap(p=0.5)", RowSampler.countBootstrap(0.5).name());
         Assert.assertEquals("SubSampler(p=1)", RowSampler.subsampler(1.0).name());
         Assert.assertEquals("SubSampler(p=0.2)", RowSampler.subsampler(0.2).name());
     }
@@ -0,0 +1,141 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.experiment.io.json.stream;
+
+import org.junit.Test;
+import rapaio.experiment.io.json.JsonUtil;
+import rapaio.experiment.io.json.tree.JsonValue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class JsonBlockTest {
+
+    private List<JsonValue> sample(int rows) {
+        List<JsonValue> values = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            StringBuilder sb = new StringBuilder();
+            sb.append("{\"id\":").append(i);
+            sb.append(",\"type\":\"").append(i % 3 == 0 ? "click" : "view").append("\"");
+            if (i % 5 != 0) {
+                sb.append(",\"price\":").append(i % 17).append(".5");
+            }
+            sb.append(",\"ok\":").append(i % 2 == 0 ? "true" : "false");
+            sb.append(",\"code\":").append(i % 4 == 0 ? "\"12\"" : "12");
+            sb.append(",\"nested\":{\"a\":[1,2,").append(i).append("],\"b\":null}");
+            sb.append(",\"none\":null}");
+            values.add(JsonUtil.parseText(sb.toString()));
+        }
+        return values;
+    }
+
+    private byte[] write(List<JsonValue> values, int rowGroupSize) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JsonBlockOutput output = new JsonBlockOutput(out).withRowGroupSize(rowGroupSize);
+        for (JsonValue js : values) {
+            output.write(js);
+        }
+        output.close();
+        return out.toByteArray();
+    }
+
+    private List<JsonValue> readAll(JsonBlockInput input) throws IOException {
+        List<JsonValue> values = new ArrayList<>();
+        JsonValue js;
+        while ((js = input.read()) != null) {
+            values.add(js);
+        }
+        input.close();
+        return values;
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        List<JsonValue> values = sample(2_500);
+        byte[] bytes = write(values, 1_000);
+        List<JsonValue> read = readAll(new JsonBlockInput(new ByteArrayInputStream(bytes), key -> true));
+
+        assertEquals(values.size(), read.size());
+        for (int i = 0; i < values.size(); i++) {
+            JsonValue expected = values.get(i);
+            JsonValue actual = read.get(i);
+            assertEquals(expected.keySet(), actual.keySet());
+            for (String key : expected.keySet()) {
+                assertEquals(key, expected.get(key).toString(), actual.get(key).toString());
+            }
+            assertEquals(expected.get("code").isString(), actual.get("code").isString());
+        }
+    }
+
+    @Test
+    public void testProjection() throws IOException {
+        byte[] bytes = write(sample(100), 30);
+        List<JsonValue> read = readAll(new JsonBlockInput(new ByteArrayInputStream(bytes), key -> key.equals("id") || key.equals("price")));
+        assertEquals(100, read.size());
+        for (int i = 0; i < read.size(); i++) {
+            HashSet<String> keys = (i % 5 == 0) ? new HashSet<>(Arrays.asList("id")) : new HashSet<>(Arrays.asList("id", "price"));
+            assertEquals(keys, read.get(i).keySet());
+            assertEquals(String.valueOf(i), read.get(i).get("id").asString().get());
+        }
+    }
+
+    @Test
+    public void testRangeSkipping() throws IOException {
+        byte[] bytes = write(sample(1_000), 100);
+        List<JsonValue> read = readAll(new JsonBlockInput(new ByteArrayInputStream(bytes), key -> true)
+                .withRange("id", 250, 420));
+        // row groups [200,300), [300,400) and [400,500)
+        assertEquals(300, read.size());
+        assertEquals("200", read.get(0).get("id").asString().get());
+        assertEquals("499", read.get(299).get("id").asString().get());
+
+        read = readAll(new JsonBlockInput(new ByteArrayInputStream(bytes), key -> true).withRange("id", 2_000, 3_000));
+        assertEquals(0, read.size());
+        read = readAll(new JsonBlockInput(new ByteArrayInputStream(bytes), key -> true).withRange("missing", 0, 1));
+        assertEquals(0, read.size());
+    }
+
+    @Test
+    public void testEmpty() throws IOException {
+        byte[] bytes = write(new ArrayList<>(), 10);
+        assertNull(new JsonBlockInput(new ByteArrayInputStream(bytes), key -> true).read());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonObject() throws IOException {
+        new JsonBlockOutput(new ByteArrayOutputStream()).write(JsonUtil.parseText("[1,2]"));
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.experiment.io.json.stream;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import rapaio.data.Frame;
+import rapaio.data.VarDouble;
+import rapaio.data.VarNominal;
+import rapaio.experiment.io.json.Json;
+import rapaio.experiment.io.json.JsonStream;
+import rapaio.experiment.io.json.ml.JsonExtractor;
+import rapaio.experiment.io.json.ml.JsonFeature;
+import rapaio.experiment.io.json.tree.JsonValue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class JsonSpliteratorTest {
+
+    private static final int ROWS = 40_000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = folder.newFile("events.json");
+        try (Writer w = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            for (int i = 0; i < ROWS; i++) {
+                w.append("{\"id\":").append(String.valueOf(i))
+                        .append(",\"name\":\"n\\\"").append(String.valueOf(i % 7)).append("\"")
+                        .append(",\"payload\":{\"a\":[1,2,{\"b\":\"}]\"}],\"c\":\"\u0103\u00ee\u0219\"}")
+                        .append(",\"flag\":true}\n");
+            }
+        }
+    }
+
+    @Test
+    public void testLineRanges() throws IOException {
+        byte[] content = Files.readAllBytes(file.toPath());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long[] bounds = new long[]{0, 1, 77, 78, 1000, 123_457, content.length - 3, content.length};
+        for (int i = 1; i < bounds.length; i++) {
+            try (InputStream is = new LineRangeInputStream(file, bounds[i - 1], bounds[i])) {
+                byte[] buff = new byte[1000];
+                int len;
+                while ((len = is.read(buff, 0, buff.length)) != -1) {
+                    out.write(buff, 0, len);
+                }
+            }
+        }
+        assertArrayEquals(content, out.toByteArray());
+    }
+
+    @Test
+    public void testParallelSplitAndProjection() {
+        assertTrue(file.length() > 3 * 1024 * 1024);
+        JsonStream stream = Json.lineStream(file, f -> true, Json.inFilter("id", "name"));
+        assertTrue(stream.isParallel());
+        List<JsonValue> values = stream.collect(Collectors.toList());
+        assertEquals(ROWS, values.size());
+
+        long[] ids = values.stream().mapToLong(js -> Long.parseLong(js.get("id").asString().get())).sorted().toArray();
+        for (int i = 0; i < ROWS; i++) {
+            assertEquals(i, ids[i]);
+        }
+        for (JsonValue js : values) {
+            assertEquals(new HashSet<>(Arrays.asList("id", "name")), js.keySet());
+        }
+    }
+
+    @Test
+    public void testExtractor() {
+        JsonExtractor extractor = new JsonExtractor();
+        extractor.add(new JsonFeature(VarDouble.empty().withName("id"),
+                (js, var) -> var.addDouble(Double.parseDouble(js.get("id").asString().get())), "id"));
+        extractor.add(new JsonFeature(VarNominal.empty().withName("name"),
+                (js, var) -> var.addLabel(js.get("name").asString().get()), "name"));
+
+        Frame df = extractor.extract(Json.lineStream(file, f -> true, extractor.propFilter()));
+        assertEquals(ROWS, df.rowCount());
+        assertEquals(Arrays.asList("id", "name"), Arrays.asList(df.varNames()));
+        double sum = 0;
+        for (int i = 0; i < df.rowCount(); i++) {
+            sum += df.getDouble(i, "id");
+            int id = (int) df.getDouble(i, "id");
+            assertEquals("n\\\"" + (id % 7), df.getLabel(i, "name"));
+        }
+        assertEquals((double) ROWS * (ROWS - 1) / 2, sum, 0);
+    }
+}
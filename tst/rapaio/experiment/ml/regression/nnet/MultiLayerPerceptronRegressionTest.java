@@ -0,0 +1,142 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.experiment.ml.regression.nnet;
+
+import org.junit.Before;
+import org.junit.Test;
+import rapaio.core.RandomSource;
+import rapaio.data.Frame;
+import rapaio.data.SolidFrame;
+import rapaio.data.VarDouble;
+import rapaio.math.linear.RM;
+import rapaio.ml.regression.RPrediction;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class MultiLayerPerceptronRegressionTest {
+
+    private Frame df;
+
+    @Before
+    public void setUp() {
+        RandomSource.setSeed(42);
+        int n = 500;
+        VarDouble x1 = VarDouble.empty(n).withName("x1");
+        VarDouble x2 = VarDouble.empty(n).withName("x2");
+        VarDouble y = VarDouble.empty(n).withName("y");
+        for (int i = 0; i < n; i++) {
+            double a = RandomSource.nextDouble();
+            double b = RandomSource.nextDouble();
+            x1.setDouble(i, a);
+            x2.setDouble(i, b);
+            y.setDouble(i, 0.2 + 0.3 * a + 0.4 * a * b);
+        }
+        df = SolidFrame.byVars(x1, x2, y);
+    }
+
+    private double rmse(MultiLayerPerceptronRegression model) {
+        RPrediction pred = model.predict(df, false);
+        double sum = 0;
+        for (int i = 0; i < df.rowCount(); i++) {
+            double err = pred.firstFit().getDouble(i) - df.getDouble(i, "y");
+            sum += err * err;
+        }
+        return Math.sqrt(sum / df.rowCount());
+    }
+
+    @Test
+    public void testOptimizers() {
+        // baseline rmse of predicting the mean
+        double mean = df.rvar("y").stream().mapToDouble().average().orElse(0);
+        double sd = Math.sqrt(df.rvar("y").stream().mapToDouble().map(v -> (v - mean) * (v - mean)).average().orElse(0));
+
+        RandomSource.setSeed(1);
+        MultiLayerPerceptronRegression sgd = new MultiLayerPerceptronRegression(2, 4, 1)
+                .withLearningRate(1.0)
+                .withRuns(20_000);
+        sgd.fit(df, "y");
+        assertTrue(rmse(sgd) < sd / 3);
+
+        RandomSource.setSeed(1);
+        MultiLayerPerceptronRegression adam = new MultiLayerPerceptronRegression(2, 4, 1)
+                .withOptimizer(MultiLayerPerceptronRegression.Optimizer.ADAM)
+                .withBatchSize(64)
+                .withLearningRate(0.05)
+                .withRuns(2_000);
+        adam.fit(df, "y");
+        assertTrue(rmse(adam) < sd / 3);
+    }
+
+    @Test
+    public void testParallelGradient() {
+        MultiLayerPerceptronRegression serial = new MultiLayerPerceptronRegression(2, 5, 3, 1)
+                .withOptimizer(MultiLayerPerceptronRegression.Optimizer.ADAM)
+                .withBatchSize(128)
+                .withLearningRate(0.01)
+                .withRuns(50);
+        serial.withPoolSize(0);
+        MultiLayerPerceptronRegression parallel = (MultiLayerPerceptronRegression) serial.newInstance();
+        parallel.withPoolSize(4);
+
+        RandomSource.setSeed(7);
+        serial.fit(df, "y");
+        RandomSource.setSeed(7);
+        parallel.fit(df, "y");
+
+        List<RM> w1 = serial.weights();
+        List<RM> w2 = parallel.weights();
+        assertEquals(3, w1.size());
+        assertEquals(3, w1.get(0).rowCount());
+        assertEquals(5, w1.get(0).colCount());
+        for (int i = 0; i < w1.size(); i++) {
+            for (int r = 0; r < w1.get(i).rowCount(); r++) {
+                for (int c = 0; c < w1.get(i).colCount(); c++) {
+                    assertEquals(w1.get(i).get(r, c), w2.get(i).get(r, c), 0);
+                }
+            }
+        }
+
+        RPrediction p1 = serial.predict(df, false);
+        RPrediction p2 = parallel.predict(df, false);
+        for (int i = 0; i < df.rowCount(); i++) {
+            assertEquals(p1.firstFit().getDouble(i), p2.firstFit().getDouble(i), 0);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidBatchSize() {
+        new MultiLayerPerceptronRegression(2, 1).withBatchSize(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidLayers() {
+        new MultiLayerPerceptronRegression(2);
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.io;
+
+import org.junit.Test;
+import rapaio.core.RandomSource;
+import rapaio.data.Frame;
+import rapaio.data.filter.frame.FStandardize;
+import rapaio.data.VRange;
+import rapaio.datasets.Datasets;
+import rapaio.ml.classifier.AbstractClassifier;
+import rapaio.ml.classifier.CPrediction;
+import rapaio.ml.classifier.Classifier;
+import rapaio.ml.classifier.boost.GBTClassifier;
+import rapaio.ml.classifier.ensemble.CForest;
+import rapaio.ml.classifier.tree.CTree;
+import rapaio.ml.regression.RPrediction;
+import rapaio.ml.regression.Regression;
+import rapaio.ml.regression.boost.GBTRegression;
+import rapaio.ml.regression.ensemble.RForest;
+import rapaio.ml.regression.linear.LinearRegression;
+import rapaio.ml.regression.linear.RidgeRegression;
+import rapaio.ml.regression.tree.RTree;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+
+import static org.junit.Assert.*;
+
+public class ModelIOTest {
+
+    @Test
+    public void testClassifiers() throws IOException {
+        RandomSource.setSeed(123);
+        Frame iris = Datasets.loadIrisDataset();
+        Frame play = Datasets.loadPlay();
+        Frame mushrooms = Datasets.loadMushrooms();
+
+        testClassifier(CTree.newC45(), play, "class");
+        testClassifier(CTree.newCART(), mushrooms, "classes");
+        testClassifier(CTree.newCART(), iris, "class");
+        testClassifier(CForest.newRF().withRuns(20).withOobComp(true).withGainVIComp(true), iris, "class");
+        testClassifier(GBTClassifier.newGBT().withRuns(10), iris, "class");
+    }
+
+    private void testClassifier(Classifier model, Frame df, String target) throws IOException {
+        model.fit(df, target);
+
+        File file = File.createTempFile("model-", ".bin");
+        file.deleteOnExit();
+        ModelIO.store(model, file);
+        Classifier restored = ModelIO.restoreClassifier(file);
+
+        assertEquals(model.getClass(), restored.getClass());
+        assertTrue(restored.hasLearned());
+        assertArrayEquals(model.inputNames(), restored.inputNames());
+        assertEquals(model.firstTargetLevels(), restored.firstTargetLevels());
+
+        CPrediction expected = model.predict(df);
+        CPrediction actual = restored.predict(df);
+        assertTrue(expected.firstClasses().deepEquals(actual.firstClasses()));
+        for (int i = 0; i < df.rowCount(); i++) {
+            for (int j = 0; j < expected.firstDensity().varCount(); j++) {
+                assertEquals(expected.firstDensity().getDouble(i, j), actual.firstDensity().getDouble(i, j), 1e-12);
+            }
+        }
+    }
+
+    @Test
+    public void testRegressions() throws IOException {
+        RandomSource.setSeed(123);
+        Frame df = Datasets.loadHousing();
+
+        testRegression(RTree.newCART().withMaxDepth(8), df, "MEDV");
+        testRegression(RForest.newRF().withRegression(RTree.newCART().withMaxDepth(6)).withRuns(10), df, "MEDV");
+        testRegression(new GBTRegression().withRuns(10), df, "MEDV");
+        testRegression(LinearRegression.newLm(), df, "MEDV");
+        testRegression(RidgeRegression.newRidgeLm(1.0), df, "MEDV");
+    }
+
+    private void testRegression(Regression model, Frame df, String target) throws IOException {
+        model.fit(df, target);
+
+        File file = File.createTempFile("model-", ".bin");
+        file.deleteOnExit();
+        ModelIO.store(model, file);
+        Regression restored = ModelIO.restoreRegression(file);
+
+        assertEquals(model.getClass(), restored.getClass());
+        assertTrue(restored.isFitted());
+        assertArrayEquals(model.inputNames(), restored.inputNames());
+
+        RPrediction expected = model.predict(df, false);
+        RPrediction actual = restored.predict(df, false);
+        for (int i = 0; i < df.rowCount(); i++) {
+            assertEquals(expected.firstFit().getDouble(i), actual.firstFit().getDouble(i), 1e-12);
+        }
+    }
+
+    @Test
+    public void testSmallerThanJavaSerialization() throws IOException {
+        RandomSource.setSeed(123);
+        Frame iris = Datasets.loadIrisDataset();
+        CForest rf = CForest.newRF().withRuns(50);
+        rf.fit(iris, "class");
+
+        File binary = File.createTempFile("model-", ".bin");
+        binary.deleteOnExit();
+        File java = File.createTempFile("model-", ".ser");
+        java.deleteOnExit();
+        ModelIO.store(rf, binary);
+        JavaIO.storeToFile(rf, java);
+
+        assertTrue(binary.length() < java.length());
+    }
+
+    @Test
+    public void testInvalidModels() throws IOException {
+        File file = File.createTempFile("model-", ".bin");
+        file.deleteOnExit();
+
+        try {
+            ModelIO.store(CTree.newCART(), file);
+            fail("unfitted models cannot be stored");
+        } catch (IllegalStateException ignored) {
+        }
+
+        Frame iris = Datasets.loadIrisDataset();
+        Classifier filtered = CTree.newCART().withInputFilters(FStandardize.on(VRange.all()));
+        filtered.fit(iris.solidCopy(), "class");
+        try {
+            ModelIO.store(filtered, file);
+            fail("models with input filters cannot be stored");
+        } catch (IllegalArgumentException ignored) {
+        }
+
+        ModelIO.store(CTree.newCART().fit(iris, "class"), file);
+        try {
+            ModelIO.restoreRegression(file);
+            fail("classifier cannot be restored as regression");
+        } catch (IOException ignored) {
+        }
+    }
+
+    @Test
+    public void testMissingSourceSchema() throws Exception {
+        Frame iris = Datasets.loadIrisDataset();
+        Classifier model = CTree.newCART().fit(iris, "class");
+        // models fitted by older versions have no schema of inputs before input filters
+        Field field = AbstractClassifier.class.getDeclaredField("sourceInputNames");
+        field.setAccessible(true);
+        field.set(model, null);
+
+        File file = File.createTempFile("model-", ".bin");
+        file.deleteOnExit();
+        ModelIO.store(model, file);
+        Classifier restored = ModelIO.restoreClassifier(file);
+        assertArrayEquals(model.inputNames(), restored.scorer().inputNames());
+    }
+}
@@ -136,4 +136,137 @@ public class FFTTest {
             }
         }
     }
+
+    private static double[][] dft(double[] re, double[] im) {
+        int n = re.length;
+        double[][] out = new double[2][n];
+        for (int k = 0; k < n; k++) {
+            for (int t = 0; t < n; t++) {
+                double angle = -2 * Math.PI * ((long) k * t % n) / n;
+                out[0][k] += re[t] * Math.cos(angle) - im[t] * Math.sin(angle);
+                out[1][k] += re[t] * Math.sin(angle) + im[t] * Math.cos(angle);
+            }
+        }
+        return out;
+    }
+
+    @Test
+    public void arbitraryLengthTest() {
+        RandomSource.setSeed(1234);
+        Normal normal = Normal.std();
+        for (int n : new int[]{1, 2, 3, 5, 7, 8, 12, 16, 17, 100, 128, 243}) {
+            double[] re = new double[n];
+            double[] im = new double[n];
+            for (int i = 0; i < n; i++) {
+                re[i] = normal.sampleNext();
+                im[i] = normal.sampleNext();
+            }
+            double[][] expected = dft(re, im);
+            double[] yre = re.clone();
+            double[] yim = im.clone();
+            FFT.fft(yre, yim);
+            Assert.assertArrayEquals(expected[0], yre, 1e-9);
+            Assert.assertArrayEquals(expected[1], yim, 1e-9);
+
+            FFT.ifft(yre, yim);
+            Assert.assertArrayEquals(re, yre, 1e-12);
+            Assert.assertArrayEquals(im, yim, 1e-12);
+        }
+    }
+
+    @Test
+    public void boundedCacheTest() {
+        RandomSource.setSeed(1234);
+        Normal normal = Normal.std();
+        for (int n = 3; n < 3 + 3 * FFT.CACHE_SIZE; n++) {
+            double[] re = new double[n];
+            double[] im = new double[n];
+            for (int i = 0; i < n; i++) {
+                re[i] = normal.sampleNext();
+                im[i] = normal.sampleNext();
+            }
+            double[][] expected = dft(re, im);
+            FFT.fft(re, im);
+            Assert.assertArrayEquals(expected[0], re, 1e-9);
+            Assert.assertArrayEquals(expected[1], im, 1e-9);
+            Assert.assertTrue(FFT.cachedLengths() <= FFT.CACHE_SIZE);
+        }
+        Assert.assertEquals(FFT.CACHE_SIZE, FFT.cachedLengths());
+    }
+
+    @Test
+    public void realTransformTest() {
+        RandomSource.setSeed(1234);
+        Normal normal = Normal.std();
+        for (int n : new int[]{1, 2, 3, 4, 9, 10, 64, 100, 101}) {
+            double[] x = new double[n];
+            for (int i = 0; i < n; i++) {
+                x[i] = normal.sampleNext();
+            }
+            double[][] expected = dft(x, new double[n]);
+            double[] re = new double[n / 2 + 1];
+            double[] im = new double[n / 2 + 1];
+            FFT.rfft(x, re, im);
+            for (int k = 0; k < re.length; k++) {
+                Assert.assertEquals(expected[0][k], re[k], 1e-9);
+                Assert.assertEquals(expected[1][k], im[k], 1e-9);
+            }
+            Assert.assertArrayEquals(x, FFT.irfft(re, im, n), 1e-12);
+        }
+    }
+
+    @Test
+    public void batchTest() {
+        RandomSource.setSeed(1234);
+        Normal normal = Normal.std();
+        int count = 20;
+        int n = 50;
+        double[][] x = new double[count][n];
+        double[][] re = new double[count][n];
+        double[][] im = new double[count][n];
+        for (int i = 0; i < count; i++) {
+            for (int j = 0; j < n; j++) {
+                x[i][j] = normal.sampleNext();
+                re[i][j] = x[i][j];
+            }
+        }
+        double[][] rre = new double[count][n / 2 + 1];
+        double[][] rim = new double[count][n / 2 + 1];
+        FFT.fftBatch(re, im);
+        FFT.rfftBatch(x, rre, rim);
+        for (int i = 0; i < count; i++) {
+            double[][] expected = dft(x[i], new double[n]);
+            Assert.assertArrayEquals(expected[0], re[i], 1e-9);
+            Assert.assertArrayEquals(expected[1], im[i], 1e-9);
+            for (int k = 0; k < n / 2 + 1; k++) {
+                Assert.assertEquals(expected[0][k], rre[i][k], 1e-9);
+                Assert.assertEquals(expected[1][k], rim[i][k], 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void convolveTest() {
+        Var xre = VarDouble.copy(1, 2, 3);
+        Var xim = VarDouble.copy(0, 1, 0);
+        Var yre = VarDouble.copy(0, 1, 0.5);
+        Var yim = VarDouble.copy(2, 0, 0);
+
+        // direct linear convolution
+        int n = 3;
+        double[] re = new double[2 * n];
+        double[] im = new double[2 * n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                re[i + j] += xre.getDouble(i) * yre.getDouble(j) - xim.getDouble(i) * yim.getDouble(j);
+                im[i + j] += xre.getDouble(i) * yim.getDouble(j) + xim.getDouble(i) * yre.getDouble(j);
+            }
+        }
+
+        Pair<Var, Var> c = FFT.convolve(Pair.from(xre, xim), Pair.from(yre, yim));
+        for (int i = 0; i < 2 * n; i++) {
+            Assert.assertEquals(re[i], c._1.getDouble(i), 1e-12);
+            Assert.assertEquals(im[i], c._2.getDouble(i), 1e-12);
+        }
+    }
 }
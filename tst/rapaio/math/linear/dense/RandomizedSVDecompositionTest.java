@@ -0,0 +1,95 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.math.linear.dense;
+
+import org.junit.Before;
+import org.junit.Test;
+import rapaio.core.RandomSource;
+import rapaio.math.linear.RM;
+
+import static org.junit.Assert.*;
+
+public class RandomizedSVDecompositionTest {
+
+    private static final double TOL = 1e-8;
+
+    @Before
+    public void setUp() {
+        RandomSource.setSeed(1234);
+    }
+
+    @Test
+    public void testLowRankReconstruction() {
+        for (int round = 0; round < 10; round++) {
+            int rank = RandomSource.nextInt(5) + 1;
+            int m = RandomSource.nextInt(100) + 50;
+            int n = RandomSource.nextInt(30) + 20;
+            RM a = SolidRM.random(m, rank).dot(SolidRM.random(rank, n));
+
+            RandomizedSVDecomposition svd = RandomizedSVDecomposition.from(a, rank);
+            assertEquals(m, svd.getU().rowCount());
+            assertEquals(rank, svd.getU().colCount());
+            assertEquals(n, svd.getV().rowCount());
+            assertEquals(rank, svd.getV().colCount());
+            assertTrue(a.isEqual(svd.getU().dot(svd.getS()).dot(svd.getV().t()), TOL));
+            assertTrue(svd.getU().t().dot(svd.getU()).isEqual(SolidRM.identity(rank), TOL));
+            assertTrue(svd.getV().t().dot(svd.getV()).isEqual(SolidRM.identity(rank), TOL));
+        }
+    }
+
+    @Test
+    public void testSingularValues() {
+        for (int round = 0; round < 10; round++) {
+            int m = RandomSource.nextInt(50) + 30;
+            int n = RandomSource.nextInt(20) + 10;
+            int k = RandomSource.nextInt(3) + 1;
+            RM a = SolidRM.random(m, n);
+
+            double[] expected = SVDecomposition.from(a).getSingularValues();
+            double[] actual = RandomizedSVDecomposition.from(a, k, n, 4).getSingularValues();
+            for (int i = 0; i < k; i++) {
+                assertEquals(expected[i], actual[i], 1e-6);
+                if (i > 0) {
+                    assertTrue(actual[i - 1] >= actual[i]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testWideMatrix() {
+        RM a = SolidRM.random(3, 20).t().dot(SolidRM.random(3, 40)).t();
+        RandomizedSVDecomposition svd = RandomizedSVDecomposition.from(a, 3);
+        assertTrue(a.isEqual(svd.getU().dot(svd.getS()).dot(svd.getV().t()), TOL));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidRank() {
+        RandomizedSVDecomposition.from(SolidRM.random(10, 5), 6);
+    }
+}
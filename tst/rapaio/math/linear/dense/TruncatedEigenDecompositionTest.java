@@ -0,0 +1,126 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.math.linear.dense;
+
+import org.junit.Before;
+import org.junit.Test;
+import rapaio.core.RandomSource;
+import rapaio.math.linear.RM;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class TruncatedEigenDecompositionTest {
+
+    private static final double TOL = 1e-7;
+
+    @Before
+    public void setUp() {
+        RandomSource.setSeed(1234);
+    }
+
+    private RM symmetric(int n) {
+        RM x = SolidRM.random(n + 10, n);
+        return x.t().dot(x);
+    }
+
+    private double[] topEigenValues(RM a, int k) {
+        double[] values = EigenDecomposition.from(a).getRealEigenvalues().clone();
+        Arrays.sort(values);
+        double[] top = new double[k];
+        for (int i = 0; i < k; i++) {
+            top[i] = values[values.length - 1 - i];
+        }
+        return top;
+    }
+
+    private void check(RM a, TruncatedEigenDecomposition evd, int k) {
+        double[] expected = topEigenValues(a, k);
+        assertArrayEquals(expected, evd.getRealEigenvalues(), TOL * expected[0]);
+
+        RM v = evd.getV();
+        assertEquals(a.rowCount(), v.rowCount());
+        assertEquals(k, v.colCount());
+        assertTrue(a.dot(v).isEqual(v.dot(evd.getD()), TOL * expected[0]));
+        assertTrue(v.t().dot(v).isEqual(SolidRM.identity(k), TOL));
+    }
+
+    @Test
+    public void testLanczos() {
+        for (int round = 0; round < 10; round++) {
+            int n = RandomSource.nextInt(40) + 10;
+            int k = RandomSource.nextInt(5) + 1;
+            RM a = symmetric(n);
+            check(a, TruncatedEigenDecomposition.from(a, k), k);
+        }
+    }
+
+    @Test
+    public void testSubspace() {
+        for (int round = 0; round < 10; round++) {
+            int n = RandomSource.nextInt(40) + 10;
+            int k = RandomSource.nextInt(5) + 1;
+            RM a = symmetric(n);
+            check(a, TruncatedEigenDecomposition.subspace(a, k, 10, 1_000, 1e-14), k);
+        }
+    }
+
+    @Test
+    public void testLowRank() {
+        // rank 2 matrix, Lanczos finds an invariant subspace early
+        RM x = SolidRM.random(2, 20);
+        RM a = x.t().dot(x);
+        TruncatedEigenDecomposition evd = TruncatedEigenDecomposition.from(a, 4);
+        double[] values = evd.getRealEigenvalues();
+        double[] expected = topEigenValues(a, 4);
+        assertArrayEquals(expected, values, TOL * expected[0]);
+        assertEquals(0, values[2], TOL * expected[0]);
+        assertEquals(0, values[3], TOL * expected[0]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonSquare() {
+        TruncatedEigenDecomposition.from(SolidRM.random(10, 5), 2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTooManyPairs() {
+        TruncatedEigenDecomposition.from(SolidRM.identity(3), 4);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoRuns() {
+        TruncatedEigenDecomposition.subspace(SolidRM.identity(3), 2, 1, 0, TOL);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeOversampling() {
+        TruncatedEigenDecomposition.subspace(SolidRM.identity(3), 2, -1, 10, TOL);
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.classifier;
+
+import org.junit.Test;
+import rapaio.core.RandomSource;
+import rapaio.data.Frame;
+import rapaio.data.VRange;
+import rapaio.data.filter.frame.FStandardize;
+import rapaio.datasets.Datasets;
+import rapaio.ml.classifier.boost.GBTClassifier;
+import rapaio.ml.classifier.ensemble.CForest;
+import rapaio.ml.classifier.tree.CTree;
+
+import java.io.IOException;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+public class CScorerTest {
+
+    @Test
+    public void testScorerMatchesPredict() throws IOException {
+        Frame df = Datasets.loadIrisDataset();
+
+        Classifier model = CTree.newCART().withMaxDepth(4)
+                .withInputFilters(FStandardize.on(VRange.of("sepal-length", "petal-width")));
+        model.fit(df.solidCopy(), "class");
+
+        CScorer scorer = model.scorer();
+        assertArrayEquals(new String[]{"sepal-length", "sepal-width", "petal-length", "petal-width"}, scorer.inputNames());
+        assertEquals(model.firstTargetLevels(), scorer.levels());
+
+        assertScores(model, scorer, df);
+    }
+
+    @Test
+    public void testDirectScorers() throws IOException {
+        Frame df = Datasets.loadIrisDataset().solidCopy();
+        // missing values are scored as mixtures of children in trees
+        for (int i = 0; i < df.rowCount(); i += 7) {
+            df.setMissing(i, i % 4);
+        }
+        RandomSource.setSeed(42);
+        Classifier[] models = new Classifier[]{
+                CTree.newCART().withMaxDepth(5),
+                CForest.newRF().withRuns(20),
+                GBTClassifier.newGBT().withRuns(20)
+        };
+        for (Classifier model : models) {
+            model.fit(df, "class");
+            CScorer scorer = model.scorer();
+            assertFalse(model.name(), scorer instanceof FrameCScorer);
+            assertScores(model, scorer, df);
+        }
+    }
+
+    private void assertScores(Classifier model, CScorer scorer, Frame df) {
+        Frame inputs = df.mapVars(scorer.inputNames());
+        CPrediction pred = model.predict(inputs.solidCopy());
+
+        // scorer is thread safe, rows are scored concurrently with reused buffers
+        IntStream.range(0, df.rowCount()).parallel().forEach(i -> {
+            double[] row = new double[scorer.inputNames().length];
+            for (int j = 0; j < row.length; j++) {
+                row[j] = inputs.getDouble(i, j);
+            }
+            double[] densities = new double[scorer.levels().size()];
+            assertEquals(pred.firstClasses().getInt(i), scorer.score(row, densities));
+            assertEquals(pred.firstClasses().getInt(i), scorer.score(row, null));
+            for (int k = 0; k < densities.length; k++) {
+                assertEquals(pred.firstDensity().getDouble(i, k), densities[k], 1e-12);
+            }
+        });
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testNotFitted() {
+        CTree.newCART().scorer();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNominalInputs() throws IOException {
+        Classifier model = CTree.newCART();
+        model.fit(Datasets.loadMushrooms(), "classes");
+        model.scorer();
+    }
+}
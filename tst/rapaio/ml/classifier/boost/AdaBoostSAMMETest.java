@@ -25,12 +25,15 @@
 package rapaio.ml.classifier.boost;
 
 import org.junit.Test;
+import rapaio.core.RandomSource;
 import rapaio.core.SamplingTools;
 import rapaio.data.Frame;
 import rapaio.data.VarDouble;
+import rapaio.data.VarNominal;
 import rapaio.datasets.Datasets;
 import rapaio.ml.classifier.Classifier;
 import rapaio.ml.classifier.tree.CTree;
+import rapaio.ml.common.EarlyStopping;
 import rapaio.ml.common.VarSelector;
 import rapaio.ml.eval.Confusion;
 import rapaio.printer.idea.IdeaPrinter;
@@ -38,6 +41,12 @@ import rapaio.sys.WS;
 
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
 
 public class AdaBoostSAMMETest {
 
@@ -69,4 +78,77 @@ public class AdaBoostSAMMETest {
 
         new Confusion(tr.rvar(target), ab.predict(tr).firstClasses()).printSummary();
     }
+
+    @Test
+    public void testEarlyStopping() throws IOException, URISyntaxException {
+        RandomSource.setSeed(42);
+        Frame df = Datasets.loadSpamBase();
+        int[] rows = SamplingTools.sampleWOR(df.rowCount(), df.rowCount() / 2);
+        Frame tr = df.mapRows(rows);
+        Frame te = df.removeRows(rows);
+
+        AdaBoostSAMME ab = new AdaBoostSAMME()
+                .withClassifier(CTree.newCART().withMinCount(5).withMaxDepth(3))
+                .withEarlyStopping(EarlyStopping.of(te, 5))
+                .withRuns(40);
+        ab.fit(tr, "spam");
+
+        EarlyStopping es = ab.earlyStopping();
+        assertTrue(es.bestRuns() >= 1);
+        assertTrue(es.losses().rowCount() <= 40);
+
+        VarDouble errors = VarDouble.empty();
+        ab.predictStages(te, (stage, pred) -> errors.addDouble(new Confusion(te.rvar("spam"), pred.firstClasses()).error()));
+        assertEquals(es.bestRuns(), errors.rowCount());
+        for (int i = 0; i < errors.rowCount(); i++) {
+            assertEquals(es.losses().getDouble(i), errors.getDouble(i), 1e-12);
+        }
+        assertEquals(es.bestLoss(), new Confusion(te.rvar("spam"), ab.predict(te).firstClasses()).error(), 1e-12);
+    }
+
+    @Test
+    public void testEarlyStoppingValidationLabels() throws IOException, URISyntaxException {
+        Frame df = Datasets.loadSpamBase();
+        RandomSource.setSeed(42);
+        int[] rows = SamplingTools.sampleWOR(df.rowCount(), df.rowCount() / 2);
+        Frame tr = df.mapRows(rows);
+        Frame te = df.removeRows(rows);
+
+        // labels are matched by name and rows with missing target are ignored
+        int[] missing = new int[]{1, 10, 100};
+        EarlyStopping[] es = new EarlyStopping[2];
+        Frame[] validations = new Frame[]{te.removeRows(missing), relabel(te, "spam", missing)};
+        for (int j = 0; j < 2; j++) {
+            RandomSource.setSeed(42);
+            AdaBoostSAMME ab = new AdaBoostSAMME()
+                    .withClassifier(CTree.newCART().withMinCount(5).withMaxDepth(3))
+                    .withEarlyStopping(EarlyStopping.of(validations[j], 5))
+                    .withRuns(20);
+            ab.fit(tr, "spam");
+            es[j] = ab.earlyStopping();
+        }
+        assertEquals(es[0].bestRuns(), es[1].bestRuns());
+        assertEquals(es[0].losses().rowCount(), es[1].losses().rowCount());
+        for (int i = 0; i < es[0].losses().rowCount(); i++) {
+            assertEquals(es[0].losses().getDouble(i), es[1].losses().getDouble(i), 1e-12);
+        }
+    }
+
+    /**
+     * Copies the target of a validation frame into a nominal variable with levels in
+     * reversed order and with missing values on the given rows.
+     */
+    private static Frame relabel(Frame df, String target, int... missingRows) {
+        List<String> levels = new ArrayList<>(df.rvar(target).levels().subList(1, df.rvar(target).levels().size()));
+        Collections.reverse(levels);
+        VarNominal y = VarNominal.empty(0, levels).withName(target);
+        for (int i = 0; i < df.rowCount(); i++) {
+            if (Arrays.binarySearch(missingRows, i) >= 0) {
+                y.addMissing();
+            } else {
+                y.addLabel(df.getLabel(i, target));
+            }
+        }
+        return df.removeVars(target).bindVars(y);
+    }
 }
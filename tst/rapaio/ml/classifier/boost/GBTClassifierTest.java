@@ -0,0 +1,180 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.classifier.boost;
+
+import org.junit.Test;
+import rapaio.core.RandomSource;
+import rapaio.core.SamplingTools;
+import rapaio.data.Frame;
+import rapaio.data.VarNominal;
+import rapaio.datasets.Datasets;
+import rapaio.ml.classifier.CPrediction;
+import rapaio.ml.common.EarlyStopping;
+import rapaio.ml.eval.Confusion;
+import rapaio.ml.regression.tree.RTree;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class GBTClassifierTest {
+
+    private static final double TOL = 1e-12;
+
+    @Test
+    public void testIris() throws IOException, URISyntaxException {
+        Frame df = Datasets.loadIrisDataset();
+
+        RandomSource.setSeed(123);
+        GBTClassifier sequential = GBTClassifier.newGBT()
+                .withRTree(RTree.newCART().withMaxDepth(3).withMinCount(5))
+                .withRuns(20);
+        sequential.fit(df, "class");
+        CPrediction seqPred = sequential.predict(df);
+
+        RandomSource.setSeed(123);
+        GBTClassifier parallel = GBTClassifier.newGBT()
+                .withRTree(RTree.newCART().withMaxDepth(3).withMinCount(5))
+                .withRuns(20)
+                .withRunPoolSize(-1);
+        parallel.fit(df, "class");
+        CPrediction parPred = parallel.predict(df);
+
+        assertTrue(new Confusion(df.rvar("class"), seqPred.firstClasses()).accuracy() > 0.95);
+
+        // trees of the same run do not depend one on another, so fitting them concurrently gives the same model
+        for (int i = 0; i < df.rowCount(); i++) {
+            assertEquals(seqPred.firstClasses().getInt(i), parPred.firstClasses().getInt(i));
+            double sum = 0;
+            for (int k = 1; k < seqPred.firstDensity().varCount(); k++) {
+                assertEquals(seqPred.firstDensity().getDouble(i, k), parPred.firstDensity().getDouble(i, k), TOL);
+                sum += seqPred.firstDensity().getDouble(i, k);
+            }
+            assertEquals(1.0, sum, TOL);
+        }
+    }
+
+    @Test
+    public void testEarlyStoppingAndStages() throws IOException, URISyntaxException {
+        RandomSource.setSeed(42);
+        Frame df = Datasets.loadIrisDataset();
+        int[] rows = SamplingTools.sampleWOR(df.rowCount(), df.rowCount() / 2);
+        Frame train = df.mapRows(rows);
+        Frame validation = df.removeRows(rows);
+
+        GBTClassifier model = GBTClassifier.newGBT()
+                .withRTree(RTree.newCART().withMaxDepth(3).withMinCount(5))
+                .withShrinkage(0.5)
+                .withEarlyStopping(EarlyStopping.of(validation, 3))
+                .withRuns(200);
+        model.fit(train, "class");
+
+        EarlyStopping es = model.earlyStopping();
+        assertTrue(es.losses().rowCount() < 200);
+        assertEquals(es.bestRuns() + 3, es.losses().rowCount());
+        assertEquals(es.bestLoss(), es.losses().getDouble(es.bestRuns() - 1), TOL);
+
+        // stages are computed in one pass and the last stage is the model prediction
+        List<CPrediction> stages = new ArrayList<>();
+        model.predictStages(validation, (stage, pred) -> {
+            assertEquals(stages.size() + 1, stage.intValue());
+            stages.add(pred);
+        });
+        assertEquals(es.bestRuns(), stages.size());
+        CPrediction last = stages.get(stages.size() - 1);
+        CPrediction pred = model.predict(validation);
+        for (int i = 0; i < validation.rowCount(); i++) {
+            assertEquals(pred.firstClasses().getInt(i), last.firstClasses().getInt(i));
+            for (int k = 1; k < pred.firstDensity().varCount(); k++) {
+                assertEquals(pred.firstDensity().getDouble(i, k), last.firstDensity().getDouble(i, k), TOL);
+            }
+        }
+
+        // staged validation deviance is the tracked validation loss
+        for (int m = 0; m < stages.size(); m++) {
+            double deviance = 0;
+            for (int i = 0; i < validation.rowCount(); i++) {
+                deviance -= Math.log(stages.get(m).firstDensity().getDouble(i, validation.getInt(i, "class")));
+            }
+            assertEquals(es.losses().getDouble(m), deviance / validation.rowCount(), 1e-9);
+        }
+    }
+
+    @Test
+    public void testEarlyStoppingValidationLabels() throws IOException, URISyntaxException {
+        Frame df = Datasets.loadIrisDataset();
+        RandomSource.setSeed(42);
+        int[] rows = SamplingTools.sampleWOR(df.rowCount(), df.rowCount() / 2);
+        Frame train = df.mapRows(rows);
+        Frame validation = df.removeRows(rows);
+
+        // labels are matched by name and rows with missing target are ignored
+        int[] missing = new int[]{0, 7, 20};
+        EarlyStopping[] es = new EarlyStopping[2];
+        Frame[] validations = new Frame[]{validation.removeRows(missing), relabel(validation, "class", missing)};
+        for (int j = 0; j < 2; j++) {
+            RandomSource.setSeed(42);
+            GBTClassifier model = GBTClassifier.newGBT()
+                    .withRTree(RTree.newCART().withMaxDepth(3).withMinCount(5))
+                    .withShrinkage(0.5)
+                    .withEarlyStopping(EarlyStopping.of(validations[j], 3))
+                    .withRuns(50);
+            model.fit(train, "class");
+            es[j] = model.earlyStopping();
+        }
+        assertEquals(es[0].bestRuns(), es[1].bestRuns());
+        assertEquals(es[0].losses().rowCount(), es[1].losses().rowCount());
+        for (int i = 0; i < es[0].losses().rowCount(); i++) {
+            assertTrue(Double.isFinite(es[1].losses().getDouble(i)));
+            assertEquals(es[0].losses().getDouble(i), es[1].losses().getDouble(i), TOL);
+        }
+    }
+
+    /**
+     * Copies the target of a validation frame into a nominal variable with levels in
+     * reversed order and with missing values on the given rows.
+     */
+    private static Frame relabel(Frame df, String target, int... missingRows) {
+        List<String> levels = new ArrayList<>(df.rvar(target).levels().subList(1, df.rvar(target).levels().size()));
+        Collections.reverse(levels);
+        VarNominal y = VarNominal.empty(0, levels).withName(target);
+        for (int i = 0; i < df.rowCount(); i++) {
+            if (Arrays.binarySearch(missingRows, i) >= 0) {
+                y.addMissing();
+            } else {
+                y.addLabel(df.getLabel(i, target));
+            }
+        }
+        return df.removeVars(target).bindVars(y);
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.classifier.tree.ctree;
+
+import org.junit.Before;
+import org.junit.Test;
+import rapaio.core.RandomSource;
+import rapaio.data.Frame;
+import rapaio.data.SolidFrame;
+import rapaio.data.Var;
+import rapaio.data.VarDouble;
+import rapaio.data.VarNominal;
+import rapaio.ml.classifier.CPrediction;
+import rapaio.ml.classifier.tree.CTree;
+import rapaio.ml.classifier.tree.CTreePruning;
+
+import static org.junit.Assert.*;
+
+public class CTreePruningTest {
+
+    private Frame train;
+    private Frame test;
+
+    @Before
+    public void setUp() {
+        RandomSource.setSeed(1234);
+        train = noisy(400);
+        test = noisy(400);
+    }
+
+    // two informative features, one noise feature and 20% label noise
+    private Frame noisy(int n) {
+        VarDouble x1 = VarDouble.empty(n).withName("x1");
+        VarDouble x2 = VarDouble.empty(n).withName("x2");
+        VarDouble x3 = VarDouble.empty(n).withName("x3");
+        VarNominal y = VarNominal.empty(n, "a", "b").withName("y");
+        for (int i = 0; i < n; i++) {
+            double a = RandomSource.nextDouble();
+            double b = RandomSource.nextDouble();
+            x1.setDouble(i, a);
+            x2.setDouble(i, b);
+            x3.setDouble(i, RandomSource.nextDouble());
+            boolean label = a + b > 1;
+            if (RandomSource.nextDouble() < 0.2) {
+                label = !label;
+            }
+            y.setLabel(i, label ? "a" : "b");
+        }
+        return SolidFrame.byVars(x1, x2, x3, y);
+    }
+
+    private double errors(CTree tree, Frame df) {
+        CPrediction pred = tree.predict(df, true, false);
+        Var classes = pred.firstClasses();
+        double count = 0;
+        for (int i = 0; i < df.rowCount(); i++) {
+            if (!classes.getLabel(i).equals(df.getLabel(i, "y"))) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Test
+    public void testHeldOut() {
+        CTree full = CTree.newCART();
+        full.fit(train, "y");
+
+        CTree pruned = CTree.newCART().withPruning(CTreePruning.COST_COMPLEXITY, test);
+        pruned.fit(train, "y");
+
+        assertTrue(pruned.countNodes(false) < full.countNodes(false));
+        // the full tree is part of the evaluated sequence
+        assertTrue(errors(pruned, test) <= errors(full, test));
+        assertTrue(errors(pruned, train) >= errors(full, train));
+    }
+
+    @Test
+    public void testCrossValidation() {
+        CTree full = CTree.newCART();
+        full.fit(train, "y");
+
+        CTree pruned = CTree.newCART().withPruning(CTreePruning.costComplexityCV(5));
+        pruned.fit(train, "y");
+
+        assertTrue(pruned.countNodes(false) < full.countNodes(false));
+        assertTrue(pruned.countNodes(false) >= 1);
+        assertTrue(errors(pruned, test) < 0.35 * test.rowCount());
+    }
+
+    @Test
+    public void testPureTree() {
+        Frame df = train.solidCopy();
+        for (int i = 0; i < df.rowCount(); i++) {
+            df.setLabel(i, "y", "a");
+        }
+        CTree tree = CTree.newCART().withPruning(CTreePruning.COST_COMPLEXITY, test);
+        tree.fit(df, "y");
+        assertEquals(1, tree.countNodes(false));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidFolds() {
+        CTreePruning.costComplexityCV(1);
+    }
+}
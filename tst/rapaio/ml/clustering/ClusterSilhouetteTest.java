@@ -1,8 +1,19 @@
 package rapaio.ml.clustering;
 
 import org.junit.Test;
+import rapaio.core.RandomSource;
+import rapaio.data.Frame;
+import rapaio.data.VRange;
+import rapaio.data.VType;
 import rapaio.data.VarInt;
 import rapaio.data.Var;
+import rapaio.datasets.Datasets;
+import rapaio.ml.common.distance.Distance;
+import rapaio.util.Pair;
+
+import java.io.IOException;
+
+import static org.junit.Assert.*;
 
 /**
  * Created by <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a> on 9/13/17.
@@ -45,4 +56,93 @@ public class ClusterSilhouetteTest {
 
     }
 
+    @Test
+    public void pointsTest() throws IOException {
+        RandomSource.setSeed(123);
+        Frame iris = Datasets.loadIrisDataset();
+        Var asgn = iris.rvar("class");
+        Frame df = iris.mapVars(VRange.onlyTypes(VType.DOUBLE));
+        String[] varNames = df.varNames();
+
+        ClusterSilhouette exact = ClusterSilhouette.from(asgn,
+                DistanceMatrix.from(df, varNames, Distance.EUCLIDEAN), false);
+        ClusterSilhouette points = ClusterSilhouette.from(df, asgn, Distance.EUCLIDEAN, varNames);
+
+        assertArrayEquals(exact.clusterIds(), points.clusterIds());
+        assertArrayEquals(exact.clusterScores(), points.clusterScores(), 1e-12);
+        assertEquals(exact.overallScore(), points.overallScore(), 1e-12);
+        assertEquals(0, points.overallScoreStdError(), 1e-12);
+        for (int i = 0; i < df.rowCount(); i++) {
+            assertEquals(exact.score(i), points.score(i), 1e-12);
+        }
+
+        ClusterSilhouette sampled = ClusterSilhouette.sampled(df, asgn, Distance.EUCLIDEAN, 60, varNames);
+        assertEquals(60, sampled.evaluatedRows().length);
+        assertTrue(sampled.overallScoreStdError() > 0);
+        assertEquals(exact.overallScore(), sampled.overallScore(), 4 * sampled.overallScoreStdError());
+        for (int row : sampled.evaluatedRows()) {
+            assertEquals(exact.score(row), sampled.score(row), 1e-12);
+        }
+
+        ClusterSilhouette full = ClusterSilhouette.sampled(df, asgn, Distance.EUCLIDEAN, 1000, varNames);
+        assertEquals(exact.overallScore(), full.overallScore(), 1e-12);
+        assertEquals(0, full.overallScoreStdError(), 1e-12);
+    }
+
+    @Test
+    public void simplifiedTest() throws IOException {
+        RandomSource.setSeed(123);
+        Frame df = Datasets.loadIrisDataset().mapVars(VRange.onlyTypes(VType.DOUBLE));
+
+        KMeans kMeans = new KMeans().withK(3).withNStart(5);
+        kMeans.cluster(df, df.varNames());
+
+        ClusterSilhouette fromKMeans = ClusterSilhouette.simplified(kMeans, df);
+        ClusterSilhouette fromMeans = ClusterSilhouette.simplified(df, kMeans.clusterAssignment(), Distance.EUCLIDEAN, df.varNames());
+        ClusterSilhouette exact = ClusterSilhouette.from(df, kMeans.clusterAssignment(), Distance.EUCLIDEAN, df.varNames());
+
+        assertEquals(fromMeans.overallScore(), fromKMeans.overallScore(), 1e-2);
+        // simplified silhouette approximates the exact one
+        assertTrue(fromKMeans.overallScore() > 0.5);
+        assertEquals(exact.overallScore(), fromKMeans.overallScore(), 0.2);
+        for (int i = 0; i < df.rowCount(); i++) {
+            assertTrue(fromKMeans.score(i) >= -1 && fromKMeans.score(i) <= 1);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void singleClusterTest() throws IOException {
+        Frame df = Datasets.loadIrisDataset().mapVars(VRange.onlyTypes(VType.DOUBLE));
+        ClusterSilhouette.from(df, VarInt.fill(df.rowCount(), 1), Distance.EUCLIDEAN, df.varNames());
+    }
+
+    @Test
+    public void frameDistanceTest() throws IOException {
+        Frame iris = Datasets.loadIrisDataset();
+        Var asgn = iris.rvar("class");
+        Frame df = iris.mapVars(VRange.onlyTypes(VType.DOUBLE));
+
+        // distance without computation on arrays
+        Distance frameOnly = new Distance() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public String name() {
+                return "frameOnly";
+            }
+
+            @Override
+            public Pair<Double, Double> compute(Frame s, int sRow, Frame t, int tRow, String... varNames) {
+                return Distance.EUCLIDEAN.compute(s, sRow, t, tRow, varNames);
+            }
+        };
+
+        ClusterSilhouette expected = ClusterSilhouette.simplified(df, asgn, Distance.EUCLIDEAN, df.varNames());
+        ClusterSilhouette actual = ClusterSilhouette.simplified(df, asgn, frameOnly, df.varNames());
+        assertEquals(expected.overallScore(), actual.overallScore(), 1e-12);
+
+        expected = ClusterSilhouette.from(df, asgn, Distance.EUCLIDEAN, df.varNames());
+        actual = ClusterSilhouette.from(df, asgn, frameOnly, df.varNames());
+        assertArrayEquals(expected.clusterScores(), actual.clusterScores(), 1e-12);
+    }
 }
@@ -0,0 +1,87 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.common;
+
+import org.junit.Test;
+import rapaio.data.Frame;
+import rapaio.data.SolidFrame;
+import rapaio.data.VarDouble;
+import rapaio.ml.regression.boost.gbt.GBTLossDeviance;
+
+import static org.junit.Assert.*;
+
+public class EarlyStoppingTest {
+
+    @Test
+    public void testNotFiniteLoss() {
+        Frame df = SolidFrame.byVars(VarDouble.seq(3).withName("y"));
+        EarlyStopping es = EarlyStopping.of(df, 2);
+        assertFalse(es.update(Double.NaN));
+        assertTrue(es.update(Double.NaN));
+        assertEquals(0, es.bestRuns());
+        assertEquals(2, es.runsToKeep(2));
+
+        es = es.newInstance();
+        assertFalse(es.update(Double.NaN));
+        assertFalse(es.update(1.0));
+        assertFalse(es.update(Double.NaN));
+        assertTrue(es.update(2.0));
+        assertEquals(2, es.bestRuns());
+        assertEquals(2, es.runsToKeep(4));
+        assertEquals(1.0, es.bestLoss(), 0);
+    }
+
+    @Test
+    public void testValidationRows() {
+        Frame df = SolidFrame.byVars(
+                VarDouble.copy(1, Double.NaN, 3, Double.NaN).withName("y"),
+                VarDouble.copy(1, 2, 3, 4).withName("x"));
+        EarlyStopping es = EarlyStopping.of(df, 2);
+        assertSame(df, es.validation("x"));
+        Frame validation = es.validation("y");
+        assertEquals(2, validation.rowCount());
+        assertEquals(1, validation.getDouble(0, "x"), 0);
+        assertEquals(3, validation.getDouble(1, "x"), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testValidationWithoutTarget() {
+        Frame df = SolidFrame.byVars(VarDouble.fill(3, Double.NaN).withName("y"));
+        EarlyStopping.of(df, 2).validation("y");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEmptyValidation() {
+        EarlyStopping.of(SolidFrame.byVars(VarDouble.empty().withName("y")), 2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testLossNotAvailable() {
+        new GBTLossDeviance(3).loss(VarDouble.seq(3), VarDouble.seq(3));
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.common.distance;
+
+import org.junit.Test;
+import rapaio.data.Frame;
+import rapaio.util.Pair;
+
+import static org.junit.Assert.*;
+
+public class DistanceTest {
+
+    private static final double TOL = 1e-12;
+
+    @Test
+    public void testArrayCompute() {
+        // distance which implements only the computation on frames
+        Distance frameOnly = new Distance() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public String name() {
+                return "frameOnly";
+            }
+
+            @Override
+            public Pair<Double, Double> compute(Frame s, int sRow, Frame t, int tRow, String... varNames) {
+                return Distance.EUCLIDEAN.compute(s, sRow, t, tRow, varNames);
+            }
+        };
+
+        double[] s = new double[]{1, 2, Double.NaN, 4};
+        double[] t = new double[]{2, 0, 1, 7};
+
+        assertFalse(frameOnly.hasArrayCompute());
+        assertTrue(Distance.EUCLIDEAN.hasArrayCompute());
+
+        Pair<Double, Double> expected = Distance.EUCLIDEAN.compute(s, t);
+        Pair<Double, Double> actual = frameOnly.compute(s, t);
+        assertEquals(Math.sqrt(14), expected._1, TOL);
+        assertEquals(14, expected._2, TOL);
+        assertEquals(expected._1, actual._1, TOL);
+        assertEquals(expected._2, actual._2, TOL);
+        assertEquals(expected._1, frameOnly.distance(s, t), TOL);
+        assertEquals(expected._2, frameOnly.error(s, t), TOL);
+        assertEquals(expected._1, Distance.EUCLIDEAN.distance(s, t), TOL);
+        assertEquals(expected._2, Distance.EUCLIDEAN.error(s, t), TOL);
+    }
+}
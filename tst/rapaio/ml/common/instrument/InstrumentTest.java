@@ -0,0 +1,155 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.common.instrument;
+
+import org.junit.Before;
+import org.junit.Test;
+import rapaio.core.RandomSource;
+import rapaio.data.Frame;
+import rapaio.datasets.Datasets;
+import rapaio.ml.classifier.ensemble.CForest;
+import rapaio.ml.classifier.svm.BinarySMO;
+import rapaio.ml.classifier.svm.kernel.RBFKernel;
+import rapaio.ml.classifier.tree.CTree;
+import rapaio.ml.regression.boost.GBTRegression;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class InstrumentTest {
+
+    private Frame iris;
+    private List<FitReport> reports;
+
+    @Before
+    public void setUp() throws Exception {
+        RandomSource.setSeed(123);
+        iris = Datasets.loadIrisDataset();
+        reports = new ArrayList<>();
+    }
+
+    @Test
+    public void testDisabled() {
+        Instrument ins = Instrument.NONE;
+        assertFalse(ins.isEnabled());
+        assertEquals(0, ins.start());
+        ins.stop(Instrument.Phase.FIT, 0);
+        ins.count(Instrument.Counter.NODES, 10);
+
+        CTree tree = CTree.newCART();
+        tree.fit(iris, "class");
+        assertNull(tree.fitSink());
+    }
+
+    @Test
+    public void testCounters() {
+        Instrument ins = Instrument.enabled("test");
+        long start = ins.start();
+        ins.stop(Instrument.Phase.SAMPLING, start);
+        ins.stop(Instrument.Phase.SAMPLING, start);
+        ins.count(Instrument.Counter.KERNEL_CACHE_HITS, 3);
+        ins.count(Instrument.Counter.KERNEL_CACHE_MISSES, 1);
+
+        FitReport report = ins.report();
+        assertEquals("test", report.name());
+        assertEquals(2, report.calls(Instrument.Phase.SAMPLING));
+        assertEquals(0, report.calls(Instrument.Phase.FIT));
+        assertEquals(0.75, report.kernelCacheHitRate(), 1e-12);
+        assertTrue(report.wallNanos() > 0);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testDisabledReport() {
+        Instrument.NONE.report();
+    }
+
+    @Test
+    public void testTree() {
+        CTree tree = CTree.newCART();
+        tree.withFitSink(reports::add);
+        tree.fit(iris, "class");
+
+        assertEquals(1, reports.size());
+        FitReport report = reports.get(0);
+        assertEquals(1, report.calls(Instrument.Phase.PREPARE));
+        assertEquals(1, report.calls(Instrument.Phase.FIT));
+        assertTrue(report.calls(Instrument.Phase.SPLIT_SEARCH) > 0);
+        assertTrue(report.calls(Instrument.Phase.PARTITION) > 0);
+        assertTrue(report.count(Instrument.Counter.NODES) > 1);
+        assertTrue(report.count(Instrument.Counter.CANDIDATES) > 0);
+        assertTrue(report.count(Instrument.Counter.ROWS_SCANNED) >= 4 * iris.rowCount());
+        assertTrue(Double.isNaN(report.kernelCacheHitRate()));
+
+        tree.predict(iris);
+        assertEquals(2, reports.size());
+        assertEquals(1, reports.get(1).calls(Instrument.Phase.PREDICT));
+        assertEquals(0, reports.get(1).calls(Instrument.Phase.FIT));
+        assertTrue(reports.get(1).summary().contains("PREDICT"));
+    }
+
+    @Test
+    public void testEnsembles() {
+        CForest rf = CForest.newRF().withRuns(5);
+        rf.withFitSink(reports::add);
+        rf.fit(iris, "class");
+
+        // weak learners accumulate into the report of the forest
+        assertEquals(1, reports.size());
+        FitReport report = reports.get(0);
+        assertEquals(6, report.calls(Instrument.Phase.FIT));
+        assertEquals(5, report.calls(Instrument.Phase.SAMPLING));
+        assertTrue(report.count(Instrument.Counter.NODES) >= 5);
+
+        reports.clear();
+        GBTRegression gbt = new GBTRegression().withRuns(5);
+        gbt.withFitSink(reports::add);
+        gbt.fit(iris.removeVars("class"), "sepal-length");
+
+        assertEquals(1, reports.size());
+        report = reports.get(0);
+        assertEquals(5, report.calls(Instrument.Phase.SAMPLING));
+        assertTrue(report.count(Instrument.Counter.NODES) >= 5);
+    }
+
+    @Test
+    public void testKernelCache() throws IOException {
+        Frame sonar = Datasets.loadSonar();
+        BinarySMO smo = new BinarySMO().withKernel(new RBFKernel(1)).withC(1);
+        smo.withFitSink(reports::add);
+        smo.fit(sonar, "Class");
+
+        assertEquals(1, reports.size());
+        FitReport report = reports.get(0);
+        assertTrue(report.count(Instrument.Counter.KERNEL_CACHE_MISSES) > 0);
+        assertTrue(report.kernelCacheHitRate() > 0);
+        assertTrue(report.kernelCacheHitRate() < 1);
+    }
+}
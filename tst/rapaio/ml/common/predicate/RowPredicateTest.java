@@ -77,4 +77,46 @@ public class RowPredicateTest {
         assertEquals(100, df.stream().filter(s -> RowPredicate.binEqual("x", true).test(s.row(), s.frame())).count()
                 + df.stream().filter(s -> RowPredicate.binEqual("x", false).test(s.row(), s.frame())).count());
     }
+
+    @Test
+    public void testBind() {
+        RandomSource.setSeed(123);
+        VarDouble x = VarDouble.from(50, MTools::sqrt).withName("x");
+        VarBinary b = VarBinary.from(50, row -> row % 3 == 0).withName("b");
+        for (int row : SamplingTools.sampleWOR(50, 10)) {
+            x.setMissing(row);
+            b.setMissing((row + 1) % 50);
+        }
+        Frame df = SolidFrame.byVars(b, x);
+        String[] names = new String[]{"b", "x"};
+
+        RowPredicate[] predicates = new RowPredicate[]{
+                RowPredicate.all(),
+                RowPredicate.numLessEqual("x", 4),
+                RowPredicate.numLess("x", 4),
+                RowPredicate.numGreater("x", 4),
+                RowPredicate.numGreaterEqual("x", 4),
+                RowPredicate.binEqual("b", true),
+                RowPredicate.binNotEqual("b", true)
+        };
+        double[] values = new double[2];
+        for (RowPredicate predicate : predicates) {
+            ArrayPredicate bound = predicate.bind(names);
+            for (int i = 0; i < df.rowCount(); i++) {
+                values[0] = df.getDouble(i, 0);
+                values[1] = df.getDouble(i, 1);
+                assertEquals(predicate.toString(), predicate.test(i, df), bound.test(values));
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBindNominal() {
+        RowPredicate.nomEqual("x", "a").bind(new String[]{"x"});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBindUnknownName() {
+        RowPredicate.numLess("x", 1).bind(new String[]{"y"});
+    }
 }
@@ -0,0 +1,83 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.regression;
+
+import org.junit.Test;
+import rapaio.core.RandomSource;
+import rapaio.data.Frame;
+import rapaio.data.VRange;
+import rapaio.data.filter.frame.FStandardize;
+import rapaio.datasets.Datasets;
+import rapaio.ml.regression.ensemble.RForest;
+import rapaio.ml.regression.tree.RTree;
+
+import java.io.IOException;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+public class RScorerTest {
+
+    @Test
+    public void testDirectScorers() throws IOException {
+        Frame df = Datasets.loadISLAdvertising().removeVars(VRange.of("ID")).solidCopy();
+        // missing values are fitted as weighted means of children in trees
+        for (int i = 0; i < df.rowCount(); i += 5) {
+            df.setMissing(i, i % 3);
+        }
+        RandomSource.setSeed(42);
+        Regression[] models = new Regression[]{
+                RTree.newCART().withMaxDepth(6),
+                RForest.newRF().withRuns(20)
+        };
+        for (Regression model : models) {
+            model.fit(df, "Sales");
+            RScorer scorer = model.scorer();
+            assertFalse(model.name(), scorer instanceof FrameRScorer);
+            assertArrayEquals(new String[]{"TV", "Radio", "Newspaper"}, scorer.inputNames());
+
+            Frame inputs = df.mapVars(scorer.inputNames());
+            RPrediction pred = model.predict(inputs.solidCopy(), false);
+            IntStream.range(0, df.rowCount()).parallel().forEach(i -> {
+                double[] row = new double[scorer.inputNames().length];
+                for (int j = 0; j < row.length; j++) {
+                    row[j] = inputs.getDouble(i, j);
+                }
+                assertEquals(pred.firstFit().getDouble(i), scorer.score(row), 1e-9);
+            });
+        }
+    }
+
+    @Test
+    public void testFilteredTree() throws IOException {
+        Frame df = Datasets.loadISLAdvertising().removeVars(VRange.of("ID"));
+        Regression model = RTree.newCART().withInputFilters(FStandardize.on(VRange.of("TV")));
+        model.fit(df.solidCopy(), "Sales");
+        assertTrue(model.scorer() instanceof FrameRScorer);
+    }
+}
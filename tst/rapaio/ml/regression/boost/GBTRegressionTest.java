@@ -0,0 +1,81 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.regression.boost;
+
+import org.junit.Test;
+import rapaio.core.RandomSource;
+import rapaio.core.SamplingTools;
+import rapaio.data.Frame;
+import rapaio.data.VarDouble;
+import rapaio.datasets.Datasets;
+import rapaio.ml.common.EarlyStopping;
+import rapaio.ml.regression.RPrediction;
+import rapaio.ml.regression.boost.gbt.GBTRegressionLossL1;
+import rapaio.ml.regression.tree.RTree;
+
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+public class GBTRegressionTest {
+
+    @Test
+    public void testEarlyStoppingAndStages() throws IOException {
+        RandomSource.setSeed(42);
+        Frame df = Datasets.loadHousing();
+        int[] rows = SamplingTools.sampleWOR(df.rowCount(), df.rowCount() / 2);
+        Frame train = df.mapRows(rows);
+        Frame validation = df.removeRows(rows);
+
+        GBTRegression model = new GBTRegression()
+                .withRegressor(RTree.newCART().withMaxDepth(6).withMinCount(2))
+                .withEarlyStopping(EarlyStopping.of(validation, 5))
+                .withRuns(500);
+        model.fit(train, "MEDV");
+
+        EarlyStopping es = model.earlyStopping();
+        assertTrue(es.losses().rowCount() < 500);
+        assertEquals(es.bestRuns() + 5, es.losses().rowCount());
+
+        VarDouble losses = VarDouble.empty();
+        RPrediction[] last = new RPrediction[1];
+        model.predictStages(validation, false, (stage, pred) -> {
+            assertEquals(losses.rowCount() + 1, stage.intValue());
+            losses.addDouble(new GBTRegressionLossL1().loss(validation.rvar("MEDV"), pred.firstFit()));
+            last[0] = pred;
+        });
+        assertEquals(es.bestRuns(), losses.rowCount());
+        for (int i = 0; i < losses.rowCount(); i++) {
+            assertEquals(es.losses().getDouble(i), losses.getDouble(i), 1e-9);
+        }
+        RPrediction pred = model.predict(validation, false);
+        for (int i = 0; i < validation.rowCount(); i++) {
+            assertEquals(pred.firstFit().getDouble(i), last[0].firstFit().getDouble(i), 1e-9);
+        }
+    }
+}
@@ -31,7 +31,10 @@ import rapaio.data.VRange;
 import rapaio.data.Var;
 import rapaio.data.VarDouble;
 import rapaio.data.filter.frame.FIntercept;
+import rapaio.data.filter.frame.FStandardize;
 import rapaio.datasets.Datasets;
+import rapaio.ml.regression.RPrediction;
+import rapaio.ml.regression.RScorer;
 
 import java.io.IOException;
 import java.time.Instant;
@@ -40,6 +43,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
 /**
@@ -252,4 +256,28 @@ public class LinearRegressionTest {
         lmfit.printSummary();
     }
 
+    @Test
+    public void testScorer() throws IOException {
+        Frame df = Datasets.loadISLAdvertising().removeVars(VRange.of("ID"));
+
+        for (AbstractLinearRegression lm : new AbstractLinearRegression[]{
+                LinearRegression.newLm(),
+                LinearRegression.newLm().withIntercept(false),
+                RidgeRegression.newRidgeLm(1.5).withCentering(true).withScaling(true),
+                LinearRegression.newLm().withInputFilters(FStandardize.on(VRange.of("TV", "Radio")))}) {
+            lm.fit(df.solidCopy(), "Sales");
+
+            RScorer scorer = lm.scorer();
+            assertArrayEquals(new String[]{"TV", "Radio", "Newspaper"}, scorer.inputNames());
+            Frame inputs = df.mapVars(scorer.inputNames());
+            RPrediction pred = lm.predict(inputs.solidCopy());
+            double[] row = new double[3];
+            for (int i = 0; i < df.rowCount(); i++) {
+                for (int j = 0; j < row.length; j++) {
+                    row[j] = inputs.getDouble(i, j);
+                }
+                assertEquals(pred.firstFit().getDouble(i), scorer.score(row), 1e-9);
+            }
+        }
+    }
 }
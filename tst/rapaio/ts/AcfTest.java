@@ -2,7 +2,14 @@ package rapaio.ts;
 
 import org.junit.Before;
 import org.junit.Test;
+import rapaio.core.RandomSource;
+import rapaio.core.distributions.Normal;
+import rapaio.data.Var;
 import rapaio.data.VarDouble;
+import rapaio.data.VarInt;
+
+import java.util.Arrays;
+import java.util.List;
 
 import static org.junit.Assert.*;
 
@@ -85,4 +92,40 @@ public class AcfTest {
             assertEquals(cov3.getDouble(i), acf3.covariance().getDouble(i), TOL);
         }
     }
+
+    @Test
+    public void fftTest() {
+        RandomSource.setSeed(1234);
+        Normal normal = Normal.std();
+        for (int n : new int[]{20, 100, 1_000}) {
+            VarDouble ts = VarDouble.from(n, normal::sampleNext);
+            VarInt lags = VarInt.seq(0, n + 2);
+            Acf direct = Acf.from(ts, lags, Acf.Method.DIRECT);
+            Acf fft = Acf.from(ts, lags, Acf.Method.FFT);
+            for (int i = 0; i < lags.rowCount(); i++) {
+                assertEquals(direct.correlation().getDouble(i), fft.correlation().getDouble(i), 1e-12);
+                assertEquals(direct.covariance().getDouble(i), fft.covariance().getDouble(i), 1e-12);
+            }
+        }
+
+        // sparse lags and long series use automatic switch
+        VarDouble ts = VarDouble.from(100_000, normal::sampleNext);
+        Acf auto = Acf.from(ts, 1_000);
+        Acf direct = Acf.from(ts, VarInt.seq(0, 1_000), Acf.Method.DIRECT);
+        for (int i = 0; i < 1_000; i++) {
+            assertEquals(direct.correlation().getDouble(i), auto.correlation().getDouble(i), 1e-12);
+        }
+    }
+
+    @Test
+    public void batchTest() {
+        List<Var> series = Arrays.asList(ts1, ts2, ts3, ts3.solidCopy(), ts2.solidCopy());
+        List<Acf> acfs = Acf.from(series, 20);
+        assertEquals(series.size(), acfs.size());
+        for (int i = 0; i < series.size(); i++) {
+            Acf expected = Acf.from(series.get(i), 20);
+            assertTrue(expected.correlation().deepEquals(acfs.get(i).correlation()));
+            assertTrue(expected.covariance().deepEquals(acfs.get(i).covariance()));
+        }
+    }
 }
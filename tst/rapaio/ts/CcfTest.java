@@ -0,0 +1,100 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 Aurelian Tutuianu
+ *    Copyright 2014 Aurelian Tutuianu
+ *    Copyright 2015 Aurelian Tutuianu
+ *    Copyright 2016 Aurelian Tutuianu
+ *    Copyright 2017 Aurelian Tutuianu
+ *    Copyright 2018 Aurelian Tutuianu
+ *    Copyright 2019 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ts;
+
+import org.junit.Before;
+import org.junit.Test;
+import rapaio.core.RandomSource;
+import rapaio.core.distributions.Normal;
+import rapaio.data.VarDouble;
+import rapaio.data.VarInt;
+
+import static org.junit.Assert.*;
+
+public class CcfTest {
+
+    private static final double TOL = 1e-12;
+
+    @Before
+    public void setUp() {
+        RandomSource.setSeed(1234);
+    }
+
+    @Test
+    public void autoCorrelationTest() {
+        VarDouble ts = VarDouble.from(200, Normal.std()::sampleNext);
+        Ccf ccf = Ccf.from(ts, ts, 10);
+        Acf acf = Acf.from(ts, 11);
+        assertEquals(21, ccf.lags().rowCount());
+        for (int i = 0; i <= 10; i++) {
+            // auto correlation is symmetric
+            assertEquals(acf.correlation().getDouble(i), ccf.correlation().getDouble(10 + i), TOL);
+            assertEquals(acf.correlation().getDouble(i), ccf.correlation().getDouble(10 - i), TOL);
+            assertEquals(acf.covariance().getDouble(i), ccf.covariance().getDouble(10 + i), TOL);
+        }
+    }
+
+    @Test
+    public void shiftedTest() {
+        // y[t] = x[t+3], thus correlation between x[t+3] and y[t] is close to 1
+        Normal normal = Normal.std();
+        VarDouble x = VarDouble.from(1_003, normal::sampleNext);
+        VarDouble y = VarDouble.from(1_000, row -> x.getDouble(row + 3));
+        VarDouble xx = VarDouble.from(1_000, row -> x.getDouble(row));
+
+        Ccf ccf = Ccf.from(xx, y, 5);
+        assertEquals(3, ccf.lags().getInt(8));
+        assertEquals(1.0, ccf.correlation().getDouble(8), 0.01);
+        for (int i = 0; i < ccf.lags().rowCount(); i++) {
+            if (i != 8) {
+                assertTrue(Math.abs(ccf.correlation().getDouble(i)) < 0.1);
+            }
+        }
+    }
+
+    @Test
+    public void fftTest() {
+        Normal normal = Normal.std();
+        for (int n : new int[]{10, 101, 1_000}) {
+            VarDouble x = VarDouble.from(n, normal::sampleNext);
+            VarDouble y = VarDouble.from(n, normal::sampleNext);
+            VarInt lags = VarInt.seq(-n - 1, 2 * n + 3);
+            Ccf direct = Ccf.from(x, y, lags, Acf.Method.DIRECT);
+            Ccf fft = Ccf.from(x, y, lags, Acf.Method.FFT);
+            for (int i = 0; i < lags.rowCount(); i++) {
+                assertEquals(direct.correlation().getDouble(i), fft.correlation().getDouble(i), TOL);
+                assertEquals(direct.covariance().getDouble(i), fft.covariance().getDouble(i), TOL);
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDifferentLength() {
+        Ccf.from(VarDouble.seq(10), VarDouble.seq(11), 2);
+    }
+}